@@ -0,0 +1,207 @@
+/**
+ * Animates an angle towards a target angle.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Animates an angle towards a target angle, along the shortest arc.
+ *
+ * The angle approaches the target exponentially : every frame the remaining
+ * difference decreases depending on the time passed since the previous frame,
+ * so the animation speed doesn't depend on the frame rate.
+ * When the remaining difference is smaller than the settle threshold,
+ * the angle snaps to the target and the animation is settled.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AngleAnimator {
+    /**
+     * Default time constant in nanoseconds,
+     * time in which the remaining difference decreases to 1/e (37%).
+     */
+    public static final long DEFAULT_TIME_CONSTANT
+            = 100 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Default settle threshold in degrees.
+     */
+    public static final double DEFAULT_SETTLE_THRESHOLD = 0.1;
+
+    /**
+     * Frame interval assumed for the first frame of an animation,
+     * in nanoseconds (60 frames per second).
+     */
+    public static final long FIRST_FRAME_INTERVAL
+            = 16 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Maximum frame interval in nanoseconds,
+     * longer intervals (fe. when frames were dropped) are capped,
+     * to avoid the angle jumping to the target.
+     */
+    public static final long MAX_FRAME_INTERVAL = 100 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Time constant in nanoseconds.
+     */
+    private final long mTimeConstant;
+
+    /**
+     * Current angle (0-360°).
+     */
+    private double mCurrent = 0;
+
+    /**
+     * Target angle (0-360°).
+     */
+    private double mTarget = 0;
+
+    /**
+     * Settle threshold in degrees.
+     */
+    private double mSettleThreshold = DEFAULT_SETTLE_THRESHOLD;
+
+    /**
+     * Timestamp of the previous frame in nanoseconds,
+     * 0 if no frame was calculated since the animation started.
+     */
+    private long mPreviousFrame = 0;
+
+    /**
+     * Constructor.
+     */
+    public AngleAnimator() {
+        this(DEFAULT_TIME_CONSTANT);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param timeConstant time constant in nanoseconds
+     */
+    public AngleAnimator(final long timeConstant) {
+        if (timeConstant <= 0) {
+            throw new IllegalArgumentException(
+                    "timeConstant should be a non-zero positive value");
+        }
+
+        mTimeConstant = timeConstant;
+    }
+
+    /**
+     * Sets the target angle.
+     *
+     * @param target target angle in degrees
+     */
+    public final void setTarget(final double target) {
+        if (isSettled()) {
+            // new animation starts
+            mPreviousFrame = 0;
+        }
+        mTarget = AngleMath.normalize(target);
+    }
+
+    /**
+     * Get target angle.
+     *
+     * @return target angle (0-360°)
+     */
+    public final double getTarget() {
+        return mTarget;
+    }
+
+    /**
+     * Sets the current angle and the target angle, without animating.
+     *
+     * @param angle angle in degrees
+     */
+    public final void jumpTo(final double angle) {
+        mTarget = AngleMath.normalize(angle);
+        mCurrent = mTarget;
+        mPreviousFrame = 0;
+    }
+
+    /**
+     * Get current angle.
+     *
+     * @return current angle (0-360°)
+     */
+    public final double getCurrent() {
+        return mCurrent;
+    }
+
+    /**
+     * Sets the settle threshold,
+     * the difference with the target below which the angle snaps to the target.
+     *
+     * @param threshold settle threshold in degrees
+     */
+    public final void setSettleThreshold(final double threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(
+                    "threshold should not be negative");
+        }
+
+        mSettleThreshold = threshold;
+    }
+
+    /**
+     * Checks if the angle reached the target.
+     *
+     * @return true if the current angle equals the target angle
+     */
+    public final boolean isSettled() {
+        return mCurrent == mTarget;
+    }
+
+    /**
+     * Calculates the angle for a frame.
+     *
+     * @param frameTime timestamp of the frame in nanoseconds
+     * @return true if the animation is settled after this frame
+     */
+    public final boolean step(final long frameTime) {
+        if (isSettled()) {
+            mPreviousFrame = 0;
+            return true;
+        }
+
+        long interval = FIRST_FRAME_INTERVAL;
+        if (mPreviousFrame > 0) {
+            interval = Math.min(Math.max(frameTime - mPreviousFrame, 0),
+                    MAX_FRAME_INTERVAL);
+        }
+        mPreviousFrame = frameTime;
+
+        double difference = AngleMath.shortestDifference(mCurrent, mTarget);
+        double remaining = difference
+                * Math.exp(-1 * (double) interval / mTimeConstant);
+
+        if (Math.abs(remaining) <= mSettleThreshold) {
+            mCurrent = mTarget;
+            mPreviousFrame = 0;
+            return true;
+        }
+
+        mCurrent = AngleMath.normalize(mTarget - remaining);
+        return false;
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * Angle math kernel.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Angle math kernel, all angles are in degrees.
+ *
+ * The static methods normalize angles and calculate sine and cosine
+ * with the accuracy of java.lang.Math.
+ *
+ * An instance holds a sine table, with a size based on the requested
+ * maximum error. The sine and cosine of an angle are calculated from
+ * the nearest table entry, corrected with a short Taylor series
+ * of the remaining angle (using the angle addition formulas),
+ * so both are calculated with one table lookup.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AngleMath {
+    /**
+     * Index of the sine in a sincos result array.
+     */
+    public static final int SIN = 0;
+
+    /**
+     * Index of the cosine in a sincos result array.
+     */
+    public static final int COS = 1;
+
+    /**
+     * Default maximum error of the table based sine and cosine.
+     * Multiplied with a radius of a few thousand pixels,
+     * the error is still far below a pixel.
+     */
+    public static final double DEFAULT_MAX_ERROR = 1e-9;
+
+    /**
+     * Minimum table size, so a quarter circle is a whole number of entries.
+     */
+    public static final int MIN_TABLE_SIZE = 4;
+
+    /**
+     * Maximum table size.
+     */
+    public static final int MAX_TABLE_SIZE = 1 << 16;
+
+    /**
+     * Minimal angle value = 0°.
+     */
+    public static final float CIRCLE_ZERO = 0;
+
+    /**
+     * First quarter angle value = 1/2 PI = 90°.
+     */
+    public static final float CIRCLE_1Q = 90;
+
+    /**
+     * Halfway angle value = PI = 180°.
+     */
+    public static final float CIRCLE_HALF = 180;
+
+    /**
+     * Third quarter angle value = 3/2 PI = 270°.
+     */
+    public static final float CIRCLE_3Q = 270;
+
+    /**
+     * Maximal angle value = 360°.
+     */
+    public static final float CIRCLE_FULL = 360;
+
+    /**
+     * Factor of the sine Taylor series term, x^3 / 6.
+     */
+    private static final double SIN_TERM = 1.0 / 6;
+
+    /**
+     * Factor of the cosine Taylor series term, x^2 / 2.
+     */
+    private static final double COS_TERM = 1.0 / 2;
+
+    /**
+     * Factor of the cosine Taylor series term, x^4 / 24.
+     */
+    private static final double COS_TERM2 = 1.0 / 24;
+
+    /**
+     * Error factor of the truncated sine series, x^5 / 120.
+     */
+    private static final double SIN_ERROR = 120;
+
+    /**
+     * Error factor of the truncated cosine series, x^6 / 720.
+     */
+    private static final double COS_ERROR = 720;
+
+    /**
+     * Exponent of the sine error term.
+     */
+    private static final int SIN_ERROR_ORDER = 5;
+
+    /**
+     * Exponent of the cosine error term.
+     */
+    private static final int COS_ERROR_ORDER = 6;
+
+    /**
+     * Rounding error of the table entries and the interpolation,
+     * for angles up to a few turns.
+     */
+    private static final double ROUNDING_ERROR = 1e-14;
+
+    /**
+     * Shared instance, with the default maximum error.
+     */
+    private static final AngleMath DEFAULT_INSTANCE
+            = new AngleMath(DEFAULT_MAX_ERROR);
+
+    /**
+     * Sine table, for angles of a full circle.
+     */
+    private final double[] mSinTable;
+
+    /**
+     * Mask to wrap a table index.
+     */
+    private final int mMask;
+
+    /**
+     * Table index offset of the cosine (a quarter circle).
+     */
+    private final int mCosOffset;
+
+    /**
+     * Number of table entries per degree.
+     */
+    private final double mEntriesPerDegree;
+
+    /**
+     * Angle between table entries in radians.
+     */
+    private final double mRadiansPerEntry;
+
+    /**
+     * Constructor.
+     *
+     * @param maxError maximum error of the calculated sine and cosine
+     */
+    public AngleMath(final double maxError) {
+        if (!(maxError > 0)) {
+            throw new IllegalArgumentException(
+                    "maxError should be a non-zero positive value");
+        }
+
+        // the remaining angle is at most half the angle between entries
+        double maxRemainder
+                = Math.pow(SIN_ERROR * maxError, 1.0 / SIN_ERROR_ORDER);
+        int size = MIN_TABLE_SIZE;
+        while (size < MAX_TABLE_SIZE && Math.PI / size > maxRemainder) {
+            size <<= 1;
+        }
+
+        mSinTable = new double[size];
+        mMask = size - 1;
+        mCosOffset = size / 4;
+        mEntriesPerDegree = size / (double) CIRCLE_FULL;
+        mRadiansPerEntry = 2 * Math.PI / size;
+
+        for (int i = 0; i < size; i++) {
+            mSinTable[i] = Math.sin(i * mRadiansPerEntry);
+        }
+    }
+
+    /**
+     * Returns the instance shared by the whole app,
+     * with the default maximum error.
+     *
+     * @return shared instance
+     */
+    public static AngleMath getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Get sine table size.
+     *
+     * @return number of table entries
+     */
+    public final int getTableSize() {
+        return mSinTable.length;
+    }
+
+    /**
+     * Get maximum error of the calculated sine and cosine.
+     *
+     * @return maximum error
+     */
+    public final double getMaxError() {
+        double maxRemainder = mRadiansPerEntry / 2;
+
+        return Math.pow(maxRemainder, SIN_ERROR_ORDER) / SIN_ERROR
+                + Math.pow(maxRemainder, COS_ERROR_ORDER) / COS_ERROR
+                + ROUNDING_ERROR;
+    }
+
+    /**
+     * Calculates the sine and cosine of an angle, using the sine table.
+     *
+     * @param angle angle in degrees
+     * @param result array, sine is stored at index SIN, cosine at index COS
+     */
+    public final void sincos(final double angle, final double[] result) {
+        double entry = angle * mEntriesPerDegree;
+        long nearest = Math.round(entry);
+        double x = (entry - nearest) * mRadiansPerEntry;
+        double x2 = x * x;
+
+        // the table size is a power of 2, so masking also wraps negative
+        int index = (int) nearest & mMask;
+        double sinA = mSinTable[index];
+        double cosA = mSinTable[(index + mCosOffset) & mMask];
+        double sinX = x - x * x2 * SIN_TERM;
+        double cosX = 1 - x2 * COS_TERM + x2 * x2 * COS_TERM2;
+
+        result[SIN] = sinA * cosX + cosA * sinX;
+        result[COS] = cosA * cosX - sinA * sinX;
+    }
+
+    /**
+     * Calculates the sine of an angle, using the sine table.
+     *
+     * @param angle angle in degrees
+     * @return sine
+     */
+    public final double sin(final double angle) {
+        double entry = angle * mEntriesPerDegree;
+        long nearest = Math.round(entry);
+        double x = (entry - nearest) * mRadiansPerEntry;
+        double x2 = x * x;
+        int index = (int) nearest & mMask;
+
+        return mSinTable[index] * (1 - x2 * COS_TERM + x2 * x2 * COS_TERM2)
+                + mSinTable[(index + mCosOffset) & mMask]
+                    * (x - x * x2 * SIN_TERM);
+    }
+
+    /**
+     * Calculates the cosine of an angle, using the sine table.
+     *
+     * @param angle angle in degrees
+     * @return cosine
+     */
+    public final double cos(final double angle) {
+        double entry = angle * mEntriesPerDegree;
+        long nearest = Math.round(entry);
+        double x = (entry - nearest) * mRadiansPerEntry;
+        double x2 = x * x;
+        int index = (int) nearest & mMask;
+
+        return mSinTable[(index + mCosOffset) & mMask]
+                    * (1 - x2 * COS_TERM + x2 * x2 * COS_TERM2)
+                - mSinTable[index] * (x - x * x2 * SIN_TERM);
+    }
+
+    /**
+     * Calculates the sine and cosine of an angle,
+     * with the accuracy of java.lang.Math.
+     *
+     * @param angle angle in degrees
+     * @param result array, sine is stored at index SIN, cosine at index COS
+     */
+    public static void exactSincos(final double angle, final double[] result) {
+        double radians = Math.toRadians(angle);
+
+        result[SIN] = Math.sin(radians);
+        result[COS] = Math.cos(radians);
+    }
+
+    /**
+     * Normalize an angle to be in the range 0°-360°.
+     * Angles that are already in range, or only need a single wrap,
+     * don't need a division.
+     *
+     * @param angle Angle in degrees
+     * @return Normalized angle in range 0°-360° (360° excluded)
+     */
+    public static double normalize(final double angle) {
+        if (angle >= 0 && angle < CIRCLE_FULL) {
+            return angle;
+        }
+
+        double wrapped = angle < 0 ? angle + CIRCLE_FULL : angle - CIRCLE_FULL;
+        if (wrapped >= 0 && wrapped < CIRCLE_FULL) {
+            return wrapped;
+        }
+
+        wrapped = angle - CIRCLE_FULL * Math.floor(angle / CIRCLE_FULL);
+
+        // a tiny negative angle is rounded to 360°
+        return wrapped >= CIRCLE_FULL ? 0 : wrapped;
+    }
+
+    /**
+     * Get an inverse angle, ie. angle pointing in opposite direction.
+     *
+     * @param angle Angle in degrees (0°-360°)
+     * @return angle in opposite direction (0°-360°)
+     */
+    public static double inverse(final double angle) {
+        return normalize(angle - CIRCLE_HALF);
+    }
+
+    /**
+     * Calculates the shortest difference between two angles,
+     * the difference is positive if the shortest arc is clockwise.
+     *
+     * @param from angle in degrees
+     * @param to angle in degrees
+     * @return difference in degrees (-180°-180°)
+     */
+    public static double shortestDifference(
+            final double from, final double to) {
+        double difference = normalize(to - from);
+
+        return difference > CIRCLE_HALF
+                ? difference - CIRCLE_FULL : difference;
+    }
+}
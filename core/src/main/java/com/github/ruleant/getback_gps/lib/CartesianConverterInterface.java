@@ -0,0 +1,45 @@
+/**
+ * Interface for classes converting coordinates to Cartesian coordinates.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Interface for classes converting coordinates, that can write
+ * the converted Cartesian coordinate to an array,
+ * without creating a converted Coordinate instance.
+ *
+ * Coordinates checks if its converter implements this interface,
+ * so converters that only implement CoordinateConverterInterface
+ * keep working.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface CartesianConverterInterface
+        extends CoordinateConverterInterface {
+    /**
+     * Converts a Coordinate instance to a Cartesian coordinate.
+     *
+     * @param coordinate Unconverted coordinate
+     * @param result array, converted X coordinate is stored
+     *               at index Coordinate.X, Y coordinate at Coordinate.Y
+     */
+    void convertToCartesian(Coordinate coordinate, long[] result);
+}
@@ -60,23 +60,23 @@ public class CircularAverage {
         float lNewValue = newValue;
 
         // increase new value with 360° in case maximum is crossed.
-        if (newValue > FormatUtils.CIRCLE_ZERO && newValue < CROSS_WINDOW
-                && previousValue > (FormatUtils.CIRCLE_FULL - CROSS_WINDOW)
-                && previousValue < FormatUtils.CIRCLE_FULL
-                && Math.abs(newValue + FormatUtils.CIRCLE_FULL - previousValue)
+        if (newValue > AngleMath.CIRCLE_ZERO && newValue < CROSS_WINDOW
+                && previousValue > (AngleMath.CIRCLE_FULL - CROSS_WINDOW)
+                && previousValue < AngleMath.CIRCLE_FULL
+                && Math.abs(newValue + AngleMath.CIRCLE_FULL - previousValue)
                     < CROSS_WINDOW) {
-            lNewValue += FormatUtils.CIRCLE_FULL;
+            lNewValue += AngleMath.CIRCLE_FULL;
             // increase previous value with 360° in case minimum is crossed.
-        } else if (newValue > (FormatUtils.CIRCLE_FULL - CROSS_WINDOW)
-                && newValue < FormatUtils.CIRCLE_FULL
-                && previousValue > FormatUtils.CIRCLE_ZERO
+        } else if (newValue > (AngleMath.CIRCLE_FULL - CROSS_WINDOW)
+                && newValue < AngleMath.CIRCLE_FULL
+                && previousValue > AngleMath.CIRCLE_ZERO
                 && previousValue < CROSS_WINDOW
-                && Math.abs(previousValue + FormatUtils.CIRCLE_FULL - newValue)
+                && Math.abs(previousValue + AngleMath.CIRCLE_FULL - newValue)
                     < CROSS_WINDOW) {
-            lPreviousValue += FormatUtils.CIRCLE_FULL;
+            lPreviousValue += AngleMath.CIRCLE_FULL;
         }
 
-        return (float) FormatUtils.normalizeAngle(
+        return (float) AngleMath.normalize(
                 LowPassFilter.filterValue(lPreviousValue, lNewValue, alpha));
     }
 }
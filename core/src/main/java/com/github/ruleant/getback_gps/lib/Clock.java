@@ -0,0 +1,48 @@
+/**
+ * Monotonic clock abstraction.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Source of the current time.
+ *
+ * All time dependent code gets the time from the clock set in Tools,
+ * so a simulation or a unit test can replace it, fe. with a ManualClock,
+ * and control expiry of timestamps deterministically.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface Clock {
+    /**
+     * Returns monotonic timestamp, time since boot,
+     * the time base of Location.getElapsedRealtimeNanos().
+     *
+     * @return realtime timestamp in nanoseconds
+     */
+    long getTimestampNano();
+
+    /**
+     * Returns wall clock time, the time base of Location.getTime().
+     *
+     * @return milliseconds since January 1, 1970 UTC
+     */
+    long getCurrentTimeMillis();
+}
@@ -0,0 +1,442 @@
+/**
+ * Chain of coordinate conversions, fused into one affine transformation.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Chain of coordinate conversions (rotate, scale, translate, mirror),
+ * fused into one affine transformation.
+ *
+ * The conversion steps are applied in the order they were added.
+ * Each step is identified by the id returned when it was added,
+ * which is used to change the step parameters.
+ * When the chain changes, the steps are folded into one 2x3 matrix,
+ * so converting a coordinate takes six multiply-adds,
+ * whatever the length of the chain.
+ *
+ * The unconverted coordinates are taken in polar format,
+ * so coordinates defined on a unit circle keep their precision
+ * until they are scaled, the converted coordinates are rounded.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class ConverterChain implements CartesianConverterInterface {
+    /**
+     * Matrix index of the X scale factor.
+     */
+    public static final int SCALE_X = 0;
+
+    /**
+     * Matrix index of the X skew factor.
+     */
+    public static final int SKEW_X = 1;
+
+    /**
+     * Matrix index of the X translation.
+     */
+    public static final int TRANS_X = 2;
+
+    /**
+     * Matrix index of the Y skew factor.
+     */
+    public static final int SKEW_Y = 3;
+
+    /**
+     * Matrix index of the Y scale factor.
+     */
+    public static final int SCALE_Y = 4;
+
+    /**
+     * Matrix index of the Y translation.
+     */
+    public static final int TRANS_Y = 5;
+
+    /**
+     * Number of values in a 2x3 matrix.
+     */
+    public static final int MATRIX_SIZE = 6;
+
+    /**
+     * Default number of steps the chain can hold, before growing.
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Step type : rotation.
+     */
+    private static final int STEP_ROTATION = 0;
+
+    /**
+     * Step type : scaling.
+     */
+    private static final int STEP_SCALE = 1;
+
+    /**
+     * Step type : translation.
+     */
+    private static final int STEP_TRANSLATION = 2;
+
+    /**
+     * Step type : mirroring.
+     */
+    private static final int STEP_MIRROR = 3;
+
+    /**
+     * Number of parameters per step.
+     */
+    private static final int STEP_PARAMETERS = 2;
+
+    /**
+     * Mirror factor, inverts a coordinate.
+     */
+    private static final double MIRROR = -1;
+
+    /**
+     * Step types.
+     */
+    private int[] mStepTypes;
+
+    /**
+     * Step parameters, 2 per step.
+     */
+    private double[] mStepParameters;
+
+    /**
+     * Number of steps.
+     */
+    private int mStepCount = 0;
+
+    /**
+     * Fused transformation matrix.
+     */
+    private final double[] mMatrix = new double[MATRIX_SIZE];
+
+    /**
+     * True if the fused matrix matches the steps.
+     */
+    private boolean mMatrixValid = false;
+
+    /**
+     * Angle math kernel, calculating sine and cosine with a table.
+     */
+    private final AngleMath mAngleMath = AngleMath.getDefault();
+
+    /**
+     * Sine and cosine of the converted angle,
+     * reused to avoid an allocation per converted coordinate.
+     */
+    private final double[] mSinCos = new double[2];
+
+    /**
+     * Constructor.
+     */
+    public ConverterChain() {
+        mStepTypes = new int[DEFAULT_CAPACITY];
+        mStepParameters = new double[DEFAULT_CAPACITY * STEP_PARAMETERS];
+    }
+
+    /**
+     * Adds a rotation step.
+     * A positive angle rotates from the X axis towards the Y axis,
+     * which is clockwise on a screen, where the Y axis points down.
+     *
+     * @param angle rotation angle in degrees
+     * @return step id
+     */
+    public final int addRotation(final double angle) {
+        return addStep(STEP_ROTATION, AngleMath.normalize(angle), 0);
+    }
+
+    /**
+     * Adds a scaling step.
+     *
+     * @param scaleX X scale factor
+     * @param scaleY Y scale factor
+     * @return step id
+     */
+    public final int addScale(final double scaleX, final double scaleY) {
+        return addStep(STEP_SCALE, scaleX, scaleY);
+    }
+
+    /**
+     * Adds a translation step.
+     *
+     * @param deltaX X translation
+     * @param deltaY Y translation
+     * @return step id
+     */
+    public final int addTranslation(final double deltaX,
+                                    final double deltaY) {
+        return addStep(STEP_TRANSLATION, deltaX, deltaY);
+    }
+
+    /**
+     * Adds a mirroring step.
+     *
+     * @param mirrorX true to invert the X coordinate
+     * @param mirrorY true to invert the Y coordinate
+     * @return step id
+     */
+    public final int addMirror(final boolean mirrorX, final boolean mirrorY) {
+        return addStep(STEP_MIRROR, mirrorX ? MIRROR : 1, mirrorY ? MIRROR : 1);
+    }
+
+    /**
+     * Sets the angle of a rotation step.
+     *
+     * @param step step id
+     * @param angle rotation angle in degrees
+     */
+    public final void setRotation(final int step, final double angle) {
+        setStep(step, STEP_ROTATION, AngleMath.normalize(angle), 0);
+    }
+
+    /**
+     * Sets the scale factors of a scaling step.
+     *
+     * @param step step id
+     * @param scaleX X scale factor
+     * @param scaleY Y scale factor
+     */
+    public final void setScale(final int step, final double scaleX,
+                               final double scaleY) {
+        setStep(step, STEP_SCALE, scaleX, scaleY);
+    }
+
+    /**
+     * Sets the translation of a translation step.
+     *
+     * @param step step id
+     * @param deltaX X translation
+     * @param deltaY Y translation
+     */
+    public final void setTranslation(final int step, final double deltaX,
+                                     final double deltaY) {
+        setStep(step, STEP_TRANSLATION, deltaX, deltaY);
+    }
+
+    /**
+     * Sets the mirrored coordinates of a mirroring step.
+     *
+     * @param step step id
+     * @param mirrorX true to invert the X coordinate
+     * @param mirrorY true to invert the Y coordinate
+     */
+    public final void setMirror(final int step, final boolean mirrorX,
+                                final boolean mirrorY) {
+        setStep(step, STEP_MIRROR, mirrorX ? MIRROR : 1, mirrorY ? MIRROR : 1);
+    }
+
+    /**
+     * Get number of steps.
+     *
+     * @return number of steps
+     */
+    public final int getStepCount() {
+        return mStepCount;
+    }
+
+    /**
+     * Get fused transformation matrix.
+     *
+     * @return copy of the matrix, use SCALE_X, SKEW_X, ... as index
+     */
+    public final double[] getMatrix() {
+        updateMatrix();
+
+        return mMatrix.clone();
+    }
+
+    /**
+     * Converts a Cartesian coordinate with the fused matrix.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param result array, converted X coordinate is stored
+     *               at index Coordinate.X, Y coordinate at Coordinate.Y
+     */
+    public final void transform(final double x, final double y,
+                                final double[] result) {
+        updateMatrix();
+
+        result[Coordinate.X] = mMatrix[SCALE_X] * x + mMatrix[SKEW_X] * y
+                + mMatrix[TRANS_X];
+        result[Coordinate.Y] = mMatrix[SKEW_Y] * x + mMatrix[SCALE_Y] * y
+                + mMatrix[TRANS_Y];
+    }
+
+    /**
+     * Converts a Coordinate instance with all steps of the chain.
+     *
+     * @param coordinate Unconverted coordinate
+     * @return Converted coordinate
+     */
+    public final Coordinate getConvertedCoordinate(
+            final Coordinate coordinate) {
+        long[] converted = new long[2];
+        convertToCartesian(coordinate, converted);
+
+        return new Coordinate(converted[Coordinate.X],
+                converted[Coordinate.Y]);
+    }
+
+    /**
+     * Converts a Coordinate instance with all steps of the chain,
+     * and writes the converted Cartesian coordinate to an array.
+     *
+     * @param coordinate Unconverted coordinate
+     * @param result array, converted X coordinate is stored
+     *               at index Coordinate.X, Y coordinate at Coordinate.Y
+     */
+    public final void convertToCartesian(final Coordinate coordinate,
+                                         final long[] result) {
+        updateMatrix();
+
+        double radius = coordinate.getPolarRadius();
+        mAngleMath.sincos(coordinate.getPolarAngle(), mSinCos);
+        double x = mSinCos[AngleMath.COS] * radius;
+        double y = mSinCos[AngleMath.SIN] * radius;
+
+        result[Coordinate.X] = Math.round(mMatrix[SCALE_X] * x
+                + mMatrix[SKEW_X] * y + mMatrix[TRANS_X]);
+        result[Coordinate.Y] = Math.round(mMatrix[SKEW_Y] * x
+                + mMatrix[SCALE_Y] * y + mMatrix[TRANS_Y]);
+    }
+
+    /**
+     * Adds a step to the chain.
+     *
+     * @param type step type
+     * @param parameter1 first step parameter
+     * @param parameter2 second step parameter
+     * @return step id
+     */
+    private int addStep(final int type, final double parameter1,
+                        final double parameter2) {
+        if (mStepCount == mStepTypes.length) {
+            int capacity = mStepTypes.length * 2;
+            int[] stepTypes = new int[capacity];
+            double[] stepParameters = new double[capacity * STEP_PARAMETERS];
+            System.arraycopy(mStepTypes, 0, stepTypes, 0, mStepCount);
+            System.arraycopy(mStepParameters, 0, stepParameters, 0,
+                    mStepCount * STEP_PARAMETERS);
+            mStepTypes = stepTypes;
+            mStepParameters = stepParameters;
+        }
+
+        int step = mStepCount++;
+        mStepTypes[step] = type;
+        mStepParameters[step * STEP_PARAMETERS] = parameter1;
+        mStepParameters[step * STEP_PARAMETERS + 1] = parameter2;
+        mMatrixValid = false;
+
+        return step;
+    }
+
+    /**
+     * Sets the parameters of a step.
+     *
+     * @param step step id
+     * @param type expected step type
+     * @param parameter1 first step parameter
+     * @param parameter2 second step parameter
+     */
+    private void setStep(final int step, final int type,
+                         final double parameter1, final double parameter2) {
+        if (step < 0 || step >= mStepCount || mStepTypes[step] != type) {
+            throw new IllegalArgumentException(
+                    "Parameter step is not a step of the expected type");
+        }
+
+        mStepParameters[step * STEP_PARAMETERS] = parameter1;
+        mStepParameters[step * STEP_PARAMETERS + 1] = parameter2;
+        mMatrixValid = false;
+    }
+
+    /**
+     * Folds all steps into the fused matrix, if the chain changed.
+     */
+    private void updateMatrix() {
+        if (mMatrixValid) {
+            return;
+        }
+
+        // start with identity matrix
+        mMatrix[SCALE_X] = 1;
+        mMatrix[SKEW_X] = 0;
+        mMatrix[TRANS_X] = 0;
+        mMatrix[SKEW_Y] = 0;
+        mMatrix[SCALE_Y] = 1;
+        mMatrix[TRANS_Y] = 0;
+
+        double[] sincos = new double[2];
+        for (int step = 0; step < mStepCount; step++) {
+            double parameter1 = mStepParameters[step * STEP_PARAMETERS];
+            double parameter2 = mStepParameters[step * STEP_PARAMETERS + 1];
+
+            switch (mStepTypes[step]) {
+                case STEP_ROTATION:
+                    AngleMath.exactSincos(parameter1, sincos);
+                    concat(sincos[AngleMath.COS], -sincos[AngleMath.SIN], 0,
+                            sincos[AngleMath.SIN], sincos[AngleMath.COS], 0);
+                    break;
+                case STEP_TRANSLATION:
+                    concat(1, 0, parameter1, 0, 1, parameter2);
+                    break;
+                case STEP_SCALE:
+                case STEP_MIRROR:
+                default:
+                    concat(parameter1, 0, 0, 0, parameter2, 0);
+                    break;
+            }
+        }
+
+        mMatrixValid = true;
+    }
+
+    /**
+     * Applies a step matrix after the fused matrix.
+     *
+     * @param scaleX X scale factor of the step
+     * @param skewX X skew factor of the step
+     * @param transX X translation of the step
+     * @param skewY Y skew factor of the step
+     * @param scaleY Y scale factor of the step
+     * @param transY Y translation of the step
+     */
+    private void concat(final double scaleX, final double skewX,
+                        final double transX, final double skewY,
+                        final double scaleY, final double transY) {
+        double a = mMatrix[SCALE_X];
+        double b = mMatrix[SKEW_X];
+        double c = mMatrix[TRANS_X];
+        double d = mMatrix[SKEW_Y];
+        double e = mMatrix[SCALE_Y];
+        double f = mMatrix[TRANS_Y];
+
+        mMatrix[SCALE_X] = scaleX * a + skewX * d;
+        mMatrix[SKEW_X] = scaleX * b + skewX * e;
+        mMatrix[TRANS_X] = scaleX * c + skewX * f + transX;
+        mMatrix[SKEW_Y] = skewY * a + scaleY * d;
+        mMatrix[SCALE_Y] = skewY * b + scaleY * e;
+        mMatrix[TRANS_Y] = skewY * c + scaleY * f + transY;
+    }
+}
@@ -24,6 +24,10 @@ package com.github.ruleant.getback_gps.lib;
 /**
  * 2D coordinate class, for converting between polar and Cartesian.
  *
+ * The coordinate is stored in the format it was set in, the other format
+ * is calculated when it is first needed, so a coordinate that is only
+ * used in one format is never converted.
+ *
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
 public class Coordinate {
@@ -37,6 +41,26 @@ public class Coordinate {
      */
     private double mRadius;
 
+    /**
+     * Cartesian X coordinate.
+     */
+    private long mX;
+
+    /**
+     * Cartesian Y coordinate.
+     */
+    private long mY;
+
+    /**
+     * True if the polar coordinate is calculated.
+     */
+    private boolean mPolarValid = false;
+
+    /**
+     * True if the Cartesian coordinate is calculated.
+     */
+    private boolean mCartesianValid = false;
+
     /**
      * X coordinate.
      */
@@ -96,15 +120,18 @@ public class Coordinate {
                                          final double angle) {
         if (radius >= 0) {
             // if radius is a positive number
-            mAngle = FormatUtils.normalizeAngle(angle);
+            mAngle = AngleMath.normalize(angle);
             mRadius = radius;
         } else {
             // if radius is negative number
             // invert angle
-            mAngle = FormatUtils.inverseAngle(angle);
+            mAngle = AngleMath.inverse(angle);
             // use positive value for radius
             mRadius = Math.abs(radius);
         }
+
+        mPolarValid = true;
+        mCartesianValid = false;
     }
 
     /**
@@ -114,11 +141,11 @@ public class Coordinate {
      * @param y Y coordinate
      */
     public final void setCartesianCoordinate(final long x, final long y) {
-        // calculate radius
-        mRadius = Math.sqrt(x * x + y * y);
-
-        // calculate angle, atan2() returns the polar angle
-        mAngle = FormatUtils.normalizeAngle(Math.toDegrees(Math.atan2(y, x)));
+        // polar coordinate is only calculated when it is needed
+        mX = x;
+        mY = y;
+        mCartesianValid = true;
+        mPolarValid = false;
     }
 
     /**
@@ -132,8 +159,12 @@ public class Coordinate {
                     "Parameter coordinate should not be null");
         }
 
-        setPolarCoordinate(coordinate.getPolarRadius(),
-                coordinate.getPolarAngle());
+        // copy the original format, to avoid rounding errors
+        if (coordinate.mPolarValid) {
+            setPolarCoordinate(coordinate.mRadius, coordinate.mAngle);
+        } else {
+            setCartesianCoordinate(coordinate.mX, coordinate.mY);
+        }
     }
 
     /**
@@ -156,6 +187,8 @@ public class Coordinate {
      * @return angle coordinate in degrees (0-360°)
      */
     public final double getPolarAngle() {
+        calculatePolar();
+
         if (mRadius > 0.0) {
             return mAngle;
         } else {
@@ -169,6 +202,8 @@ public class Coordinate {
      * @return radius coordinate
      */
     public final double getPolarRadius() {
+        calculatePolar();
+
         return mRadius;
     }
 
@@ -192,7 +227,9 @@ public class Coordinate {
      * @return X coordinate
      */
     public final long getCartesianX() {
-        return Math.round(Math.cos(Math.toRadians(mAngle)) * mRadius);
+        calculateCartesian();
+
+        return mX;
     }
 
     /**
@@ -201,6 +238,42 @@ public class Coordinate {
      * @return Y coordinate
      */
     public final long getCartesianY() {
-        return Math.round(Math.sin(Math.toRadians(mAngle)) * mRadius);
+        calculateCartesian();
+
+        return mY;
+    }
+
+    /**
+     * Calculates the polar coordinate from the Cartesian coordinate,
+     * if it isn't calculated yet.
+     */
+    private void calculatePolar() {
+        if (mPolarValid) {
+            return;
+        }
+
+        // calculate radius
+        mRadius = Math.sqrt(mX * mX + mY * mY);
+
+        // calculate angle, atan2() returns the polar angle
+        mAngle = AngleMath.normalize(Math.toDegrees(Math.atan2(mY, mX)));
+        mPolarValid = true;
+    }
+
+    /**
+     * Calculates the Cartesian coordinate from the polar coordinate,
+     * if it isn't calculated yet.
+     */
+    private void calculateCartesian() {
+        if (mCartesianValid) {
+            return;
+        }
+
+        // calculate sine and cosine of the angle at once
+        double[] sincos = new double[2];
+        AngleMath.exactSincos(mAngle, sincos);
+        mX = Math.round(sincos[AngleMath.COS] * mRadius);
+        mY = Math.round(sincos[AngleMath.SIN] * mRadius);
+        mCartesianValid = true;
     }
 }
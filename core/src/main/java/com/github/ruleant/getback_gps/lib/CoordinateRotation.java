@@ -26,9 +26,9 @@ package com.github.ruleant.getback_gps.lib;
  *
  * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
-public class CoordinateRotation  implements CoordinateConverterInterface {
+public class CoordinateRotation implements CartesianConverterInterface {
     /**
-     * Rotation angle in radians (0-2*PI).
+     * Rotation angle in degrees (0-360°).
      */
     private double mAngle;
 
@@ -42,6 +42,17 @@ public class CoordinateRotation  implements CoordinateConverterInterface {
      */
     private double mScaleRadius;
 
+    /**
+     * Angle math kernel, calculating sine and cosine with a table.
+     */
+    private final AngleMath mAngleMath = AngleMath.getDefault();
+
+    /**
+     * Sine and cosine of the converted angle,
+     * reused to avoid an allocation per converted coordinate.
+     */
+    private final double[] mSinCos = new double[2];
+
     /**
      * Constructor.
      *
@@ -62,7 +73,7 @@ public class CoordinateRotation  implements CoordinateConverterInterface {
      * @param angle Rotation angle to apply to coordinate (0-360°)
      */
     public final void setRotationAngle(final double angle) {
-        mAngle = Math.toRadians(FormatUtils.normalizeAngle(angle));
+        mAngle = AngleMath.normalize(angle);
     }
 
     /**
@@ -112,12 +123,31 @@ public class CoordinateRotation  implements CoordinateConverterInterface {
      */
     public final Coordinate getConvertedCoordinate(
             final Coordinate coordinate) {
-        double angle = Math.toRadians(coordinate.getPolarAngle()) + mAngle;
+        long[] converted = new long[2];
+        convertToCartesian(coordinate, converted);
+
+        return new Coordinate(converted[Coordinate.X],
+                converted[Coordinate.Y]);
+    }
+
+    /**
+     * Rotate coordinates with an angle, around a center,
+     * and write the converted Cartesian coordinate to an array.
+     * See getConvertedCoordinate for the applied transformations.
+     *
+     * @param coordinate Unconverted coordinate
+     * @param result array, converted X coordinate is stored
+     *               at index Coordinate.X, Y coordinate at Coordinate.Y
+     */
+    public final void convertToCartesian(final Coordinate coordinate,
+                                         final long[] result) {
         double radius = coordinate.getPolarRadius() * mScaleRadius;
 
         // Transform angle and convert to Cartesian
-        return new Coordinate(
-                mCenter.getCartesianX() + Math.round(Math.sin(angle) * radius),
-                mCenter.getCartesianY() - Math.round(Math.cos(angle) * radius));
+        mAngleMath.sincos(coordinate.getPolarAngle() + mAngle, mSinCos);
+        result[Coordinate.X] = mCenter.getCartesianX()
+                + Math.round(mSinCos[AngleMath.SIN] * radius);
+        result[Coordinate.Y] = mCenter.getCartesianY()
+                - Math.round(mSinCos[AngleMath.COS] * radius);
     }
 }
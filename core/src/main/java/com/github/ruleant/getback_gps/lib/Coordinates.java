@@ -21,10 +21,7 @@
  */
 package com.github.ruleant.getback_gps.lib;
 
-import android.graphics.Path;
-
 import java.util.ArrayList;
-import java.util.Iterator;
 
 /**
  * Coordinates is a container that can contain
@@ -39,14 +36,15 @@ public class Coordinates {
     private final ArrayList<Coordinate> mCoordinates;
 
     /**
-     * Iterator for Coordinates collection.
+     * Coordinate converter.
      */
-    private Iterator<Coordinate> mCoordinateIterator;
+    private CoordinateConverterInterface mCoordinateConverter;
 
     /**
-     * Coordinate converter.
+     * Coordinate converter, if it can convert to Cartesian coordinates
+     * without creating converted Coordinate instances.
      */
-    private CoordinateConverterInterface mCoordinateConverter;
+    private CartesianConverterInterface mCartesianConverter;
 
     /**
      * Close line when exporting sets of coordinates.
@@ -142,6 +140,11 @@ public class Coordinates {
         }
 
         mCoordinateConverter = converter;
+        if (converter instanceof CartesianConverterInterface) {
+            mCartesianConverter = (CartesianConverterInterface) converter;
+        } else {
+            mCartesianConverter = null;
+        }
     }
 
     /**
@@ -174,42 +177,50 @@ public class Coordinates {
     }
 
     /**
-     * Return Coordinates as Path.
+     * Write Coordinates to a PathSink, as one contour.
+     * Nothing is written if there are less than 2 coordinates.
      *
-     * @return coordinates as Path instance
+     * @param sink PathSink the contour is written to
      */
-    public final Path toPath() {
-        Path path = new Path();
+    public final void writeTo(final PathSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException(
+                    "Parameter sink should not be null");
+        }
 
         // 2 points or more are required to draw a line
         if (getSize() <= 1) {
-            return path;
-        }
-
-        long[] firstPoint = getFirstCoordinateCartesian();
-        // skip point if it is null
-        while (firstPoint == null) {
-            firstPoint = getNextCoordinateCartesian();
+            return;
         }
 
-        path.moveTo(firstPoint[Coordinate.X], firstPoint[Coordinate.Y]);
-
-        long[] currentPoint;
-        while (mCoordinateIterator.hasNext()) {
-            currentPoint = getNextCoordinateCartesian();
+        boolean first = true;
+        long[] point = new long[2];
+        for (Coordinate coordinate : mCoordinates) {
+            float x;
+            float y;
+
+            if (mCartesianConverter != null) {
+                // convert without intermediate Coordinate instances
+                mCartesianConverter.convertToCartesian(coordinate, point);
+                x = point[Coordinate.X];
+                y = point[Coordinate.Y];
+            } else {
+                Coordinate converted = convertCoordinate(coordinate);
+                x = converted.getCartesianX();
+                y = converted.getCartesianY();
+            }
 
-            // skip point if it is null
-            if (currentPoint != null) {
-                path.lineTo(currentPoint[Coordinate.X],
-                        currentPoint[Coordinate.Y]);
+            if (first) {
+                sink.moveTo(x, y);
+                first = false;
+            } else {
+                sink.lineTo(x, y);
             }
         }
 
         if (mCloseLine) {
-            path.close();
+            sink.close();
         }
-
-        return path;
     }
 
     /**
@@ -218,103 +229,10 @@ public class Coordinates {
      * @return coordinates as array
      */
     public final float[] toLinesArray() {
-        int totalPoints = getSize();
-
-        // 2 points or more are required to draw a line
-        if (totalPoints <= 1) {
-            return new float[0];
-        }
-
-        int arrayLength;
-
-        // only 1 line between 2 points (no need to close),
-        // else use class property mCloseLine
-        boolean closeLine = totalPoints != 2 && mCloseLine;
-
-        if (closeLine) {
-            // calculate array length, based on number of coordinates
-            // length = #points * 4 (=number of coordinates needed to draw
-            // a line between 2 points)
-            arrayLength = totalPoints * NUM_COORD_LINE;
-        } else {
-            // when not closing, one set of coordinates less is needed.
-            arrayLength = (totalPoints - 1) * NUM_COORD_LINE;
-        }
-
-        float[] array = new float[arrayLength];
-
-        long[] firstPoint = getFirstCoordinateCartesian();
-        // skip point if it is null
-        while (firstPoint == null) {
-            firstPoint = getNextCoordinateCartesian();
-        }
-
-        long[] previousPoint = firstPoint;
-        long[] currentPoint;
-        int arrayPosition = 0;
-
-        while (mCoordinateIterator.hasNext()) {
-            currentPoint = getNextCoordinateCartesian();
-
-            // skip point if it is null
-            if (currentPoint == null) {
-                continue;
-            }
-
-            // prevent overfilling array in case the
-            // coordinates collection changes
-            if (arrayPosition >= arrayLength) {
-                return array;
-            }
-
-            // add next line
-            array[arrayPosition + POS_START_X] = previousPoint[Coordinate.X];
-            array[arrayPosition + POS_START_Y] = previousPoint[Coordinate.Y];
-            array[arrayPosition + POS_END_X] = currentPoint[Coordinate.X];
-            array[arrayPosition + POS_END_Y] = currentPoint[Coordinate.Y];
-
-            arrayPosition += NUM_COORD_LINE;
-            previousPoint = currentPoint;
-        }
-
-        // prevent overfilling array in case the
-        // coordinates collection changes
-        // or when line doesn't need to be closed
-        if (!closeLine || arrayPosition >= arrayLength) {
-            return array;
-        }
-
-        // close figure
-        array[arrayPosition + POS_START_X] = previousPoint[Coordinate.X];
-        array[arrayPosition + POS_START_Y] = previousPoint[Coordinate.Y];
-        array[arrayPosition + POS_END_X] = firstPoint[Coordinate.X];
-        array[arrayPosition + POS_END_Y] = firstPoint[Coordinate.Y];
-
-        return array;
-    }
-
-    /**
-     * Get first Coordinate and return it as Cartesian coordinate array.
-     *
-     * @return Cartesian coordinate array
-     */
-    private long[] getFirstCoordinateCartesian() {
-        mCoordinateIterator = mCoordinates.iterator();
-        return getNextCoordinateCartesian();
-    }
-
-    /**
-     * Get next Coordinate and return it as Cartesian coordinate array.
-     *
-     * @return Cartesian coordinate array
-     */
-    private long[] getNextCoordinateCartesian() {
-        if (mCoordinateIterator != null && mCoordinateIterator.hasNext()) {
-            return convertCoordinate(mCoordinateIterator.next())
-                    .getCartesianCoordinate();
-        }
+        FloatArrayPathSink sink = new FloatArrayPathSink(getSize() + 1);
+        writeTo(sink);
 
-        return null;
+        return sink.toLinesArray();
     }
 
     /**
@@ -0,0 +1,175 @@
+/**
+ * Cache of the magnetic declination.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Cache of the magnetic declination, the angle between magnetic north
+ * and true north.
+ *
+ * Evaluating a geomagnetic field model is expensive,
+ * while the declination changes slowly with location and time.
+ * The declination is evaluated in the center of a spatial cell
+ * (DEFAULT_CELL_SIZE degrees of latitude and longitude, a few tens of km),
+ * for the start of a day, and reused while the location stays in that cell
+ * on the same day.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DeclinationCache {
+    /**
+     * Geomagnetic field model, calculates the declination.
+     */
+    public interface Model {
+        /**
+         * Calculates the magnetic declination.
+         *
+         * @param latitude latitude in degrees
+         * @param longitude longitude in degrees
+         * @param altitude altitude in meters
+         * @param time time in milliseconds since January 1, 1970 UTC
+         * @return declination in degrees, positive if magnetic north
+         *         is east of true north
+         */
+        double getDeclination(double latitude, double longitude,
+                              double altitude, long time);
+    }
+
+    /**
+     * Default cell size in degrees, about 28 km of latitude.
+     */
+    public static final double DEFAULT_CELL_SIZE = 0.25;
+
+    /**
+     * One day in milliseconds.
+     */
+    public static final long DAY_IN_MILLIS
+            = 24 * 60 * 60 * TimeUnits.SECOND_IN_MILLIS;
+
+    /**
+     * Geomagnetic field model.
+     */
+    private final Model mModel;
+
+    /**
+     * Cell size in degrees.
+     */
+    private final double mCellSize;
+
+    /**
+     * True if a declination is cached.
+     */
+    private boolean mCached = false;
+
+    /**
+     * Latitude index of the cached cell.
+     */
+    private long mLatitudeCell;
+
+    /**
+     * Longitude index of the cached cell.
+     */
+    private long mLongitudeCell;
+
+    /**
+     * Day of the cached declination.
+     */
+    private long mDay;
+
+    /**
+     * Cached declination in degrees.
+     */
+    private double mDeclination = 0;
+
+    /**
+     * Constructor, using the default cell size.
+     *
+     * @param model geomagnetic field model
+     */
+    public DeclinationCache(final Model model) {
+        this(model, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param model geomagnetic field model
+     * @param cellSize cell size in degrees
+     */
+    public DeclinationCache(final Model model, final double cellSize) {
+        if (model == null) {
+            throw new IllegalArgumentException(
+                    "Parameter model should not be null");
+        }
+
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException(
+                    "cellSize should be a non-zero positive value");
+        }
+
+        mModel = model;
+        mCellSize = cellSize;
+    }
+
+    /**
+     * Get the magnetic declination at a location,
+     * the model is only evaluated when the location moved to another cell
+     * or when the day changed.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param time time in milliseconds since January 1, 1970 UTC
+     * @return declination in degrees, positive if magnetic north
+     *         is east of true north
+     */
+    public final double getDeclination(final double latitude,
+                                       final double longitude,
+                                       final long time) {
+        long latitudeCell = (long) Math.floor(latitude / mCellSize);
+        long longitudeCell = (long) Math.floor(longitude / mCellSize);
+        long day = time / DAY_IN_MILLIS;
+
+        if (mCached && latitudeCell == mLatitudeCell
+                && longitudeCell == mLongitudeCell && day == mDay) {
+            return mDeclination;
+        }
+
+        // evaluate at sea level, the altitude hardly changes the declination
+        mDeclination = mModel.getDeclination(
+                (latitudeCell + 0.5) * mCellSize,
+                (longitudeCell + 0.5) * mCellSize,
+                0, day * DAY_IN_MILLIS);
+        mLatitudeCell = latitudeCell;
+        mLongitudeCell = longitudeCell;
+        mDay = day;
+        mCached = true;
+
+        return mDeclination;
+    }
+
+    /**
+     * Clears the cached declination.
+     */
+    public final void reset() {
+        mCached = false;
+        mDeclination = 0;
+    }
+}
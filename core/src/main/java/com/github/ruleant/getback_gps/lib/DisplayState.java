@@ -0,0 +1,195 @@
+/**
+ * Display state, keeps track of changed display fields.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+
+/**
+ * Compact state of the values displayed on a screen.
+ *
+ * Each display field is identified by an index and holds a text
+ * or an integer value (fe. visibility). When a field is set to a value
+ * that differs from the previous value, the field is marked as changed,
+ * so only the views of changed fields have to be updated.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DisplayState {
+    /**
+     * Text values.
+     */
+    private final String[] mTexts;
+
+    /**
+     * Integer values.
+     */
+    private final int[] mValues;
+
+    /**
+     * Set if a field was set at least once.
+     */
+    private final boolean[] mInitialised;
+
+    /**
+     * Set if a field changed since the changes were last cleared.
+     */
+    private final boolean[] mChanged;
+
+    /**
+     * Number of changed fields.
+     */
+    private int mChangeCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param size number of display fields
+     */
+    public DisplayState(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(
+                    "size should be a non-zero positive value");
+        }
+
+        mTexts = new String[size];
+        mValues = new int[size];
+        mInitialised = new boolean[size];
+        mChanged = new boolean[size];
+    }
+
+    /**
+     * Get number of display fields.
+     *
+     * @return number of fields
+     */
+    public final int getSize() {
+        return mTexts.length;
+    }
+
+    /**
+     * Sets the text of a field, it is marked as changed if the text differs.
+     *
+     * @param field field index
+     * @param text new text
+     */
+    public final void setText(final int field, final String text) {
+        if (mInitialised[field]
+                && (text == null ? mTexts[field] == null
+                        : text.equals(mTexts[field]))) {
+            return;
+        }
+
+        mTexts[field] = text;
+        markChanged(field);
+    }
+
+    /**
+     * Get the text of a field.
+     *
+     * @param field field index
+     * @return text, null if not set
+     */
+    public final String getText(final int field) {
+        return mTexts[field];
+    }
+
+    /**
+     * Sets the integer value of a field,
+     * it is marked as changed if the value differs.
+     *
+     * @param field field index
+     * @param value new value
+     */
+    public final void setValue(final int field, final int value) {
+        if (mInitialised[field] && mValues[field] == value) {
+            return;
+        }
+
+        mValues[field] = value;
+        markChanged(field);
+    }
+
+    /**
+     * Get the integer value of a field.
+     *
+     * @param field field index
+     * @return value, 0 if not set
+     */
+    public final int getValue(final int field) {
+        return mValues[field];
+    }
+
+    /**
+     * Checks if a field changed.
+     *
+     * @param field field index
+     * @return true if field changed since changes were last cleared
+     */
+    public final boolean isChanged(final int field) {
+        return mChanged[field];
+    }
+
+    /**
+     * Get number of changed fields.
+     *
+     * @return number of changed fields
+     */
+    public final int getChangeCount() {
+        return mChangeCount;
+    }
+
+    /**
+     * Clears the changed state of all fields,
+     * when the changes are applied to the views.
+     */
+    public final void clearChanges() {
+        Arrays.fill(mChanged, false);
+        mChangeCount = 0;
+    }
+
+    /**
+     * Marks all fields that were set as changed,
+     * fe. when the views have to be updated again.
+     */
+    public final void invalidate() {
+        mChangeCount = 0;
+        for (int i = 0; i < mChanged.length; i++) {
+            mChanged[i] = mInitialised[i];
+            if (mChanged[i]) {
+                mChangeCount++;
+            }
+        }
+    }
+
+    /**
+     * Marks a field as changed.
+     *
+     * @param field field index
+     */
+    private void markChanged(final int field) {
+        mInitialised[field] = true;
+        if (!mChanged[field]) {
+            mChanged[field] = true;
+            mChangeCount++;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Streaming Douglas-Peucker polyline simplifier.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Simplifies a stream of points with the Douglas-Peucker algorithm.
+ *
+ * The point furthest from the line between the first and the last point
+ * is kept if its distance exceeds the tolerance, and the algorithm is
+ * repeated for both parts of the line. Points closer to the line are removed.
+ * No point of the original polyline is further than the tolerance
+ * from the simplified polyline.
+ *
+ * The recursion is replaced by a stack of segment indexes,
+ * which is allocated once for the window.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DouglasPeuckerSimplifier extends PolylineSimplifier {
+    /**
+     * Stack of start indexes of segments that are not processed yet.
+     */
+    private final int[] mStackStart;
+
+    /**
+     * Stack of end indexes of segments that are not processed yet.
+     */
+    private final int[] mStackEnd;
+
+    /**
+     * Constructor, using default window size.
+     *
+     * @param sink receiver of the simplified points
+     * @param tolerance maximum distance in meters (geographic) or pixels
+     * @param geographic true if points are longitude and latitude
+     */
+    public DouglasPeuckerSimplifier(final PointSink sink,
+                                    final double tolerance,
+                                    final boolean geographic) {
+        this(sink, tolerance, geographic, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sink receiver of the simplified points
+     * @param tolerance maximum distance in meters (geographic) or pixels
+     * @param geographic true if points are longitude and latitude
+     * @param windowSize number of points in the window
+     */
+    public DouglasPeuckerSimplifier(final PointSink sink,
+                                    final double tolerance,
+                                    final boolean geographic,
+                                    final int windowSize) {
+        super(sink, tolerance, geographic, windowSize);
+
+        // each segment on the stack contains at least one point
+        mStackStart = new int[windowSize];
+        mStackEnd = new int[windowSize];
+    }
+
+    @Override
+    protected final void markKept(final int count, final double tolerance) {
+        for (int i = 1; i < count - 1; i++) {
+            mKept[i] = false;
+        }
+
+        double toleranceSquared = tolerance * tolerance;
+        int stackSize = 0;
+        mStackStart[stackSize] = 0;
+        mStackEnd[stackSize] = count - 1;
+        stackSize++;
+
+        while (stackSize > 0) {
+            stackSize--;
+            int start = mStackStart[stackSize];
+            int end = mStackEnd[stackSize];
+
+            // find point furthest from the segment
+            double maxDistance = -1;
+            int furthest = start;
+            for (int i = start + 1; i < end; i++) {
+                double distance = getSegmentDistanceSquared(i, start, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    furthest = i;
+                }
+            }
+
+            if (maxDistance <= toleranceSquared) {
+                continue;
+            }
+
+            mKept[furthest] = true;
+            if (furthest - start > 1) {
+                mStackStart[stackSize] = start;
+                mStackEnd[stackSize] = furthest;
+                stackSize++;
+            }
+            if (end - furthest > 1) {
+                mStackStart[stackSize] = furthest;
+                mStackEnd[stackSize] = end;
+                stackSize++;
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * PathSink collecting points in a float array.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+
+/**
+ * PathSink adapter collecting the points of one or more contours
+ * in a float array, without depending on Android classes.
+ *
+ * The collected points can be exported as an array of points
+ * or as an array of lines (Canvas.drawLines format).
+ * The sink can be reset and reused, to avoid allocating new arrays.
+ *
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class FloatArrayPathSink implements PathSink {
+    /**
+     * Number of values per point : x, y.
+     */
+    public static final int NUM_COORD_POINT = 2;
+
+    /**
+     * Default initial number of points.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Coordinates of the points : x0, y0, x1, y1, ...
+     */
+    private float[] mPoints;
+
+    /**
+     * Number of points.
+     */
+    private int mPointCount = 0;
+
+    /**
+     * Index of the first point of each contour.
+     */
+    private int[] mContourStart;
+
+    /**
+     * Closed state of each contour.
+     */
+    private boolean[] mContourClosed;
+
+    /**
+     * Number of contours.
+     */
+    private int mContourCount = 0;
+
+    /**
+     * Constructor.
+     */
+    public FloatArrayPathSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity initial number of points
+     */
+    public FloatArrayPathSink(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity should be a non-zero positive value");
+        }
+
+        mPoints = new float[capacity * NUM_COORD_POINT];
+        mContourStart = new int[1];
+        mContourClosed = new boolean[1];
+    }
+
+    /**
+     * Removes all points and contours, keeping the allocated arrays.
+     */
+    public final void reset() {
+        mPointCount = 0;
+        mContourCount = 0;
+    }
+
+    @Override
+    public final void moveTo(final float x, final float y) {
+        if (mContourCount == mContourStart.length) {
+            mContourStart = Arrays.copyOf(mContourStart, mContourCount * 2);
+            mContourClosed
+                    = Arrays.copyOf(mContourClosed, mContourCount * 2);
+        }
+
+        mContourStart[mContourCount] = mPointCount;
+        mContourClosed[mContourCount] = false;
+        mContourCount++;
+
+        addPoint(x, y);
+    }
+
+    @Override
+    public final void lineTo(final float x, final float y) {
+        // a line without a start point starts at the origin
+        if (mContourCount == 0) {
+            moveTo(0, 0);
+        }
+
+        addPoint(x, y);
+    }
+
+    @Override
+    public final void close() {
+        if (mContourCount > 0) {
+            mContourClosed[mContourCount - 1] = true;
+        }
+    }
+
+    /**
+     * Get number of points.
+     *
+     * @return number of points
+     */
+    public final int getPointCount() {
+        return mPointCount;
+    }
+
+    /**
+     * Get number of contours.
+     *
+     * @return number of contours
+     */
+    public final int getContourCount() {
+        return mContourCount;
+    }
+
+    /**
+     * Get X coordinate of a point.
+     *
+     * @param index point index
+     * @return X coordinate
+     */
+    public final float getX(final int index) {
+        return mPoints[index * NUM_COORD_POINT + Coordinate.X];
+    }
+
+    /**
+     * Get Y coordinate of a point.
+     *
+     * @param index point index
+     * @return Y coordinate
+     */
+    public final float getY(final int index) {
+        return mPoints[index * NUM_COORD_POINT + Coordinate.Y];
+    }
+
+    /**
+     * Checks if a contour is closed.
+     *
+     * @param contour contour index
+     * @return true if the contour is closed
+     */
+    public final boolean isClosed(final int contour) {
+        return mContourClosed[contour];
+    }
+
+    /**
+     * Return points as array : x0, y0, x1, y1, ...
+     *
+     * @return array with coordinates of the points
+     */
+    public final float[] toPointsArray() {
+        return Arrays.copyOf(mPoints, mPointCount * NUM_COORD_POINT);
+    }
+
+    /**
+     * Return the lines of all contours as Canvas.DrawLines array.
+     * A closed contour gets a line from its last to its first point,
+     * unless it only has two points.
+     *
+     * @return lines as array
+     */
+    public final float[] toLinesArray() {
+        float[] array = new float[getLineCount() * Coordinates.NUM_COORD_LINE];
+        int arrayPosition = 0;
+
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int first = mContourStart[contour];
+            int last = getContourEnd(contour) - 1;
+
+            for (int i = first; i < last; i++) {
+                arrayPosition = addLine(array, arrayPosition, i, i + 1);
+            }
+
+            if (isContourClosing(contour)) {
+                arrayPosition = addLine(array, arrayPosition, last, first);
+            }
+        }
+
+        return array;
+    }
+
+    /**
+     * Get number of lines in all contours.
+     *
+     * @return number of lines
+     */
+    public final int getLineCount() {
+        int lines = 0;
+
+        for (int contour = 0; contour < mContourCount; contour++) {
+            int points = getContourEnd(contour) - mContourStart[contour];
+            if (points > 1) {
+                lines += points - 1;
+            }
+            if (isContourClosing(contour)) {
+                lines++;
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Add a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     */
+    private void addPoint(final float x, final float y) {
+        int position = mPointCount * NUM_COORD_POINT;
+        if (position == mPoints.length) {
+            mPoints = Arrays.copyOf(mPoints, mPoints.length * 2);
+        }
+
+        mPoints[position + Coordinate.X] = x;
+        mPoints[position + Coordinate.Y] = y;
+        mPointCount++;
+    }
+
+    /**
+     * Get index after the last point of a contour.
+     *
+     * @param contour contour index
+     * @return index after the last point
+     */
+    private int getContourEnd(final int contour) {
+        if (contour + 1 < mContourCount) {
+            return mContourStart[contour + 1];
+        }
+
+        return mPointCount;
+    }
+
+    /**
+     * Checks if a closing line is needed for a contour,
+     * only 1 line is needed between 2 points.
+     *
+     * @param contour contour index
+     * @return true if a closing line is needed
+     */
+    private boolean isContourClosing(final int contour) {
+        return mContourClosed[contour]
+                && getContourEnd(contour) - mContourStart[contour] > 2;
+    }
+
+    /**
+     * Add a line between two points to a lines array.
+     *
+     * @param array lines array
+     * @param position position in the lines array
+     * @param start index of the start point
+     * @param end index of the end point
+     * @return position of the next line in the lines array
+     */
+    private int addLine(final float[] array, final int position,
+                        final int start, final int end) {
+        array[position + Coordinates.POS_START_X] = getX(start);
+        array[position + Coordinates.POS_START_Y] = getY(start);
+        array[position + Coordinates.POS_END_X] = getX(end);
+        array[position + Coordinates.POS_END_Y] = getY(end);
+
+        return position + Coordinates.NUM_COORD_LINE;
+    }
+}
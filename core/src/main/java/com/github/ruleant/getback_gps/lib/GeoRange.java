@@ -0,0 +1,78 @@
+/**
+ * Valid ranges of geographical coordinates.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Valid ranges of latitudes and longitudes, in degrees.
+ * Latitude and Longitude use the same ranges.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class GeoRange {
+    /**
+     * Minimum latitude (South pole).
+     */
+    public static final double LATITUDE_MIN = -90;
+
+    /**
+     * Maximum latitude (North pole).
+     */
+    public static final double LATITUDE_MAX = 90;
+
+    /**
+     * Minimum longitude.
+     */
+    public static final double LONGITUDE_MIN = -180;
+
+    /**
+     * Maximum longitude.
+     */
+    public static final double LONGITUDE_MAX = 180;
+
+    /**
+     * Hidden constructor, to prevent instantiating.
+     */
+    protected GeoRange() {
+        // prevents calls from subclass
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Checks if a value is a valid latitude.
+     *
+     * @param value latitude in degrees
+     * @return true if value is in the allowed range
+     */
+    public static boolean isValidLatitude(final double value) {
+        return value >= LATITUDE_MIN && value <= LATITUDE_MAX;
+    }
+
+    /**
+     * Checks if a value is a valid longitude.
+     *
+     * @param value longitude in degrees
+     * @return true if value is in the allowed range
+     */
+    public static boolean isValidLongitude(final double value) {
+        return value >= LONGITUDE_MIN && value <= LONGITUDE_MAX;
+    }
+}
@@ -0,0 +1,353 @@
+/**
+ * Geofence around a destination.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Geofence around a destination, with an approach zone
+ * and an arrival zone.
+ *
+ * The zone is updated with the distance to the destination.
+ * A zone is entered when the distance is within its radius,
+ * and only exited when the distance exceeds the radius plus a hysteresis
+ * margin, so a location jittering around the border doesn't trigger
+ * a burst of enter and exit events.
+ *
+ * Based on the current speed, the geofence calculates the minimum time
+ * until the next zone border can be crossed, which is used to lower
+ * the location update rate when the destination is far away.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class Geofence {
+    /**
+     * Geofence zone enum.
+     */
+    public enum Zone {
+        /**
+         * Outside the approach zone.
+         */
+        Outside,
+        /**
+         * Inside the approach zone, outside the arrival zone.
+         */
+        Approach,
+        /**
+         * Inside the arrival zone, the destination is reached.
+         */
+        Arrival
+    }
+
+    /**
+     * Listener interface for zone changes.
+     */
+    public interface Listener {
+        /**
+         * Called when a zone is entered.
+         *
+         * @param zone entered zone (Approach or Arrival)
+         */
+        void onGeofenceEnter(Zone zone);
+
+        /**
+         * Called when a zone is exited.
+         *
+         * @param zone exited zone (Approach or Arrival)
+         */
+        void onGeofenceExit(Zone zone);
+    }
+
+    /**
+     * Default arrival zone radius in meters.
+     */
+    public static final double DEFAULT_ARRIVAL_RADIUS = 20;
+
+    /**
+     * Default approach zone radius in meters.
+     */
+    public static final double DEFAULT_APPROACH_RADIUS = 200;
+
+    /**
+     * Default hysteresis margin in meters.
+     */
+    public static final double DEFAULT_HYSTERESIS = 10;
+
+    /**
+     * Minimum speed used to calculate the time to a zone border,
+     * in m/s (brisk walking speed).
+     * A user standing still can start moving at any time.
+     */
+    public static final double MIN_SPEED = 2;
+
+    /**
+     * Part of the time to a zone border used as location update interval,
+     * to allow for acceleration and inaccurate locations.
+     */
+    public static final double INTERVAL_SAFETY_FACTOR = 0.5;
+
+    /**
+     * Maximum location update interval in milliseconds (1 minute),
+     * well below the location expiration time.
+     */
+    public static final long MAX_UPDATE_INTERVAL = 60000;
+
+    /**
+     * Arrival zone radius in meters.
+     */
+    private final double mArrivalRadius;
+
+    /**
+     * Approach zone radius in meters.
+     */
+    private final double mApproachRadius;
+
+    /**
+     * Hysteresis margin in meters.
+     */
+    private final double mHysteresis;
+
+    /**
+     * Current zone.
+     */
+    private Zone mZone = Zone.Outside;
+
+    /**
+     * Arrival radius used in the last update, in meters,
+     * at least the location accuracy.
+     */
+    private double mEffectiveArrivalRadius;
+
+    /**
+     * Distance to the destination in the last update, in meters.
+     */
+    private double mDistance = 0;
+
+    /**
+     * Speed in the last update, in m/s.
+     */
+    private double mSpeed = 0;
+
+    /**
+     * True if the geofence was updated since it was reset.
+     */
+    private boolean mUpdated = false;
+
+    /**
+     * Zone change listener.
+     */
+    private Listener mListener = null;
+
+    /**
+     * Constructor, using default radii.
+     */
+    public Geofence() {
+        this(DEFAULT_ARRIVAL_RADIUS, DEFAULT_APPROACH_RADIUS,
+                DEFAULT_HYSTERESIS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param arrivalRadius arrival zone radius in meters
+     * @param approachRadius approach zone radius in meters
+     * @param hysteresis hysteresis margin in meters
+     */
+    public Geofence(final double arrivalRadius, final double approachRadius,
+                    final double hysteresis) {
+        if (arrivalRadius <= 0 || approachRadius <= arrivalRadius) {
+            throw new IllegalArgumentException(
+                    "approachRadius should be bigger than arrivalRadius,"
+                    + " which should be a non-zero positive value");
+        }
+
+        if (hysteresis < 0) {
+            throw new IllegalArgumentException(
+                    "hysteresis should not be negative");
+        }
+
+        mArrivalRadius = arrivalRadius;
+        mApproachRadius = approachRadius;
+        mHysteresis = hysteresis;
+        mEffectiveArrivalRadius = arrivalRadius;
+    }
+
+    /**
+     * Sets zone change listener.
+     *
+     * @param listener listener, null to remove the listener
+     */
+    public final void setListener(final Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Resets the geofence, fe. when the destination changes.
+     * No events are raised.
+     */
+    public final void reset() {
+        mZone = Zone.Outside;
+        mEffectiveArrivalRadius = mArrivalRadius;
+        mDistance = 0;
+        mSpeed = 0;
+        mUpdated = false;
+    }
+
+    /**
+     * Get current zone.
+     *
+     * @return current zone
+     */
+    public final Zone getZone() {
+        return mZone;
+    }
+
+    /**
+     * Checks if the destination is reached (inside the arrival zone).
+     *
+     * @return true if destination is reached
+     */
+    public final boolean isArrived() {
+        return mZone == Zone.Arrival;
+    }
+
+    /**
+     * Checks if the geofence was updated since it was reset.
+     *
+     * @return true if geofence was updated
+     */
+    public final boolean isUpdated() {
+        return mUpdated;
+    }
+
+    /**
+     * Updates the zone with a new distance to the destination,
+     * and raises enter and exit events when the zone changes.
+     *
+     * @param distance distance to the destination in meters
+     * @param accuracy location accuracy in meters,
+     *                 the arrival radius is at least the accuracy
+     * @param speed current speed in m/s
+     * @return true if the zone changed
+     */
+    public final boolean update(final double distance, final double accuracy,
+                                final double speed) {
+        mEffectiveArrivalRadius = Math.max(mArrivalRadius,
+                Math.min(accuracy, mApproachRadius));
+        mDistance = distance;
+        mSpeed = Math.max(speed, 0);
+        mUpdated = true;
+
+        Zone newZone;
+        if (distance <= mEffectiveArrivalRadius
+                || (mZone == Zone.Arrival
+                    && distance <= mEffectiveArrivalRadius + mHysteresis)) {
+            newZone = Zone.Arrival;
+        } else if (distance <= mApproachRadius
+                || (mZone != Zone.Outside
+                    && distance <= mApproachRadius + mHysteresis)) {
+            newZone = Zone.Approach;
+        } else {
+            newZone = Zone.Outside;
+        }
+
+        Zone oldZone = mZone;
+        if (newZone == oldZone) {
+            return false;
+        }
+        mZone = newZone;
+
+        if (mListener != null) {
+            // raise events for all crossed borders, in order
+            if (newZone.ordinal() > oldZone.ordinal()) {
+                for (int i = oldZone.ordinal() + 1;
+                     i <= newZone.ordinal(); i++) {
+                    mListener.onGeofenceEnter(Zone.values()[i]);
+                }
+            } else {
+                for (int i = oldZone.ordinal();
+                     i > newZone.ordinal(); i--) {
+                    mListener.onGeofenceExit(Zone.values()[i]);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Calculates the distance to the nearest zone border
+     * that can be crossed from the current zone.
+     *
+     * @return distance in meters, 0 if the geofence was not updated
+     */
+    public final double getDistanceToBorder() {
+        if (!mUpdated) {
+            return 0;
+        }
+
+        double distanceToBorder;
+        switch (mZone) {
+            case Arrival:
+                // only the arrival zone can be exited
+                distanceToBorder = mEffectiveArrivalRadius + mHysteresis
+                        - mDistance;
+                break;
+            case Approach:
+                // arrival zone can be entered or approach zone exited
+                distanceToBorder = Math.min(
+                        mDistance - mEffectiveArrivalRadius,
+                        mApproachRadius + mHysteresis - mDistance);
+                break;
+            case Outside:
+            default:
+                // only the approach zone can be entered
+                distanceToBorder = mDistance - mApproachRadius;
+                break;
+        }
+
+        return Math.max(0, distanceToBorder);
+    }
+
+    /**
+     * Calculates the minimum time until the next zone border can be crossed,
+     * based on the current speed (at least MIN_SPEED).
+     *
+     * @return time in milliseconds, 0 if the geofence was not updated
+     */
+    public final long getTimeToBorder() {
+        return (long) (getDistanceToBorder() / Math.max(mSpeed, MIN_SPEED)
+                * TimeUnits.SECOND_IN_MILLIS);
+    }
+
+    /**
+     * Calculates the location update interval, sparse when the next zone
+     * border is far away, but never shorter than the base interval
+     * and never longer than MAX_UPDATE_INTERVAL.
+     *
+     * @param baseInterval base location update interval in milliseconds
+     * @return location update interval in milliseconds
+     */
+    public final long getUpdateInterval(final long baseInterval) {
+        long interval = (long) (getTimeToBorder() * INTERVAL_SAFETY_FACTOR);
+
+        return Math.max(baseInterval, Math.min(interval, MAX_UPDATE_INTERVAL));
+    }
+}
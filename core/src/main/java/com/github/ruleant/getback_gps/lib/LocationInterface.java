@@ -0,0 +1,120 @@
+/**
+ * Interface for locations used for navigation.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Interface for locations used for navigation.
+ *
+ * The methods match android.location.Location, so a Location subclass
+ * implements this interface without extra code,
+ * and Navigator doesn't depend on the Android framework.
+ *
+ * @param <T> type of the locations distance and bearing are calculated to
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface LocationInterface<T> {
+    /**
+     * Get latitude.
+     *
+     * @return latitude in degrees
+     */
+    double getLatitude();
+
+    /**
+     * Get longitude.
+     *
+     * @return longitude in degrees
+     */
+    double getLongitude();
+
+    /**
+     * Get altitude.
+     *
+     * @return altitude in meters, 0 if not set
+     */
+    double getAltitude();
+
+    /**
+     * Get accuracy.
+     *
+     * @return accuracy radius in meters
+     */
+    float getAccuracy();
+
+    /**
+     * Checks if the location has a speed.
+     *
+     * @return true if speed is set
+     */
+    boolean hasSpeed();
+
+    /**
+     * Get speed.
+     *
+     * @return speed in m/s
+     */
+    float getSpeed();
+
+    /**
+     * Checks if the location has a bearing.
+     *
+     * @return true if bearing is set
+     */
+    boolean hasBearing();
+
+    /**
+     * Get bearing.
+     *
+     * @return bearing in ° relative to the North
+     */
+    float getBearing();
+
+    /**
+     * Get timestamp.
+     *
+     * @return time in milliseconds since the epoch
+     */
+    long getTime();
+
+    /**
+     * Checks if location timestamp is recent.
+     *
+     * @return true if location is recent.
+     */
+    boolean isRecent();
+
+    /**
+     * Calculates the distance to another location.
+     *
+     * @param location other location
+     * @return distance in meters
+     */
+    float distanceTo(T location);
+
+    /**
+     * Calculates the bearing to another location.
+     *
+     * @param location other location
+     * @return bearing in ° relative to the North
+     */
+    float bearingTo(T location);
+}
@@ -0,0 +1,421 @@
+/**
+ * Online magnetometer calibration.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+
+/**
+ * Online magnetometer calibration, correcting hard iron (offset)
+ * and soft iron (scale per axis) distortion.
+ *
+ * When the device is rotated, undistorted magnetic field samples lie
+ * on a sphere. Distortion turns the sphere into an ellipsoid,
+ * which is fitted with linear least squares to the model
+ * a.x^2 + b.y^2 + c.z^2 + d.x + e.y + f.z = 1 (an axis aligned ellipsoid).
+ * The normal equations are accumulated in fixed size arrays,
+ * with a forgetting factor, so adding a sample is O(1)
+ * and the calibration follows slow changes of the distortion.
+ * The fit is solved every few samples, and only used when the samples
+ * cover enough rotation and the fitted ellipsoid is plausible.
+ *
+ * The calibration (offset and scale) can be stored and restored,
+ * so a correct heading is available immediately after a warm start.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class MagnetometerCalibrator {
+    /**
+     * Number of sensor value components.
+     */
+    public static final int AXES = 3;
+
+    /**
+     * Size of a calibration array : offset and scale per axis.
+     */
+    public static final int CALIBRATION_SIZE = 2 * AXES;
+
+    /**
+     * Index of the first axis offset in a calibration array.
+     */
+    public static final int CALIBRATION_OFFSET = 0;
+
+    /**
+     * Index of the first axis scale in a calibration array.
+     */
+    public static final int CALIBRATION_SCALE = AXES;
+
+    /**
+     * Default forgetting factor, the weight of older samples
+     * is multiplied with it for each new sample.
+     */
+    public static final double DEFAULT_FORGETTING_FACTOR = 0.999;
+
+    /**
+     * Minimum number of samples before the fit is used.
+     */
+    public static final int MIN_SAMPLES = 50;
+
+    /**
+     * Number of samples between solving the fit.
+     */
+    private static final int SOLVE_INTERVAL = 10;
+
+    /**
+     * Number of fitted parameters.
+     */
+    private static final int PARAMS = 6;
+
+    /**
+     * Minimum standard deviation of each axis, relative to the field
+     * strength, the device should be rotated enough to fit the ellipsoid.
+     */
+    private static final double MIN_COVERAGE = 0.3;
+
+    /**
+     * Maximum ratio between the longest and shortest ellipsoid axis.
+     */
+    private static final double MAX_AXIS_RATIO = 2;
+
+    /**
+     * Smallest pivot of the normal equations, smaller is singular.
+     */
+    private static final double MIN_PIVOT = 1e-12;
+
+    /**
+     * Forgetting factor.
+     */
+    private final double mForgettingFactor;
+
+    /**
+     * Normal matrix accumulator (sum of the outer products
+     * of the design vectors), row major.
+     */
+    private final double[] mNormal = new double[PARAMS * PARAMS];
+
+    /**
+     * Right hand side accumulator (sum of the design vectors).
+     */
+    private final double[] mRhs = new double[PARAMS];
+
+    /**
+     * Weighted number of samples.
+     */
+    private double mWeight = 0;
+
+    /**
+     * Number of samples since the fit was last solved.
+     */
+    private int mUnsolved = 0;
+
+    /**
+     * Number of samples, limited to MIN_SAMPLES.
+     */
+    private int mSamples = 0;
+
+    /**
+     * Design vector of the last sample.
+     */
+    private final double[] mDesign = new double[PARAMS];
+
+    /**
+     * Work copy of the normal matrix, for solving.
+     */
+    private final double[] mWorkMatrix = new double[PARAMS * PARAMS];
+
+    /**
+     * Work copy of the right hand side, holds the solution after solving.
+     */
+    private final double[] mWorkVector = new double[PARAMS];
+
+    /**
+     * Hard iron offset per axis.
+     */
+    private final double[] mOffset = new double[AXES];
+
+    /**
+     * Soft iron scale per axis.
+     */
+    private final double[] mScale = {1, 1, 1};
+
+    /**
+     * True if a calibration is available.
+     */
+    private boolean mCalibrated = false;
+
+    /**
+     * Constructor, using the default forgetting factor.
+     */
+    public MagnetometerCalibrator() {
+        this(DEFAULT_FORGETTING_FACTOR);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param forgettingFactor weight factor of older samples (0-1],
+     *                         1 never forgets
+     */
+    public MagnetometerCalibrator(final double forgettingFactor) {
+        if (!(forgettingFactor > 0 && forgettingFactor <= 1)) {
+            throw new IllegalArgumentException(
+                    "forgettingFactor should be in range 0-1");
+        }
+
+        mForgettingFactor = forgettingFactor;
+    }
+
+    /**
+     * Adds a raw magnetic field sample.
+     *
+     * @param values magnetic field per axis (x, y, z) in µT
+     * @return true if the calibration changed
+     */
+    public final boolean addSample(final float[] values) {
+        double x = values[0];
+        double y = values[1];
+        double z = values[2];
+        mDesign[0] = x * x;
+        mDesign[1] = y * y;
+        mDesign[2] = z * z;
+        mDesign[3] = x;
+        mDesign[4] = y;
+        mDesign[5] = z;
+
+        // the normal matrix is symmetric, only the upper half is accumulated
+        for (int i = 0; i < PARAMS; i++) {
+            int row = i * PARAMS;
+            for (int j = i; j < PARAMS; j++) {
+                mNormal[row + j] = mNormal[row + j] * mForgettingFactor
+                        + mDesign[i] * mDesign[j];
+            }
+            mRhs[i] = mRhs[i] * mForgettingFactor + mDesign[i];
+        }
+        mWeight = mWeight * mForgettingFactor + 1;
+
+        if (mSamples < MIN_SAMPLES) {
+            mSamples++;
+        }
+
+        if (++mUnsolved < SOLVE_INTERVAL || mSamples < MIN_SAMPLES) {
+            return false;
+        }
+        mUnsolved = 0;
+
+        return solve();
+    }
+
+    /**
+     * Checks if a calibration is available,
+     * fitted from samples or restored.
+     *
+     * @return true if calibrated
+     */
+    public final boolean isCalibrated() {
+        return mCalibrated;
+    }
+
+    /**
+     * Corrects a raw magnetic field sample.
+     * Without calibration, the values are copied.
+     *
+     * @param values raw magnetic field per axis in µT
+     * @param result array the corrected values are stored in,
+     *               can be the same array as values
+     */
+    public final void correct(final float[] values, final float[] result) {
+        for (int i = 0; i < AXES; i++) {
+            result[i] = (float) ((values[i] - mOffset[i]) * mScale[i]);
+        }
+    }
+
+    /**
+     * Get the calibration, fe. to store it.
+     *
+     * @param calibration array of CALIBRATION_SIZE, offset per axis
+     *                    is stored from index CALIBRATION_OFFSET,
+     *                    scale per axis from index CALIBRATION_SCALE
+     */
+    public final void getCalibration(final double[] calibration) {
+        System.arraycopy(mOffset, 0, calibration, CALIBRATION_OFFSET, AXES);
+        System.arraycopy(mScale, 0, calibration, CALIBRATION_SCALE, AXES);
+    }
+
+    /**
+     * Sets a calibration, fe. a stored one. It is used until a new
+     * calibration is fitted from samples.
+     *
+     * @param calibration array of CALIBRATION_SIZE, see getCalibration()
+     */
+    public final void setCalibration(final double[] calibration) {
+        if (calibration == null || calibration.length != CALIBRATION_SIZE) {
+            throw new IllegalArgumentException(
+                    "calibration should have " + CALIBRATION_SIZE
+                    + " values");
+        }
+
+        for (int i = 0; i < AXES; i++) {
+            if (!(calibration[CALIBRATION_SCALE + i] > 0)) {
+                throw new IllegalArgumentException(
+                        "scale should be a non-zero positive value");
+            }
+        }
+
+        System.arraycopy(calibration, CALIBRATION_OFFSET, mOffset, 0, AXES);
+        System.arraycopy(calibration, CALIBRATION_SCALE, mScale, 0, AXES);
+        mCalibrated = true;
+    }
+
+    /**
+     * Removes the calibration and all accumulated samples.
+     */
+    public final void reset() {
+        Arrays.fill(mNormal, 0);
+        Arrays.fill(mRhs, 0);
+        Arrays.fill(mOffset, 0);
+        Arrays.fill(mScale, 1);
+        mWeight = 0;
+        mUnsolved = 0;
+        mSamples = 0;
+        mCalibrated = false;
+    }
+
+    /**
+     * Solves the ellipsoid fit, and updates the calibration
+     * if the fit is plausible.
+     *
+     * @return true if the calibration changed
+     */
+    private boolean solve() {
+        // copy the accumulators, mirroring the upper half of the matrix
+        for (int i = 0; i < PARAMS; i++) {
+            for (int j = 0; j < PARAMS; j++) {
+                mWorkMatrix[i * PARAMS + j] = i <= j
+                        ? mNormal[i * PARAMS + j] : mNormal[j * PARAMS + i];
+            }
+            mWorkVector[i] = mRhs[i];
+        }
+
+        if (!gaussianElimination(mWorkMatrix, mWorkVector)) {
+            return false;
+        }
+
+        double a = mWorkVector[0];
+        double b = mWorkVector[1];
+        double c = mWorkVector[2];
+        if (a * b <= 0 || a * c <= 0) {
+            // not an ellipsoid
+            return false;
+        }
+
+        double centerX = -mWorkVector[3] / (2 * a);
+        double centerY = -mWorkVector[4] / (2 * b);
+        double centerZ = -mWorkVector[5] / (2 * c);
+        double g = 1 + a * centerX * centerX + b * centerY * centerY
+                + c * centerZ * centerZ;
+        double radiusX = Math.sqrt(g / a);
+        double radiusY = Math.sqrt(g / b);
+        double radiusZ = Math.sqrt(g / c);
+        double minRadius = Math.min(radiusX, Math.min(radiusY, radiusZ));
+        double maxRadius = Math.max(radiusX, Math.max(radiusY, radiusZ));
+        if (!(minRadius > 0) || maxRadius / minRadius > MAX_AXIS_RATIO) {
+            return false;
+        }
+
+        // the samples should cover enough rotation around each axis
+        double minVariance = MIN_COVERAGE * MIN_COVERAGE * minRadius
+                * minRadius;
+        for (int i = 0; i < AXES; i++) {
+            double mean = mRhs[AXES + i] / mWeight;
+            double variance = mRhs[i] / mWeight - mean * mean;
+            if (variance < minVariance) {
+                return false;
+            }
+        }
+
+        // keep the field strength, the mean radius
+        double radius = Math.cbrt(radiusX * radiusY * radiusZ);
+        mOffset[0] = centerX;
+        mOffset[1] = centerY;
+        mOffset[2] = centerZ;
+        mScale[0] = radius / radiusX;
+        mScale[1] = radius / radiusY;
+        mScale[2] = radius / radiusZ;
+        mCalibrated = true;
+
+        return true;
+    }
+
+    /**
+     * Solves a linear system with Gaussian elimination
+     * and partial pivoting.
+     *
+     * @param matrix square matrix, row major, is overwritten
+     * @param vector right hand side, holds the solution afterwards
+     * @return false if the matrix is singular
+     */
+    private static boolean gaussianElimination(final double[] matrix,
+                                               final double[] vector) {
+        int n = vector.length;
+
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(matrix[row * n + col])
+                        > Math.abs(matrix[pivot * n + col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(matrix[pivot * n + col]) < MIN_PIVOT) {
+                return false;
+            }
+
+            if (pivot != col) {
+                for (int k = 0; k < n; k++) {
+                    double swap = matrix[col * n + k];
+                    matrix[col * n + k] = matrix[pivot * n + k];
+                    matrix[pivot * n + k] = swap;
+                }
+                double swap = vector[col];
+                vector[col] = vector[pivot];
+                vector[pivot] = swap;
+            }
+
+            for (int row = col + 1; row < n; row++) {
+                double factor = matrix[row * n + col] / matrix[col * n + col];
+                for (int k = col; k < n; k++) {
+                    matrix[row * n + k] -= factor * matrix[col * n + k];
+                }
+                vector[row] -= factor * vector[col];
+            }
+        }
+
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = vector[row];
+            for (int k = row + 1; k < n; k++) {
+                sum -= matrix[row * n + k] * vector[k];
+            }
+            vector[row] = sum / matrix[row * n + row];
+        }
+
+        return true;
+    }
+}
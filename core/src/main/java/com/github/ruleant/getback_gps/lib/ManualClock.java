@@ -0,0 +1,120 @@
+/**
+ * Manually advanced clock.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Clock that only advances when it is told to,
+ * used to run simulations and unit tests faster than real time,
+ * with deterministic expiry of timestamps.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class ManualClock implements Clock {
+    /**
+     * Current monotonic timestamp in nanoseconds.
+     */
+    private long mTimestampNano;
+
+    /**
+     * Offset of the wall clock time to the timestamp, in nanoseconds.
+     */
+    private long mWallClockOffset;
+
+    /**
+     * Constructor, both the timestamp and the wall clock time start at 0.
+     */
+    public ManualClock() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param timestampNano initial timestamp in nanoseconds
+     * @param currentTimeMillis initial wall clock time in milliseconds
+     */
+    public ManualClock(final long timestampNano,
+                       final long currentTimeMillis) {
+        setTime(timestampNano, currentTimeMillis);
+    }
+
+    /**
+     * Returns current timestamp.
+     *
+     * @return timestamp in nanoseconds
+     */
+    @Override
+    public final synchronized long getTimestampNano() {
+        return mTimestampNano;
+    }
+
+    /**
+     * Returns wall clock time.
+     *
+     * @return milliseconds since January 1, 1970 UTC
+     */
+    @Override
+    public final synchronized long getCurrentTimeMillis() {
+        return (mTimestampNano + mWallClockOffset) / TimeUnits.MILLI_IN_NANO;
+    }
+
+    /**
+     * Sets the current time.
+     *
+     * @param timestampNano timestamp in nanoseconds
+     * @param currentTimeMillis wall clock time in milliseconds
+     */
+    public final synchronized void setTime(final long timestampNano,
+                                           final long currentTimeMillis) {
+        if (timestampNano < 0 || currentTimeMillis < 0) {
+            throw new IllegalArgumentException(
+                    "time can't be a negative value");
+        }
+
+        mTimestampNano = timestampNano;
+        mWallClockOffset = currentTimeMillis * TimeUnits.MILLI_IN_NANO
+                - timestampNano;
+    }
+
+    /**
+     * Advances the clock, both the timestamp and the wall clock time.
+     *
+     * @param nanos time to advance in nanoseconds
+     */
+    public final synchronized void advanceNano(final long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException(
+                    "a clock can't go back in time");
+        }
+
+        mTimestampNano += nanos;
+    }
+
+    /**
+     * Advances the clock, both the timestamp and the wall clock time.
+     *
+     * @param millis time to advance in milliseconds
+     */
+    public final void advance(final long millis) {
+        advanceNano(millis * TimeUnits.MILLI_IN_NANO);
+    }
+}
@@ -0,0 +1,491 @@
+/**
+ * Registry of counters, gauges and histograms.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Lightweight registry of counters, gauges and fixed-bucket histograms.
+ *
+ * A metric is registered once by name, which returns an id.
+ * The id is used to update the metric, updating doesn't allocate,
+ * all values are kept in primitive arrays.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class MetricsRegistry {
+    /**
+     * Default maximum number of metrics per metric type.
+     */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    /**
+     * Default histogram bucket upper bounds, for durations in microseconds.
+     */
+    public static final long[] DURATION_BUCKETS_US = {
+        50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000
+    };
+
+    /**
+     * Percentile 50.
+     */
+    private static final double P50 = 0.5;
+
+    /**
+     * Percentile 90.
+     */
+    private static final double P90 = 0.9;
+
+    /**
+     * Percentile 99.
+     */
+    private static final double P99 = 0.99;
+
+    /**
+     * Registry shared by the whole app.
+     */
+    private static final MetricsRegistry DEFAULT_REGISTRY
+            = new MetricsRegistry(DEFAULT_CAPACITY);
+
+    /**
+     * Counter names.
+     */
+    private final String[] mCounterNames;
+
+    /**
+     * Counter values.
+     */
+    private final long[] mCounters;
+
+    /**
+     * Number of registered counters.
+     */
+    private int mCounterCount = 0;
+
+    /**
+     * Gauge names.
+     */
+    private final String[] mGaugeNames;
+
+    /**
+     * Gauge values.
+     */
+    private final double[] mGauges;
+
+    /**
+     * Number of registered gauges.
+     */
+    private int mGaugeCount = 0;
+
+    /**
+     * Histogram names.
+     */
+    private final String[] mHistogramNames;
+
+    /**
+     * Histogram bucket upper bounds (inclusive), per histogram.
+     */
+    private final long[][] mHistogramBounds;
+
+    /**
+     * Histogram bucket counts, per histogram,
+     * the last bucket counts the values bigger than the highest bound.
+     */
+    private final long[][] mHistogramBuckets;
+
+    /**
+     * Number of recorded values, per histogram.
+     */
+    private final long[] mHistogramTotals;
+
+    /**
+     * Sum of recorded values, per histogram.
+     */
+    private final long[] mHistogramSum;
+
+    /**
+     * Maximum recorded value, per histogram.
+     */
+    private final long[] mHistogramMax;
+
+    /**
+     * Number of registered histograms.
+     */
+    private int mHistogramCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity maximum number of metrics per metric type
+     */
+    public MetricsRegistry(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity should be a non-zero positive value");
+        }
+
+        mCounterNames = new String[capacity];
+        mCounters = new long[capacity];
+        mGaugeNames = new String[capacity];
+        mGauges = new double[capacity];
+        mHistogramNames = new String[capacity];
+        mHistogramBounds = new long[capacity][];
+        mHistogramBuckets = new long[capacity][];
+        mHistogramTotals = new long[capacity];
+        mHistogramSum = new long[capacity];
+        mHistogramMax = new long[capacity];
+    }
+
+    /**
+     * Returns the registry shared by the whole app.
+     *
+     * @return shared registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT_REGISTRY;
+    }
+
+    /**
+     * Registers a counter, or returns the id of an existing counter
+     * with the same name.
+     *
+     * @param name counter name
+     * @return counter id
+     * @throws IllegalStateException if capacity is reached
+     */
+    public final synchronized int registerCounter(final String name) {
+        int id = indexOf(mCounterNames, mCounterCount, name);
+        if (id >= 0) {
+            return id;
+        }
+
+        checkCapacity(mCounterCount);
+        mCounterNames[mCounterCount] = name;
+        return mCounterCount++;
+    }
+
+    /**
+     * Registers a gauge, or returns the id of an existing gauge
+     * with the same name.
+     *
+     * @param name gauge name
+     * @return gauge id
+     * @throws IllegalStateException if capacity is reached
+     */
+    public final synchronized int registerGauge(final String name) {
+        int id = indexOf(mGaugeNames, mGaugeCount, name);
+        if (id >= 0) {
+            return id;
+        }
+
+        checkCapacity(mGaugeCount);
+        mGaugeNames[mGaugeCount] = name;
+        return mGaugeCount++;
+    }
+
+    /**
+     * Registers a histogram, or returns the id of an existing histogram
+     * with the same name.
+     *
+     * @param name histogram name
+     * @param bounds bucket upper bounds (inclusive), in ascending order
+     * @return histogram id
+     * @throws IllegalStateException if capacity is reached
+     */
+    public final synchronized int registerHistogram(
+            final String name, final long[] bounds) {
+        if (bounds == null || bounds.length == 0) {
+            throw new IllegalArgumentException(
+                    "parameter bounds should not be an empty array");
+        }
+
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException(
+                        "parameter bounds should be in ascending order");
+            }
+        }
+
+        int id = indexOf(mHistogramNames, mHistogramCount, name);
+        if (id >= 0) {
+            return id;
+        }
+
+        checkCapacity(mHistogramCount);
+        mHistogramNames[mHistogramCount] = name;
+        mHistogramBounds[mHistogramCount]
+                = Arrays.copyOf(bounds, bounds.length);
+        // one extra bucket for values bigger than the highest bound
+        mHistogramBuckets[mHistogramCount] = new long[bounds.length + 1];
+        return mHistogramCount++;
+    }
+
+    /**
+     * Increments a counter by one.
+     *
+     * @param id counter id
+     */
+    public final void increment(final int id) {
+        add(id, 1);
+    }
+
+    /**
+     * Adds a value to a counter.
+     *
+     * @param id counter id
+     * @param delta value to add
+     */
+    public final synchronized void add(final int id, final long delta) {
+        mCounters[id] += delta;
+    }
+
+    /**
+     * Get counter value.
+     *
+     * @param id counter id
+     * @return counter value
+     */
+    public final synchronized long getCounter(final int id) {
+        return mCounters[id];
+    }
+
+    /**
+     * Sets gauge value.
+     *
+     * @param id gauge id
+     * @param value new value
+     */
+    public final synchronized void setGauge(final int id, final double value) {
+        mGauges[id] = value;
+    }
+
+    /**
+     * Get gauge value.
+     *
+     * @param id gauge id
+     * @return gauge value
+     */
+    public final synchronized double getGauge(final int id) {
+        return mGauges[id];
+    }
+
+    /**
+     * Records a value in a histogram.
+     *
+     * @param id histogram id
+     * @param value recorded value
+     */
+    public final synchronized void record(final int id, final long value) {
+        long[] bounds = mHistogramBounds[id];
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+
+        mHistogramBuckets[id][bucket]++;
+        mHistogramTotals[id]++;
+        mHistogramSum[id] += value;
+        if (mHistogramTotals[id] == 1 || value > mHistogramMax[id]) {
+            mHistogramMax[id] = value;
+        }
+    }
+
+    /**
+     * Records a duration in microseconds in a histogram.
+     *
+     * @param id histogram id
+     * @param startNano start timestamp in nanoseconds (System.nanoTime())
+     * @param endNano end timestamp in nanoseconds (System.nanoTime())
+     */
+    public final void recordDuration(
+            final int id, final long startNano, final long endNano) {
+        record(id, (endNano - startNano) / TimeUnits.MICRO_IN_NANO);
+    }
+
+    /**
+     * Get number of values recorded in a histogram.
+     *
+     * @param id histogram id
+     * @return number of recorded values
+     */
+    public final synchronized long getHistogramCount(final int id) {
+        return mHistogramTotals[id];
+    }
+
+    /**
+     * Get maximum value recorded in a histogram.
+     *
+     * @param id histogram id
+     * @return maximum value, 0 if no values were recorded
+     */
+    public final synchronized long getHistogramMax(final int id) {
+        return mHistogramMax[id];
+    }
+
+    /**
+     * Get mean value recorded in a histogram.
+     *
+     * @param id histogram id
+     * @return mean value, 0 if no values were recorded
+     */
+    public final synchronized double getHistogramMean(final int id) {
+        if (mHistogramTotals[id] == 0) {
+            return 0;
+        }
+
+        return (double) mHistogramSum[id] / mHistogramTotals[id];
+    }
+
+    /**
+     * Get number of values in a histogram bucket.
+     *
+     * @param id histogram id
+     * @param bucket bucket index,
+     *               the last bucket contains values above the highest bound
+     * @return number of values in bucket
+     */
+    public final synchronized long getHistogramBucket(
+            final int id, final int bucket) {
+        return mHistogramBuckets[id][bucket];
+    }
+
+    /**
+     * Estimates a percentile of a histogram,
+     * by returning the upper bound of the bucket containing the percentile.
+     * If the percentile is in the last bucket, the maximum value is returned.
+     *
+     * @param id histogram id
+     * @param percentile percentile (valid range : 0-1)
+     * @return upper bound of the percentile, 0 if no values were recorded
+     */
+    public final synchronized long getHistogramPercentile(
+            final int id, final double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException(
+                    "parameter percentile is not in range 0.0 .. 1.0");
+        }
+
+        long count = mHistogramTotals[id];
+        if (count == 0) {
+            return 0;
+        }
+
+        long[] bounds = mHistogramBounds[id];
+        long[] buckets = mHistogramBuckets[id];
+        long rank = (long) Math.ceil(percentile * count);
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i];
+            if (cumulative >= rank) {
+                return Math.min(bounds[i], mHistogramMax[id]);
+            }
+        }
+
+        return mHistogramMax[id];
+    }
+
+    /**
+     * Resets all metric values, registered metrics are kept.
+     */
+    public final synchronized void reset() {
+        Arrays.fill(mCounters, 0);
+        Arrays.fill(mGauges, 0);
+        Arrays.fill(mHistogramTotals, 0);
+        Arrays.fill(mHistogramSum, 0);
+        Arrays.fill(mHistogramMax, 0);
+        for (int i = 0; i < mHistogramCount; i++) {
+            Arrays.fill(mHistogramBuckets[i], 0);
+        }
+    }
+
+    /**
+     * Dumps all metrics as text, one metric per line.
+     *
+     * @return metrics as text
+     */
+    public final synchronized String dump() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < mCounterCount; i++) {
+            builder.append(mCounterNames[i]).append(": ")
+                    .append(mCounters[i]).append('\n');
+        }
+
+        for (int i = 0; i < mGaugeCount; i++) {
+            builder.append(String.format(Locale.getDefault(),
+                    "%1$s: %2$.2f\n", mGaugeNames[i], mGauges[i]));
+        }
+
+        for (int i = 0; i < mHistogramCount; i++) {
+            builder.append(String.format(Locale.getDefault(),
+                    "%1$s: n=%2$d mean=%3$.1f p50=%4$d p90=%5$d p99=%6$d "
+                            + "max=%7$d\n",
+                    mHistogramNames[i],
+                    mHistogramTotals[i],
+                    getHistogramMean(i),
+                    getHistogramPercentile(i, P50),
+                    getHistogramPercentile(i, P90),
+                    getHistogramPercentile(i, P99),
+                    mHistogramMax[i]));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Find a name in an array of names.
+     *
+     * @param names array of names
+     * @param count number of names in the array
+     * @param name name to find
+     * @return index of the name, -1 if not found
+     */
+    private static int indexOf(
+            final String[] names, final int count, final String name) {
+        if (name == null) {
+            throw new IllegalArgumentException(
+                    "Parameter name should not be null");
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if another metric can be registered.
+     *
+     * @param count number of registered metrics of a type
+     * @throws IllegalStateException if capacity is reached
+     */
+    private void checkCapacity(final int count) {
+        if (count >= mCounters.length) {
+            throw new IllegalStateException(
+                    "maximum number of metrics is reached");
+        }
+    }
+}
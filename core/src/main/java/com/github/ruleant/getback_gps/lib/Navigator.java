@@ -24,9 +24,15 @@ package com.github.ruleant.getback_gps.lib;
 /**
  * Class with several methods useful for navigation.
  *
+ * Locations and the orientation are passed through LocationInterface
+ * and OrientationInterface, so the navigator doesn't depend
+ * on the Android framework. The app uses AriadneLocation
+ * and SensorOrientation.
+ *
+ * @param <L> type of the locations
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
-public class Navigator {
+public class Navigator<L extends LocationInterface<? super L>> {
     /**
      * Travel direction enumerator.
      */
@@ -75,22 +81,34 @@ public class Navigator {
     /**
      * Current Location.
      */
-    private AriadneLocation mCurrentLocation = null;
+    private L mCurrentLocation = null;
 
     /**
      * Previous Location.
      */
-    private AriadneLocation mPreviousLocation = null;
+    private L mPreviousLocation = null;
+
+    /**
+     * Location that was current when location updates were suspended,
+     * because the device is still. Null if updates are not suspended,
+     * or if the current location wasn't recent when they were suspended.
+     */
+    private L mStillLocation = null;
+
+    /**
+     * True if location updates are suspended, because the device is still.
+     */
+    private boolean mLocationSuspended = false;
 
     /**
      * Current destination.
      */
-    private AriadneLocation mDestination;
+    private L mDestination;
 
     /**
      * Current orientation based on sensors.
      */
-    private SensorOrientation mSensorOrientation;
+    private OrientationInterface mSensorOrientation;
 
     /**
      * Offset between bearing provided by sensors
@@ -104,6 +122,38 @@ public class Navigator {
      */
     private TravelDirection mTravelDirection = TravelDirection.Unknown;
 
+    /**
+     * Geofence around the destination.
+     */
+    private final Geofence mGeofence = new Geofence();
+
+    /**
+     * Navigation targets, ordered by distance to the current location.
+     */
+    private final TargetSet mTargets = new TargetSet();
+
+    /**
+     * Followed route, null if no route is followed.
+     */
+    private Route mRoute = null;
+
+    /**
+     * Segment tree of the track to get back along, null if not set.
+     * The tree is immutable, it can be replaced by another thread.
+     */
+    private volatile SegmentRTree mTrack = null;
+
+    /**
+     * Cache of the magnetic declination,
+     * null if the sensor bearing isn't corrected to true north.
+     */
+    private DeclinationCache mDeclinationCache = null;
+
+    /**
+     * Magnetic declination at the current location, in degrees.
+     */
+    private double mDeclination = 0;
+
     /**
      * Constructor.
      */
@@ -113,9 +163,9 @@ public class Navigator {
     /**
      * Constructor.
      *
-     * @param sensorOrientation SensorOrientation instance
+     * @param sensorOrientation orientation provider, fe. SensorOrientation
      */
-    public Navigator(final SensorOrientation sensorOrientation) {
+    public Navigator(final OrientationInterface sensorOrientation) {
         if (sensorOrientation == null) {
             throw new IllegalArgumentException(
                     "Parameter sensorOrientation should not be null");
@@ -127,13 +177,17 @@ public class Navigator {
     /**
      * Set Location.
      *
-     * @param location New Location (AriadneLocation object)
+     * @param location New Location
      */
-    public final void setLocation(final AriadneLocation location) {
+    public final void setLocation(final L location) {
         mPreviousLocation = mCurrentLocation;
         mCurrentLocation = location;
 
+        updateDeclination();
         calculateSensorBearingOffset();
+        updateGeofence();
+        updateTargets();
+        updateRoute();
     }
 
     /**
@@ -141,10 +195,65 @@ public class Navigator {
      * this should only be done to restore a previous state.
      * Use setLocation() for normal operation.
      *
-     * @param location Previous Location (AriadneLocation object)
+     * @param location Previous Location
      */
-    public final void setPreviousLocation(final AriadneLocation location) {
+    public final void setPreviousLocation(final L location) {
         mPreviousLocation = location;
+        updateDeclination();
+    }
+
+    /**
+     * Set if location updates are suspended, because the device is still.
+     * While suspended, the current location is kept valid when it is
+     * no longer recent, because the device didn't move since the fix.
+     * This is only done if the location was recent when the updates
+     * were suspended.
+     *
+     * @param suspended true if location updates are suspended
+     */
+    public final void setLocationSuspended(final boolean suspended) {
+        if (suspended == mLocationSuspended) {
+            return;
+        }
+
+        mLocationSuspended = suspended;
+        if (suspended && mCurrentLocation != null
+                && mCurrentLocation.isRecent()) {
+            mStillLocation = mCurrentLocation;
+        } else {
+            mStillLocation = null;
+        }
+    }
+
+    /**
+     * Checks if location updates are suspended, because the device is still.
+     *
+     * @return true if location updates are suspended
+     */
+    public final boolean isLocationSuspended() {
+        return mLocationSuspended;
+    }
+
+    /**
+     * Set cache of the magnetic declination, used to correct
+     * the magnetic sensor bearing to a bearing relative to true north.
+     *
+     * @param declinationCache declination cache,
+     *                         null to disable the correction
+     */
+    public final void setDeclinationCache(
+            final DeclinationCache declinationCache) {
+        mDeclinationCache = declinationCache;
+        updateDeclination();
+    }
+
+    /**
+     * Get magnetic declination at the current location.
+     *
+     * @return declination in degrees, 0 if unknown
+     */
+    public final double getDeclination() {
+        return mDeclination;
     }
 
     /**
@@ -154,7 +263,7 @@ public class Navigator {
      *
      * @return Location
      */
-    public final AriadneLocation getLocation() {
+    public final L getLocation() {
         return mCurrentLocation;
     }
 
@@ -163,7 +272,7 @@ public class Navigator {
      *
      * @return Previous Location
      */
-    public final AriadneLocation getPreviousLocation() {
+    public final L getPreviousLocation() {
         return mPreviousLocation;
     }
 
@@ -172,8 +281,17 @@ public class Navigator {
      *
      * @param destination New destination
      */
-    public final void setDestination(final AriadneLocation destination) {
+    public final void setDestination(final L destination) {
+        // geofence is kept if only the name of the destination changed
+        if (destination == null || mDestination == null
+                || destination.getLatitude() != mDestination.getLatitude()
+                || destination.getLongitude()
+                    != mDestination.getLongitude()) {
+            mGeofence.reset();
+        }
+
         mDestination = destination;
+        updateGeofence();
     }
 
     /**
@@ -181,17 +299,134 @@ public class Navigator {
      *
      * @return Destination
      */
-    public final AriadneLocation getDestination() {
+    public final L getDestination() {
         return mDestination;
     }
 
+    /**
+     * Get geofence around the destination,
+     * it is updated when the location or the destination changes.
+     *
+     * @return Geofence
+     */
+    public final Geofence getGeofence() {
+        return mGeofence;
+    }
+
+    /**
+     * Get navigation targets, the distance and bearing to all targets
+     * are updated when the location changes.
+     * Call updateTargets() after changing the targets.
+     *
+     * @return navigation targets
+     */
+    public final TargetSet getTargets() {
+        return mTargets;
+    }
+
+    /**
+     * Update distance and bearing to all navigation targets,
+     * and the nearest target, if the current location is set.
+     */
+    public final void updateTargets() {
+        if (mCurrentLocation == null || mTargets.getCount() == 0) {
+            return;
+        }
+
+        mTargets.update(mCurrentLocation.getLatitude(),
+                mCurrentLocation.getLongitude());
+    }
+
+    /**
+     * Set followed route, it is updated when the location changes.
+     *
+     * @param route route to follow, null to stop following a route
+     */
+    public final void setRoute(final Route route) {
+        mRoute = route;
+        updateRoute();
+    }
+
+    /**
+     * Get followed route.
+     *
+     * @return followed route, null if no route is followed
+     */
+    public final Route getRoute() {
+        return mRoute;
+    }
+
+    /**
+     * Set segment tree of the track to get back along,
+     * it can be built and set in a background thread.
+     *
+     * @param track segment tree, null to clear the track
+     */
+    public final void setTrack(final SegmentRTree track) {
+        mTrack = track;
+    }
+
+    /**
+     * Get segment tree of the track to get back along.
+     *
+     * @return segment tree, null if not set
+     */
+    public final SegmentRTree getTrack() {
+        return mTrack;
+    }
+
+    /**
+     * Finds the position on the track nearest to the current location.
+     *
+     * @param result array of SegmentRTree.RESULT_SIZE,
+     *               see SegmentRTree.findNearestSegment(), can be null
+     * @return nearest segment index, SegmentRTree.NO_SEGMENT if the track
+     *         or the current location is not set
+     */
+    public final int findPositionOnTrack(final double[] result) {
+        // read volatile field once, it can be replaced in the meantime
+        SegmentRTree track = mTrack;
+        if (track == null || mCurrentLocation == null) {
+            return SegmentRTree.NO_SEGMENT;
+        }
+
+        return track.findNearestSegment(mCurrentLocation.getLatitude(),
+                mCurrentLocation.getLongitude(), result);
+    }
+
+    /**
+     * Update followed route with the current location,
+     * if the location is accurate.
+     */
+    private void updateRoute() {
+        if (mRoute == null || !isLocationAccurate()) {
+            return;
+        }
+
+        mRoute.update(mCurrentLocation.getLatitude(),
+                mCurrentLocation.getLongitude());
+    }
+
+    /**
+     * Update geofence with the distance to the destination,
+     * if the location is accurate.
+     */
+    private void updateGeofence() {
+        if (getDestination() == null || !isLocationAccurate()) {
+            return;
+        }
+
+        mGeofence.update(getDistance(), mCurrentLocation.getAccuracy(),
+                getCurrentSpeed());
+    }
+
     /**
      * Calculate distance to current destination.
      *
      * @return distance in meters
      */
     public final float getDistance() {
-        AriadneLocation destination = getDestination();
+        L destination = getDestination();
 
         // don't calculate distance if current location is not set
         if (mCurrentLocation == null || destination == null) {
@@ -206,7 +441,7 @@ public class Navigator {
      * @return distance in meters
      */
     public final double getHeightDifference() {
-        AriadneLocation destination = getDestination();
+        L destination = getDestination();
 
         // don't calculate difference if current location is not set
         if (mCurrentLocation == null || destination == null) {
@@ -221,7 +456,7 @@ public class Navigator {
      * @return direction in ° relative to the North
      */
     public final double getAbsoluteDirection() {
-        AriadneLocation destination = getDestination();
+        L destination = getDestination();
 
         // don't calculate direction if current location is not set
         if (mCurrentLocation == null || destination == null) {
@@ -265,7 +500,7 @@ public class Navigator {
         double absoluteDirection = getAbsoluteDirection();
         double currentBearing = getCurrentBearing();
 
-        return FormatUtils.normalizeAngle(absoluteDirection - currentBearing);
+        return AngleMath.normalize(absoluteDirection - currentBearing);
     }
 
     /**
@@ -280,6 +515,24 @@ public class Navigator {
                 && getDistance() < mCurrentLocation.getAccuracy();
     }
 
+    /**
+     * Check if the destination is reached, according to the geofence.
+     *
+     * The geofence keeps its zone when the location is not updated
+     * or becomes inaccurate, so like isDestinationReached(),
+     * the destination is only reported as reached
+     * if the current location is recent and accurate.
+     * The geofence uses an arrival radius of at least
+     * Geofence.DEFAULT_ARRIVAL_RADIUS, with a hysteresis margin.
+     *
+     * @return true if the current location is accurate
+     *         and inside the arrival zone of the geofence
+     */
+    public final boolean isArrived() {
+        return isLocationAccurate() && getDestination() != null
+                && mGeofence.isArrived();
+    }
+
     /**
      * Calculate most accurate current speed,
      * depending on available sensors and data.
@@ -312,7 +565,7 @@ public class Navigator {
                     // calculate speed from distance travelled and time spent
                     // time is in milliseconds, convert to seconds.
                     currentSpeed = distance
-                        / ((float) time / (float) Tools.SECOND_IN_MILLIS);
+                        / ((float) time / (float) TimeUnits.SECOND_IN_MILLIS);
                 }
             }
         }
@@ -329,8 +582,7 @@ public class Navigator {
     public final double getCurrentBearing() {
         double currentBearing;
         if (isSensorBearingAccurate()) {
-            currentBearing = mSensorOrientation.getOrientation()
-                    - mSensorBearingOffset;
+            currentBearing = getSensorBearing() - mSensorBearingOffset;
         } else {
             currentBearing = getLocationBearing();
         }
@@ -362,13 +614,15 @@ public class Navigator {
     /**
      * Determines if current location is accurate,
      * if it is set, if it is recent and if the accuracy is reasonable.
-     *
+     * A location that was recent when location updates were suspended
+     * stays recent while the device is still.
      *
      * @return true if location is accurate
      */
     public final boolean isLocationAccurate() {
         return  mCurrentLocation != null
-                && mCurrentLocation.isRecent()
+                && (mCurrentLocation.isRecent()
+                || mCurrentLocation == mStillLocation)
                 && mCurrentLocation.getAccuracy() <= ACCURACY_LIMIT;
     }
 
@@ -421,18 +675,18 @@ public class Navigator {
             && (mCurrentLocation != null && mCurrentLocation.hasBearing()
             || isLocationBearingAccurate())) {
 
-            double bearing = mSensorOrientation.getOrientation();
+            double bearing = getSensorBearing();
 
             // Calculate offset
             mSensorBearingOffset = bearing - getLocationBearing();
 
             // detect moving backwards
             double absBearingOffset = Math.abs(mSensorBearingOffset);
-            double upperRange = FormatUtils.CIRCLE_HALF + DIRECTION_ANGLE_RANGE;
-            double lowerRange = FormatUtils.CIRCLE_HALF + DIRECTION_ANGLE_RANGE;
+            double upperRange = AngleMath.CIRCLE_HALF + DIRECTION_ANGLE_RANGE;
+            double lowerRange = AngleMath.CIRCLE_HALF + DIRECTION_ANGLE_RANGE;
             if (absBearingOffset < upperRange
                     && absBearingOffset > lowerRange) {
-                mSensorBearingOffset -= FormatUtils.CIRCLE_HALF;
+                mSensorBearingOffset -= AngleMath.CIRCLE_HALF;
                 mTravelDirection = TravelDirection.Backwards;
             } else {
                 mTravelDirection = TravelDirection.Forward;
@@ -443,4 +697,33 @@ public class Navigator {
             mTravelDirection = TravelDirection.Unknown;
         }
     }
+
+    /**
+     * Get sensor based bearing, corrected with the magnetic declination.
+     *
+     * @return bearing in ° relative to true North
+     */
+    private double getSensorBearing() {
+        return mSensorOrientation.getOrientation() + mDeclination;
+    }
+
+    /**
+     * Updates the magnetic declination at the current location.
+     */
+    private void updateDeclination() {
+        // a restored previous location gives a declination at startup
+        L location = mCurrentLocation;
+        if (location == null) {
+            location = mPreviousLocation;
+        }
+
+        if (mDeclinationCache == null || location == null) {
+            mDeclination = 0;
+            return;
+        }
+
+        mDeclination = mDeclinationCache.getDeclination(
+                location.getLatitude(), location.getLongitude(),
+                location.getTime());
+    }
 }
@@ -0,0 +1,150 @@
+/**
+ * Orientation event.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Orientation event, with the orientation at the time of a sensor event.
+ *
+ * Events are preallocated, and reused when new events are published,
+ * so a listener should copy the values it wants to keep.
+ * The fields are volatile, so a reader on another thread
+ * can detect that an event was overwritten while it was copied,
+ * see OrientationEventBuffer.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class OrientationEvent {
+    /**
+     * Azimuth in degrees (0°-360°).
+     */
+    private volatile double mAzimuth = 0;
+
+    /**
+     * Pitch in degrees.
+     */
+    private volatile double mPitch = 0;
+
+    /**
+     * Roll in degrees.
+     */
+    private volatile double mRoll = 0;
+
+    /**
+     * Sensor accuracy (SensorManager.SENSOR_STATUS_*).
+     */
+    private volatile int mAccuracy = 0;
+
+    /**
+     * Sensor timestamp in nanoseconds.
+     */
+    private volatile long mTimestamp = 0;
+
+    /**
+     * Sequence number of the event.
+     */
+    private volatile long mSequence = 0;
+
+    /**
+     * Get azimuth.
+     *
+     * @return azimuth in degrees (0°-360°)
+     */
+    public final double getAzimuth() {
+        return mAzimuth;
+    }
+
+    /**
+     * Get pitch.
+     *
+     * @return pitch in degrees
+     */
+    public final double getPitch() {
+        return mPitch;
+    }
+
+    /**
+     * Get roll.
+     *
+     * @return roll in degrees
+     */
+    public final double getRoll() {
+        return mRoll;
+    }
+
+    /**
+     * Get sensor accuracy.
+     *
+     * @return accuracy (SensorManager.SENSOR_STATUS_*)
+     */
+    public final int getAccuracy() {
+        return mAccuracy;
+    }
+
+    /**
+     * Get sensor timestamp.
+     *
+     * @return timestamp in nanoseconds
+     */
+    public final long getTimestamp() {
+        return mTimestamp;
+    }
+
+    /**
+     * Get sequence number, the number of events published before this one.
+     *
+     * @return sequence number
+     */
+    public final long getSequence() {
+        return mSequence;
+    }
+
+    /**
+     * Sets all values of the event.
+     *
+     * @param azimuth azimuth in degrees
+     * @param pitch pitch in degrees
+     * @param roll roll in degrees
+     * @param accuracy sensor accuracy
+     * @param timestamp sensor timestamp in nanoseconds
+     * @param sequence sequence number
+     */
+    final void set(final double azimuth, final double pitch,
+                   final double roll, final int accuracy,
+                   final long timestamp, final long sequence) {
+        mAzimuth = azimuth;
+        mPitch = pitch;
+        mRoll = roll;
+        mAccuracy = accuracy;
+        mTimestamp = timestamp;
+        mSequence = sequence;
+    }
+
+    /**
+     * Copies the values of another event.
+     *
+     * @param event event to copy
+     */
+    final void copyFrom(final OrientationEvent event) {
+        set(event.mAzimuth, event.mPitch, event.mRoll, event.mAccuracy,
+                event.mTimestamp, event.mSequence);
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Ring buffer of orientation events.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Ring buffer of orientation events, with a single producer
+ * and a read cursor per consumer.
+ *
+ * The events are preallocated and overwritten when the buffer wraps,
+ * so publishing an event doesn't allocate and never waits for a consumer.
+ * A consumer that falls behind more than the capacity skips ahead
+ * to the oldest event still in the buffer, the number of skipped events
+ * is kept in its cursor.
+ *
+ * Events are only published by one thread, a cursor is only read
+ * by one thread, which can be another thread than the producer.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class OrientationEventBuffer {
+    /**
+     * Default capacity.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Preallocated events.
+     */
+    private final OrientationEvent[] mEvents;
+
+    /**
+     * Mask to wrap a sequence number to an index.
+     */
+    private final int mMask;
+
+    /**
+     * Number of events the producer started writing.
+     */
+    private volatile long mClaimed = 0;
+
+    /**
+     * Number of published events.
+     */
+    private volatile long mPublished = 0;
+
+    /**
+     * Constructor, using the default capacity.
+     */
+    public OrientationEventBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity number of events, should be a power of 2
+     */
+    public OrientationEventBuffer(final int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException(
+                    "capacity should be a non-zero power of 2");
+        }
+
+        mEvents = new OrientationEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            mEvents[i] = new OrientationEvent();
+        }
+        mMask = capacity - 1;
+    }
+
+    /**
+     * Get capacity.
+     *
+     * @return number of events the buffer holds
+     */
+    public final int getCapacity() {
+        return mEvents.length;
+    }
+
+    /**
+     * Get number of published events.
+     *
+     * @return number of events
+     */
+    public final long getPublishedCount() {
+        return mPublished;
+    }
+
+    /**
+     * Publishes an event, overwriting the oldest event.
+     * Should only be called by the producer thread.
+     *
+     * @param azimuth azimuth in degrees
+     * @param pitch pitch in degrees
+     * @param roll roll in degrees
+     * @param accuracy sensor accuracy
+     * @param timestamp sensor timestamp in nanoseconds
+     */
+    public final void publish(final double azimuth, final double pitch,
+                              final double roll, final int accuracy,
+                              final long timestamp) {
+        long sequence = mPublished;
+
+        // readers check the claimed count to detect overwritten events
+        mClaimed = sequence + 1;
+        mEvents[(int) sequence & mMask].set(
+                azimuth, pitch, roll, accuracy, timestamp, sequence);
+        mPublished = sequence + 1;
+    }
+
+    /**
+     * Creates a cursor, that reads the events published from now on.
+     *
+     * @return new cursor
+     */
+    public final Cursor newCursor() {
+        return new Cursor(mPublished);
+    }
+
+    /**
+     * Reads the next event of a cursor, and moves the cursor.
+     * If the cursor fell behind, it skips to the oldest available event.
+     *
+     * @param cursor read cursor of the consumer
+     * @param event event the values are copied to
+     * @return true if an event was read, false if there are no new events
+     */
+    public final boolean read(final Cursor cursor,
+                              final OrientationEvent event) {
+        int capacity = mEvents.length;
+
+        while (true) {
+            long published = mPublished;
+            long next = cursor.mNext;
+            if (next >= published) {
+                return false;
+            }
+
+            if (published - next > capacity) {
+                cursor.mSkipped += published - capacity - next;
+                next = published - capacity;
+            }
+
+            event.copyFrom(mEvents[(int) next & mMask]);
+            cursor.mNext = next + 1;
+
+            // event is valid if the producer didn't start overwriting it
+            if (mClaimed - next <= capacity) {
+                return true;
+            }
+            cursor.mSkipped++;
+        }
+    }
+
+    /**
+     * Read cursor of a consumer.
+     */
+    public static final class Cursor {
+        /**
+         * Sequence number of the next event to read.
+         */
+        private long mNext;
+
+        /**
+         * Number of events skipped, because the consumer fell behind.
+         */
+        private long mSkipped = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param next sequence number of the first event to read
+         */
+        private Cursor(final long next) {
+            mNext = next;
+        }
+
+        /**
+         * Get sequence number of the next event to read.
+         *
+         * @return sequence number
+         */
+        public long getNext() {
+            return mNext;
+        }
+
+        /**
+         * Get number of events skipped, because the consumer fell behind.
+         *
+         * @return number of skipped events
+         */
+        public long getSkipped() {
+            return mSkipped;
+        }
+    }
+}
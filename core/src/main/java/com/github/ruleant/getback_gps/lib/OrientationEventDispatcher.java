@@ -0,0 +1,241 @@
+/**
+ * Dispatches orientation events to listeners on their own thread.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispatches orientation events to listeners on their own thread.
+ *
+ * The producer publishes events to an OrientationEventBuffer and only
+ * schedules a call for each listener that has no call pending,
+ * it never calls a listener itself. Each listener drains the unread
+ * events with its own cursor, on the thread of its Executor
+ * (fe. a Handler). A slow listener skips the events that were overwritten
+ * in the meantime, but it doesn't block the producer or other listeners.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class OrientationEventDispatcher {
+    /**
+     * Published orientation events.
+     */
+    private final OrientationEventBuffer mEvents;
+
+    /**
+     * Subscribed listeners, each with their own read cursor.
+     */
+    private final CopyOnWriteArrayList<Subscriber> mSubscribers
+            = new CopyOnWriteArrayList<Subscriber>();
+
+    /**
+     * Constructor, using a buffer with the default capacity.
+     */
+    public OrientationEventDispatcher() {
+        this(new OrientationEventBuffer());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param events buffer the events are published to
+     */
+    public OrientationEventDispatcher(final OrientationEventBuffer events) {
+        if (events == null) {
+            throw new IllegalArgumentException(
+                    "Parameter events should not be null");
+        }
+
+        mEvents = events;
+    }
+
+    /**
+     * Get the buffer with published orientation events.
+     *
+     * @return orientation event buffer
+     */
+    public final OrientationEventBuffer getEvents() {
+        return mEvents;
+    }
+
+    /**
+     * Adds a listener, adding a listener again is ignored.
+     * The listener receives the events published after it was added.
+     *
+     * @param listener orientation event listener
+     * @param executor Executor calling the listener, it should run the calls
+     *                 in order, fe. a Handler or a single thread
+     */
+    public final synchronized void addListener(
+            final OrientationEventListener listener, final Executor executor) {
+        if (listener == null) {
+            throw new IllegalArgumentException(
+                    "Parameter listener should not be null");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException(
+                    "Parameter executor should not be null");
+        }
+
+        if (indexOf(listener) < 0) {
+            mSubscribers.add(new Subscriber(listener, executor));
+        }
+    }
+
+    /**
+     * Removes a listener, a pending call returns without calling it.
+     *
+     * @param listener orientation event listener
+     */
+    public final synchronized void removeListener(
+            final OrientationEventListener listener) {
+        int index = indexOf(listener);
+        if (index >= 0) {
+            mSubscribers.remove(index).cancel();
+        }
+    }
+
+    /**
+     * Get number of listeners.
+     *
+     * @return number of listeners
+     */
+    public final int getListenerCount() {
+        return mSubscribers.size();
+    }
+
+    /**
+     * Publishes an event, and schedules a call for each listener
+     * that has no call pending. Listeners are not called on this thread.
+     *
+     * @param azimuth azimuth in degrees
+     * @param pitch pitch in degrees
+     * @param roll roll in degrees
+     * @param accuracy sensor accuracy
+     * @param timestamp sensor timestamp in nanoseconds
+     */
+    public final void publish(final double azimuth, final double pitch,
+                              final double roll, final int accuracy,
+                              final long timestamp) {
+        mEvents.publish(azimuth, pitch, roll, accuracy, timestamp);
+
+        for (Subscriber subscriber : mSubscribers) {
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * Find a subscribed listener, should be called while holding the lock.
+     *
+     * @param listener listener
+     * @return index of the listener, -1 if not found
+     */
+    private int indexOf(final OrientationEventListener listener) {
+        for (int i = 0; i < mSubscribers.size(); i++) {
+            if (mSubscribers.get(i).mListener == listener) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Subscribed listener with its read cursor.
+     */
+    private final class Subscriber implements Runnable {
+        /**
+         * Listener.
+         */
+        private final OrientationEventListener mListener;
+
+        /**
+         * Executor calling the listener.
+         */
+        private final Executor mExecutor;
+
+        /**
+         * Read cursor of the listener.
+         */
+        private final OrientationEventBuffer.Cursor mCursor;
+
+        /**
+         * Event passed to the listener, reused for each event.
+         */
+        private final OrientationEvent mEvent = new OrientationEvent();
+
+        /**
+         * True if a call is scheduled and didn't start reading yet.
+         */
+        private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+
+        /**
+         * True if the listener was removed.
+         */
+        private volatile boolean mCancelled = false;
+
+        /**
+         * Constructor.
+         *
+         * @param listener listener
+         * @param executor Executor calling the listener
+         */
+        Subscriber(final OrientationEventListener listener,
+                   final Executor executor) {
+            mListener = listener;
+            mExecutor = executor;
+            mCursor = mEvents.newCursor();
+        }
+
+        /**
+         * Schedules a call to the listener, if none is scheduled.
+         */
+        void schedule() {
+            if (!mCancelled && mScheduled.compareAndSet(false, true)) {
+                mExecutor.execute(this);
+            }
+        }
+
+        /**
+         * Cancels calling the listener.
+         */
+        void cancel() {
+            mCancelled = true;
+        }
+
+        /**
+         * Passes the unread events to the listener.
+         */
+        @Override
+        public synchronized void run() {
+            // events published from now on schedule a new call
+            mScheduled.set(false);
+
+            while (!mCancelled && mEvents.read(mCursor, mEvent)) {
+                mListener.onOrientationChanged(mEvent);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Receives the outline of a shape.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Interface for classes receiving the outline of a shape,
+ * fe. to build an Android Path or an array of lines.
+ * Coordinates writes its converted coordinates to a PathSink,
+ * so the geometry doesn't depend on how it is rendered.
+ *
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface PathSink {
+    /**
+     * Starts a new contour at a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     */
+    void moveTo(float x, float y);
+
+    /**
+     * Adds a line from the previous point to a point.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     */
+    void lineTo(float x, float y);
+
+    /**
+     * Closes the current contour,
+     * adding a line from the last point to the first point of the contour.
+     */
+    void close();
+}
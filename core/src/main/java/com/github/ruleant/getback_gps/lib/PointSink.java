@@ -0,0 +1,40 @@
+/**
+ * Interface for classes receiving a sequence of points.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Interface for classes receiving a sequence of points,
+ * fe. the points kept by a PolylineSimplifier.
+ * The points are either cartesian coordinates,
+ * or longitude (x) and latitude (y) in degrees.
+ *
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface PointSink {
+    /**
+     * Adds a point to the sequence.
+     *
+     * @param x X coordinate or longitude
+     * @param y Y coordinate or latitude
+     */
+    void addPoint(double x, double y);
+}
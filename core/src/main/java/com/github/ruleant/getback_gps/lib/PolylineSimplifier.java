@@ -0,0 +1,399 @@
+/**
+ * Streaming polyline simplifier.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Simplifies a stream of points forming a polyline,
+ * fe. recorded positions or an imported track,
+ * removing points that don't change the shape more than a tolerance.
+ *
+ * Points are buffered in a window of a fixed size. When the window is full,
+ * the window is simplified, the points that are kept are passed
+ * to a PointSink and the tail of the window is kept to continue
+ * the polyline, so memory use doesn't depend on the length of the stream.
+ *
+ * Points are either cartesian coordinates (fe. pixels),
+ * or geographic coordinates (longitude as x, latitude as y, in degrees),
+ * with the tolerance in meters.
+ * Geographic coordinates are projected on a plane tangent to the first point
+ * in the window, which is accurate enough for the size of a window.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public abstract class PolylineSimplifier {
+    /**
+     * Default number of points in the window.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 256;
+
+    /**
+     * Minimum number of points in the window.
+     */
+    public static final int MIN_WINDOW_SIZE = 3;
+
+    /**
+     * Length of a degree of latitude in meters,
+     * based on the mean earth radius (6371 km).
+     */
+    public static final double METERS_PER_DEGREE = 111195;
+
+    /**
+     * Half circle in degrees.
+     */
+    private static final double HALF_CIRCLE = 180;
+
+    /**
+     * Receiver of the simplified points.
+     */
+    private final PointSink mSink;
+
+    /**
+     * Tolerance in meters or pixels.
+     */
+    private final double mTolerance;
+
+    /**
+     * True if points are longitude and latitude.
+     */
+    private final boolean mGeographic;
+
+    /**
+     * X coordinates of the points in the window.
+     */
+    private final double[] mX;
+
+    /**
+     * Y coordinates of the points in the window.
+     */
+    private final double[] mY;
+
+    /**
+     * Projected X coordinates of the points in the window.
+     */
+    protected final double[] mProjectedX;
+
+    /**
+     * Projected Y coordinates of the points in the window.
+     */
+    protected final double[] mProjectedY;
+
+    /**
+     * Set for the points in the window that are kept.
+     */
+    protected final boolean[] mKept;
+
+    /**
+     * Number of points in the window.
+     */
+    private int mCount = 0;
+
+    /**
+     * Number of points added since the last reset.
+     */
+    private long mAddedCount = 0;
+
+    /**
+     * Number of points passed to the sink since the last reset.
+     */
+    private long mEmittedCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param sink receiver of the simplified points
+     * @param tolerance tolerance in meters (geographic) or pixels
+     * @param geographic true if points are longitude and latitude
+     * @param windowSize number of points in the window
+     */
+    protected PolylineSimplifier(final PointSink sink, final double tolerance,
+                                 final boolean geographic,
+                                 final int windowSize) {
+        if (sink == null) {
+            throw new IllegalArgumentException(
+                    "Parameter sink should not be null");
+        }
+
+        if (tolerance < 0) {
+            throw new IllegalArgumentException(
+                    "tolerance should not be negative");
+        }
+
+        if (windowSize < MIN_WINDOW_SIZE) {
+            throw new IllegalArgumentException(
+                    "windowSize should be at least " + MIN_WINDOW_SIZE);
+        }
+
+        mSink = sink;
+        mTolerance = tolerance;
+        mGeographic = geographic;
+        mX = new double[windowSize];
+        mY = new double[windowSize];
+        mProjectedX = new double[windowSize];
+        mProjectedY = new double[windowSize];
+        mKept = new boolean[windowSize];
+    }
+
+    /**
+     * Get tolerance.
+     *
+     * @return tolerance in meters or pixels
+     */
+    public final double getTolerance() {
+        return mTolerance;
+    }
+
+    /**
+     * Checks if points are geographic coordinates.
+     *
+     * @return true if points are longitude and latitude
+     */
+    public final boolean isGeographic() {
+        return mGeographic;
+    }
+
+    /**
+     * Get number of points added since the last reset.
+     *
+     * @return number of added points
+     */
+    public final long getAddedCount() {
+        return mAddedCount;
+    }
+
+    /**
+     * Get number of points passed to the sink since the last reset.
+     *
+     * @return number of simplified points
+     */
+    public final long getEmittedCount() {
+        return mEmittedCount;
+    }
+
+    /**
+     * Adds a point to the polyline.
+     *
+     * @param x X coordinate or longitude
+     * @param y Y coordinate or latitude
+     */
+    public final void addPoint(final double x, final double y) {
+        if (mCount == mX.length) {
+            simplify(false);
+        }
+
+        mX[mCount] = x;
+        mY[mCount] = y;
+        mCount++;
+        mAddedCount++;
+    }
+
+    /**
+     * Adds a series of points to the polyline.
+     *
+     * @param xs X coordinates or longitudes
+     * @param ys Y coordinates or latitudes
+     * @param offset index of the first point in the arrays
+     * @param count number of points
+     */
+    public final void addPoints(final double[] xs, final double[] ys,
+                                final int offset, final int count) {
+        if (xs == null || ys == null) {
+            throw new IllegalArgumentException(
+                    "Parameters xs and ys should not be null");
+        }
+
+        if (offset < 0 || count < 0 || offset + count > xs.length
+                || offset + count > ys.length) {
+            throw new IllegalArgumentException(
+                    "offset and count are out of range");
+        }
+
+        for (int i = offset; i < offset + count; i++) {
+            addPoint(xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Ends the polyline, the remaining points are simplified
+     * and passed to the sink, including the last point.
+     * A point added after a flush starts a new polyline.
+     * The counters are not reset.
+     */
+    public final void flush() {
+        if (mCount > 0) {
+            simplify(true);
+        }
+
+        mCount = 0;
+    }
+
+    /**
+     * Discards the points that were not passed to the sink yet,
+     * starts a new polyline and resets the counters.
+     */
+    public final void reset() {
+        mCount = 0;
+        mAddedCount = 0;
+        mEmittedCount = 0;
+    }
+
+    /**
+     * Marks the points in the window that are kept, in mKept.
+     * All points are marked as kept when this method is called,
+     * the first and the last point should stay marked.
+     * The projected coordinates are in mProjectedX and mProjectedY.
+     *
+     * @param count number of points in the window (at least 3)
+     * @param tolerance tolerance in meters or pixels
+     */
+    protected abstract void markKept(int count, double tolerance);
+
+    /**
+     * Simplifies the points in the window and passes the kept points
+     * to the sink.
+     *
+     * When the polyline continues, the points after the last kept point
+     * that is not the end of the window, are kept in the window,
+     * so they are simplified again together with the next points.
+     *
+     * @param last true if this is the end of the polyline
+     */
+    private void simplify(final boolean last) {
+        project();
+
+        for (int i = 0; i < mCount; i++) {
+            mKept[i] = true;
+        }
+        if (mCount >= MIN_WINDOW_SIZE) {
+            markKept(mCount, mTolerance);
+        }
+
+        // index of the first point that stays in the window
+        int cut = mCount;
+        if (!last) {
+            cut = mCount - 1;
+            for (int i = mCount - 2; i > 0; i--) {
+                if (mKept[i]) {
+                    cut = i;
+                    break;
+                }
+            }
+
+            // make sure the window is emptied enough to make progress
+            if (mCount - cut > mX.length / 2) {
+                cut = mCount - 1;
+            }
+        }
+
+        for (int i = 0; i < cut; i++) {
+            if (mKept[i]) {
+                mSink.addPoint(mX[i], mY[i]);
+                mEmittedCount++;
+            }
+        }
+
+        if (last) {
+            mCount = 0;
+            return;
+        }
+
+        int remaining = mCount - cut;
+        System.arraycopy(mX, cut, mX, 0, remaining);
+        System.arraycopy(mY, cut, mY, 0, remaining);
+        mCount = remaining;
+    }
+
+    /**
+     * Calculates the projected coordinates of the points in the window.
+     * Cartesian coordinates are relative to the first point,
+     * geographic coordinates are converted to meters
+     * on a plane tangent to the first point.
+     */
+    private void project() {
+        double scaleX = 1;
+        double scaleY = 1;
+        if (mGeographic) {
+            scaleY = METERS_PER_DEGREE;
+            scaleX = METERS_PER_DEGREE * Math.cos(Math.toRadians(mY[0]));
+        }
+
+        for (int i = 0; i < mCount; i++) {
+            double deltaX = mX[i] - mX[0];
+            if (mGeographic) {
+                // shortest way across the 180th meridian
+                if (deltaX > HALF_CIRCLE) {
+                    deltaX -= 2 * HALF_CIRCLE;
+                } else if (deltaX < -HALF_CIRCLE) {
+                    deltaX += 2 * HALF_CIRCLE;
+                }
+            }
+            mProjectedX[i] = deltaX * scaleX;
+            mProjectedY[i] = (mY[i] - mY[0]) * scaleY;
+        }
+    }
+
+    /**
+     * Calculates the squared distance of a projected point to a segment
+     * between 2 other projected points.
+     *
+     * @param point index of the point
+     * @param start index of the start point of the segment
+     * @param end index of the end point of the segment
+     * @return squared distance
+     */
+    protected final double getSegmentDistanceSquared(
+            final int point, final int start, final int end) {
+        double segmentX = mProjectedX[end] - mProjectedX[start];
+        double segmentY = mProjectedY[end] - mProjectedY[start];
+        double pointX = mProjectedX[point] - mProjectedX[start];
+        double pointY = mProjectedY[point] - mProjectedY[start];
+        double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+        // position of the projection of the point on the segment
+        double position = 0;
+        if (lengthSquared > 0) {
+            position = Math.max(0, Math.min(1,
+                    (pointX * segmentX + pointY * segmentY) / lengthSquared));
+        }
+
+        double deltaX = pointX - position * segmentX;
+        double deltaY = pointY - position * segmentY;
+
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+
+    /**
+     * Calculates the area of the triangle formed by 3 projected points.
+     *
+     * @param first index of the first point
+     * @param second index of the second point
+     * @param third index of the third point
+     * @return area
+     */
+    protected final double getTriangleArea(
+            final int first, final int second, final int third) {
+        return Math.abs(
+                (mProjectedX[second] - mProjectedX[first])
+                    * (mProjectedY[third] - mProjectedY[first])
+                - (mProjectedX[third] - mProjectedX[first])
+                    * (mProjectedY[second] - mProjectedY[first])) / 2;
+    }
+}
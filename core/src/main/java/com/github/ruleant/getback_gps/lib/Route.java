@@ -0,0 +1,459 @@
+/**
+ * Ordered route of waypoints.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Ordered route of waypoints, followed from the first to the last waypoint.
+ *
+ * The route advances to the next waypoint when the active waypoint
+ * is reached (within the arrival radius), or when the location passes
+ * the bisector of the route at the active waypoint, fe. when a corner
+ * is cut. The first waypoint is passed when the location is beyond
+ * the line through the waypoint, perpendicular to the first segment.
+ *
+ * On each update, the cross-track distance (distance to the active
+ * segment, positive to the right of the route) and the along-track
+ * distance (travelled distance along the active segment) are calculated.
+ *
+ * The segments are short compared to the earth radius, so each segment
+ * is projected on a local flat plane (equirectangular projection,
+ * centered at the start of the segment). The segment geometry is
+ * calculated once, when the route is created, so an update takes
+ * a constant time, whatever the length of the route.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class Route {
+    /**
+     * Default arrival radius in meters.
+     */
+    public static final double DEFAULT_ARRIVAL_RADIUS
+            = Geofence.DEFAULT_ARRIVAL_RADIUS;
+
+    /**
+     * Meters per degree latitude,
+     * based on the mean earth radius (6371 km).
+     */
+    private static final double METERS_PER_DEGREE
+            = PolylineSimplifier.METERS_PER_DEGREE;
+
+    /**
+     * Full circle in degrees.
+     */
+    private static final double FULL = 360;
+
+    /**
+     * Half circle in degrees.
+     */
+    private static final double HALF = 180;
+
+    /**
+     * Waypoint latitudes in degrees.
+     */
+    private final double[] mLatitudes;
+
+    /**
+     * Waypoint longitudes in degrees.
+     */
+    private final double[] mLongitudes;
+
+    /**
+     * Meters per degree longitude, at each waypoint.
+     */
+    private final double[] mMetersPerDegreeLongitude;
+
+    /**
+     * X component of the unit direction vector of the segment
+     * ending at each waypoint (east).
+     */
+    private final double[] mDirectionX;
+
+    /**
+     * Y component of the unit direction vector of the segment
+     * ending at each waypoint (north).
+     */
+    private final double[] mDirectionY;
+
+    /**
+     * Length of the segment ending at each waypoint, in meters.
+     */
+    private final double[] mSegmentLengths;
+
+    /**
+     * Length of the route after each waypoint, in meters.
+     */
+    private final double[] mRemainingLengths;
+
+    /**
+     * X component of the bisector normal at each waypoint,
+     * pointing in the travel direction.
+     */
+    private final double[] mBisectorX;
+
+    /**
+     * Y component of the bisector normal at each waypoint,
+     * pointing in the travel direction.
+     */
+    private final double[] mBisectorY;
+
+    /**
+     * Arrival radius in meters.
+     */
+    private double mArrivalRadius = DEFAULT_ARRIVAL_RADIUS;
+
+    /**
+     * Index of the active waypoint, the next waypoint to reach.
+     */
+    private int mActiveWaypoint = 0;
+
+    /**
+     * True if the last waypoint is reached.
+     */
+    private boolean mFinished = false;
+
+    /**
+     * Cross-track distance in meters, calculated in the last update.
+     */
+    private double mCrossTrack = 0;
+
+    /**
+     * Along-track distance in meters, calculated in the last update.
+     */
+    private double mAlongTrack = 0;
+
+    /**
+     * Distance to the active waypoint in meters,
+     * calculated in the last update.
+     */
+    private double mDistanceToWaypoint = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param latitudes waypoint latitudes in degrees
+     * @param longitudes waypoint longitudes in degrees
+     */
+    public Route(final double[] latitudes, final double[] longitudes) {
+        if (latitudes == null || longitudes == null) {
+            throw new IllegalArgumentException(
+                    "Parameter latitudes or longitudes should not be null");
+        }
+        if (latitudes.length == 0 || latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException(
+                    "latitudes and longitudes should have the same,"
+                    + " non-zero length");
+        }
+
+        int count = latitudes.length;
+        mLatitudes = latitudes.clone();
+        mLongitudes = longitudes.clone();
+        mMetersPerDegreeLongitude = new double[count];
+        mDirectionX = new double[count];
+        mDirectionY = new double[count];
+        mSegmentLengths = new double[count];
+        mRemainingLengths = new double[count];
+        mBisectorX = new double[count];
+        mBisectorY = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            if (!GeoRange.isValidLatitude(mLatitudes[i])
+                    || !GeoRange.isValidLongitude(mLongitudes[i])) {
+                throw new IllegalArgumentException(
+                        "latitude or longitude is out of range");
+            }
+
+            mMetersPerDegreeLongitude[i] = METERS_PER_DEGREE
+                    * Math.cos(Math.toRadians(mLatitudes[i]));
+        }
+
+        // segment ending at waypoint i, projected at the segment start
+        for (int i = 1; i < count; i++) {
+            double x = getDeltaLongitude(mLongitudes[i], mLongitudes[i - 1])
+                    * mMetersPerDegreeLongitude[i - 1];
+            double y = (mLatitudes[i] - mLatitudes[i - 1]) * METERS_PER_DEGREE;
+            double length = Math.sqrt(x * x + y * y);
+
+            mSegmentLengths[i] = length;
+            if (length > 0) {
+                mDirectionX[i] = x / length;
+                mDirectionY[i] = y / length;
+            }
+        }
+
+        // bisector normal : average of incoming and outgoing direction,
+        // the first waypoint has no incoming direction
+        for (int i = 0; i < count; i++) {
+            double x = mDirectionX[i];
+            double y = mDirectionY[i];
+            if (i + 1 < count) {
+                x += mDirectionX[i + 1];
+                y += mDirectionY[i + 1];
+            }
+
+            double length = Math.sqrt(x * x + y * y);
+            if (length > 0) {
+                mBisectorX[i] = x / length;
+                mBisectorY[i] = y / length;
+            } else {
+                // route turns back : bisector is the waypoint itself
+                mBisectorX[i] = mDirectionX[i];
+                mBisectorY[i] = mDirectionY[i];
+            }
+        }
+
+        for (int i = count - 2; i >= 0; i--) {
+            mRemainingLengths[i] = mRemainingLengths[i + 1]
+                    + mSegmentLengths[i + 1];
+        }
+    }
+
+    /**
+     * Sets arrival radius.
+     *
+     * @param arrivalRadius arrival radius in meters
+     */
+    public final void setArrivalRadius(final double arrivalRadius) {
+        if (arrivalRadius < 0) {
+            throw new IllegalArgumentException(
+                    "arrivalRadius should not be negative");
+        }
+
+        mArrivalRadius = arrivalRadius;
+    }
+
+    /**
+     * Get number of waypoints.
+     *
+     * @return number of waypoints
+     */
+    public final int getWaypointCount() {
+        return mLatitudes.length;
+    }
+
+    /**
+     * Get waypoint latitude.
+     *
+     * @param index waypoint index
+     * @return latitude in degrees
+     */
+    public final double getLatitude(final int index) {
+        return mLatitudes[index];
+    }
+
+    /**
+     * Get waypoint longitude.
+     *
+     * @param index waypoint index
+     * @return longitude in degrees
+     */
+    public final double getLongitude(final int index) {
+        return mLongitudes[index];
+    }
+
+    /**
+     * Get total route length, from the first to the last waypoint.
+     *
+     * @return length in meters
+     */
+    public final double getLength() {
+        return mRemainingLengths[0];
+    }
+
+    /**
+     * Get active waypoint, the next waypoint to reach.
+     *
+     * @return waypoint index
+     */
+    public final int getActiveWaypoint() {
+        return mActiveWaypoint;
+    }
+
+    /**
+     * Sets active waypoint, fe. to skip a part of the route.
+     *
+     * @param index waypoint index
+     */
+    public final void setActiveWaypoint(final int index) {
+        if (index < 0 || index >= mLatitudes.length) {
+            throw new IllegalArgumentException(
+                    "index is out of range");
+        }
+
+        mActiveWaypoint = index;
+        mFinished = false;
+    }
+
+    /**
+     * Restarts the route from the first waypoint.
+     */
+    public final void reset() {
+        setActiveWaypoint(0);
+        mCrossTrack = 0;
+        mAlongTrack = 0;
+        mDistanceToWaypoint = 0;
+    }
+
+    /**
+     * Checks if the last waypoint is reached.
+     *
+     * @return true if the route is finished
+     */
+    public final boolean isFinished() {
+        return mFinished;
+    }
+
+    /**
+     * Get cross-track distance : distance to the active segment,
+     * calculated in the last update.
+     * Before the first waypoint is reached, there is no active segment.
+     *
+     * @return distance in meters, positive to the right of the route
+     */
+    public final double getCrossTrackDistance() {
+        return mCrossTrack;
+    }
+
+    /**
+     * Get along-track distance : travelled distance along the active
+     * segment, calculated in the last update.
+     *
+     * @return distance in meters, negative before the segment start
+     */
+    public final double getAlongTrackDistance() {
+        return mAlongTrack;
+    }
+
+    /**
+     * Get distance to the active waypoint, calculated in the last update.
+     *
+     * @return distance in meters
+     */
+    public final double getDistanceToWaypoint() {
+        return mDistanceToWaypoint;
+    }
+
+    /**
+     * Get remaining route distance : distance to the active waypoint
+     * along the active segment, and the length of the following segments.
+     *
+     * @return distance in meters
+     */
+    public final double getRemainingDistance() {
+        if (mActiveWaypoint == 0) {
+            return mDistanceToWaypoint + mRemainingLengths[0];
+        }
+
+        return Math.max(0, mSegmentLengths[mActiveWaypoint] - mAlongTrack)
+                + mRemainingLengths[mActiveWaypoint];
+    }
+
+    /**
+     * Updates the route with the current location,
+     * advances to the next waypoint if the active waypoint is reached
+     * or passed, and calculates the cross-track and along-track distance.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @return true if the active waypoint changed
+     */
+    public final boolean update(final double latitude,
+                                final double longitude) {
+        if (mFinished) {
+            return false;
+        }
+
+        int previousWaypoint = mActiveWaypoint;
+        while (calculate(latitude, longitude)) {
+            if (mActiveWaypoint == mLatitudes.length - 1) {
+                mFinished = true;
+                break;
+            }
+            mActiveWaypoint++;
+        }
+
+        return mActiveWaypoint != previousWaypoint || mFinished;
+    }
+
+    /**
+     * Calculates the distances to the active segment and waypoint.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @return true if the active waypoint is reached or passed
+     */
+    private boolean calculate(final double latitude, final double longitude) {
+        int waypoint = mActiveWaypoint;
+
+        // location relative to the active waypoint
+        double toWaypointX = getDeltaLongitude(longitude, mLongitudes[waypoint])
+                * mMetersPerDegreeLongitude[waypoint];
+        double toWaypointY = (latitude - mLatitudes[waypoint])
+                * METERS_PER_DEGREE;
+        mDistanceToWaypoint = Math.sqrt(toWaypointX * toWaypointX
+                + toWaypointY * toWaypointY);
+
+        boolean passed = mDistanceToWaypoint <= mArrivalRadius
+                || toWaypointX * mBisectorX[waypoint]
+                    + toWaypointY * mBisectorY[waypoint] > 0;
+
+        if (waypoint == 0) {
+            // no segment before the first waypoint
+            mCrossTrack = 0;
+            mAlongTrack = 0;
+            return passed;
+        }
+
+        // location relative to the start of the active segment
+        int start = waypoint - 1;
+        double x = getDeltaLongitude(longitude, mLongitudes[start])
+                * mMetersPerDegreeLongitude[start];
+        double y = (latitude - mLatitudes[start]) * METERS_PER_DEGREE;
+        double directionX = mDirectionX[waypoint];
+        double directionY = mDirectionY[waypoint];
+
+        mAlongTrack = x * directionX + y * directionY;
+        // clockwise from the travel direction is positive
+        mCrossTrack = x * directionY - y * directionX;
+
+        return passed;
+    }
+
+    /**
+     * Calculates the difference between 2 longitudes,
+     * crossing the antimeridian if that is shorter.
+     *
+     * @param longitude longitude in degrees
+     * @param origin origin longitude in degrees
+     * @return difference in degrees (-180°-180°)
+     */
+    private static double getDeltaLongitude(final double longitude,
+                                            final double origin) {
+        double delta = longitude - origin;
+        if (delta > HALF) {
+            delta -= FULL;
+        } else if (delta < -HALF) {
+            delta += FULL;
+        }
+
+        return delta;
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Records the duration of named sections.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Locale;
+
+/**
+ * Records the duration of named sections and the time at which
+ * named milestones are reached, relative to an origin timestamp.
+ * Used to measure startup, fe. time until the first arrow is displayed.
+ *
+ * Sections can be recorded from different threads.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SectionTimings {
+    /**
+     * Default maximum number of recorded entries.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Origin timestamp in nanoseconds.
+     */
+    private final long mOrigin;
+
+    /**
+     * Names of the recorded entries.
+     */
+    private final String[] mNames;
+
+    /**
+     * Start timestamps of the recorded entries, in nanoseconds.
+     */
+    private final long[] mStart;
+
+    /**
+     * End timestamps of the recorded entries, in nanoseconds.
+     */
+    private final long[] mEnd;
+
+    /**
+     * Number of recorded entries.
+     */
+    private int mCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param origin origin timestamp in nanoseconds
+     */
+    public SectionTimings(final long origin) {
+        this(origin, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param origin origin timestamp in nanoseconds
+     * @param capacity maximum number of recorded entries
+     */
+    public SectionTimings(final long origin, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity should be a non-zero positive value");
+        }
+
+        mOrigin = origin;
+        mNames = new String[capacity];
+        mStart = new long[capacity];
+        mEnd = new long[capacity];
+    }
+
+    /**
+     * Records the duration of a section.
+     * Entries are ignored when the capacity is reached.
+     *
+     * @param name section name
+     * @param start start timestamp in nanoseconds
+     * @param end end timestamp in nanoseconds
+     */
+    public final synchronized void addSection(
+            final String name, final long start, final long end) {
+        if (name == null) {
+            throw new IllegalArgumentException(
+                    "Parameter name should not be null");
+        }
+
+        if (end < start) {
+            throw new IllegalArgumentException(
+                    "end timestamp should not be before start timestamp");
+        }
+
+        if (mCount >= mNames.length) {
+            return;
+        }
+
+        mNames[mCount] = name;
+        mStart[mCount] = start;
+        mEnd[mCount] = end;
+        mCount++;
+    }
+
+    /**
+     * Records when a milestone is reached.
+     * Only the first time a milestone is reached, is recorded.
+     *
+     * @param name milestone name
+     * @param timestamp timestamp in nanoseconds
+     */
+    public final synchronized void mark(
+            final String name, final long timestamp) {
+        if (indexOf(name) >= 0) {
+            return;
+        }
+
+        addSection(name, timestamp, timestamp);
+    }
+
+    /**
+     * Checks if a section or milestone was recorded.
+     *
+     * @param name section or milestone name
+     * @return true if it was recorded
+     */
+    public final synchronized boolean hasEntry(final String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Get number of recorded entries.
+     *
+     * @return number of entries
+     */
+    public final synchronized int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get duration of a section.
+     *
+     * @param name section name
+     * @return duration in nanoseconds, -1 if section was not recorded
+     */
+    public final synchronized long getDuration(final String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            return -1;
+        }
+
+        return mEnd[index] - mStart[index];
+    }
+
+    /**
+     * Get time between origin and the end of a section or milestone.
+     *
+     * @param name section or milestone name
+     * @return offset in nanoseconds, -1 if entry was not recorded
+     */
+    public final synchronized long getOffset(final String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            return -1;
+        }
+
+        return mEnd[index] - mOrigin;
+    }
+
+    /**
+     * Returns the recorded entries, one line per entry :
+     * name, duration and offset to the origin, in milliseconds.
+     *
+     * @return formatted entries
+     */
+    @Override
+    public final synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < mCount; i++) {
+            if (i > 0) {
+                builder.append('\n');
+            }
+            builder.append(String.format(Locale.getDefault(),
+                    "%1$s: %2$.1fms (+%3$.1fms)",
+                    mNames[i],
+                    toMillis(mEnd[i] - mStart[i]),
+                    toMillis(mEnd[i] - mOrigin)));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Find an entry by name.
+     *
+     * @param name entry name
+     * @return index of the entry, -1 if not found
+     */
+    private int indexOf(final String name) {
+        for (int i = 0; i < mCount; i++) {
+            if (mNames[i].equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds.
+     *
+     * @param nano value in nanoseconds
+     * @return value in milliseconds
+     */
+    private static double toMillis(final long nano) {
+        return (double) nano / TimeUnits.MILLI_IN_NANO;
+    }
+}
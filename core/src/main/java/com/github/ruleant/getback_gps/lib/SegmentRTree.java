@@ -0,0 +1,618 @@
+/**
+ * Packed R-tree of the segments of a track.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+
+/**
+ * Packed R-tree of the segments of a track (a sequence of positions),
+ * to find the nearest point on the track in logarithmic time.
+ *
+ * The tree is bulk loaded with the Sort-Tile-Recursive (STR) algorithm :
+ * the segments are sorted in vertical slices by X, each slice is sorted
+ * by Y and packed in full leaf nodes, and the same is repeated
+ * with the nodes of each level, up to the root node.
+ *
+ * The tree is immutable once it is built, so it can be built
+ * in a background thread and queried from other threads without locking,
+ * after it is published, fe. in a volatile field.
+ *
+ * The positions are projected on a flat plane
+ * (equirectangular projection, centered at the first position),
+ * which is accurate enough for tracks of a few tens of kilometers.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SegmentRTree {
+    /**
+     * Number of children per node.
+     */
+    public static final int NODE_CAPACITY = 8;
+
+    /**
+     * Index returned when there is no segment.
+     */
+    public static final int NO_SEGMENT = -1;
+
+    /**
+     * Index of the latitude of the projected point in a query result.
+     */
+    public static final int RESULT_LATITUDE = 0;
+
+    /**
+     * Index of the longitude of the projected point in a query result.
+     */
+    public static final int RESULT_LONGITUDE = 1;
+
+    /**
+     * Index of the distance to the projected point (in meters)
+     * in a query result.
+     */
+    public static final int RESULT_DISTANCE = 2;
+
+    /**
+     * Index of the position of the projected point on the segment
+     * (0 at the start, 1 at the end) in a query result.
+     */
+    public static final int RESULT_FRACTION = 3;
+
+    /**
+     * Size of a query result array.
+     */
+    public static final int RESULT_SIZE = 4;
+
+    /**
+     * Meters per degree latitude,
+     * based on the mean earth radius (6371 km).
+     */
+    private static final double METERS_PER_DEGREE
+            = PolylineSimplifier.METERS_PER_DEGREE;
+
+    /**
+     * Full circle in degrees.
+     */
+    private static final double FULL = 360;
+
+    /**
+     * Half circle in degrees.
+     */
+    private static final double HALF = 180;
+
+    /**
+     * Mask of the entry index in a sort key.
+     */
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Reference latitude of the projection, in degrees.
+     */
+    private final double mReferenceLatitude;
+
+    /**
+     * Reference longitude of the projection, in degrees.
+     */
+    private final double mReferenceLongitude;
+
+    /**
+     * Meters per degree longitude, at the reference latitude.
+     */
+    private final double mMetersPerDegreeLongitude;
+
+    /**
+     * Projected X coordinates of the positions, in meters.
+     */
+    private final double[] mX;
+
+    /**
+     * Projected Y coordinates of the positions, in meters.
+     */
+    private final double[] mY;
+
+    /**
+     * Track length up to the start of each segment, in meters.
+     */
+    private final double[] mCumulativeLengths;
+
+    /**
+     * Segment indexes, in the order of the leaf nodes.
+     */
+    private final int[] mSegmentOrder;
+
+    /**
+     * Minimum X of the node bounding boxes.
+     */
+    private final double[] mMinX;
+
+    /**
+     * Minimum Y of the node bounding boxes.
+     */
+    private final double[] mMinY;
+
+    /**
+     * Maximum X of the node bounding boxes.
+     */
+    private final double[] mMaxX;
+
+    /**
+     * Maximum Y of the node bounding boxes.
+     */
+    private final double[] mMaxY;
+
+    /**
+     * Index of the first child of each node, in the segment order
+     * for leaf nodes, in the nodes for other nodes.
+     */
+    private final int[] mFirstChild;
+
+    /**
+     * Number of children of each node.
+     */
+    private final int[] mChildCount;
+
+    /**
+     * Number of leaf nodes, leaf nodes are stored first.
+     */
+    private final int mLeafCount;
+
+    /**
+     * Number of node levels.
+     */
+    private final int mDepth;
+
+    /**
+     * Number of nodes that were stored while building the tree.
+     */
+    private int mNodeCount = 0;
+
+    /**
+     * Constructor, builds the tree.
+     *
+     * @param latitudes position latitudes in degrees
+     * @param longitudes position longitudes in degrees
+     */
+    public SegmentRTree(final double[] latitudes, final double[] longitudes) {
+        if (latitudes == null || longitudes == null) {
+            throw new IllegalArgumentException(
+                    "Parameter latitudes or longitudes should not be null");
+        }
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException(
+                    "latitudes and longitudes should have the same length");
+        }
+
+        int count = latitudes.length;
+        mReferenceLatitude = count > 0 ? latitudes[0] : 0;
+        mReferenceLongitude = count > 0 ? longitudes[0] : 0;
+        mMetersPerDegreeLongitude = METERS_PER_DEGREE
+                * Math.cos(Math.toRadians(mReferenceLatitude));
+
+        mX = new double[count];
+        mY = new double[count];
+        for (int i = 0; i < count; i++) {
+            mX[i] = getDeltaLongitude(longitudes[i], mReferenceLongitude)
+                    * mMetersPerDegreeLongitude;
+            mY[i] = (latitudes[i] - mReferenceLatitude) * METERS_PER_DEGREE;
+        }
+
+        int segments = Math.max(0, count - 1);
+        mCumulativeLengths = new double[segments + 1];
+        for (int i = 0; i < segments; i++) {
+            mCumulativeLengths[i + 1] = mCumulativeLengths[i]
+                    + Math.hypot(mX[i + 1] - mX[i], mY[i + 1] - mY[i]);
+        }
+
+        // count nodes per level
+        int nodes = 0;
+        int depth = 0;
+        int leafCount = 0;
+        int entries = segments;
+        while (entries > 0) {
+            int levelNodes = (entries + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            if (depth == 0) {
+                leafCount = levelNodes;
+            }
+            nodes += levelNodes;
+            depth++;
+            if (levelNodes == 1) {
+                break;
+            }
+            entries = levelNodes;
+        }
+        mLeafCount = leafCount;
+        mDepth = depth;
+
+        mSegmentOrder = new int[segments];
+        mMinX = new double[nodes];
+        mMinY = new double[nodes];
+        mMaxX = new double[nodes];
+        mMaxY = new double[nodes];
+        mFirstChild = new int[nodes];
+        mChildCount = new int[nodes];
+
+        if (segments > 0) {
+            build(segments);
+        }
+    }
+
+    /**
+     * Get number of segments.
+     *
+     * @return number of segments
+     */
+    public final int getSegmentCount() {
+        return mSegmentOrder.length;
+    }
+
+    /**
+     * Get number of node levels.
+     *
+     * @return tree depth, 0 if there are no segments
+     */
+    public final int getDepth() {
+        return mDepth;
+    }
+
+    /**
+     * Get track length up to the start of a segment.
+     *
+     * @param segment segment index, or the number of segments
+     *                to get the total track length
+     * @return length in meters
+     */
+    public final double getDistanceAlongTrack(final int segment) {
+        return mCumulativeLengths[segment];
+    }
+
+    /**
+     * Finds the segment nearest to a location,
+     * and the point on the segment nearest to the location.
+     *
+     * @param latitude latitude of the location in degrees
+     * @param longitude longitude of the location in degrees
+     * @param result array of RESULT_SIZE, to store the projected point
+     *               (RESULT_LATITUDE, RESULT_LONGITUDE), the distance to
+     *               the projected point (RESULT_DISTANCE) and the position
+     *               on the segment (RESULT_FRACTION), can be null
+     * @return nearest segment index, NO_SEGMENT if there are no segments
+     */
+    public final int findNearestSegment(final double latitude,
+                                        final double longitude,
+                                        final double[] result) {
+        if (mDepth == 0) {
+            return NO_SEGMENT;
+        }
+
+        double x = getDeltaLongitude(longitude, mReferenceLongitude)
+                * mMetersPerDegreeLongitude;
+        double y = (latitude - mReferenceLatitude) * METERS_PER_DEGREE;
+
+        // depth first search, skipping nodes further than the nearest
+        // segment found so far
+        int[] stack = new int[mDepth * NODE_CAPACITY + 1];
+        int stackSize = 0;
+        stack[stackSize++] = mMinX.length - 1;
+
+        int nearest = NO_SEGMENT;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        double nearestFraction = 0;
+
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (getBoxDistanceSquared(node, x, y) >= nearestDistance) {
+                continue;
+            }
+
+            int first = mFirstChild[node];
+            int last = first + mChildCount[node];
+            if (node < mLeafCount) {
+                for (int i = first; i < last; i++) {
+                    int segment = mSegmentOrder[i];
+                    double fraction = getFraction(segment, x, y);
+                    double dx = x - (mX[segment]
+                            + fraction * (mX[segment + 1] - mX[segment]));
+                    double dy = y - (mY[segment]
+                            + fraction * (mY[segment + 1] - mY[segment]));
+                    double distance = dx * dx + dy * dy;
+
+                    // on a tie, the earliest segment of the track wins
+                    if (distance < nearestDistance
+                            || (distance == nearestDistance
+                                && segment < nearest)) {
+                        nearest = segment;
+                        nearestDistance = distance;
+                        nearestFraction = fraction;
+                    }
+                }
+            } else {
+                for (int i = first; i < last; i++) {
+                    stack[stackSize++] = i;
+                }
+            }
+        }
+
+        if (result != null) {
+            double projectedX = mX[nearest]
+                    + nearestFraction * (mX[nearest + 1] - mX[nearest]);
+            double projectedY = mY[nearest]
+                    + nearestFraction * (mY[nearest + 1] - mY[nearest]);
+            double projectedLongitude = mReferenceLongitude
+                    + projectedX / mMetersPerDegreeLongitude;
+            if (projectedLongitude > HALF) {
+                projectedLongitude -= FULL;
+            } else if (projectedLongitude < -HALF) {
+                projectedLongitude += FULL;
+            }
+
+            result[RESULT_LATITUDE] = mReferenceLatitude
+                    + projectedY / METERS_PER_DEGREE;
+            result[RESULT_LONGITUDE] = projectedLongitude;
+            result[RESULT_DISTANCE] = Math.sqrt(nearestDistance);
+            result[RESULT_FRACTION] = nearestFraction;
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Builds the tree, level by level, starting with the leaf nodes.
+     *
+     * @param segments number of segments
+     */
+    private void build(final int segments) {
+        // entries of the current level : bounding boxes and children
+        int entries = segments;
+        double[] minX = new double[entries];
+        double[] minY = new double[entries];
+        double[] maxX = new double[entries];
+        double[] maxY = new double[entries];
+        int[] firstChild = new int[entries];
+        int[] childCount = new int[entries];
+
+        for (int i = 0; i < segments; i++) {
+            minX[i] = Math.min(mX[i], mX[i + 1]);
+            minY[i] = Math.min(mY[i], mY[i + 1]);
+            maxX[i] = Math.max(mX[i], mX[i + 1]);
+            maxY[i] = Math.max(mY[i], mY[i + 1]);
+        }
+
+        boolean leaves = true;
+        while (true) {
+            int[] order = sortTileRecursive(minX, minY, maxX, maxY, entries);
+
+            // store the entries in STR order,
+            // so the children of a node are stored next to each other
+            int offset = mNodeCount;
+            for (int i = 0; i < entries; i++) {
+                int entry = order[i];
+                if (leaves) {
+                    mSegmentOrder[i] = entry;
+                } else {
+                    storeNode(minX[entry], minY[entry], maxX[entry],
+                            maxY[entry], firstChild[entry],
+                            childCount[entry]);
+                }
+            }
+
+            // parent nodes, each with a block of entries as children
+            int parents = (entries + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            double[] parentMinX = new double[parents];
+            double[] parentMinY = new double[parents];
+            double[] parentMaxX = new double[parents];
+            double[] parentMaxY = new double[parents];
+            int[] parentFirstChild = new int[parents];
+            int[] parentChildCount = new int[parents];
+
+            for (int parent = 0; parent < parents; parent++) {
+                int first = parent * NODE_CAPACITY;
+                int last = Math.min(first + NODE_CAPACITY, entries);
+                parentMinX[parent] = Double.POSITIVE_INFINITY;
+                parentMinY[parent] = Double.POSITIVE_INFINITY;
+                parentMaxX[parent] = Double.NEGATIVE_INFINITY;
+                parentMaxY[parent] = Double.NEGATIVE_INFINITY;
+
+                for (int i = first; i < last; i++) {
+                    int entry = order[i];
+                    parentMinX[parent] = Math.min(parentMinX[parent],
+                            minX[entry]);
+                    parentMinY[parent] = Math.min(parentMinY[parent],
+                            minY[entry]);
+                    parentMaxX[parent] = Math.max(parentMaxX[parent],
+                            maxX[entry]);
+                    parentMaxY[parent] = Math.max(parentMaxY[parent],
+                            maxY[entry]);
+                }
+
+                // leaf children are stored in the segment order
+                parentFirstChild[parent] = (leaves ? 0 : offset) + first;
+                parentChildCount[parent] = last - first;
+            }
+
+            if (parents == 1) {
+                // root node is stored last
+                storeNode(parentMinX[0], parentMinY[0], parentMaxX[0],
+                        parentMaxY[0], parentFirstChild[0],
+                        parentChildCount[0]);
+                return;
+            }
+
+            minX = parentMinX;
+            minY = parentMinY;
+            maxX = parentMaxX;
+            maxY = parentMaxY;
+            firstChild = parentFirstChild;
+            childCount = parentChildCount;
+            entries = parents;
+            leaves = false;
+        }
+    }
+
+    /**
+     * Stores a node.
+     *
+     * @param minX minimum X of the bounding box
+     * @param minY minimum Y of the bounding box
+     * @param maxX maximum X of the bounding box
+     * @param maxY maximum Y of the bounding box
+     * @param firstChild index of the first child
+     * @param childCount number of children
+     */
+    private void storeNode(final double minX, final double minY,
+                           final double maxX, final double maxY,
+                           final int firstChild, final int childCount) {
+        int node = mNodeCount++;
+        mMinX[node] = minX;
+        mMinY[node] = minY;
+        mMaxX[node] = maxX;
+        mMaxY[node] = maxY;
+        mFirstChild[node] = firstChild;
+        mChildCount[node] = childCount;
+    }
+
+    /**
+     * Orders entries with the Sort-Tile-Recursive algorithm :
+     * sorted by the X of their center in vertical slices,
+     * and sorted by the Y of their center within each slice.
+     *
+     * @param minX minimum X of the entry bounding boxes
+     * @param minY minimum Y of the entry bounding boxes
+     * @param maxX maximum X of the entry bounding boxes
+     * @param maxY maximum Y of the entry bounding boxes
+     * @param entries number of entries
+     * @return entry indexes in STR order
+     */
+    private static int[] sortTileRecursive(
+            final double[] minX, final double[] minY,
+            final double[] maxX, final double[] maxY, final int entries) {
+        int[] order = new int[entries];
+        double[] centerX = new double[entries];
+        double[] centerY = new double[entries];
+        long[] keys = new long[entries];
+
+        for (int i = 0; i < entries; i++) {
+            order[i] = i;
+            centerX[i] = (minX[i] + maxX[i]) / 2;
+            centerY[i] = (minY[i] + maxY[i]) / 2;
+        }
+
+        int nodes = (entries + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_CAPACITY;
+
+        sortByKey(centerX, order, 0, entries, keys);
+        for (int first = 0; first < entries; first += sliceSize) {
+            sortByKey(centerY, order, first,
+                    Math.min(first + sliceSize, entries), keys);
+        }
+
+        return order;
+    }
+
+    /**
+     * Sorts a range of entry indexes by a key of the entries.
+     * The key (as float) and the index are packed in a long,
+     * so a primitive sort can be used.
+     *
+     * @param values key value of each entry
+     * @param order entry indexes, the range is sorted in place
+     * @param from first index of the range (inclusive)
+     * @param to last index of the range (exclusive)
+     * @param keys work array, at least as long as order
+     */
+    private static void sortByKey(final double[] values, final int[] order,
+                                  final int from, final int to,
+                                  final long[] keys) {
+        for (int i = from; i < to; i++) {
+            int bits = Float.floatToIntBits((float) values[order[i]]);
+            // flip the value bits of negative floats, so they sort as int
+            bits ^= (bits >> (Integer.SIZE - 1)) & Integer.MAX_VALUE;
+            keys[i] = ((long) bits << Integer.SIZE)
+                    | (order[i] & INDEX_MASK);
+        }
+
+        Arrays.sort(keys, from, to);
+        for (int i = from; i < to; i++) {
+            order[i] = (int) (keys[i] & INDEX_MASK);
+        }
+    }
+
+    /**
+     * Calculates the position of the point on a segment
+     * nearest to a point.
+     *
+     * @param segment segment index
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return position on the segment, 0 at the start, 1 at the end
+     */
+    private double getFraction(final int segment, final double x,
+                               final double y) {
+        double dx = mX[segment + 1] - mX[segment];
+        double dy = mY[segment + 1] - mY[segment];
+        double lengthSquared = dx * dx + dy * dy;
+
+        if (lengthSquared == 0) {
+            return 0;
+        }
+
+        double fraction = ((x - mX[segment]) * dx + (y - mY[segment]) * dy)
+                / lengthSquared;
+
+        return Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Calculates the squared distance from a point
+     * to the bounding box of a node.
+     *
+     * @param node node index
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return squared distance, 0 if the point is inside the box
+     */
+    private double getBoxDistanceSquared(final int node, final double x,
+                                         final double y) {
+        double dx = Math.max(0, Math.max(mMinX[node] - x, x - mMaxX[node]));
+        double dy = Math.max(0, Math.max(mMinY[node] - y, y - mMaxY[node]));
+
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Calculates the difference between 2 longitudes,
+     * crossing the antimeridian if that is shorter.
+     *
+     * @param longitude longitude in degrees
+     * @param origin origin longitude in degrees
+     * @return difference in degrees (-180°-180°)
+     */
+    private static double getDeltaLongitude(final double longitude,
+                                            final double origin) {
+        double delta = longitude - origin;
+        if (delta > HALF) {
+            delta -= FULL;
+        } else if (delta < -HALF) {
+            delta += FULL;
+        }
+
+        return delta;
+    }
+}
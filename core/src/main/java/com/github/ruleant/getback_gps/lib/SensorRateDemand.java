@@ -0,0 +1,190 @@
+/**
+ * Reference counted sensor update rate demand.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Keeps track of the sensor update rate each consumer needs.
+ *
+ * A consumer (fe. a visible view or a background check) requests
+ * an update interval, and releases it when it doesn't need updates anymore.
+ * The effective interval is the shortest requested interval,
+ * or NO_DEMAND when there are no consumers,
+ * so sensors are only registered when someone is watching,
+ * at the highest rate that is needed.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SensorRateDemand {
+    /**
+     * Effective interval when there are no consumers.
+     */
+    public static final int NO_DEMAND = -1;
+
+    /**
+     * Initial capacity of the consumer arrays.
+     */
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Consumers.
+     */
+    private Object[] mConsumers = new Object[DEFAULT_CAPACITY];
+
+    /**
+     * Requested update interval in microseconds, per consumer.
+     */
+    private int[] mIntervals = new int[DEFAULT_CAPACITY];
+
+    /**
+     * Number of consumers.
+     */
+    private int mSize = 0;
+
+    /**
+     * Effective update interval in microseconds.
+     */
+    private int mInterval = NO_DEMAND;
+
+    /**
+     * Requests sensor updates for a consumer,
+     * or changes the interval of a consumer that already requested updates.
+     *
+     * @param consumer consumer, identified by reference
+     * @param interval update interval in microseconds
+     * @return true if the effective interval changed
+     */
+    public final synchronized boolean request(final Object consumer,
+                                              final int interval) {
+        if (consumer == null) {
+            throw new IllegalArgumentException(
+                    "Parameter consumer should not be null");
+        }
+
+        if (interval <= 0) {
+            throw new IllegalArgumentException(
+                    "interval should be a non-zero positive value");
+        }
+
+        int index = indexOf(consumer);
+        if (index < 0) {
+            if (mSize == mConsumers.length) {
+                Object[] consumers = new Object[mSize * 2];
+                System.arraycopy(mConsumers, 0, consumers, 0, mSize);
+                mConsumers = consumers;
+                int[] intervals = new int[mSize * 2];
+                System.arraycopy(mIntervals, 0, intervals, 0, mSize);
+                mIntervals = intervals;
+            }
+            index = mSize++;
+            mConsumers[index] = consumer;
+        }
+        mIntervals[index] = interval;
+
+        return updateInterval();
+    }
+
+    /**
+     * Releases the sensor updates of a consumer.
+     *
+     * @param consumer consumer, identified by reference
+     * @return true if the effective interval changed
+     */
+    public final synchronized boolean release(final Object consumer) {
+        int index = indexOf(consumer);
+        if (index < 0) {
+            return false;
+        }
+
+        // move last consumer in the released slot
+        mSize--;
+        mConsumers[index] = mConsumers[mSize];
+        mIntervals[index] = mIntervals[mSize];
+        mConsumers[mSize] = null;
+
+        return updateInterval();
+    }
+
+    /**
+     * Checks if a consumer requested updates.
+     *
+     * @param consumer consumer
+     * @return true if consumer requested updates
+     */
+    public final synchronized boolean isRequested(final Object consumer) {
+        return indexOf(consumer) >= 0;
+    }
+
+    /**
+     * Get number of consumers.
+     *
+     * @return number of consumers
+     */
+    public final synchronized int getConsumerCount() {
+        return mSize;
+    }
+
+    /**
+     * Get effective update interval, the shortest requested interval.
+     *
+     * @return interval in microseconds, NO_DEMAND if there are no consumers
+     */
+    public final synchronized int getInterval() {
+        return mInterval;
+    }
+
+    /**
+     * Finds a consumer.
+     *
+     * @param consumer consumer
+     * @return index of consumer, -1 if not found
+     */
+    private int indexOf(final Object consumer) {
+        for (int i = 0; i < mSize; i++) {
+            if (mConsumers[i] == consumer) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Recalculates the effective interval.
+     *
+     * @return true if the effective interval changed
+     */
+    private boolean updateInterval() {
+        int interval = NO_DEMAND;
+        for (int i = 0; i < mSize; i++) {
+            if (interval == NO_DEMAND || mIntervals[i] < interval) {
+                interval = mIntervals[i];
+            }
+        }
+
+        if (interval == mInterval) {
+            return false;
+        }
+        mInterval = interval;
+
+        return true;
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Stillness detector, based on accelerometer samples.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Detects if the device is standing still,
+ * based on the variance of the magnitude of the acceleration.
+ *
+ * The magnitude of the acceleration is independent of the orientation
+ * of the device, when the device doesn't move, it equals gravity
+ * plus sensor noise, so the variance over a short window of samples is low.
+ * The device is considered still when the variance stays below a threshold
+ * during the still period, and moving again as soon as the variance
+ * exceeds the threshold.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class StillnessDetector {
+    /**
+     * Default number of samples in the window.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 10;
+
+    /**
+     * Default variance threshold in (m/s^2)^2.
+     */
+    public static final double DEFAULT_THRESHOLD = 0.05;
+
+    /**
+     * Number of acceleration vector components.
+     */
+    private static final int VALUES_SIZE = 3;
+
+    /**
+     * Magnitudes of the acceleration in the window (ring buffer).
+     */
+    private final double[] mWindow;
+
+    /**
+     * Variance threshold in (m/s^2)^2.
+     */
+    private final double mThreshold;
+
+    /**
+     * Still period in nanoseconds.
+     */
+    private long mStillPeriod;
+
+    /**
+     * Index in the window where the next sample is stored.
+     */
+    private int mIndex = 0;
+
+    /**
+     * Number of samples in the window.
+     */
+    private int mCount = 0;
+
+    /**
+     * Sum of the magnitudes in the window.
+     */
+    private double mSum = 0;
+
+    /**
+     * Sum of the squared magnitudes in the window.
+     */
+    private double mSumSquares = 0;
+
+    /**
+     * True if the variance is below the threshold.
+     */
+    private boolean mQuiet = false;
+
+    /**
+     * Timestamp in nanoseconds of the first sample
+     * in the current run of samples with a low variance.
+     */
+    private long mQuietSince = 0;
+
+    /**
+     * True if the device is still.
+     */
+    private boolean mStill = false;
+
+    /**
+     * Constructor, using default window size and threshold.
+     *
+     * @param stillPeriod still period in milliseconds
+     */
+    public StillnessDetector(final long stillPeriod) {
+        this(stillPeriod, DEFAULT_WINDOW_SIZE, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param stillPeriod still period in milliseconds
+     * @param windowSize number of samples in the window
+     * @param threshold variance threshold in (m/s^2)^2
+     */
+    public StillnessDetector(final long stillPeriod, final int windowSize,
+                             final double threshold) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException(
+                    "windowSize should be at least 2");
+        }
+
+        if (threshold <= 0) {
+            throw new IllegalArgumentException(
+                    "threshold should be a non-zero positive value");
+        }
+
+        mWindow = new double[windowSize];
+        mThreshold = threshold;
+        setStillPeriod(stillPeriod);
+    }
+
+    /**
+     * Sets the still period, the time the variance should be low,
+     * before the device is considered still.
+     *
+     * @param stillPeriod still period in milliseconds
+     */
+    public final void setStillPeriod(final long stillPeriod) {
+        if (stillPeriod < 0) {
+            throw new IllegalArgumentException(
+                    "stillPeriod should not be negative");
+        }
+
+        mStillPeriod = stillPeriod * TimeUnits.MILLI_IN_NANO;
+    }
+
+    /**
+     * Get still period.
+     *
+     * @return still period in milliseconds
+     */
+    public final long getStillPeriod() {
+        return mStillPeriod / TimeUnits.MILLI_IN_NANO;
+    }
+
+    /**
+     * Checks if the device is still.
+     *
+     * @return true if the device is still
+     */
+    public final boolean isStill() {
+        return mStill;
+    }
+
+    /**
+     * Clears the window, the device is considered moving.
+     */
+    public final void reset() {
+        mIndex = 0;
+        mCount = 0;
+        mSum = 0;
+        mSumSquares = 0;
+        mQuiet = false;
+        mStill = false;
+    }
+
+    /**
+     * Calculates the variance of the magnitudes in the window.
+     *
+     * @return variance in (m/s^2)^2, 0 if there are less than 2 samples
+     */
+    public final double getVariance() {
+        if (mCount < 2) {
+            return 0;
+        }
+
+        double mean = mSum / mCount;
+        // rounding errors of the running sums can make it slightly negative
+        return Math.max(0, mSumSquares / mCount - mean * mean);
+    }
+
+    /**
+     * Adds an accelerometer sample and updates the still state.
+     *
+     * @param values acceleration vector in m/s^2 (x, y, z)
+     * @param timestamp sample timestamp in nanoseconds
+     * @return true if the still state changed
+     */
+    public final boolean addSample(final float[] values,
+                                   final long timestamp) {
+        if (values == null || values.length < VALUES_SIZE) {
+            throw new IllegalArgumentException(
+                    "Parameter values should contain "
+                    + VALUES_SIZE + " values");
+        }
+
+        double magnitude = Math.sqrt(values[0] * values[0]
+                + values[1] * values[1] + values[2] * values[2]);
+
+        // replace oldest sample when the window is full
+        if (mCount == mWindow.length) {
+            double oldest = mWindow[mIndex];
+            mSum -= oldest;
+            mSumSquares -= oldest * oldest;
+        } else {
+            mCount++;
+        }
+        mWindow[mIndex] = magnitude;
+        mSum += magnitude;
+        mSumSquares += magnitude * magnitude;
+        mIndex = (mIndex + 1) % mWindow.length;
+
+        // wait until the window is filled
+        if (mCount < mWindow.length) {
+            return false;
+        }
+
+        boolean still;
+        if (getVariance() > mThreshold) {
+            mQuiet = false;
+            still = false;
+        } else {
+            if (!mQuiet) {
+                mQuiet = true;
+                mQuietSince = timestamp;
+            }
+            still = timestamp - mQuietSince >= mStillPeriod;
+        }
+
+        if (still == mStill) {
+            return false;
+        }
+        mStill = still;
+
+        return true;
+    }
+}
@@ -0,0 +1,566 @@
+/**
+ * Set of navigation targets.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of navigation targets, fe. stored destinations.
+ *
+ * The targets are stored in primitive arrays. When the current location
+ * is updated, the distance and bearing to all targets are calculated
+ * in one pass, and the targets are ordered by distance.
+ * The distance is calculated with the haversine formula,
+ * on a sphere with the mean earth radius, which is accurate enough
+ * to rank the targets.
+ *
+ * The current target is the nearest target, but it only changes
+ * if another target is closer by more than a hysteresis margin,
+ * so it doesn't flap between two targets at a similar distance.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class TargetSet {
+    /**
+     * Mean earth radius in meters.
+     */
+    public static final double EARTH_RADIUS = 6371000;
+
+    /**
+     * Default number of targets the set can hold, before growing.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Default hysteresis margin in meters.
+     */
+    public static final double DEFAULT_HYSTERESIS = 10;
+
+    /**
+     * Default hysteresis margin, relative to the distance
+     * to the current target.
+     */
+    public static final double DEFAULT_HYSTERESIS_RATIO = 0.1;
+
+    /**
+     * Index returned when there is no target.
+     */
+    public static final int NO_TARGET = -1;
+
+    /**
+     * Number of bits to shift the distance in a sort key,
+     * the target index is stored in the lower bits.
+     */
+    private static final int SORT_KEY_SHIFT = 32;
+
+    /**
+     * Mask of the target index in a sort key.
+     */
+    private static final long SORT_KEY_INDEX_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Target ids.
+     */
+    private long[] mIds;
+
+    /**
+     * Target index, per target id.
+     */
+    private final Map<Long, Integer> mIndexes = new HashMap<>();
+
+    /**
+     * Target names.
+     */
+    private String[] mNames;
+
+    /**
+     * Target latitudes in degrees.
+     */
+    private double[] mLatitudes;
+
+    /**
+     * Target longitudes in degrees.
+     */
+    private double[] mLongitudes;
+
+    /**
+     * Sine of the target latitudes.
+     */
+    private double[] mSinLatitudes;
+
+    /**
+     * Cosine of the target latitudes.
+     */
+    private double[] mCosLatitudes;
+
+    /**
+     * Distance to the targets in meters, calculated in the last update.
+     */
+    private float[] mDistances;
+
+    /**
+     * Bearing to the targets in degrees (0-360°),
+     * calculated in the last update.
+     */
+    private float[] mBearings;
+
+    /**
+     * Sort keys : distance bits and target index.
+     */
+    private long[] mSortKeys;
+
+    /**
+     * Target indexes, ordered by distance.
+     */
+    private int[] mOrder;
+
+    /**
+     * Number of targets.
+     */
+    private int mCount = 0;
+
+    /**
+     * True if distances, bearings and order match the targets.
+     */
+    private boolean mUpdated = false;
+
+    /**
+     * Id of the current target.
+     */
+    private long mCurrentId;
+
+    /**
+     * True if there is a current target.
+     */
+    private boolean mHasCurrent = false;
+
+    /**
+     * Hysteresis margin in meters.
+     */
+    private double mHysteresis = DEFAULT_HYSTERESIS;
+
+    /**
+     * Hysteresis margin, relative to the distance to the current target.
+     */
+    private double mHysteresisRatio = DEFAULT_HYSTERESIS_RATIO;
+
+    /**
+     * Constructor.
+     */
+    public TargetSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param capacity initial number of targets the set can hold
+     */
+    public TargetSet(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "capacity should be a non-zero positive value");
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * Sets the hysteresis margin. Another target becomes the current
+     * target if it is closer than the current target
+     * by more than the largest of both margins.
+     *
+     * @param hysteresis margin in meters
+     * @param ratio margin relative to the distance to the current target
+     */
+    public final void setHysteresis(final double hysteresis,
+                                    final double ratio) {
+        if (hysteresis < 0 || ratio < 0) {
+            throw new IllegalArgumentException(
+                    "hysteresis should not be negative");
+        }
+
+        mHysteresis = hysteresis;
+        mHysteresisRatio = ratio;
+    }
+
+    /**
+     * Adds a target, or replaces the target with the same id.
+     *
+     * @param id target id
+     * @param name target name
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     */
+    public final void add(final long id, final String name,
+                          final double latitude, final double longitude) {
+        if (!GeoRange.isValidLatitude(latitude)
+                || !GeoRange.isValidLongitude(longitude)) {
+            throw new IllegalArgumentException(
+                    "latitude or longitude is out of range");
+        }
+
+        int index = indexOf(id);
+        if (index == NO_TARGET) {
+            if (mCount == mIds.length) {
+                grow();
+            }
+            index = mCount++;
+            mIndexes.put(id, index);
+        }
+
+        double latitudeRadians = Math.toRadians(latitude);
+        mIds[index] = id;
+        mNames[index] = name;
+        mLatitudes[index] = latitude;
+        mLongitudes[index] = longitude;
+        mSinLatitudes[index] = Math.sin(latitudeRadians);
+        mCosLatitudes[index] = Math.cos(latitudeRadians);
+        mUpdated = false;
+    }
+
+    /**
+     * Removes a target. The index of the following targets changes.
+     *
+     * @param id target id
+     * @return true if the target was removed
+     */
+    public final boolean remove(final long id) {
+        int index = indexOf(id);
+        if (index == NO_TARGET) {
+            return false;
+        }
+
+        int moved = mCount - index - 1;
+        System.arraycopy(mIds, index + 1, mIds, index, moved);
+        System.arraycopy(mNames, index + 1, mNames, index, moved);
+        System.arraycopy(mLatitudes, index + 1, mLatitudes, index, moved);
+        System.arraycopy(mLongitudes, index + 1, mLongitudes, index, moved);
+        System.arraycopy(mSinLatitudes, index + 1, mSinLatitudes, index,
+                moved);
+        System.arraycopy(mCosLatitudes, index + 1, mCosLatitudes, index,
+                moved);
+        mCount--;
+        mNames[mCount] = null;
+        mUpdated = false;
+
+        mIndexes.remove(id);
+        for (int i = index; i < mCount; i++) {
+            mIndexes.put(mIds[i], i);
+        }
+
+        if (mHasCurrent && mCurrentId == id) {
+            mHasCurrent = false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all targets.
+     */
+    public final void clear() {
+        Arrays.fill(mNames, 0, mCount, null);
+        mIndexes.clear();
+        mCount = 0;
+        mUpdated = false;
+        mHasCurrent = false;
+    }
+
+    /**
+     * Get number of targets.
+     *
+     * @return number of targets
+     */
+    public final int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Get the index of a target.
+     *
+     * @param id target id
+     * @return target index, NO_TARGET if the id is unknown
+     */
+    public final int indexOf(final long id) {
+        Integer index = mIndexes.get(id);
+        if (index == null) {
+            return NO_TARGET;
+        }
+
+        return index;
+    }
+
+    /**
+     * Get target id.
+     *
+     * @param index target index
+     * @return target id
+     */
+    public final long getId(final int index) {
+        checkIndex(index);
+
+        return mIds[index];
+    }
+
+    /**
+     * Get target name.
+     *
+     * @param index target index
+     * @return target name
+     */
+    public final String getName(final int index) {
+        checkIndex(index);
+
+        return mNames[index];
+    }
+
+    /**
+     * Get target latitude.
+     *
+     * @param index target index
+     * @return latitude in degrees
+     */
+    public final double getLatitude(final int index) {
+        checkIndex(index);
+
+        return mLatitudes[index];
+    }
+
+    /**
+     * Get target longitude.
+     *
+     * @param index target index
+     * @return longitude in degrees
+     */
+    public final double getLongitude(final int index) {
+        checkIndex(index);
+
+        return mLongitudes[index];
+    }
+
+    /**
+     * Checks if distances, bearings and order match the current targets.
+     *
+     * @return true if the set is updated since the targets last changed
+     */
+    public final boolean isUpdated() {
+        return mUpdated;
+    }
+
+    /**
+     * Get distance to a target, calculated in the last update.
+     *
+     * @param index target index
+     * @return distance in meters
+     */
+    public final float getDistance(final int index) {
+        checkIndex(index);
+
+        return mDistances[index];
+    }
+
+    /**
+     * Get bearing to a target, calculated in the last update.
+     *
+     * @param index target index
+     * @return bearing in degrees, relative to the North (0-360°)
+     */
+    public final float getBearing(final int index) {
+        checkIndex(index);
+
+        return mBearings[index];
+    }
+
+    /**
+     * Get target index by distance rank, calculated in the last update.
+     *
+     * @param rank distance rank, 0 is the nearest target
+     * @return target index
+     */
+    public final int getIndexByRank(final int rank) {
+        checkIndex(rank);
+
+        return mOrder[rank];
+    }
+
+    /**
+     * Get nearest target, calculated in the last update.
+     *
+     * @return index of nearest target, NO_TARGET if not updated or empty
+     */
+    public final int getNearest() {
+        if (!mUpdated || mCount == 0) {
+            return NO_TARGET;
+        }
+
+        return mOrder[0];
+    }
+
+    /**
+     * Get current target, the nearest target with hysteresis.
+     *
+     * @return index of current target, NO_TARGET if not updated or empty
+     */
+    public final int getCurrent() {
+        if (!mUpdated || !mHasCurrent) {
+            return NO_TARGET;
+        }
+
+        return indexOf(mCurrentId);
+    }
+
+    /**
+     * Calculates distance and bearing to all targets from a location,
+     * orders the targets by distance and updates the current target.
+     *
+     * @param latitude latitude of the location in degrees
+     * @param longitude longitude of the location in degrees
+     */
+    public final void update(final double latitude, final double longitude) {
+        double latitudeRadians = Math.toRadians(latitude);
+        double longitudeRadians = Math.toRadians(longitude);
+        double sinLatitude = Math.sin(latitudeRadians);
+        double cosLatitude = Math.cos(latitudeRadians);
+
+        for (int i = 0; i < mCount; i++) {
+            double halfDeltaLatitude
+                    = (Math.toRadians(mLatitudes[i]) - latitudeRadians) / 2;
+            double halfDeltaLongitude
+                    = (Math.toRadians(mLongitudes[i]) - longitudeRadians) / 2;
+            double sinHalfLatitude = Math.sin(halfDeltaLatitude);
+            double sinHalfLongitude = Math.sin(halfDeltaLongitude);
+            double cosHalfLongitude = Math.cos(halfDeltaLongitude);
+
+            // haversine formula
+            double a = sinHalfLatitude * sinHalfLatitude
+                    + cosLatitude * mCosLatitudes[i]
+                        * sinHalfLongitude * sinHalfLongitude;
+            double distance
+                    = 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+
+            // initial bearing, using double angle formulas
+            double sinDeltaLongitude = 2 * sinHalfLongitude * cosHalfLongitude;
+            double cosDeltaLongitude
+                    = 1 - 2 * sinHalfLongitude * sinHalfLongitude;
+            double bearing = Math.toDegrees(Math.atan2(
+                    sinDeltaLongitude * mCosLatitudes[i],
+                    cosLatitude * mSinLatitudes[i]
+                        - sinLatitude * mCosLatitudes[i] * cosDeltaLongitude));
+
+            mDistances[i] = (float) distance;
+            mBearings[i] = (float) AngleMath.normalize(bearing);
+
+            // positive floats have the same order as their bits
+            mSortKeys[i] = ((long) Float.floatToIntBits(mDistances[i])
+                    << SORT_KEY_SHIFT) | i;
+        }
+
+        Arrays.sort(mSortKeys, 0, mCount);
+        for (int i = 0; i < mCount; i++) {
+            mOrder[i] = (int) (mSortKeys[i] & SORT_KEY_INDEX_MASK);
+        }
+        mUpdated = true;
+
+        updateCurrent();
+    }
+
+    /**
+     * Selects the current target : the nearest target, if it is closer
+     * than the current target by more than the hysteresis margin.
+     */
+    private void updateCurrent() {
+        if (mCount == 0) {
+            mHasCurrent = false;
+            return;
+        }
+
+        int nearest = mOrder[0];
+        int current = mHasCurrent ? indexOf(mCurrentId) : NO_TARGET;
+
+        if (current == NO_TARGET) {
+            mCurrentId = mIds[nearest];
+            mHasCurrent = true;
+            return;
+        }
+
+        double margin = Math.max(mHysteresis,
+                mDistances[current] * mHysteresisRatio);
+        if (mDistances[nearest] + margin < mDistances[current]) {
+            mCurrentId = mIds[nearest];
+        }
+    }
+
+    /**
+     * Checks if an index is in range.
+     *
+     * @param index target index
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException(
+                    "index " + index + " is out of range");
+        }
+    }
+
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        int count = mCount;
+        long[] ids = mIds;
+        String[] names = mNames;
+        double[] latitudes = mLatitudes;
+        double[] longitudes = mLongitudes;
+        double[] sinLatitudes = mSinLatitudes;
+        double[] cosLatitudes = mCosLatitudes;
+
+        allocate(mIds.length * 2);
+        System.arraycopy(ids, 0, mIds, 0, count);
+        System.arraycopy(names, 0, mNames, 0, count);
+        System.arraycopy(latitudes, 0, mLatitudes, 0, count);
+        System.arraycopy(longitudes, 0, mLongitudes, 0, count);
+        System.arraycopy(sinLatitudes, 0, mSinLatitudes, 0, count);
+        System.arraycopy(cosLatitudes, 0, mCosLatitudes, 0, count);
+        mUpdated = false;
+    }
+
+    /**
+     * Allocates the arrays.
+     *
+     * @param capacity number of targets the arrays can hold
+     */
+    private void allocate(final int capacity) {
+        mIds = new long[capacity];
+        mNames = new String[capacity];
+        mLatitudes = new double[capacity];
+        mLongitudes = new double[capacity];
+        mSinLatitudes = new double[capacity];
+        mCosLatitudes = new double[capacity];
+        mDistances = new float[capacity];
+        mBearings = new float[capacity];
+        mSortKeys = new long[capacity];
+        mOrder = new int[capacity];
+    }
+}
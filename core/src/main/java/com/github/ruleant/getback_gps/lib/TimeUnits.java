@@ -0,0 +1,53 @@
+/**
+ * Time unit conversion rates.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Time unit conversion rates, without dependencies on the Android SDK.
+ * Tools provides the same rates to the app.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class TimeUnits {
+    /**
+     * Millisecond to nanosecond conversion rate.
+     */
+    public static final long MILLI_IN_NANO = 1000000;
+
+    /**
+     * Microsecond to nanosecond conversion rate.
+     */
+    public static final long MICRO_IN_NANO = 1000;
+
+    /**
+     * Seconds to milliseconds conversion rate.
+     */
+    public static final long SECOND_IN_MILLIS = 1000;
+
+    /**
+     * Hidden constructor, to prevent instantiating.
+     */
+    protected TimeUnits() {
+        // prevents calls from subclass
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Format distances, heights, speeds and angles.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import com.github.ruleant.unitconversion.AbstractUnitConversion;
+import com.github.ruleant.unitconversion.DistanceConversion;
+import com.github.ruleant.unitconversion.HeightConversion;
+import com.github.ruleant.unitconversion.SpeedConversion;
+
+import java.util.Locale;
+
+/**
+ * Format distances, heights, speeds and angles,
+ * without dependencies on the Android SDK.
+ *
+ * Unit labels are passed as arrays, FormatUtils looks up
+ * the localized labels in the app resources.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class UnitFormat {
+    /**
+     * Speed unit : km/h.
+     */
+    public static final String SPEED_KPH = "km/h";
+
+    /**
+     * Unit system : metric (m, km, km/h).
+     */
+    public static final int UNIT_SYSTEM_METRIC = 0;
+
+    /**
+     * Unit system : imperial (ft, mi, mph).
+     */
+    public static final int UNIT_SYSTEM_IMPERIAL = 1;
+
+    /**
+     * Unit system : nautical (NM or m below 0.1 NM, kn, heights in m).
+     */
+    public static final int UNIT_SYSTEM_NAUTICAL = 2;
+
+    /**
+     * Quantity : distance, labels are in the unit order
+     * of DistanceConversion.
+     */
+    public static final int QUANTITY_DISTANCE = 0;
+
+    /**
+     * Quantity : height, labels are in the unit order of HeightConversion.
+     */
+    public static final int QUANTITY_HEIGHT = 1;
+
+    /**
+     * Quantity : speed, labels are in the unit order of SpeedConversion.
+     */
+    public static final int QUANTITY_SPEED = 2;
+
+    /**
+     * Number of quantities.
+     */
+    public static final int QUANTITY_COUNT = 3;
+
+    /**
+     * Unit conversion, per quantity.
+     */
+    private static final AbstractUnitConversion[] CONVERSIONS = {
+        new DistanceConversion(), new HeightConversion(),
+        new SpeedConversion(),
+    };
+
+    /**
+     * Unit of the formatted values, per quantity and unit system.
+     */
+    private static final int[][] OUTPUT_UNITS = {
+        {DistanceConversion.UNIT_METER, DistanceConversion.UNIT_FOOT,
+            DistanceConversion.UNIT_NAUTICAL_MILE},
+        {HeightConversion.UNIT_METER, HeightConversion.UNIT_FOOT,
+            HeightConversion.UNIT_METER},
+        {SpeedConversion.UNIT_KILOMETER_PER_HOUR,
+            SpeedConversion.UNIT_MILE_PER_HOUR, SpeedConversion.UNIT_KNOT},
+    };
+
+    /**
+     * Current unit system.
+     */
+    private static volatile int sUnitSystem = UNIT_SYSTEM_METRIC;
+
+    /**
+     * Hidden constructor, to prevent instantiating.
+     */
+    protected UnitFormat() {
+        // prevents calls from subclass
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sets the unit system of the formatted distances, heights and speeds.
+     *
+     * @param unitSystem unit system (UNIT_SYSTEM_METRIC, UNIT_SYSTEM_IMPERIAL
+     *                   or UNIT_SYSTEM_NAUTICAL)
+     */
+    public static void setUnitSystem(final int unitSystem) {
+        if (unitSystem < 0 || unitSystem >= OUTPUT_UNITS[0].length) {
+            throw new IllegalArgumentException(
+                    "Unknown unit system " + unitSystem);
+        }
+
+        sUnitSystem = unitSystem;
+    }
+
+    /**
+     * Get the unit system of the formatted distances, heights and speeds.
+     *
+     * @return unit system
+     */
+    public static int getUnitSystem() {
+        return sUnitSystem;
+    }
+
+    /**
+     * Converts a value (in the default unit of a quantity)
+     * to the unit of the current unit system and formats it.
+     * The number format is localized.
+     *
+     * @param quantity quantity of the value (fe. QUANTITY_DISTANCE)
+     * @param value value in the default unit (m or m/s)
+     * @param labels unit labels of the quantity,
+     *               if null, the default (not localized) labels are used
+     * @return formatted value with unit
+     */
+    public static synchronized String format(final int quantity,
+                                             final double value,
+                                             final String[] labels) {
+        if (quantity < 0 || quantity >= QUANTITY_COUNT) {
+            throw new IllegalArgumentException(
+                    "Unknown quantity " + quantity);
+        }
+
+        AbstractUnitConversion conversion = CONVERSIONS[quantity];
+        conversion.setUnitLabels(labels);
+        conversion.setOutputUnit(OUTPUT_UNITS[quantity][sUnitSystem]);
+        conversion.setValue(value, AbstractUnitConversion.UNIT_DEFAULT);
+
+        return conversion.getFormattedValue();
+    }
+
+    /**
+     * Formats an angle (in °) to a string.
+     * The number format is localized.
+     *
+     * @param angle Angle in °
+     * @param precision number of decimals
+     * @return formatted angle with unit (°)
+     */
+    public static String formatAngle(final double angle, final int precision) {
+        if (precision < 0) {
+            throw new IllegalArgumentException(
+                    "Precision can't be a negative value");
+        }
+
+        String unit = "°";
+
+        // generate format string
+        // format number with variable precision (%s.xf), with x = precision
+        String formatString = "%1$." + String.format(Locale.US, "%d", precision) + "f";
+        // add unit
+        formatString += "%2$s";
+
+        // formatting
+        return String.format(Locale.getDefault(), formatString, angle, unit);
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Streaming Visvalingam-Whyatt polyline simplifier.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+/**
+ * Simplifies a stream of points with the Visvalingam-Whyatt algorithm.
+ *
+ * The effective area of a point is the area of the triangle it forms
+ * with its neighbours. The point with the smallest effective area is
+ * removed, and the areas of its neighbours are updated, until all
+ * remaining points have an effective area larger than the square
+ * of the tolerance. Compared to Douglas-Peucker, the shape of
+ * gradual curves is preserved better.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class VisvalingamWhyattSimplifier extends PolylineSimplifier {
+    /**
+     * Index of the previous remaining point, per point.
+     */
+    private final int[] mPrevious;
+
+    /**
+     * Index of the next remaining point, per point.
+     */
+    private final int[] mNext;
+
+    /**
+     * Effective area, per point.
+     */
+    private final double[] mArea;
+
+    /**
+     * Constructor, using default window size.
+     *
+     * @param sink receiver of the simplified points
+     * @param tolerance tolerance in meters (geographic) or pixels,
+     *                  the minimum effective area is the square
+     * @param geographic true if points are longitude and latitude
+     */
+    public VisvalingamWhyattSimplifier(final PointSink sink,
+                                       final double tolerance,
+                                       final boolean geographic) {
+        this(sink, tolerance, geographic, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sink receiver of the simplified points
+     * @param tolerance tolerance in meters (geographic) or pixels,
+     *                  the minimum effective area is the square
+     * @param geographic true if points are longitude and latitude
+     * @param windowSize number of points in the window
+     */
+    public VisvalingamWhyattSimplifier(final PointSink sink,
+                                       final double tolerance,
+                                       final boolean geographic,
+                                       final int windowSize) {
+        super(sink, tolerance, geographic, windowSize);
+
+        mPrevious = new int[windowSize];
+        mNext = new int[windowSize];
+        mArea = new double[windowSize];
+    }
+
+    @Override
+    protected final void markKept(final int count, final double tolerance) {
+        double minArea = tolerance * tolerance;
+
+        for (int i = 0; i < count; i++) {
+            mPrevious[i] = i - 1;
+            mNext[i] = i + 1;
+        }
+        for (int i = 1; i < count - 1; i++) {
+            mArea[i] = getTriangleArea(i - 1, i, i + 1);
+        }
+
+        // the window is small, a linear search is fast enough
+        int remaining = count - 2;
+        while (remaining > 0) {
+            int smallest = -1;
+            for (int i = mNext[0]; i < count - 1; i = mNext[i]) {
+                if (smallest < 0 || mArea[i] < mArea[smallest]) {
+                    smallest = i;
+                }
+            }
+
+            if (mArea[smallest] > minArea) {
+                break;
+            }
+
+            // remove point, and update effective area of its neighbours
+            mKept[smallest] = false;
+            remaining--;
+            int previous = mPrevious[smallest];
+            int next = mNext[smallest];
+            mNext[previous] = next;
+            mPrevious[next] = previous;
+            if (previous > 0) {
+                mArea[previous] = getTriangleArea(
+                        mPrevious[previous], previous, next);
+            }
+            if (next < count - 1) {
+                mArea[next] = getTriangleArea(previous, next, mNext[next]);
+            }
+        }
+    }
+}
@@ -0,0 +1,464 @@
+/**
+ * Table driven unit conversion
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Table driven unit conversion.
+ *
+ * A subclass defines its units in tables, indexed by unit :
+ * the conversion factor from the default unit, the bigger unit
+ * to switch to when a value gets large (fe. meter to kilometer),
+ * the value below which a decimal is displayed, and a unit label.
+ * Switch thresholds are precomputed from the factors.
+ *
+ * A value is formatted into a reused buffer, using cached symbols
+ * of the default locale, so converting and formatting a value
+ * only allocates the resulting string.
+ * An instance is not thread safe.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public abstract class AbstractUnitConversion
+        implements UnitConversionInterface {
+    /**
+     * No unit, fe. when a unit doesn't switch to a bigger unit.
+     */
+    public static final int NO_UNIT = -1;
+
+    /**
+     * Displayed decimals are multiplied by this value, 1 decimal.
+     */
+    private static final double ONE_DEC = 10.0;
+
+    /**
+     * Number base of the displayed digits.
+     */
+    private static final int BASE = 10;
+
+    /**
+     * Initial capacity of the format buffer.
+     */
+    private static final int BUFFER_CAPACITY = 32;
+
+    /**
+     * Conversion factors from the default unit, per unit.
+     */
+    private final double[] mFactors;
+
+    /**
+     * Bigger unit to switch to, per unit, NO_UNIT if none.
+     */
+    private final int[] mBiggerUnits;
+
+    /**
+     * Number of units in the bigger unit, per unit.
+     * A value that rounds to this is displayed in the bigger unit.
+     */
+    private final long[] mThresholds;
+
+    /**
+     * Smaller unit to switch to, per unit, NO_UNIT if none.
+     */
+    private final int[] mSmallerUnits;
+
+    /**
+     * Value below which the smaller unit is displayed, per unit.
+     */
+    private final double[] mSmallerLimits;
+
+    /**
+     * Value below which 1 decimal is displayed, per unit,
+     * 0 to always display an integer.
+     */
+    private final double[] mDecimalLimits;
+
+    /**
+     * Default unit labels, per unit.
+     */
+    private final String[] mDefaultLabels;
+
+    /**
+     * Current unit labels, per unit.
+     */
+    private String[] mLabels;
+
+    /**
+     * True if the sign of the value is dropped when it is formatted.
+     */
+    private final boolean mAbsolute;
+
+    /**
+     * Current value, in the default unit.
+     */
+    private double mValue = 0;
+
+    /**
+     * Output unit.
+     */
+    private int mOutputUnit = UNIT_DEFAULT;
+
+    /**
+     * Reused format buffer.
+     */
+    private final StringBuilder mBuffer = new StringBuilder(BUFFER_CAPACITY);
+
+    /**
+     * Locale of the cached number symbols.
+     */
+    private Locale mLocale = null;
+
+    /**
+     * Cached zero digit of the locale.
+     */
+    private char mZeroDigit;
+
+    /**
+     * Cached decimal separator of the locale.
+     */
+    private char mDecimalSeparator;
+
+    /**
+     * Cached grouping separator of the locale.
+     */
+    private char mGroupingSeparator;
+
+    /**
+     * Cached grouping size of the locale.
+     */
+    private int mGroupingSize;
+
+    /**
+     * Reused digit buffer, a long has at most 19 digits.
+     */
+    private final char[] mDigits = new char[BUFFER_CAPACITY];
+
+    /**
+     * Constructor.
+     *
+     * @param factors conversion factors from the default unit, per unit
+     * @param biggerUnits bigger unit to switch to, per unit, or NO_UNIT
+     * @param decimalLimits value below which 1 decimal is displayed,
+     *                      per unit, 0 to always display an integer
+     * @param labels default unit labels, per unit
+     * @param absolute true if the sign is dropped when formatting
+     */
+    protected AbstractUnitConversion(final double[] factors,
+                                     final int[] biggerUnits,
+                                     final double[] decimalLimits,
+                                     final String[] labels,
+                                     final boolean absolute) {
+        this(factors, biggerUnits, decimalLimits, labels, absolute,
+                null, null);
+    }
+
+    /**
+     * Constructor, with units that switch to a smaller unit
+     * for small values, fe. a unit without a natural smaller unit,
+     * where values below 0.1 would be displayed as 0.
+     *
+     * @param factors conversion factors from the default unit, per unit
+     * @param biggerUnits bigger unit to switch to, per unit, or NO_UNIT
+     * @param decimalLimits value below which 1 decimal is displayed,
+     *                      per unit, 0 to always display an integer
+     * @param labels default unit labels, per unit
+     * @param absolute true if the sign is dropped when formatting
+     * @param smallerUnits smaller unit to switch to, per unit, or NO_UNIT,
+     *                     null if no unit switches to a smaller unit
+     * @param smallerLimits value below which the smaller unit is displayed,
+     *                      per unit, null if smallerUnits is null
+     */
+    protected AbstractUnitConversion(final double[] factors,
+                                     final int[] biggerUnits,
+                                     final double[] decimalLimits,
+                                     final String[] labels,
+                                     final boolean absolute,
+                                     final int[] smallerUnits,
+                                     final double[] smallerLimits) {
+        if (factors == null || biggerUnits == null || decimalLimits == null
+                || labels == null) {
+            throw new IllegalArgumentException(
+                    "Unit tables should not be null");
+        }
+
+        int size = factors.length;
+        if (size == 0 || biggerUnits.length != size
+                || decimalLimits.length != size || labels.length != size) {
+            throw new IllegalArgumentException(
+                    "Unit tables should have the same, non-zero size");
+        }
+
+        mFactors = factors.clone();
+        mBiggerUnits = biggerUnits.clone();
+        mDecimalLimits = decimalLimits.clone();
+        mDefaultLabels = labels.clone();
+        mLabels = mDefaultLabels;
+        mAbsolute = absolute;
+
+        if (smallerUnits == null) {
+            mSmallerUnits = new int[size];
+            Arrays.fill(mSmallerUnits, NO_UNIT);
+            mSmallerLimits = new double[size];
+        } else if (smallerLimits == null || smallerUnits.length != size
+                || smallerLimits.length != size) {
+            throw new IllegalArgumentException(
+                    "Smaller unit tables should have the size of the units");
+        } else {
+            mSmallerUnits = smallerUnits.clone();
+            mSmallerLimits = smallerLimits.clone();
+        }
+
+        mThresholds = new long[size];
+        for (int unit = 0; unit < size; unit++) {
+            if (!(mFactors[unit] > 0)) {
+                throw new IllegalArgumentException(
+                        "factors should be non-zero positive values");
+            }
+
+            int biggerUnit = mBiggerUnits[unit];
+            if (biggerUnit != NO_UNIT) {
+                checkUnit(biggerUnit);
+                mThresholds[unit]
+                        = Math.round(mFactors[unit] / mFactors[biggerUnit]);
+            }
+
+            if (mSmallerUnits[unit] != NO_UNIT) {
+                checkUnit(mSmallerUnits[unit]);
+            }
+        }
+    }
+
+    /**
+     * Get number of units.
+     *
+     * @return number of units
+     */
+    public final int getUnitCount() {
+        return mFactors.length;
+    }
+
+    @Override
+    public final void setValue(final double value, final int unit) {
+        checkUnit(unit);
+
+        mValue = value / mFactors[unit];
+    }
+
+    /**
+     * Get current value, in the default unit.
+     *
+     * @return value in the default unit
+     */
+    public final double getValue() {
+        return mValue;
+    }
+
+    @Override
+    public final void setOutputUnit(final int unit) {
+        checkUnit(unit);
+
+        mOutputUnit = unit;
+    }
+
+    /**
+     * Get output unit.
+     *
+     * @return output unit
+     */
+    public final int getOutputUnit() {
+        return mOutputUnit;
+    }
+
+    /**
+     * Sets the unit labels, fe. localized labels.
+     * The array is not copied, so a cached array can be set
+     * before each conversion without allocating.
+     *
+     * @param labels unit labels, per unit, null to use the default labels
+     */
+    public final void setUnitLabels(final String[] labels) {
+        if (labels == null) {
+            mLabels = mDefaultLabels;
+        } else if (labels.length != mFactors.length) {
+            throw new IllegalArgumentException(
+                    "labels should have a label for each unit");
+        } else {
+            mLabels = labels;
+        }
+    }
+
+    /**
+     * Get the label of a unit.
+     *
+     * @param unit unit
+     * @return unit label
+     */
+    public final String getUnitLabel(final int unit) {
+        checkUnit(unit);
+
+        return mLabels[unit];
+    }
+
+    @Override
+    public final String getUnit() {
+        return mLabels[mOutputUnit];
+    }
+
+    @Override
+    public final double getConvertedValue() {
+        return mValue * mFactors[mOutputUnit];
+    }
+
+    /**
+     * Get the unit the value is displayed in, the output unit,
+     * its bigger unit if the value is large enough,
+     * or its smaller unit if the value is small enough.
+     *
+     * @return displayed unit
+     */
+    public final int getDisplayUnit() {
+        int unit = mOutputUnit;
+        int biggerUnit = mBiggerUnits[unit];
+        int smallerUnit = mSmallerUnits[unit];
+
+        if (smallerUnit != NO_UNIT
+                && Math.abs(mValue * mFactors[unit]) < mSmallerLimits[unit]) {
+            return smallerUnit;
+        }
+
+        if (biggerUnit != NO_UNIT
+                && Math.round(Math.abs(mValue * mFactors[unit]))
+                    >= mThresholds[unit]) {
+            return biggerUnit;
+        }
+
+        return unit;
+    }
+
+    @Override
+    public final String getFormattedValue() {
+        int unit = getDisplayUnit();
+        double value = mValue * mFactors[unit];
+        if (mAbsolute) {
+            value = Math.abs(value);
+        }
+
+        updateSymbols();
+        mBuffer.setLength(0);
+
+        // round to one decimal and check if it is below the limit
+        long tenths = Math.round(value * ONE_DEC);
+        if (Math.abs(tenths) / ONE_DEC < mDecimalLimits[unit]) {
+            appendDecimal(tenths);
+        } else {
+            appendInteger(Math.round(value));
+        }
+        mBuffer.append(mLabels[unit]);
+
+        return mBuffer.toString();
+    }
+
+    /**
+     * Checks if a unit is valid.
+     *
+     * @param unit unit
+     */
+    private void checkUnit(final int unit) {
+        if (unit < 0 || unit >= mFactors.length) {
+            throw new IllegalArgumentException("Unknown unit " + unit);
+        }
+    }
+
+    /**
+     * Updates the cached number symbols, if the default locale changed.
+     */
+    private void updateSymbols() {
+        Locale locale = Locale.getDefault();
+        if (locale.equals(mLocale)) {
+            return;
+        }
+
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        mZeroDigit = symbols.getZeroDigit();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mGroupingSeparator = symbols.getGroupingSeparator();
+
+        NumberFormat format = NumberFormat.getIntegerInstance(locale);
+        if (format instanceof DecimalFormat) {
+            mGroupingSize = ((DecimalFormat) format).getGroupingSize();
+        } else {
+            mGroupingSize = 0;
+        }
+
+        mLocale = locale;
+    }
+
+    /**
+     * Appends an integer, with localized digits and grouping separators.
+     *
+     * @param value integer value
+     */
+    private void appendInteger(final long value) {
+        long remaining = value;
+        if (remaining < 0) {
+            mBuffer.append('-');
+        }
+
+        // collect digits from the least significant one,
+        // negative values are handled as negative digits
+        int count = 0;
+        do {
+            mDigits[count++] = (char) (mZeroDigit
+                    + Math.abs(remaining % BASE));
+            remaining /= BASE;
+        } while (remaining != 0);
+
+        for (int i = count - 1; i >= 0; i--) {
+            mBuffer.append(mDigits[i]);
+            if (mGroupingSize > 0 && i > 0 && i % mGroupingSize == 0) {
+                mBuffer.append(mGroupingSeparator);
+            }
+        }
+    }
+
+    /**
+     * Appends a value with 1 decimal, with localized digits and separators.
+     *
+     * @param tenths value multiplied by 10
+     */
+    private void appendDecimal(final long tenths) {
+        long integer = tenths / BASE;
+        if (tenths < 0 && integer == 0) {
+            // sign isn't appended for an integer part of 0
+            mBuffer.append('-');
+        }
+
+        appendInteger(integer);
+        mBuffer.append(mDecimalSeparator);
+        mBuffer.append((char) (mZeroDigit + Math.abs(tenths % BASE)));
+    }
+}
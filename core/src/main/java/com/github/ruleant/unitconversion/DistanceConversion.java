@@ -0,0 +1,124 @@
+/**
+ * Distance unit conversion
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+/**
+ * Distance unit conversion, the default unit is meter.
+ *
+ * Meter is displayed in kilometer and foot in mile,
+ * when the value gets large.
+ * Nautical mile has no smaller nautical unit,
+ * it is displayed in meter below 0.1 NM.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DistanceConversion extends AbstractUnitConversion {
+    /**
+     * Unit : meter (default unit).
+     */
+    public static final int UNIT_METER = UNIT_DEFAULT;
+
+    /**
+     * Unit : kilometer.
+     */
+    public static final int UNIT_KILOMETER = 1;
+
+    /**
+     * Unit : foot.
+     */
+    public static final int UNIT_FOOT = 2;
+
+    /**
+     * Unit : statute mile.
+     */
+    public static final int UNIT_MILE = 3;
+
+    /**
+     * Unit : nautical mile.
+     */
+    public static final int UNIT_NAUTICAL_MILE = 4;
+
+    /**
+     * Kilometer in meter.
+     */
+    private static final double KILOMETER_IN_METER = 1000;
+
+    /**
+     * Foot in meter.
+     */
+    private static final double FOOT_IN_METER = 0.3048;
+
+    /**
+     * Statute mile in meter.
+     */
+    private static final double MILE_IN_METER = 1609.344;
+
+    /**
+     * Nautical mile in meter.
+     */
+    private static final double NAUTICAL_MILE_IN_METER = 1852;
+
+    /**
+     * Conversion factors from meter, per unit.
+     */
+    private static final double[] FACTORS = {
+        1, 1 / KILOMETER_IN_METER, 1 / FOOT_IN_METER, 1 / MILE_IN_METER,
+        1 / NAUTICAL_MILE_IN_METER,
+    };
+
+    /**
+     * Bigger unit, per unit.
+     */
+    private static final int[] BIGGER_UNITS = {
+        UNIT_KILOMETER, NO_UNIT, UNIT_MILE, NO_UNIT, NO_UNIT,
+    };
+
+    /**
+     * Smaller unit, per unit.
+     */
+    private static final int[] SMALLER_UNITS = {
+        NO_UNIT, NO_UNIT, NO_UNIT, NO_UNIT, UNIT_METER,
+    };
+
+    /**
+     * Value below which the smaller unit is displayed, per unit.
+     */
+    private static final double[] SMALLER_LIMITS = {0, 0, 0, 0, 0.1};
+
+    /**
+     * Value below which 1 decimal is displayed, per unit.
+     */
+    private static final double[] DECIMAL_LIMITS = {0, 10, 0, 10, 10};
+
+    /**
+     * Default unit labels, per unit.
+     */
+    private static final String[] LABELS = {"m", "km", "ft", "mi", "NM"};
+
+    /**
+     * Constructor.
+     */
+    public DistanceConversion() {
+        super(FACTORS, BIGGER_UNITS, DECIMAL_LIMITS, LABELS, true,
+                SMALLER_UNITS, SMALLER_LIMITS);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Height unit conversion
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+/**
+ * Height unit conversion, the default unit is meter.
+ *
+ * A height is displayed as an integer and keeps its sign,
+ * fe. for a height difference.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class HeightConversion extends AbstractUnitConversion {
+    /**
+     * Unit : meter (default unit).
+     */
+    public static final int UNIT_METER = UNIT_DEFAULT;
+
+    /**
+     * Unit : foot.
+     */
+    public static final int UNIT_FOOT = 1;
+
+    /**
+     * Foot in meter.
+     */
+    private static final double FOOT_IN_METER = 0.3048;
+
+    /**
+     * Conversion factors from meter, per unit.
+     */
+    private static final double[] FACTORS = {1, 1 / FOOT_IN_METER};
+
+    /**
+     * Bigger unit, per unit.
+     */
+    private static final int[] BIGGER_UNITS = {NO_UNIT, NO_UNIT};
+
+    /**
+     * Value below which 1 decimal is displayed, per unit.
+     */
+    private static final double[] DECIMAL_LIMITS = {0, 0};
+
+    /**
+     * Default unit labels, per unit.
+     */
+    private static final String[] LABELS = {"m", "ft"};
+
+    /**
+     * Constructor.
+     */
+    public HeightConversion() {
+        super(FACTORS, BIGGER_UNITS, DECIMAL_LIMITS, LABELS, false);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Speed unit conversion
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+/**
+ * Speed unit conversion, the default unit is meter per second.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SpeedConversion extends AbstractUnitConversion {
+    /**
+     * Unit : meter per second (default unit).
+     */
+    public static final int UNIT_METER_PER_SECOND = UNIT_DEFAULT;
+
+    /**
+     * Unit : kilometer per hour.
+     */
+    public static final int UNIT_KILOMETER_PER_HOUR = 1;
+
+    /**
+     * Unit : statute mile per hour.
+     */
+    public static final int UNIT_MILE_PER_HOUR = 2;
+
+    /**
+     * Unit : knot, nautical mile per hour.
+     */
+    public static final int UNIT_KNOT = 3;
+
+    /**
+     * Hour in seconds.
+     */
+    private static final double HOUR_IN_SECONDS = 3600;
+
+    /**
+     * Kilometer in meter.
+     */
+    private static final double KILOMETER_IN_METER = 1000;
+
+    /**
+     * Statute mile in meter.
+     */
+    private static final double MILE_IN_METER = 1609.344;
+
+    /**
+     * Nautical mile in meter.
+     */
+    private static final double NAUTICAL_MILE_IN_METER = 1852;
+
+    /**
+     * Conversion factors from m/s, per unit.
+     */
+    private static final double[] FACTORS = {
+        1, HOUR_IN_SECONDS / KILOMETER_IN_METER,
+        HOUR_IN_SECONDS / MILE_IN_METER,
+        HOUR_IN_SECONDS / NAUTICAL_MILE_IN_METER,
+    };
+
+    /**
+     * Bigger unit, per unit.
+     */
+    private static final int[] BIGGER_UNITS = {
+        NO_UNIT, NO_UNIT, NO_UNIT, NO_UNIT,
+    };
+
+    /**
+     * Value below which 1 decimal is displayed, per unit.
+     */
+    private static final double[] DECIMAL_LIMITS = {10, 10, 10, 10};
+
+    /**
+     * Default unit labels, per unit.
+     */
+    private static final String[] LABELS = {"m/s", "km/h", "mph", "kn"};
+
+    /**
+     * Constructor.
+     */
+    public SpeedConversion() {
+        super(FACTORS, BIGGER_UNITS, DECIMAL_LIMITS, LABELS, true);
+    }
+}
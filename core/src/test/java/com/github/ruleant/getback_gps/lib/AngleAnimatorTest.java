@@ -0,0 +1,197 @@
+/**
+ * Unit tests for AngleAnimator class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AngleAnimator class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AngleAnimatorTest {
+    /**
+     * Frame interval (60 frames per second).
+     */
+    private static final long FRAME = 16 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Accuracy.
+     */
+    private static final double ACCURACY = 0.0001;
+
+    /**
+     * Instance of the AngleAnimator class.
+     */
+    private AngleAnimator animator;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        animator = new AngleAnimator();
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new AngleAnimator(0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            animator.setSettleThreshold(-1);
+        });
+    }
+
+    /**
+     * Tests shortest difference between angles.
+     */
+    @Test
+    public final void testShortestDifference() {
+        Assertions.assertEquals(0,
+                AngleMath.shortestDifference(10, 10), ACCURACY);
+        Assertions.assertEquals(20,
+                AngleMath.shortestDifference(10, 30), ACCURACY);
+        Assertions.assertEquals(-20,
+                AngleMath.shortestDifference(30, 10), ACCURACY);
+        // crossing 0°/360°
+        Assertions.assertEquals(20,
+                AngleMath.shortestDifference(350, 10), ACCURACY);
+        Assertions.assertEquals(-20,
+                AngleMath.shortestDifference(10, 350), ACCURACY);
+        Assertions.assertEquals(180,
+                AngleMath.shortestDifference(0, 180), ACCURACY);
+        // angles out of range
+        Assertions.assertEquals(20,
+                AngleMath.shortestDifference(-10, 370), ACCURACY);
+    }
+
+    /**
+     * Tests a settled animator.
+     */
+    @Test
+    public final void testSettled() {
+        Assertions.assertTrue(animator.isSettled());
+        Assertions.assertTrue(animator.step(FRAME));
+        Assertions.assertEquals(0, animator.getCurrent(), ACCURACY);
+
+        animator.jumpTo(400);
+        Assertions.assertTrue(animator.isSettled());
+        Assertions.assertEquals(40, animator.getCurrent(), ACCURACY);
+        Assertions.assertEquals(40, animator.getTarget(), ACCURACY);
+    }
+
+    /**
+     * Tests animating along the shortest arc.
+     */
+    @Test
+    public final void testShortestArc() {
+        animator.jumpTo(350);
+        animator.setTarget(10);
+        Assertions.assertFalse(animator.isSettled());
+
+        long frameTime = FRAME;
+        double previous = animator.getCurrent();
+        while (!animator.step(frameTime)) {
+            double current = animator.getCurrent();
+            // always moves clockwise, through 0°, never passes the target
+            Assertions.assertTrue(
+                    AngleMath.shortestDifference(previous, current) > 0);
+            Assertions.assertTrue(
+                    AngleMath.shortestDifference(current, 10) > 0);
+            previous = current;
+            frameTime += FRAME;
+        }
+
+        Assertions.assertTrue(animator.isSettled());
+        Assertions.assertEquals(10, animator.getCurrent(), ACCURACY);
+    }
+
+    /**
+     * Tests progress depends on time, not on the number of frames.
+     */
+    @Test
+    public final void testFrameRateIndependent() {
+        AngleAnimator slowAnimator = new AngleAnimator();
+
+        animator.setTarget(90);
+        slowAnimator.setTarget(90);
+
+        // first frame
+        animator.step(FRAME);
+        slowAnimator.step(FRAME);
+        Assertions.assertEquals(animator.getCurrent(),
+                slowAnimator.getCurrent(), ACCURACY);
+
+        // 2 frames of 16ms vs 1 frame of 32ms
+        animator.step(2 * FRAME);
+        animator.step(3 * FRAME);
+        slowAnimator.step(3 * FRAME);
+        Assertions.assertEquals(animator.getCurrent(),
+                slowAnimator.getCurrent(), ACCURACY);
+
+        // after one time constant, 1/e of the difference remains
+        AngleAnimator timedAnimator = new AngleAnimator(FRAME);
+        timedAnimator.setTarget(90);
+        timedAnimator.step(FRAME);
+        Assertions.assertEquals(90 - 90 / Math.E,
+                timedAnimator.getCurrent(), ACCURACY);
+    }
+
+    /**
+     * Tests settle threshold.
+     */
+    @Test
+    public final void testSettleThreshold() {
+        animator.setSettleThreshold(1);
+        animator.jumpTo(0);
+        animator.setTarget(0.5);
+
+        // remaining difference is below threshold after the first frame
+        Assertions.assertTrue(animator.step(FRAME));
+        Assertions.assertEquals(0.5, animator.getCurrent(), ACCURACY);
+    }
+
+    /**
+     * Tests changing target during an animation.
+     */
+    @Test
+    public final void testRetarget() {
+        animator.setTarget(90);
+        animator.step(FRAME);
+        double current = animator.getCurrent();
+
+        animator.setTarget(-90);
+        animator.step(2 * FRAME);
+        // moves back towards 270° through 0°
+        Assertions.assertTrue(AngleMath.shortestDifference(
+                current, animator.getCurrent()) < 0);
+        Assertions.assertTrue(animator.getCurrent() > AngleMath.CIRCLE_3Q);
+        Assertions.assertEquals(270, animator.getTarget(), ACCURACY);
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Unit tests for AngleMath class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for AngleMath class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AngleMathTest {
+    /**
+     * Accuracy of normalized angles.
+     */
+    private static final double ANGLE_ACCURACY = 1e-9;
+
+    /**
+     * Step between tested angles, in degrees.
+     * Not a divisor of the angle between table entries,
+     * so angles between the entries are tested.
+     */
+    private static final double STEP = 0.0137;
+
+    /**
+     * Start of the tested range, in degrees.
+     */
+    private static final double RANGE_START = -720;
+
+    /**
+     * End of the tested range, in degrees.
+     */
+    private static final double RANGE_END = 720;
+
+    /**
+     * Tests normalize.
+     */
+    @Test
+    public final void testNormalize() {
+        // in range
+        Assertions.assertEquals(0, AngleMath.normalize(0), ANGLE_ACCURACY);
+        Assertions.assertEquals(45, AngleMath.normalize(45), ANGLE_ACCURACY);
+        Assertions.assertEquals(359.5, AngleMath.normalize(359.5),
+                ANGLE_ACCURACY);
+
+        // single wrap
+        Assertions.assertEquals(0, AngleMath.normalize(360), ANGLE_ACCURACY);
+        Assertions.assertEquals(45, AngleMath.normalize(405), ANGLE_ACCURACY);
+        Assertions.assertEquals(0, AngleMath.normalize(-360), ANGLE_ACCURACY);
+        Assertions.assertEquals(315, AngleMath.normalize(-45), ANGLE_ACCURACY);
+
+        // multiple wraps
+        Assertions.assertEquals(0, AngleMath.normalize(720), ANGLE_ACCURACY);
+        Assertions.assertEquals(45, AngleMath.normalize(765), ANGLE_ACCURACY);
+        Assertions.assertEquals(0, AngleMath.normalize(-720), ANGLE_ACCURACY);
+        Assertions.assertEquals(45, AngleMath.normalize(-675), ANGLE_ACCURACY);
+        Assertions.assertEquals(10, AngleMath.normalize(3610),
+                ANGLE_ACCURACY);
+
+        // a tiny negative angle is not normalized to 360°
+        Assertions.assertEquals(0, AngleMath.normalize(-1e-20),
+                ANGLE_ACCURACY);
+        Assertions.assertTrue(AngleMath.normalize(-1e-20) < 360);
+
+        Assertions.assertTrue(Double.isNaN(AngleMath.normalize(Double.NaN)));
+    }
+
+    /**
+     * Tests inverse.
+     */
+    @Test
+    public final void testInverse() {
+        Assertions.assertEquals(180, AngleMath.inverse(0), ANGLE_ACCURACY);
+        Assertions.assertEquals(0, AngleMath.inverse(180), ANGLE_ACCURACY);
+        Assertions.assertEquals(225, AngleMath.inverse(45), ANGLE_ACCURACY);
+        Assertions.assertEquals(45, AngleMath.inverse(225), ANGLE_ACCURACY);
+        Assertions.assertEquals(350, AngleMath.inverse(170), ANGLE_ACCURACY);
+    }
+
+    /**
+     * Tests shortestDifference.
+     */
+    @Test
+    public final void testShortestDifference() {
+        Assertions.assertEquals(0, AngleMath.shortestDifference(10, 10),
+                ANGLE_ACCURACY);
+        Assertions.assertEquals(20, AngleMath.shortestDifference(350, 10),
+                ANGLE_ACCURACY);
+        Assertions.assertEquals(-20, AngleMath.shortestDifference(10, 350),
+                ANGLE_ACCURACY);
+        Assertions.assertEquals(180, AngleMath.shortestDifference(0, 180),
+                ANGLE_ACCURACY);
+        Assertions.assertEquals(-170, AngleMath.shortestDifference(0, 190),
+                ANGLE_ACCURACY);
+        Assertions.assertEquals(90, AngleMath.shortestDifference(-720, 450),
+                ANGLE_ACCURACY);
+    }
+
+    /**
+     * Tests exact sincos.
+     */
+    @Test
+    public final void testExactSincos() {
+        double[] result = new double[2];
+
+        AngleMath.exactSincos(30, result);
+        Assertions.assertEquals(0.5, result[AngleMath.SIN], ANGLE_ACCURACY);
+        Assertions.assertEquals(Math.sqrt(3) / 2, result[AngleMath.COS],
+                ANGLE_ACCURACY);
+    }
+
+    /**
+     * Tests table size.
+     */
+    @Test
+    public final void testTableSize() {
+        Assertions.assertEquals(128,
+                AngleMath.getDefault().getTableSize());
+        Assertions.assertEquals(AngleMath.MIN_TABLE_SIZE,
+                new AngleMath(1).getTableSize());
+        Assertions.assertEquals(AngleMath.MAX_TABLE_SIZE,
+                new AngleMath(Double.MIN_VALUE).getTableSize());
+
+        // size is a power of 2
+        int size = new AngleMath(1e-6).getTableSize();
+        Assertions.assertEquals(0, size & (size - 1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new AngleMath(0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new AngleMath(Double.NaN);
+        });
+    }
+
+    /**
+     * Tests the error bounds of the table based sine and cosine.
+     */
+    @Test
+    public final void testErrorBounds() {
+        assertErrorBounds(1e-3);
+        assertErrorBounds(1e-6);
+        assertErrorBounds(AngleMath.DEFAULT_MAX_ERROR);
+        assertErrorBounds(1e-12);
+    }
+
+    /**
+     * Tests the table based sine and cosine of special angles.
+     */
+    @Test
+    public final void testSpecialAngles() {
+        AngleMath angleMath = AngleMath.getDefault();
+        double accuracy = angleMath.getMaxError();
+
+        Assertions.assertEquals(0, angleMath.sin(0), accuracy);
+        Assertions.assertEquals(1, angleMath.cos(0), accuracy);
+        Assertions.assertEquals(1, angleMath.sin(90), accuracy);
+        Assertions.assertEquals(-1, angleMath.cos(180), accuracy);
+        Assertions.assertEquals(-1, angleMath.sin(-90), accuracy);
+        Assertions.assertEquals(0.5, angleMath.sin(30), accuracy);
+        Assertions.assertEquals(0.5, angleMath.cos(3660), accuracy);
+    }
+
+    /**
+     * Checks the error of the table based sine and cosine
+     * over a range of angles, for a requested maximum error.
+     *
+     * @param maxError requested maximum error
+     */
+    private void assertErrorBounds(final double maxError) {
+        AngleMath angleMath = new AngleMath(maxError);
+        double bound = angleMath.getMaxError();
+        double[] result = new double[2];
+        double maxSinError = 0;
+        double maxCosError = 0;
+
+        // the calculated bound is within the requested error
+        Assertions.assertTrue(bound <= maxError);
+
+        for (double angle = RANGE_START; angle <= RANGE_END;
+             angle += STEP) {
+            double radians = Math.toRadians(angle);
+            double sin = Math.sin(radians);
+            double cos = Math.cos(radians);
+
+            angleMath.sincos(angle, result);
+            maxSinError = Math.max(maxSinError,
+                    Math.abs(result[AngleMath.SIN] - sin));
+            maxCosError = Math.max(maxCosError,
+                    Math.abs(result[AngleMath.COS] - cos));
+
+            // single sine and cosine have the same result as sincos
+            Assertions.assertEquals(result[AngleMath.SIN],
+                    angleMath.sin(angle), bound);
+            Assertions.assertEquals(result[AngleMath.COS],
+                    angleMath.cos(angle), bound);
+        }
+
+        Assertions.assertTrue(maxSinError <= bound,
+                "sine error " + maxSinError + " exceeds " + bound);
+        Assertions.assertTrue(maxCosError <= bound,
+                "cosine error " + maxCosError + " exceeds " + bound);
+    }
+}
@@ -261,11 +261,11 @@ public class CircularAverageTest {
     @Test
     public final void testAverageValue180Step() {
         // value will move clockwise
-        testAverageValueAfterStep(FormatUtils.CIRCLE_ZERO, STEP_180);
-        testAverageValueAfterStep(FormatUtils.CIRCLE_1Q, STEP_180);
+        testAverageValueAfterStep(AngleMath.CIRCLE_ZERO, STEP_180);
+        testAverageValueAfterStep(AngleMath.CIRCLE_1Q, STEP_180);
         // value will move counter-clockwise
-        testAverageValueAfterStep(FormatUtils.CIRCLE_HALF, -1 * STEP_180);
-        testAverageValueAfterStep(FormatUtils.CIRCLE_3Q, -1 * STEP_180);
+        testAverageValueAfterStep(AngleMath.CIRCLE_HALF, -1 * STEP_180);
+        testAverageValueAfterStep(AngleMath.CIRCLE_3Q, -1 * STEP_180);
     }
 
     /**
@@ -278,7 +278,7 @@ public class CircularAverageTest {
                                                  final float stepValue) {
         // check initial state.
         Assertions.assertEquals(
-                FormatUtils.normalizeAngle(initialValue),
+                AngleMath.normalize(initialValue),
                 CircularAverage.getAverageValue(initialValue, initialValue,
                         ALPHA_VALUE),
                 ACCURACY
@@ -286,10 +286,10 @@ public class CircularAverageTest {
 
         // with an alpha value of .5, the new value should be >95%
         // of the set point value after 5 cycles.
-        float setPoint = (float) FormatUtils.normalizeAngle(
+        float setPoint = (float) AngleMath.normalize(
                 initialValue + stepValue);
         // cycle 1 : 50%
-        float expectedCycle1 = (float) FormatUtils.normalizeAngle(
+        float expectedCycle1 = (float) AngleMath.normalize(
                 initialValue + CYCLE1 * stepValue);
         Assertions.assertEquals(
                 expectedCycle1,
@@ -298,7 +298,7 @@ public class CircularAverageTest {
                 ACCURACY
         );
         // cycle 2 : 75%
-        float expectedCycle2 = (float) FormatUtils.normalizeAngle(
+        float expectedCycle2 = (float) AngleMath.normalize(
                 initialValue + CYCLE2 * stepValue);
         Assertions.assertEquals(
                 expectedCycle2,
@@ -307,7 +307,7 @@ public class CircularAverageTest {
                 ACCURACY
         );
         // cycle 3 : 87.5%
-        float expectedCycle3 = (float) FormatUtils.normalizeAngle(
+        float expectedCycle3 = (float) AngleMath.normalize(
                 initialValue + CYCLE3 * stepValue);
         Assertions.assertEquals(
                 expectedCycle3,
@@ -316,7 +316,7 @@ public class CircularAverageTest {
                 ACCURACY
         );
         // cycle 4 : 93.75%
-        float expectedCycle4 = (float) FormatUtils.normalizeAngle(
+        float expectedCycle4 = (float) AngleMath.normalize(
                 initialValue + CYCLE4 * stepValue);
         Assertions.assertEquals(
                 expectedCycle4,
@@ -325,7 +325,7 @@ public class CircularAverageTest {
                 ACCURACY
         );
         // cycle 5 : 96.875%
-        float expectedCycle5 = (float) FormatUtils.normalizeAngle(
+        float expectedCycle5 = (float) AngleMath.normalize(
                 initialValue + CYCLE5 * stepValue);
         Assertions.assertEquals(
                 expectedCycle5,
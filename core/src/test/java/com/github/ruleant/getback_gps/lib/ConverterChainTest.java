@@ -0,0 +1,200 @@
+/**
+ * Unit tests for ConverterChain class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ConverterChain class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class ConverterChainTest {
+    /**
+     * Matrix accuracy.
+     */
+    private static final double ACCURACY = 1e-9;
+
+    /**
+     * Instance of the ConverterChain class.
+     */
+    private ConverterChain chain;
+
+    /**
+     * Converted coordinate.
+     */
+    private long[] result;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        chain = new ConverterChain();
+        result = new long[2];
+    }
+
+    /**
+     * Tests empty chain, coordinates are not converted.
+     */
+    @Test
+    public final void testEmpty() {
+        Assertions.assertEquals(0, chain.getStepCount());
+        Assertions.assertArrayEquals(new double[] {1, 0, 0, 0, 1, 0},
+                chain.getMatrix(), ACCURACY);
+
+        assertConverted(30, 40, new Coordinate(30, 40));
+    }
+
+    /**
+     * Tests single steps.
+     */
+    @Test
+    public final void testSteps() {
+        int rotation = chain.addRotation(90);
+        assertConverted(-40, 30, new Coordinate(30, 40));
+
+        chain.setRotation(rotation, 0);
+        int scale = chain.addScale(2, 3);
+        assertConverted(60, 120, new Coordinate(30, 40));
+
+        chain.setScale(scale, 1, 1);
+        int translation = chain.addTranslation(100, 200);
+        assertConverted(130, 240, new Coordinate(30, 40));
+
+        chain.setTranslation(translation, 0, 0);
+        int mirror = chain.addMirror(true, false);
+        assertConverted(-30, 40, new Coordinate(30, 40));
+
+        chain.setMirror(mirror, false, true);
+        assertConverted(30, -40, new Coordinate(30, 40));
+
+        Assertions.assertEquals(4, chain.getStepCount());
+    }
+
+    /**
+     * Tests that the steps are applied in order.
+     */
+    @Test
+    public final void testOrder() {
+        // translate, then scale : translation is scaled
+        chain.addTranslation(10, 0);
+        chain.addScale(2, 2);
+        assertConverted(80, 80, new Coordinate(30, 40));
+
+        // scale, then translate : translation is not scaled
+        chain = new ConverterChain();
+        chain.addScale(2, 2);
+        chain.addTranslation(10, 0);
+        assertConverted(70, 80, new Coordinate(30, 40));
+
+        Assertions.assertArrayEquals(new double[] {2, 0, 10, 0, 2, 0},
+                chain.getMatrix(), ACCURACY);
+    }
+
+    /**
+     * Tests that a chain with more steps than the default capacity
+     * is fused into one matrix.
+     */
+    @Test
+    public final void testLongChain() {
+        for (int i = 0; i < ConverterChain.DEFAULT_CAPACITY * 2; i++) {
+            chain.addRotation(45);
+        }
+
+        // rotated over 2 full circles
+        Assertions.assertEquals(ConverterChain.DEFAULT_CAPACITY * 2,
+                chain.getStepCount());
+        Assertions.assertArrayEquals(new double[] {1, 0, 0, 0, 1, 0},
+                chain.getMatrix(), ACCURACY);
+
+        double[] transformed = new double[2];
+        chain.transform(0.5, 0.25, transformed);
+        Assertions.assertEquals(0.5, transformed[Coordinate.X], ACCURACY);
+        Assertions.assertEquals(0.25, transformed[Coordinate.Y], ACCURACY);
+    }
+
+    /**
+     * Tests that a compass chain converts like a CoordinateRotation.
+     */
+    @Test
+    public final void testCompassChain() {
+        Coordinate center = new Coordinate(100, 150);
+        CoordinateRotation rotation = new CoordinateRotation(center, 30, 75);
+
+        chain.addRotation(-90);
+        chain.addRotation(30);
+        chain.addScale(75, 75);
+        chain.addTranslation(100, 150);
+
+        for (double angle = 0; angle < 360; angle += 7.5) {
+            Coordinate coordinate = new Coordinate(0.8, angle);
+            Coordinate expected = rotation.getConvertedCoordinate(coordinate);
+
+            chain.convertToCartesian(coordinate, result);
+            Assertions.assertEquals(expected.getCartesianX(),
+                    result[Coordinate.X], 1);
+            Assertions.assertEquals(expected.getCartesianY(),
+                    result[Coordinate.Y], 1);
+        }
+    }
+
+    /**
+     * Tests changing a step with the wrong type or id.
+     */
+    @Test
+    public final void testInvalidStep() {
+        final int rotation = chain.addRotation(0);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            chain.setScale(rotation, 1, 1);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            chain.setRotation(rotation + 1, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            chain.setRotation(-1, 0);
+        });
+    }
+
+    /**
+     * Checks the conversion of a coordinate,
+     * in both conversion methods.
+     *
+     * @param expectedX expected X coordinate
+     * @param expectedY expected Y coordinate
+     * @param coordinate unconverted coordinate
+     */
+    private void assertConverted(final long expectedX, final long expectedY,
+                                 final Coordinate coordinate) {
+        chain.convertToCartesian(coordinate, result);
+        Assertions.assertEquals(expectedX, result[Coordinate.X]);
+        Assertions.assertEquals(expectedY, result[Coordinate.Y]);
+
+        Coordinate converted = chain.getConvertedCoordinate(coordinate);
+        Assertions.assertEquals(expectedX, converted.getCartesianX());
+        Assertions.assertEquals(expectedY, converted.getCartesianY());
+    }
+}
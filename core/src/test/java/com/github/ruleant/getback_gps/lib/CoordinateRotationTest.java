@@ -265,4 +265,37 @@ public class CoordinateRotationTest {
         Assertions.assertEquals(CENTER_X - UNIT_30, converted.getCartesianX());
         Assertions.assertEquals(CENTER_Y, converted.getCartesianY());
     }
+
+    /**
+     * Tests conversion to a Cartesian coordinate array,
+     * it should match the converted Coordinate instance.
+     */
+    @Test
+    public final void testConvertToCartesian() {
+        rotationCenter.setCartesianCoordinate(CENTER_X, CENTER_Y);
+        converter.setRotationAngle(ANGLE_90 / 3);
+        converter.setScaleRadius(SCALE_HALF);
+        long[] result = new long[2];
+
+        for (double angle = 0; angle < ANGLE_360; angle += 7.5) {
+            testCoordinate.setPolarCoordinate(UNIT_40, angle);
+            Coordinate converted
+                    = converter.getConvertedCoordinate(testCoordinate);
+            converter.convertToCartesian(testCoordinate, result);
+
+            Assertions.assertEquals(converted.getCartesianX(),
+                    result[Coordinate.X]);
+            Assertions.assertEquals(converted.getCartesianY(),
+                    result[Coordinate.Y]);
+        }
+
+        // rotation center changes are applied
+        rotationCenter.setCartesianCoordinate(0, 0);
+        converter.setRotationAngle(0);
+        converter.setScaleRadius(1);
+        testCoordinate.setCartesianCoordinate(UNIT_30, 0);
+        converter.convertToCartesian(testCoordinate, result);
+        Assertions.assertEquals(0, result[Coordinate.X]);
+        Assertions.assertEquals(-1 * UNIT_30, result[Coordinate.Y]);
+    }
 }
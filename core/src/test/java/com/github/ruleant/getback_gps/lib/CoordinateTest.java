@@ -410,4 +410,31 @@ public class CoordinateTest {
                 coordinateArray[Coordinate.ANGLE],
                 POLAR_ACCURACY);
     }
+
+    /**
+     * Tests that a coordinate keeps the format it was set in.
+     */
+    @Test
+    public final void testKeepFormat() {
+        // Cartesian coordinate isn't rounded by a conversion to polar
+        coordinate.setCartesianCoordinate(UNIT_30, UNIT_40);
+        Assertions.assertEquals(RADIUS_50, coordinate.getPolarRadius(), POLAR_ACCURACY);
+        Assertions.assertEquals(UNIT_30, coordinate.getCartesianX());
+        Assertions.assertEquals(UNIT_40, coordinate.getCartesianY());
+
+        // a copy keeps the Cartesian format
+        Coordinate copy = new Coordinate(coordinate);
+        Assertions.assertEquals(UNIT_30, copy.getCartesianX());
+        Assertions.assertEquals(UNIT_40, copy.getCartesianY());
+
+        // setting a polar coordinate replaces the Cartesian coordinate
+        coordinate.setPolarCoordinate(RADIUS_20, ANGLE_0);
+        Assertions.assertEquals(UNIT_20, coordinate.getCartesianX());
+        Assertions.assertEquals(0, coordinate.getCartesianY());
+
+        // setting a Cartesian coordinate replaces the polar coordinate
+        coordinate.setCartesianCoordinate(0, UNIT_20);
+        Assertions.assertEquals(RADIUS_20, coordinate.getPolarRadius(), POLAR_ACCURACY);
+        Assertions.assertEquals(ANGLE_90, coordinate.getPolarAngle(), POLAR_ACCURACY);
+    }
 }
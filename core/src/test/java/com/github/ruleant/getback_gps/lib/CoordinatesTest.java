@@ -421,4 +421,62 @@ public class CoordinatesTest {
             coordinates.setCoordinateConverter(null);
         });
     }
+
+    /**
+     * Tests writing coordinates to a PathSink.
+     */
+    @Test
+    public final void testWriteTo() {
+        FloatArrayPathSink sink = new FloatArrayPathSink();
+
+        // nothing is written with less than 2 points
+        coordinates.addCoordinate(coordinate1);
+        coordinates.writeTo(sink);
+        Assertions.assertEquals(0, sink.getPointCount());
+
+        coordinates.addCoordinate(coordinate2);
+        coordinates.setCoordinateConverter(converter);
+        coordinates.writeTo(sink);
+        Assertions.assertEquals(1, sink.getContourCount());
+        Assertions.assertTrue(sink.isClosed(0));
+        Assertions.assertArrayEquals(
+                new float[] {
+                    -1 * CoordinateTest.UNIT_20, 0,
+                    -1 * CoordinateTest.UNIT_40, -1 * CoordinateTest.UNIT_30},
+                sink.toPointsArray());
+
+        sink.reset();
+        coordinates.setCloseLine(false);
+        coordinates.writeTo(sink);
+        Assertions.assertFalse(sink.isClosed(0));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            coordinates.writeTo(null);
+        });
+    }
+
+    /**
+     * Tests writing to a PathSink with a converter
+     * that converts to Cartesian coordinates directly.
+     */
+    @Test
+    public final void testWriteToCartesianConverter() {
+        CoordinateRotation rotation = new CoordinateRotation(
+                new Coordinate(CoordinateTest.UNIT_20, CoordinateTest.UNIT_30),
+                CoordinateRotationTest.ANGLE_90, 1);
+        FloatArrayPathSink sink = new FloatArrayPathSink();
+
+        coordinates.addCoordinate(coordinate1);
+        coordinates.addCoordinate(coordinate2);
+        coordinates.setCoordinateConverter(rotation);
+        coordinates.writeTo(sink);
+
+        Coordinate converted1 = rotation.getConvertedCoordinate(coordinate1);
+        Coordinate converted2 = rotation.getConvertedCoordinate(coordinate2);
+        Assertions.assertArrayEquals(
+                new float[] {
+                    converted1.getCartesianX(), converted1.getCartesianY(),
+                    converted2.getCartesianX(), converted2.getCartesianY()},
+                sink.toPointsArray());
+    }
 }
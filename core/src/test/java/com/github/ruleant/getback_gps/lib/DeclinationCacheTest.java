@@ -0,0 +1,142 @@
+/**
+ * Unit tests for DeclinationCache class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DeclinationCache class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DeclinationCacheTest {
+    /**
+     * Time in the middle of a day.
+     */
+    private static final long TIME = 18000 * DeclinationCache.DAY_IN_MILLIS
+            + DeclinationCache.DAY_IN_MILLIS / 2;
+
+    /**
+     * Assert accuracy.
+     */
+    private static final double ASSERT_ACCURACY = 0.00001;
+
+    /**
+     * Instance of the DeclinationCache class.
+     */
+    private DeclinationCache cache;
+
+    /**
+     * Number of model evaluations.
+     */
+    private int evaluations;
+
+    /**
+     * Arguments of the last model evaluation.
+     */
+    private double[] lastArguments;
+
+    /**
+     * Time of the last model evaluation.
+     */
+    private long lastTime;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        evaluations = 0;
+        lastArguments = null;
+        // declination depends on the longitude, like a simple model
+        cache = new DeclinationCache((latitude, longitude, altitude, time) -> {
+            evaluations++;
+            lastArguments = new double[] {latitude, longitude, altitude};
+            lastTime = time;
+            return longitude / 10;
+        });
+    }
+
+    /**
+     * Tests constructor.
+     */
+    @Test
+    public final void testConstructor() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DeclinationCache(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DeclinationCache((latitude, longitude, altitude, time) -> 0,
+                    0);
+        });
+    }
+
+    /**
+     * Tests evaluating the model in the center of a cell, at start of day.
+     */
+    @Test
+    public final void testEvaluation() {
+        Assertions.assertEquals(0.4125,
+                cache.getDeclination(51.1, 4.1, TIME), ASSERT_ACCURACY);
+        Assertions.assertEquals(1, evaluations);
+        Assertions.assertEquals(51.125, lastArguments[0], ASSERT_ACCURACY);
+        Assertions.assertEquals(4.125, lastArguments[1], ASSERT_ACCURACY);
+        Assertions.assertEquals(0, lastArguments[2], ASSERT_ACCURACY);
+        Assertions.assertEquals(
+                TIME - DeclinationCache.DAY_IN_MILLIS / 2, lastTime);
+
+        // negative coordinates are rounded down to a cell
+        cache.getDeclination(-0.1, -0.1, TIME);
+        Assertions.assertEquals(-0.125, lastArguments[0], ASSERT_ACCURACY);
+        Assertions.assertEquals(-0.125, lastArguments[1], ASSERT_ACCURACY);
+    }
+
+    /**
+     * Tests reusing the cached declination.
+     */
+    @Test
+    public final void testCache() {
+        cache.getDeclination(51.1, 4.1, TIME);
+
+        // same cell, same day
+        Assertions.assertEquals(0.4125,
+                cache.getDeclination(51.2, 4.2, TIME + 1000), ASSERT_ACCURACY);
+        Assertions.assertEquals(1, evaluations);
+
+        // other cell
+        Assertions.assertEquals(0.4375,
+                cache.getDeclination(51.2, 4.3, TIME), ASSERT_ACCURACY);
+        Assertions.assertEquals(2, evaluations);
+
+        // next day
+        cache.getDeclination(51.2, 4.3, TIME + DeclinationCache.DAY_IN_MILLIS);
+        Assertions.assertEquals(3, evaluations);
+
+        // reset
+        cache.reset();
+        cache.getDeclination(51.2, 4.3, TIME + DeclinationCache.DAY_IN_MILLIS);
+        Assertions.assertEquals(4, evaluations);
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Unit tests for DisplayState class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for DisplayState class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DisplayStateTest {
+    /**
+     * Text field.
+     */
+    private static final int FIELD_TEXT = 0;
+
+    /**
+     * Value field.
+     */
+    private static final int FIELD_VALUE = 1;
+
+    /**
+     * Instance of the DisplayState class.
+     */
+    private DisplayState state;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        state = new DisplayState(2);
+    }
+
+    /**
+     * Tests initial state.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertEquals(2, state.getSize());
+        Assertions.assertEquals(0, state.getChangeCount());
+        Assertions.assertFalse(state.isChanged(FIELD_TEXT));
+        Assertions.assertNull(state.getText(FIELD_TEXT));
+        Assertions.assertEquals(0, state.getValue(FIELD_VALUE));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DisplayState(0);
+        });
+    }
+
+    /**
+     * Tests changing text fields.
+     */
+    @Test
+    public final void testText() {
+        // first value is always a change, also null
+        state.setText(FIELD_TEXT, null);
+        Assertions.assertTrue(state.isChanged(FIELD_TEXT));
+
+        state.setText(FIELD_TEXT, "text");
+        Assertions.assertTrue(state.isChanged(FIELD_TEXT));
+        Assertions.assertEquals(1, state.getChangeCount());
+        Assertions.assertEquals("text", state.getText(FIELD_TEXT));
+
+        state.clearChanges();
+        Assertions.assertFalse(state.isChanged(FIELD_TEXT));
+        Assertions.assertEquals(0, state.getChangeCount());
+
+        // same text (other instance) is not a change
+        state.setText(FIELD_TEXT, new String("text"));
+        Assertions.assertFalse(state.isChanged(FIELD_TEXT));
+
+        state.setText(FIELD_TEXT, "other");
+        Assertions.assertTrue(state.isChanged(FIELD_TEXT));
+    }
+
+    /**
+     * Tests changing value fields.
+     */
+    @Test
+    public final void testValue() {
+        // first value is always a change, also default value
+        state.setValue(FIELD_VALUE, 0);
+        Assertions.assertTrue(state.isChanged(FIELD_VALUE));
+
+        state.clearChanges();
+        state.setValue(FIELD_VALUE, 0);
+        Assertions.assertFalse(state.isChanged(FIELD_VALUE));
+
+        state.setValue(FIELD_VALUE, 4);
+        Assertions.assertTrue(state.isChanged(FIELD_VALUE));
+        Assertions.assertEquals(4, state.getValue(FIELD_VALUE));
+        Assertions.assertEquals(1, state.getChangeCount());
+    }
+
+    /**
+     * Tests invalidating all fields.
+     */
+    @Test
+    public final void testInvalidate() {
+        state.setText(FIELD_TEXT, "text");
+        state.clearChanges();
+
+        state.invalidate();
+
+        // only fields that were set are marked
+        Assertions.assertTrue(state.isChanged(FIELD_TEXT));
+        Assertions.assertFalse(state.isChanged(FIELD_VALUE));
+        Assertions.assertEquals(1, state.getChangeCount());
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Unit tests for DouglasPeuckerSimplifier class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for DouglasPeuckerSimplifier class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DouglasPeuckerSimplifierTest {
+    /**
+     * Accuracy of assertions.
+     */
+    private static final double ASSERT_ACCURACY = 0.0000001;
+
+    /**
+     * Simplified points, as x, y pairs.
+     */
+    private List<double[]> points;
+
+    /**
+     * Sink collecting the simplified points.
+     */
+    private PointSink sink;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        points = new ArrayList<double[]>();
+        sink = (x, y) -> points.add(new double[] {x, y});
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testConstructor() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DouglasPeuckerSimplifier(null, 1, false);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DouglasPeuckerSimplifier(sink, -1, false);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new DouglasPeuckerSimplifier(sink, 1, false, 2);
+        });
+    }
+
+    /**
+     * Tests short polylines, all points are kept.
+     */
+    @Test
+    public final void testShortPolyline() {
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 1, false);
+
+        simplifier.flush();
+        Assertions.assertEquals(0, points.size());
+
+        simplifier.addPoint(1, 2);
+        simplifier.addPoint(3, 4);
+        simplifier.flush();
+        Assertions.assertEquals(2, points.size());
+        Assertions.assertEquals(3, points.get(1)[0], ASSERT_ACCURACY);
+        Assertions.assertEquals(4, points.get(1)[1], ASSERT_ACCURACY);
+    }
+
+    /**
+     * Tests simplifying cartesian points.
+     */
+    @Test
+    public final void testSimplify() {
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 1, false);
+
+        // nearly straight line, with a corner at (10, 0)
+        simplifier.addPoints(
+                new double[] {0, 2, 5, 8, 10, 10.5, 10, 9.5, 10},
+                new double[] {0, 0.5, -0.5, 0.3, 0, 3, 6, 8, 10},
+                0, 9);
+        Assertions.assertEquals(0, points.size());
+        Assertions.assertEquals(9, simplifier.getAddedCount());
+
+        simplifier.flush();
+        Assertions.assertEquals(3, points.size());
+        Assertions.assertArrayEquals(new double[] {0, 0}, points.get(0));
+        Assertions.assertArrayEquals(new double[] {10, 0}, points.get(1));
+        Assertions.assertArrayEquals(new double[] {10, 10}, points.get(2));
+
+        // counters are kept by flush
+        Assertions.assertEquals(9, simplifier.getAddedCount());
+        Assertions.assertEquals(3, simplifier.getEmittedCount());
+
+        // and are reset by reset
+        simplifier.reset();
+        Assertions.assertEquals(0, simplifier.getAddedCount());
+        Assertions.assertEquals(0, simplifier.getEmittedCount());
+    }
+
+    /**
+     * Tests tolerance 0, only points on a straight line are removed.
+     */
+    @Test
+    public final void testZeroTolerance() {
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 0, false);
+
+        simplifier.addPoints(new double[] {0, 1, 2, 3},
+                new double[] {0, 1, 2, 2}, 0, 4);
+        simplifier.flush();
+        Assertions.assertEquals(3, points.size());
+    }
+
+    /**
+     * Tests streaming a long polyline through a small window.
+     */
+    @Test
+    public final void testStreaming() {
+        final int windowSize = 32;
+        final int count = 1000;
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 0.5, false, windowSize);
+
+        // zigzag, with a corner every 10 points
+        for (int i = 0; i < count; i++) {
+            simplifier.addPoint(i, (i / 10) % 2 == 0 ? i % 10 : 10 - i % 10);
+        }
+        // points are emitted before the polyline ends
+        Assertions.assertTrue(points.size() > 0);
+        Assertions.assertEquals(points.size(), simplifier.getEmittedCount());
+
+        simplifier.flush();
+
+        // every corner is kept, points on straight parts are removed
+        Assertions.assertEquals(count / 10 + 1, points.size());
+        Assertions.assertArrayEquals(new double[] {0, 0}, points.get(0));
+        Assertions.assertArrayEquals(new double[] {count - 1, 1},
+                points.get(points.size() - 1));
+        for (int i = 1; i < points.size() - 1; i++) {
+            Assertions.assertEquals(0, points.get(i)[0] % 10,
+                    ASSERT_ACCURACY);
+        }
+    }
+
+    /**
+     * Tests simplifying geographic points, with tolerance in meters.
+     */
+    @Test
+    public final void testGeographic() {
+        // 0.0001 degree latitude is about 11 meter
+        double[] longitudes = {4.0, 4.001, 4.002, 4.003};
+        double[] latitudes = {51.0, 51.0001, 51.0, 51.0};
+
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 20, true);
+        simplifier.addPoints(longitudes, latitudes, 0, 4);
+        simplifier.flush();
+        Assertions.assertEquals(2, points.size());
+
+        points.clear();
+        simplifier = new DouglasPeuckerSimplifier(sink, 8, true);
+        simplifier.addPoints(longitudes, latitudes, 0, 4);
+        simplifier.flush();
+        Assertions.assertEquals(3, points.size());
+    }
+
+    /**
+     * Tests geographic points across the 180th meridian.
+     */
+    @Test
+    public final void testGeographicAntimeridian() {
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 20, true);
+        simplifier.addPoints(new double[] {179.999, 180, -179.999},
+                new double[] {0, 0, 0}, 0, 3);
+        simplifier.flush();
+        Assertions.assertEquals(2, points.size());
+    }
+
+    /**
+     * Tests reset, discarding buffered points.
+     */
+    @Test
+    public final void testReset() {
+        DouglasPeuckerSimplifier simplifier
+                = new DouglasPeuckerSimplifier(sink, 1, false);
+        simplifier.addPoint(0, 0);
+        simplifier.addPoint(5, 5);
+        simplifier.reset();
+        simplifier.flush();
+        Assertions.assertEquals(0, points.size());
+        Assertions.assertEquals(0, simplifier.getAddedCount());
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Unit tests for FloatArrayPathSink class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for FloatArrayPathSink class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class FloatArrayPathSinkTest {
+    /**
+     * Instance of the FloatArrayPathSink class.
+     */
+    private FloatArrayPathSink sink;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        // small capacity, to test growing the arrays
+        sink = new FloatArrayPathSink(1);
+    }
+
+    /**
+     * Tests empty sink.
+     */
+    @Test
+    public final void testEmpty() {
+        Assertions.assertEquals(0, sink.getPointCount());
+        Assertions.assertEquals(0, sink.getContourCount());
+        Assertions.assertEquals(0, sink.getLineCount());
+        Assertions.assertEquals(0, sink.toPointsArray().length);
+        Assertions.assertEquals(0, sink.toLinesArray().length);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new FloatArrayPathSink(0);
+        });
+    }
+
+    /**
+     * Tests open contour.
+     */
+    @Test
+    public final void testOpenContour() {
+        sink.moveTo(1, 2);
+        sink.lineTo(3, 4);
+        sink.lineTo(5, 6);
+
+        Assertions.assertEquals(3, sink.getPointCount());
+        Assertions.assertEquals(1, sink.getContourCount());
+        Assertions.assertFalse(sink.isClosed(0));
+        Assertions.assertEquals(5f, sink.getX(2));
+        Assertions.assertEquals(6f, sink.getY(2));
+        Assertions.assertArrayEquals(new float[] {1, 2, 3, 4, 5, 6},
+                sink.toPointsArray());
+        Assertions.assertArrayEquals(new float[] {1, 2, 3, 4, 3, 4, 5, 6},
+                sink.toLinesArray());
+    }
+
+    /**
+     * Tests closed contour.
+     */
+    @Test
+    public final void testClosedContour() {
+        sink.moveTo(1, 2);
+        sink.lineTo(3, 4);
+        sink.close();
+
+        // no closing line is needed between 2 points
+        Assertions.assertTrue(sink.isClosed(0));
+        Assertions.assertEquals(1, sink.getLineCount());
+
+        sink.reset();
+        sink.moveTo(1, 2);
+        sink.lineTo(3, 4);
+        sink.lineTo(5, 6);
+        sink.close();
+
+        Assertions.assertEquals(3, sink.getLineCount());
+        Assertions.assertArrayEquals(
+                new float[] {1, 2, 3, 4, 3, 4, 5, 6, 5, 6, 1, 2},
+                sink.toLinesArray());
+    }
+
+    /**
+     * Tests multiple contours.
+     */
+    @Test
+    public final void testMultipleContours() {
+        sink.moveTo(0, 0);
+        sink.lineTo(1, 0);
+        sink.lineTo(1, 1);
+        sink.close();
+        sink.moveTo(5, 5);
+        sink.lineTo(6, 6);
+        // single point contour has no lines
+        sink.moveTo(9, 9);
+
+        Assertions.assertEquals(6, sink.getPointCount());
+        Assertions.assertEquals(3, sink.getContourCount());
+        Assertions.assertTrue(sink.isClosed(0));
+        Assertions.assertFalse(sink.isClosed(1));
+        Assertions.assertArrayEquals(
+                new float[] {0, 0, 1, 0, 1, 0, 1, 1, 1, 1, 0, 0, 5, 5, 6, 6},
+                sink.toLinesArray());
+    }
+
+    /**
+     * Tests a line without a start point.
+     */
+    @Test
+    public final void testLineWithoutMove() {
+        sink.lineTo(3, 4);
+        // close without contour is ignored
+        sink.reset();
+        sink.close();
+        Assertions.assertEquals(0, sink.getContourCount());
+
+        sink.lineTo(3, 4);
+        Assertions.assertArrayEquals(new float[] {0, 0, 3, 4},
+                sink.toLinesArray());
+    }
+}
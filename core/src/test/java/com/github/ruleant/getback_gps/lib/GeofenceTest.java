@@ -0,0 +1,224 @@
+/**
+ * Unit tests for Geofence class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for Geofence class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class GeofenceTest {
+    /**
+     * Instance of the Geofence class.
+     */
+    private Geofence geofence;
+
+    /**
+     * Raised events, "+" for enter and "-" for exit, followed by the zone.
+     */
+    private List<String> events;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        geofence = new Geofence(20, 200, 10);
+        events = new ArrayList<String>();
+        geofence.setListener(new Geofence.Listener() {
+            @Override
+            public void onGeofenceEnter(final Geofence.Zone zone) {
+                events.add("+" + zone);
+            }
+
+            @Override
+            public void onGeofenceExit(final Geofence.Zone zone) {
+                events.add("-" + zone);
+            }
+        });
+    }
+
+    /**
+     * Tests initial state and invalid parameters.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertEquals(Geofence.Zone.Outside, geofence.getZone());
+        Assertions.assertFalse(geofence.isArrived());
+        Assertions.assertFalse(geofence.isUpdated());
+        Assertions.assertEquals(0, geofence.getDistanceToBorder());
+        Assertions.assertEquals(1000, geofence.getUpdateInterval(1000));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Geofence(0, 200, 10);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Geofence(20, 20, 10);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Geofence(20, 200, -1);
+        });
+    }
+
+    /**
+     * Tests entering and exiting zones, one by one.
+     */
+    @Test
+    public final void testZones() {
+        Assertions.assertFalse(geofence.update(500, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Outside, geofence.getZone());
+
+        Assertions.assertTrue(geofence.update(150, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Approach, geofence.getZone());
+
+        Assertions.assertTrue(geofence.update(15, 5, 1));
+        Assertions.assertTrue(geofence.isArrived());
+
+        Assertions.assertTrue(geofence.update(100, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Approach, geofence.getZone());
+
+        Assertions.assertTrue(geofence.update(300, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Outside, geofence.getZone());
+
+        Assertions.assertEquals(
+                "[+Approach, +Arrival, -Arrival, -Approach]",
+                events.toString());
+    }
+
+    /**
+     * Tests raising events for all crossed borders.
+     */
+    @Test
+    public final void testCrossMultipleBorders() {
+        geofence.update(10, 5, 1);
+        Assertions.assertEquals("[+Approach, +Arrival]", events.toString());
+
+        events.clear();
+        geofence.update(1000, 5, 1);
+        Assertions.assertEquals("[-Arrival, -Approach]", events.toString());
+    }
+
+    /**
+     * Tests hysteresis on exiting a zone.
+     */
+    @Test
+    public final void testHysteresis() {
+        geofence.update(19, 5, 1);
+        Assertions.assertTrue(geofence.isArrived());
+
+        // jitter around the border, within the hysteresis margin
+        Assertions.assertFalse(geofence.update(25, 5, 1));
+        Assertions.assertFalse(geofence.update(19, 5, 1));
+        Assertions.assertFalse(geofence.update(29, 5, 1));
+        Assertions.assertTrue(geofence.isArrived());
+
+        Assertions.assertTrue(geofence.update(31, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Approach, geofence.getZone());
+
+        // entering again requires crossing the radius
+        Assertions.assertFalse(geofence.update(25, 5, 1));
+        Assertions.assertEquals(Geofence.Zone.Approach, geofence.getZone());
+
+        Assertions.assertEquals(3, events.size());
+    }
+
+    /**
+     * Tests arrival radius depending on location accuracy.
+     */
+    @Test
+    public final void testAccuracy() {
+        // arrival radius is at least the accuracy
+        Assertions.assertTrue(geofence.update(40, 50, 1));
+        Assertions.assertTrue(geofence.isArrived());
+
+        // but never exceeds the approach radius
+        geofence.reset();
+        geofence.update(250, 1000, 1);
+        Assertions.assertEquals(Geofence.Zone.Outside, geofence.getZone());
+    }
+
+    /**
+     * Tests reset.
+     */
+    @Test
+    public final void testReset() {
+        geofence.update(10, 5, 1);
+        events.clear();
+
+        geofence.reset();
+        Assertions.assertEquals(Geofence.Zone.Outside, geofence.getZone());
+        Assertions.assertFalse(geofence.isUpdated());
+        Assertions.assertEquals(0, events.size());
+    }
+
+    /**
+     * Tests distance and time to the next zone border.
+     */
+    @Test
+    public final void testTimeToBorder() {
+        // outside : distance to approach zone
+        geofence.update(1200, 5, 10);
+        Assertions.assertEquals(1000, geofence.getDistanceToBorder());
+        Assertions.assertEquals(100000, geofence.getTimeToBorder());
+
+        // minimum speed is used when standing still
+        geofence.update(1200, 5, 0);
+        Assertions.assertEquals(500000, geofence.getTimeToBorder());
+
+        // approach : nearest of arrival border and approach exit border
+        geofence.update(180, 5, 10);
+        Assertions.assertEquals(30, geofence.getDistanceToBorder());
+        geofence.update(50, 5, 10);
+        Assertions.assertEquals(30, geofence.getDistanceToBorder());
+
+        // arrival : distance to exit border, including hysteresis
+        geofence.update(10, 5, 10);
+        Assertions.assertEquals(20, geofence.getDistanceToBorder());
+    }
+
+    /**
+     * Tests location update interval.
+     */
+    @Test
+    public final void testUpdateInterval() {
+        // far away : limited to maximum interval
+        geofence.update(10000, 5, 1);
+        Assertions.assertEquals(Geofence.MAX_UPDATE_INTERVAL,
+                geofence.getUpdateInterval(1000));
+
+        // 1000m at 10 m/s = 100s, half of that
+        geofence.update(1200, 5, 10);
+        Assertions.assertEquals(50000, geofence.getUpdateInterval(1000));
+
+        // near a border : base interval
+        geofence.update(210, 5, 10);
+        Assertions.assertEquals(1000, geofence.getUpdateInterval(1000));
+    }
+}
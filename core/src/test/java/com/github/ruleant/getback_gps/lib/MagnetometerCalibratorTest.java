@@ -0,0 +1,180 @@
+/**
+ * Unit tests for MagnetometerCalibrator class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for MagnetometerCalibrator class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class MagnetometerCalibratorTest {
+    /**
+     * Earth magnetic field strength in µT.
+     */
+    private static final double FIELD = 48;
+
+    /**
+     * Hard iron offset per axis in µT.
+     */
+    private static final double[] OFFSET = {12, -7, 25};
+
+    /**
+     * Soft iron scale per axis.
+     */
+    private static final double[] SCALE = {1.2, 0.9, 1.0};
+
+    /**
+     * Accuracy of a fitted offset in µT.
+     */
+    private static final double OFFSET_ACCURACY = 0.1;
+
+    /**
+     * Number of generated samples.
+     */
+    private static final int SAMPLES = 500;
+
+    /**
+     * Instance of the MagnetometerCalibrator class.
+     */
+    private MagnetometerCalibrator calibrator;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        calibrator = new MagnetometerCalibrator();
+    }
+
+    /**
+     * Generates a distorted sample, of a device rotated
+     * in all directions (a spiral over the sphere).
+     *
+     * @param index sample index
+     * @param values array the sample is stored in
+     */
+    private static void sample(final int index, final float[] values) {
+        double z = 1 - 2 * (index + 0.5) / SAMPLES;
+        double radius = Math.sqrt(1 - z * z);
+        double angle = index * Math.PI * (3 - Math.sqrt(5));
+        double[] field = {
+            radius * Math.cos(angle), radius * Math.sin(angle), z,
+        };
+
+        for (int i = 0; i < MagnetometerCalibrator.AXES; i++) {
+            values[i] = (float) (field[i] * FIELD * SCALE[i] + OFFSET[i]);
+        }
+    }
+
+    /**
+     * Tests initial state and arguments.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertFalse(calibrator.isCalibrated());
+
+        float[] values = {1, 2, 3};
+        float[] result = new float[MagnetometerCalibrator.AXES];
+        calibrator.correct(values, result);
+        Assertions.assertArrayEquals(values, result);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new MagnetometerCalibrator(0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            calibrator.setCalibration(new double[1]);
+        });
+    }
+
+    /**
+     * Tests fitting hard and soft iron distortion.
+     */
+    @Test
+    public final void testFit() {
+        float[] values = new float[MagnetometerCalibrator.AXES];
+        for (int i = 0; i < SAMPLES; i++) {
+            sample(i, values);
+            calibrator.addSample(values);
+        }
+        Assertions.assertTrue(calibrator.isCalibrated());
+
+        double[] calibration
+                = new double[MagnetometerCalibrator.CALIBRATION_SIZE];
+        calibrator.getCalibration(calibration);
+        for (int i = 0; i < MagnetometerCalibrator.AXES; i++) {
+            Assertions.assertEquals(OFFSET[i],
+                    calibration[MagnetometerCalibrator.CALIBRATION_OFFSET + i],
+                    OFFSET_ACCURACY);
+        }
+
+        // corrected samples lie on a sphere
+        float[] corrected = new float[MagnetometerCalibrator.AXES];
+        double expected = FIELD * Math.cbrt(SCALE[0] * SCALE[1] * SCALE[2]);
+        for (int i = 0; i < SAMPLES; i += 7) {
+            sample(i, values);
+            calibrator.correct(values, corrected);
+            double strength = Math.sqrt(corrected[0] * corrected[0]
+                    + corrected[1] * corrected[1]
+                    + corrected[2] * corrected[2]);
+            Assertions.assertEquals(expected, strength, OFFSET_ACCURACY);
+        }
+    }
+
+    /**
+     * Tests that samples without enough rotation are not used.
+     */
+    @Test
+    public final void testInsufficientCoverage() {
+        // device is held flat, only rotated around the z axis
+        float[] values = new float[MagnetometerCalibrator.AXES];
+        for (int i = 0; i < SAMPLES; i++) {
+            double angle = i * 2 * Math.PI / SAMPLES;
+            values[0] = (float) (FIELD * Math.cos(angle) + OFFSET[0]);
+            values[1] = (float) (FIELD * Math.sin(angle) + OFFSET[1]);
+            values[2] = (float) OFFSET[2];
+            calibrator.addSample(values);
+        }
+        Assertions.assertFalse(calibrator.isCalibrated());
+    }
+
+    /**
+     * Tests restoring a stored calibration.
+     */
+    @Test
+    public final void testRestore() {
+        double[] calibration = {1, 2, 3, 2, 1, 0.5};
+        calibrator.setCalibration(calibration);
+        Assertions.assertTrue(calibrator.isCalibrated());
+
+        float[] values = {2, 3, 5};
+        calibrator.correct(values, values);
+        Assertions.assertArrayEquals(new float[] {2, 1, 1}, values);
+
+        calibrator.reset();
+        Assertions.assertFalse(calibrator.isCalibrated());
+    }
+}
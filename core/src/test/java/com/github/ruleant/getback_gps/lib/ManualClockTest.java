@@ -0,0 +1,113 @@
+/**
+ * Unit tests for ManualClock class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ManualClock class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class ManualClockTest {
+    /**
+     * Initial timestamp in nanoseconds.
+     */
+    private static final long TIMESTAMP = 5 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Initial wall clock time in milliseconds.
+     */
+    private static final long WALL_TIME = 1600000000000L;
+
+    /**
+     * Instance of the ManualClock class.
+     */
+    private ManualClock clock;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        clock = new ManualClock(TIMESTAMP, WALL_TIME);
+    }
+
+    /**
+     * Tests initial time.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertEquals(TIMESTAMP, clock.getTimestampNano());
+        Assertions.assertEquals(WALL_TIME, clock.getCurrentTimeMillis());
+
+        ManualClock zeroClock = new ManualClock();
+        Assertions.assertEquals(0, zeroClock.getTimestampNano());
+        Assertions.assertEquals(0, zeroClock.getCurrentTimeMillis());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ManualClock(-1, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new ManualClock(0, -1);
+        });
+    }
+
+    /**
+     * Tests advancing the clock.
+     */
+    @Test
+    public final void testAdvance() {
+        clock.advance(2);
+        Assertions.assertEquals(TIMESTAMP + 2 * TimeUnits.MILLI_IN_NANO,
+                clock.getTimestampNano());
+        Assertions.assertEquals(WALL_TIME + 2, clock.getCurrentTimeMillis());
+
+        // wall clock time only changes after a whole millisecond
+        clock.advanceNano(TimeUnits.MILLI_IN_NANO - 1);
+        Assertions.assertEquals(WALL_TIME + 2, clock.getCurrentTimeMillis());
+        clock.advanceNano(1);
+        Assertions.assertEquals(WALL_TIME + 3, clock.getCurrentTimeMillis());
+        Assertions.assertEquals(TIMESTAMP + 3 * TimeUnits.MILLI_IN_NANO,
+                clock.getTimestampNano());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            clock.advanceNano(-1);
+        });
+    }
+
+    /**
+     * Tests setting the time.
+     */
+    @Test
+    public final void testSetTime() {
+        clock.setTime(0, WALL_TIME + 1);
+        Assertions.assertEquals(0, clock.getTimestampNano());
+        Assertions.assertEquals(WALL_TIME + 1, clock.getCurrentTimeMillis());
+
+        clock.advance(1);
+        Assertions.assertEquals(WALL_TIME + 2, clock.getCurrentTimeMillis());
+    }
+}
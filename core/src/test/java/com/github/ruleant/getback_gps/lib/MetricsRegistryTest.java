@@ -0,0 +1,222 @@
+/**
+ * Unit tests for MetricsRegistry class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for MetricsRegistry class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class MetricsRegistryTest {
+    /**
+     * Histogram bucket bounds used in tests.
+     */
+    private static final long[] BOUNDS = {10, 20, 50};
+
+    /**
+     * Accuracy.
+     */
+    private static final double ACCURACY = 0.0001;
+
+    /**
+     * Instance of the MetricsRegistry class.
+     */
+    private MetricsRegistry registry;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        registry = new MetricsRegistry(2);
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    /**
+     * Tests default registry.
+     */
+    @Test
+    public final void testDefault() {
+        Assertions.assertNotNull(MetricsRegistry.getDefault());
+        Assertions.assertSame(MetricsRegistry.getDefault(),
+                MetricsRegistry.getDefault());
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new MetricsRegistry(0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            registry.registerCounter(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            registry.registerHistogram("histogram", new long[0]);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            registry.registerHistogram("histogram", new long[] {20, 10});
+        });
+    }
+
+    /**
+     * Tests registering metrics.
+     */
+    @Test
+    public final void testRegister() {
+        int counter1 = registry.registerCounter("counter1");
+        int counter2 = registry.registerCounter("counter2");
+
+        Assertions.assertNotEquals(counter1, counter2);
+        // registering the same name returns the same id
+        Assertions.assertEquals(counter1, registry.registerCounter("counter1"));
+
+        // capacity is reached
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            registry.registerCounter("counter3");
+        });
+
+        // each metric type has its own capacity
+        registry.registerGauge("gauge");
+        registry.registerHistogram("histogram", BOUNDS);
+    }
+
+    /**
+     * Tests counters.
+     */
+    @Test
+    public final void testCounter() {
+        int counter = registry.registerCounter("counter");
+        Assertions.assertEquals(0, registry.getCounter(counter));
+
+        registry.increment(counter);
+        Assertions.assertEquals(1, registry.getCounter(counter));
+
+        registry.add(counter, 10);
+        Assertions.assertEquals(11, registry.getCounter(counter));
+    }
+
+    /**
+     * Tests gauges.
+     */
+    @Test
+    public final void testGauge() {
+        int gauge = registry.registerGauge("gauge");
+        Assertions.assertEquals(0, registry.getGauge(gauge), ACCURACY);
+
+        registry.setGauge(gauge, 1.5);
+        Assertions.assertEquals(1.5, registry.getGauge(gauge), ACCURACY);
+    }
+
+    /**
+     * Tests histograms.
+     */
+    @Test
+    public final void testHistogram() {
+        int histogram = registry.registerHistogram("histogram", BOUNDS);
+
+        // empty histogram
+        Assertions.assertEquals(0, registry.getHistogramCount(histogram));
+        Assertions.assertEquals(0, registry.getHistogramMax(histogram));
+        Assertions.assertEquals(0,
+                registry.getHistogramMean(histogram), ACCURACY);
+        Assertions.assertEquals(0,
+                registry.getHistogramPercentile(histogram, 0.5));
+
+        registry.record(histogram, 5);
+        registry.record(histogram, 10);
+        registry.record(histogram, 15);
+        registry.record(histogram, 100);
+
+        Assertions.assertEquals(4, registry.getHistogramCount(histogram));
+        Assertions.assertEquals(100, registry.getHistogramMax(histogram));
+        Assertions.assertEquals(32.5,
+                registry.getHistogramMean(histogram), ACCURACY);
+
+        // bucket bounds are inclusive
+        Assertions.assertEquals(2, registry.getHistogramBucket(histogram, 0));
+        Assertions.assertEquals(1, registry.getHistogramBucket(histogram, 1));
+        Assertions.assertEquals(0, registry.getHistogramBucket(histogram, 2));
+        // overflow bucket
+        Assertions.assertEquals(1, registry.getHistogramBucket(histogram, 3));
+
+        Assertions.assertEquals(10,
+                registry.getHistogramPercentile(histogram, 0.5));
+        Assertions.assertEquals(20,
+                registry.getHistogramPercentile(histogram, 0.75));
+        Assertions.assertEquals(100,
+                registry.getHistogramPercentile(histogram, 0.99));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            registry.getHistogramPercentile(histogram, 2);
+        });
+    }
+
+    /**
+     * Tests recording durations.
+     */
+    @Test
+    public final void testRecordDuration() {
+        int histogram = registry.registerHistogram("histogram", BOUNDS);
+
+        registry.recordDuration(histogram, 0, 15 * TimeUnits.MICRO_IN_NANO);
+
+        Assertions.assertEquals(15, registry.getHistogramMax(histogram));
+    }
+
+    /**
+     * Tests reset and dump.
+     */
+    @Test
+    public final void testResetDump() {
+        int counter = registry.registerCounter("counter");
+        int gauge = registry.registerGauge("gauge");
+        int histogram = registry.registerHistogram("histogram", BOUNDS);
+
+        registry.increment(counter);
+        registry.setGauge(gauge, 2);
+        registry.record(histogram, 15);
+
+        Assertions.assertEquals("counter: 1\n"
+                + "gauge: 2.00\n"
+                + "histogram: n=1 mean=15.0 p50=15 p90=15 p99=15 max=15\n",
+                registry.dump());
+
+        registry.reset();
+
+        Assertions.assertEquals(0, registry.getCounter(counter));
+        Assertions.assertEquals(0, registry.getGauge(gauge), ACCURACY);
+        Assertions.assertEquals(0, registry.getHistogramCount(histogram));
+        Assertions.assertEquals(0, registry.getHistogramBucket(histogram, 1));
+        // metrics are still registered
+        Assertions.assertEquals(counter, registry.registerCounter("counter"));
+    }
+}
@@ -34,10 +34,17 @@ import static org.mockito.Mockito.when;
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
 public class NavigatorTest {
+    /**
+     * Location type used in the tests,
+     * distance and bearing are calculated to another test location.
+     */
+    private interface TestLocation extends LocationInterface<TestLocation> {
+    }
+
     /**
      * Instance of the navigator class.
      */
-    private Navigator navigator;
+    private Navigator<TestLocation> navigator;
 
     /**
      * Distance between location 1 and 2.
@@ -147,43 +154,60 @@ public class NavigatorTest {
     /**
      * Test location 1.
      */
-    private AriadneLocation loc1 = null;
+    private TestLocation loc1 = null;
 
     /**
      * Test location 2.
      */
-    private AriadneLocation loc2 = null;
+    private TestLocation loc2 = null;
 
     /**
      * Test location 3.
      */
-    private AriadneLocation loc3 = null;
+    private TestLocation loc3 = null;
 
     /**
      * Mock of the sensorOrientation class.
      */
-    private SensorOrientation sensorOrientation;
+    private OrientationInterface sensorOrientation;
+
+    /**
+     * Magnetic declination.
+     */
+    private static final double DECLINATION = 2.5;
 
     /**
      * Assert accuracy.
      */
     private static final double ASSERT_ACCURACY = 0.001;
 
+    /**
+     * Time after which a location is no longer recent, in milliseconds
+     * (same as the expiry time of a location in the app).
+     */
+    private static final long LOC_EXPIRE = 300000;
+
+    /**
+     * Time the device stays still in the test, in milliseconds,
+     * longer than the location expiry time.
+     */
+    private static final long STILL_TIME = 2 * LOC_EXPIRE;
+
     /**
      * Sets up the test fixture.
      * (Called before every test case method.)
      */
     @BeforeEach
     public final void setUp() {
-        navigator = new Navigator();
+        navigator = new Navigator<>();
 
         // create mock locations
-        loc1 = mock(AriadneLocation.class);
-        loc2 = mock(AriadneLocation.class);
-        loc3 = mock(AriadneLocation.class);
+        loc1 = mock(TestLocation.class);
+        loc2 = mock(TestLocation.class);
+        loc3 = mock(TestLocation.class);
 
         // create mock sensorOrientation
-        sensorOrientation = mock(SensorOrientation.class);
+        sensorOrientation = mock(OrientationInterface.class);
 
         /* setup mock objects */
         // set distance
@@ -210,8 +234,8 @@ public class NavigatorTest {
      * @param previousLocation Mock object for PreviousLocation
      */
     private void initMockIsLocationBearingAccurate(
-            final AriadneLocation currentLocation,
-            final AriadneLocation previousLocation) {
+            final TestLocation currentLocation,
+            final TestLocation previousLocation) {
         // set location
         navigator.setLocation(currentLocation);
         navigator.setPreviousLocation(previousLocation);
@@ -253,9 +277,9 @@ public class NavigatorTest {
      */
     @Test
     public final void testConstructorOrientation() {
-        sensorOrientation = mock(SensorOrientation.class);
+        sensorOrientation = mock(OrientationInterface.class);
 
-        navigator = new Navigator(sensorOrientation);
+        navigator = new Navigator<>(sensorOrientation);
         Assertions.assertTrue(navigator.getClass() == Navigator.class);
     }
 
@@ -265,7 +289,7 @@ public class NavigatorTest {
     @Test
     public final void testConstructorOrientationNull() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> {
-            new Navigator(null);
+            new Navigator<>(null);
         });
     }
 
@@ -467,7 +491,7 @@ public class NavigatorTest {
 
         // get relative direction
         Assertions.assertEquals(
-                FormatUtils.normalizeAngle(DIR_LOC1_3 - DIR_LOC2_1),
+                AngleMath.normalize(DIR_LOC1_3 - DIR_LOC2_1),
                 navigator.getRelativeDirection(),
                 ASSERT_ACCURACY);
     }
@@ -509,6 +533,98 @@ public class NavigatorTest {
         Assertions.assertFalse(navigator.isDestinationReached());
     }
 
+    /**
+     * Tests isArrived.
+     */
+    @Test
+    public final void testIsArrived() {
+        // no location or destination
+        Assertions.assertFalse(navigator.isArrived());
+
+        // set accurate location and destination at the same location
+        when(loc1.isRecent()).thenReturn(true);
+        when(loc1.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        navigator.setLocation(loc1);
+        navigator.setDestination(loc1);
+        Assertions.assertTrue(navigator.getGeofence().isArrived());
+        Assertions.assertTrue(navigator.isArrived());
+
+        // location is no longer recent, geofence is not updated
+        when(loc1.isRecent()).thenReturn(false);
+        Assertions.assertTrue(navigator.getGeofence().isArrived());
+        Assertions.assertFalse(navigator.isArrived());
+
+        // location is recent, but not accurate
+        when(loc1.isRecent()).thenReturn(true);
+        when(loc1.getAccuracy()).thenReturn(ACCURACY_LOW_60);
+        Assertions.assertTrue(navigator.getGeofence().isArrived());
+        Assertions.assertFalse(navigator.isArrived());
+
+        // location is accurate again
+        when(loc1.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        Assertions.assertTrue(navigator.isArrived());
+
+        // no destination
+        navigator.setDestination(null);
+        Assertions.assertFalse(navigator.isArrived());
+    }
+
+    /**
+     * Tests if the location stays valid while location updates
+     * are suspended, because the device is still,
+     * for a longer time than the location expiry time.
+     */
+    @Test
+    public final void testLocationSuspended() {
+        final ManualClock clock = new ManualClock();
+        final long fixTime = clock.getTimestampNano();
+        when(loc1.isRecent()).thenAnswer(invocation ->
+                clock.getTimestampNano() - fixTime
+                        < LOC_EXPIRE * TimeUnits.MILLI_IN_NANO);
+        when(loc1.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        navigator.setLocation(loc1);
+        navigator.setDestination(loc1);
+        Assertions.assertFalse(navigator.isLocationSuspended());
+        Assertions.assertTrue(navigator.isLocationAccurate());
+        Assertions.assertTrue(navigator.isArrived());
+
+        // device is still, location updates are suspended
+        navigator.setLocationSuspended(true);
+        Assertions.assertTrue(navigator.isLocationSuspended());
+        clock.advance(STILL_TIME);
+        Assertions.assertFalse(loc1.isRecent());
+        Assertions.assertTrue(navigator.isLocationAccurate());
+        Assertions.assertTrue(navigator.isArrived());
+        Assertions.assertEquals(
+                0, navigator.getDistance(), ASSERT_ACCURACY);
+
+        // suspending again doesn't change the kept location
+        navigator.setLocationSuspended(true);
+        Assertions.assertTrue(navigator.isLocationAccurate());
+
+        // device moves again, location is no longer recent
+        navigator.setLocationSuspended(false);
+        Assertions.assertFalse(navigator.isLocationSuspended());
+        Assertions.assertFalse(navigator.isLocationAccurate());
+        Assertions.assertFalse(navigator.isArrived());
+
+        // location that isn't recent when updates are suspended
+        // isn't kept valid
+        navigator.setLocationSuspended(true);
+        Assertions.assertFalse(navigator.isLocationAccurate());
+        navigator.setLocationSuspended(false);
+
+        // a new location while suspended is checked as usual
+        navigator.setLocation(loc2);
+        when(loc2.isRecent()).thenReturn(true);
+        when(loc2.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        navigator.setLocationSuspended(true);
+        navigator.setLocation(loc3);
+        when(loc3.isRecent()).thenReturn(false);
+        when(loc3.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        Assertions.assertFalse(navigator.isLocationAccurate());
+    }
+
     /**
      * Tests getSpeed of current location.
      */
@@ -611,7 +727,7 @@ public class NavigatorTest {
      */
     @Test
     public final void testGetBearingWithOrientation() {
-        navigator = new Navigator(sensorOrientation);
+        navigator = new Navigator<>(sensorOrientation);
 
         // get current bearing
         Assertions.assertEquals(
@@ -638,13 +754,51 @@ public class NavigatorTest {
                 ASSERT_ACCURACY);
     }
 
+    /**
+     * Tests getCurrentBearing, corrected with the magnetic declination.
+     */
+    @Test
+    public final void testGetBearingWithDeclination() {
+        navigator = new Navigator<>(sensorOrientation);
+        navigator.setDeclinationCache(new DeclinationCache(
+                (latitude, longitude, altitude, time) -> DECLINATION));
+
+        // mock : define orientation of sensor based orientation
+        when(sensorOrientation.hasOrientation()).thenReturn(true);
+        when(sensorOrientation.getOrientation()).thenReturn(BEARING_1);
+
+        // no location, no correction
+        Assertions.assertEquals(0, navigator.getDeclination(),
+                ASSERT_ACCURACY);
+        Assertions.assertEquals(
+                BEARING_1,
+                navigator.getCurrentBearing(),
+                ASSERT_ACCURACY);
+
+        navigator.setLocation(loc1);
+
+        Assertions.assertEquals(DECLINATION, navigator.getDeclination(),
+                ASSERT_ACCURACY);
+        Assertions.assertEquals(
+                BEARING_1 + DECLINATION,
+                navigator.getCurrentBearing(),
+                ASSERT_ACCURACY);
+
+        // disable correction
+        navigator.setDeclinationCache(null);
+        Assertions.assertEquals(
+                BEARING_1,
+                navigator.getCurrentBearing(),
+                ASSERT_ACCURACY);
+    }
+
     /**
      * Tests getCurrentBearing,
      * using offset between location and sensor based bearing.
      */
     @Test
     public final void testGetBearingWithOrientationOffset() {
-        navigator = new Navigator(sensorOrientation);
+        navigator = new Navigator<>(sensorOrientation);
 
         // mock : define orientation of sensor based orientation
         when(sensorOrientation.hasOrientation()).thenReturn(true);
@@ -708,7 +862,7 @@ public class NavigatorTest {
      */
     @Test
     public final void testGetCalculatedBearingWithOrientationOffset() {
-        navigator = new Navigator(sensorOrientation);
+        navigator = new Navigator<>(sensorOrientation);
 
         // mock : define orientation of sensor based orientation
         when(sensorOrientation.hasOrientation()).thenReturn(true);
@@ -918,7 +1072,7 @@ public class NavigatorTest {
      */
     @Test
     public final void testIsSensorBearingAccurate() {
-        navigator = new Navigator(sensorOrientation);
+        navigator = new Navigator<>(sensorOrientation);
 
         Assertions.assertFalse(navigator.isSensorBearingAccurate());
         Assertions.assertFalse(navigator.isBearingAccurate());
@@ -933,4 +1087,77 @@ public class NavigatorTest {
         Assertions.assertTrue(navigator.isSensorBearingAccurate());
         Assertions.assertTrue(navigator.isBearingAccurate());
     }
+
+    /**
+     * Tests updating the navigation targets with the location.
+     */
+    @Test
+    public final void testTargets() {
+        navigator.getTargets().add(1, "north", 1, 0);
+        navigator.getTargets().add(2, "east", 0, 2);
+
+        // no location, targets are not updated
+        navigator.updateTargets();
+        Assertions.assertFalse(navigator.getTargets().isUpdated());
+
+        when(loc1.getLatitude()).thenReturn(0.0);
+        when(loc1.getLongitude()).thenReturn(0.0);
+        navigator.setLocation(loc1);
+
+        TargetSet targets = navigator.getTargets();
+        Assertions.assertTrue(targets.isUpdated());
+        Assertions.assertEquals(1, targets.getId(targets.getNearest()));
+        Assertions.assertEquals(1, targets.getId(targets.getCurrent()));
+    }
+
+    /**
+     * Tests updating the followed route with the location.
+     */
+    @Test
+    public final void testRoute() {
+        Route route = new Route(new double[] {0, 0.01},
+                new double[] {0, 0});
+        navigator.setRoute(route);
+        Assertions.assertSame(route, navigator.getRoute());
+
+        // location at the first waypoint, but inaccurate
+        when(loc1.getLatitude()).thenReturn(0.0);
+        when(loc1.getLongitude()).thenReturn(0.0);
+        navigator.setLocation(loc1);
+        Assertions.assertEquals(0, route.getActiveWaypoint());
+
+        // accurate location
+        when(loc1.isRecent()).thenReturn(true);
+        when(loc1.getAccuracy()).thenReturn(ACCURACY_OK_10);
+        navigator.setLocation(loc1);
+        Assertions.assertEquals(1, route.getActiveWaypoint());
+
+        navigator.setRoute(null);
+        Assertions.assertNull(navigator.getRoute());
+    }
+
+    /**
+     * Tests finding the position on the track.
+     */
+    @Test
+    public final void testTrack() {
+        SegmentRTree track = new SegmentRTree(new double[] {0, 0.01},
+                new double[] {0, 0});
+
+        // no track or location
+        Assertions.assertEquals(SegmentRTree.NO_SEGMENT,
+                navigator.findPositionOnTrack(null));
+        navigator.setTrack(track);
+        Assertions.assertSame(track, navigator.getTrack());
+        Assertions.assertEquals(SegmentRTree.NO_SEGMENT,
+                navigator.findPositionOnTrack(null));
+
+        when(loc1.getLatitude()).thenReturn(0.005);
+        when(loc1.getLongitude()).thenReturn(0.001);
+        navigator.setLocation(loc1);
+        double[] result = new double[SegmentRTree.RESULT_SIZE];
+        Assertions.assertEquals(0, navigator.findPositionOnTrack(result));
+        Assertions.assertEquals(0.5, result[SegmentRTree.RESULT_FRACTION],
+                ASSERT_ACCURACY);
+    }
 }
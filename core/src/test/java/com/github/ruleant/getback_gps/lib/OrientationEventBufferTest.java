@@ -0,0 +1,154 @@
+/**
+ * Unit tests for OrientationEventBuffer class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for OrientationEventBuffer class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class OrientationEventBufferTest {
+    /**
+     * Buffer capacity.
+     */
+    private static final int CAPACITY = 4;
+
+    /**
+     * Accuracy of compared angles.
+     */
+    private static final double ACCURACY = 1e-9;
+
+    /**
+     * Instance of the OrientationEventBuffer class.
+     */
+    private OrientationEventBuffer buffer;
+
+    /**
+     * Event values are copied to.
+     */
+    private OrientationEvent event;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        buffer = new OrientationEventBuffer(CAPACITY);
+        event = new OrientationEvent();
+    }
+
+    /**
+     * Tests the capacity.
+     */
+    @Test
+    public final void testCapacity() {
+        Assertions.assertEquals(CAPACITY, buffer.getCapacity());
+        Assertions.assertEquals(OrientationEventBuffer.DEFAULT_CAPACITY,
+                new OrientationEventBuffer().getCapacity());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new OrientationEventBuffer(0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new OrientationEventBuffer(CAPACITY + 1);
+        });
+    }
+
+    /**
+     * Tests publishing and reading events.
+     */
+    @Test
+    public final void testRead() {
+        OrientationEventBuffer.Cursor cursor = buffer.newCursor();
+        Assertions.assertFalse(buffer.read(cursor, event));
+
+        buffer.publish(10, 1, 2, 3, 100);
+        buffer.publish(20, 4, 5, 2, 200);
+        Assertions.assertEquals(2, buffer.getPublishedCount());
+
+        Assertions.assertTrue(buffer.read(cursor, event));
+        Assertions.assertEquals(10, event.getAzimuth(), ACCURACY);
+        Assertions.assertEquals(1, event.getPitch(), ACCURACY);
+        Assertions.assertEquals(2, event.getRoll(), ACCURACY);
+        Assertions.assertEquals(3, event.getAccuracy());
+        Assertions.assertEquals(100, event.getTimestamp());
+        Assertions.assertEquals(0, event.getSequence());
+
+        Assertions.assertTrue(buffer.read(cursor, event));
+        Assertions.assertEquals(20, event.getAzimuth(), ACCURACY);
+        Assertions.assertEquals(1, event.getSequence());
+
+        Assertions.assertFalse(buffer.read(cursor, event));
+        Assertions.assertEquals(0, cursor.getSkipped());
+    }
+
+    /**
+     * Tests that every cursor reads all events, independently.
+     */
+    @Test
+    public final void testCursors() {
+        OrientationEventBuffer.Cursor first = buffer.newCursor();
+        buffer.publish(10, 0, 0, 0, 100);
+
+        // a new cursor only reads events published from now on
+        OrientationEventBuffer.Cursor second = buffer.newCursor();
+        buffer.publish(20, 0, 0, 0, 200);
+
+        Assertions.assertTrue(buffer.read(second, event));
+        Assertions.assertEquals(20, event.getAzimuth(), ACCURACY);
+        Assertions.assertFalse(buffer.read(second, event));
+
+        Assertions.assertTrue(buffer.read(first, event));
+        Assertions.assertEquals(10, event.getAzimuth(), ACCURACY);
+        Assertions.assertTrue(buffer.read(first, event));
+        Assertions.assertEquals(20, event.getAzimuth(), ACCURACY);
+        Assertions.assertEquals(2, first.getNext());
+    }
+
+    /**
+     * Tests that a slow consumer skips ahead.
+     */
+    @Test
+    public final void testSkipAhead() {
+        OrientationEventBuffer.Cursor cursor = buffer.newCursor();
+        for (int i = 0; i < CAPACITY + 3; i++) {
+            buffer.publish(i, 0, 0, 0, i);
+        }
+
+        // oldest event still in the buffer
+        Assertions.assertTrue(buffer.read(cursor, event));
+        Assertions.assertEquals(3, event.getSequence());
+        Assertions.assertEquals(3, cursor.getSkipped());
+
+        int read = 1;
+        while (buffer.read(cursor, event)) {
+            read++;
+        }
+        Assertions.assertEquals(CAPACITY, read);
+        Assertions.assertEquals(CAPACITY + 2, event.getSequence());
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Unit tests for OrientationEventDispatcher class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for OrientationEventDispatcher class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class OrientationEventDispatcherTest {
+    /**
+     * Instance of the OrientationEventDispatcher class.
+     */
+    private OrientationEventDispatcher dispatcher;
+
+    /**
+     * Calls scheduled on the manual executor, but not run yet.
+     */
+    private List<Runnable> scheduled;
+
+    /**
+     * Azimuths received by the listener.
+     */
+    private List<Double> received;
+
+    /**
+     * Listener storing the received azimuths.
+     */
+    private OrientationEventListener listener;
+
+    /**
+     * Consumer thread, used by the blocking listener test.
+     */
+    private ExecutorService consumerThread;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        dispatcher = new OrientationEventDispatcher(
+                new OrientationEventBuffer(4));
+        scheduled = new ArrayList<Runnable>();
+        received = new ArrayList<Double>();
+        listener = event -> received.add(event.getAzimuth());
+        consumerThread = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Tears down the test fixture.
+     * (Called after every test case method.)
+     */
+    @AfterEach
+    public final void tearDown() {
+        consumerThread.shutdownNow();
+    }
+
+    /**
+     * Tests adding and removing listeners.
+     */
+    @Test
+    public final void testListeners() {
+        dispatcher.addListener(listener, scheduled::add);
+        dispatcher.addListener(listener, scheduled::add);
+        Assertions.assertEquals(1, dispatcher.getListenerCount());
+
+        dispatcher.removeListener(listener);
+        dispatcher.removeListener(listener);
+        Assertions.assertEquals(0, dispatcher.getListenerCount());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            dispatcher.addListener(null, scheduled::add);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            dispatcher.addListener(listener, null);
+        });
+    }
+
+    /**
+     * Tests that publishing only schedules a call,
+     * which delivers all unread events.
+     */
+    @Test
+    public final void testPublish() {
+        dispatcher.addListener(listener, scheduled::add);
+
+        dispatcher.publish(1, 0, 0, 0, 1);
+        dispatcher.publish(2, 0, 0, 0, 2);
+
+        // one pending call, listener isn't called by the producer
+        Assertions.assertEquals(1, scheduled.size());
+        Assertions.assertEquals(0, received.size());
+
+        scheduled.remove(0).run();
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertEquals(1, received.get(0), 0);
+        Assertions.assertEquals(2, received.get(1), 0);
+
+        // next event schedules a new call
+        dispatcher.publish(3, 0, 0, 0, 3);
+        Assertions.assertEquals(1, scheduled.size());
+
+        // removed listener isn't called anymore
+        dispatcher.removeListener(listener);
+        scheduled.remove(0).run();
+        Assertions.assertEquals(2, received.size());
+    }
+
+    /**
+     * Tests that a blocked listener doesn't block publishing events,
+     * it skips the overwritten events when it continues.
+     *
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public final void testBlockedListener() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.addListener(event -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getAzimuth());
+            if (event.getAzimuth() == 100) {
+                done.countDown();
+            }
+        }, consumerThread);
+
+        dispatcher.publish(0, 0, 0, 0, 0);
+        Assertions.assertTrue(blocked.await(1, TimeUnit.SECONDS));
+
+        // the listener is blocked, publishing continues
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            for (int i = 1; i <= 100; i++) {
+                dispatcher.publish(i, 0, 0, 0, i);
+            }
+        });
+
+        release.countDown();
+        Assertions.assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        // first event and the last events in the buffer are received
+        Assertions.assertEquals(0, received.get(0), 0);
+        Assertions.assertEquals(100, received.get(received.size() - 1), 0);
+        Assertions.assertTrue(received.size() <= 1 + 4);
+    }
+}
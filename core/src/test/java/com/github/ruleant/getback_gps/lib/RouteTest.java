@@ -0,0 +1,177 @@
+/**
+ * Unit tests for Route class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for Route class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class RouteTest {
+    /**
+     * Meters per degree.
+     */
+    private static final double METERS = PolylineSimplifier.METERS_PER_DEGREE;
+
+    /**
+     * Distance accuracy in meters.
+     */
+    private static final double ACCURACY = 0.5;
+
+    /**
+     * Instance of the Route class :
+     * 1112 m north from (0, 0), then 1112 m east.
+     */
+    private Route route;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        route = new Route(new double[] {0, 0.01, 0.01},
+                new double[] {0, 0, 0.01});
+    }
+
+    /**
+     * Tests route geometry.
+     */
+    @Test
+    public final void testGeometry() {
+        Assertions.assertEquals(3, route.getWaypointCount());
+        Assertions.assertEquals(0.01, route.getLatitude(1));
+        Assertions.assertEquals(0.01, route.getLongitude(2));
+        Assertions.assertEquals(2 * 0.01 * METERS, route.getLength(), ACCURACY);
+        Assertions.assertEquals(0, route.getActiveWaypoint());
+        Assertions.assertFalse(route.isFinished());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Route(new double[] {}, new double[] {});
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Route(new double[] {0, 1}, new double[] {0});
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Route(new double[] {91}, new double[] {0});
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new Route(null, null);
+        });
+    }
+
+    /**
+     * Tests following the route.
+     */
+    @Test
+    public final void testFollow() {
+        // before the first waypoint
+        Assertions.assertFalse(route.update(-0.001, 0));
+        Assertions.assertEquals(0, route.getActiveWaypoint());
+        Assertions.assertEquals(0.001 * METERS, route.getDistanceToWaypoint(),
+                ACCURACY);
+        Assertions.assertEquals(0.021 * METERS, route.getRemainingDistance(),
+                ACCURACY);
+
+        // arrival at the first waypoint, 11 m to the east of the route
+        Assertions.assertTrue(route.update(0, 0.0001));
+        Assertions.assertEquals(1, route.getActiveWaypoint());
+        Assertions.assertEquals(0, route.getAlongTrackDistance(), ACCURACY);
+        Assertions.assertEquals(0.0001 * METERS,
+                route.getCrossTrackDistance(), ACCURACY);
+
+        // halfway the first segment, 11 m to the west of the route
+        Assertions.assertFalse(route.update(0.005, -0.0001));
+        Assertions.assertEquals(0.005 * METERS, route.getAlongTrackDistance(),
+                ACCURACY);
+        Assertions.assertEquals(-0.0001 * METERS,
+                route.getCrossTrackDistance(), ACCURACY);
+        Assertions.assertEquals(0.015 * METERS, route.getRemainingDistance(),
+                ACCURACY);
+
+        // cutting the corner, not passed the bisector yet
+        Assertions.assertFalse(route.update(0.0094, 0.0005));
+        Assertions.assertEquals(1, route.getActiveWaypoint());
+
+        // cutting the corner, passed the bisector
+        Assertions.assertTrue(route.update(0.0097, 0.0005));
+        Assertions.assertEquals(2, route.getActiveWaypoint());
+        Assertions.assertEquals(0.0005 * METERS,
+                route.getAlongTrackDistance(), ACCURACY);
+        // south of the route heading east is to the right
+        Assertions.assertEquals(0.0003 * METERS,
+                route.getCrossTrackDistance(), ACCURACY);
+
+        // passing the last waypoint finishes the route
+        Assertions.assertTrue(route.update(0.01, 0.0101));
+        Assertions.assertTrue(route.isFinished());
+        Assertions.assertEquals(2, route.getActiveWaypoint());
+        Assertions.assertFalse(route.update(0, 0));
+
+        route.reset();
+        Assertions.assertFalse(route.isFinished());
+        Assertions.assertEquals(0, route.getActiveWaypoint());
+    }
+
+    /**
+     * Tests skipping waypoints when fixes are sparse.
+     */
+    @Test
+    public final void testSkipWaypoints() {
+        // beyond the last waypoint at once
+        Assertions.assertTrue(route.update(0.01, 0.02));
+        Assertions.assertTrue(route.isFinished());
+
+        route.setActiveWaypoint(1);
+        Assertions.assertFalse(route.isFinished());
+        Assertions.assertEquals(1, route.getActiveWaypoint());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            route.setActiveWaypoint(3);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            route.setArrivalRadius(-1);
+        });
+    }
+
+    /**
+     * Tests a route crossing the antimeridian.
+     */
+    @Test
+    public final void testAntimeridian() {
+        route = new Route(new double[] {0, 0},
+                new double[] {179.999, -179.999});
+        Assertions.assertEquals(0.002 * METERS, route.getLength(), ACCURACY);
+
+        route.setActiveWaypoint(1);
+        route.update(0.0001, 180);
+        Assertions.assertEquals(0.001 * METERS, route.getAlongTrackDistance(),
+                ACCURACY);
+        // north of the route heading east is to the left
+        Assertions.assertEquals(-0.0001 * METERS,
+                route.getCrossTrackDistance(), ACCURACY);
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Unit tests for SectionTimings class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for SectionTimings class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SectionTimingsTest {
+    /**
+     * Origin timestamp.
+     */
+    private static final long ORIGIN = 1000 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Instance of the SectionTimings class.
+     */
+    private SectionTimings timings;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        timings = new SectionTimings(ORIGIN);
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    /**
+     * Tests empty timings.
+     */
+    @Test
+    public final void testEmpty() {
+        Assertions.assertEquals(0, timings.getCount());
+        Assertions.assertFalse(timings.hasEntry("section"));
+        Assertions.assertEquals(-1, timings.getDuration("section"));
+        Assertions.assertEquals(-1, timings.getOffset("section"));
+        Assertions.assertEquals("", timings.toString());
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new SectionTimings(ORIGIN, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            timings.addSection(null, ORIGIN, ORIGIN);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            timings.addSection("section", ORIGIN, ORIGIN - 1);
+        });
+    }
+
+    /**
+     * Tests recording sections.
+     */
+    @Test
+    public final void testAddSection() {
+        timings.addSection("restore",
+                ORIGIN + 2 * TimeUnits.MILLI_IN_NANO,
+                ORIGIN + 5 * TimeUnits.MILLI_IN_NANO);
+
+        Assertions.assertEquals(1, timings.getCount());
+        Assertions.assertTrue(timings.hasEntry("restore"));
+        Assertions.assertEquals(3 * TimeUnits.MILLI_IN_NANO,
+                timings.getDuration("restore"));
+        Assertions.assertEquals(5 * TimeUnits.MILLI_IN_NANO,
+                timings.getOffset("restore"));
+        Assertions.assertEquals("restore: 3.0ms (+5.0ms)",
+                timings.toString());
+    }
+
+    /**
+     * Tests recording milestones.
+     */
+    @Test
+    public final void testMark() {
+        timings.mark("first_arrow", ORIGIN + 10 * TimeUnits.MILLI_IN_NANO);
+        // only the first mark is recorded
+        timings.mark("first_arrow", ORIGIN + 20 * TimeUnits.MILLI_IN_NANO);
+
+        Assertions.assertEquals(1, timings.getCount());
+        Assertions.assertEquals(0, timings.getDuration("first_arrow"));
+        Assertions.assertEquals(10 * TimeUnits.MILLI_IN_NANO,
+                timings.getOffset("first_arrow"));
+    }
+
+    /**
+     * Tests entries are ignored when capacity is reached.
+     */
+    @Test
+    public final void testCapacity() {
+        SectionTimings smallTimings = new SectionTimings(ORIGIN, 2);
+        smallTimings.addSection("one", ORIGIN, ORIGIN);
+        smallTimings.addSection("two", ORIGIN, ORIGIN);
+        smallTimings.addSection("three", ORIGIN, ORIGIN);
+
+        Assertions.assertEquals(2, smallTimings.getCount());
+        Assertions.assertFalse(smallTimings.hasEntry("three"));
+        Assertions.assertEquals("one: 0.0ms (+0.0ms)\ntwo: 0.0ms (+0.0ms)",
+                smallTimings.toString());
+    }
+}
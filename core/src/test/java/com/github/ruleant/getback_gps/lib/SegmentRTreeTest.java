@@ -0,0 +1,202 @@
+/**
+ * Unit tests for SegmentRTree class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for SegmentRTree class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SegmentRTreeTest {
+    /**
+     * Meters per degree.
+     */
+    private static final double METERS = PolylineSimplifier.METERS_PER_DEGREE;
+
+    /**
+     * Distance accuracy in meters.
+     */
+    private static final double ACCURACY = 1e-6;
+
+    /**
+     * Coordinate accuracy in degrees.
+     */
+    private static final double DEGREE_ACCURACY = 1e-9;
+
+    /**
+     * Tests a track without segments.
+     */
+    @Test
+    public final void testEmpty() {
+        SegmentRTree tree = new SegmentRTree(new double[] {}, new double[] {});
+        Assertions.assertEquals(0, tree.getSegmentCount());
+        Assertions.assertEquals(0, tree.getDepth());
+        Assertions.assertEquals(SegmentRTree.NO_SEGMENT,
+                tree.findNearestSegment(0, 0, null));
+
+        // a single position has no segments
+        tree = new SegmentRTree(new double[] {1}, new double[] {2});
+        Assertions.assertEquals(0, tree.getSegmentCount());
+        Assertions.assertEquals(SegmentRTree.NO_SEGMENT,
+                tree.findNearestSegment(1, 2, null));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new SegmentRTree(new double[] {1}, new double[] {});
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new SegmentRTree(null, null);
+        });
+    }
+
+    /**
+     * Tests the projected point on a short track.
+     */
+    @Test
+    public final void testProjectedPoint() {
+        // north, then east
+        SegmentRTree tree = new SegmentRTree(new double[] {0, 0.01, 0.01},
+                new double[] {0, 0, 0.01});
+        double[] result = new double[SegmentRTree.RESULT_SIZE];
+
+        Assertions.assertEquals(2, tree.getSegmentCount());
+        Assertions.assertEquals(1, tree.getDepth());
+        Assertions.assertEquals(0.02 * METERS, tree.getDistanceAlongTrack(2),
+                ACCURACY);
+
+        // east of the first segment
+        Assertions.assertEquals(0,
+                tree.findNearestSegment(0.004, 0.001, result));
+        Assertions.assertEquals(0.004, result[SegmentRTree.RESULT_LATITUDE],
+                DEGREE_ACCURACY);
+        Assertions.assertEquals(0, result[SegmentRTree.RESULT_LONGITUDE],
+                DEGREE_ACCURACY);
+        Assertions.assertEquals(0.001 * METERS,
+                result[SegmentRTree.RESULT_DISTANCE], ACCURACY);
+        Assertions.assertEquals(0.4, result[SegmentRTree.RESULT_FRACTION],
+                DEGREE_ACCURACY);
+
+        // north of the second segment
+        Assertions.assertEquals(1,
+                tree.findNearestSegment(0.012, 0.005, result));
+        Assertions.assertEquals(0.5, result[SegmentRTree.RESULT_FRACTION],
+                DEGREE_ACCURACY);
+
+        // beyond the end of the track
+        Assertions.assertEquals(1,
+                tree.findNearestSegment(0.01, 0.02, result));
+        Assertions.assertEquals(1, result[SegmentRTree.RESULT_FRACTION]);
+    }
+
+    /**
+     * Tests a track crossing the antimeridian.
+     */
+    @Test
+    public final void testAntimeridian() {
+        SegmentRTree tree = new SegmentRTree(new double[] {0, 0},
+                new double[] {179.999, -179.999});
+        double[] result = new double[SegmentRTree.RESULT_SIZE];
+
+        Assertions.assertEquals(0, tree.findNearestSegment(0.001, -180,
+                result));
+        Assertions.assertEquals(0.001 * METERS,
+                result[SegmentRTree.RESULT_DISTANCE], ACCURACY);
+        Assertions.assertEquals(180,
+                Math.abs(result[SegmentRTree.RESULT_LONGITUDE]),
+                DEGREE_ACCURACY);
+    }
+
+    /**
+     * Tests a long track against a search of all segments.
+     */
+    @Test
+    public final void testLongTrack() {
+        final int count = 10000;
+        Random random = new Random(1);
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+
+        // random walk
+        for (int i = 1; i < count; i++) {
+            latitudes[i] = latitudes[i - 1] + (random.nextDouble() - 0.5)
+                    * 0.001;
+            longitudes[i] = longitudes[i - 1] + (random.nextDouble() - 0.5)
+                    * 0.001;
+        }
+
+        SegmentRTree tree = new SegmentRTree(latitudes, longitudes);
+        Assertions.assertEquals(count - 1, tree.getSegmentCount());
+        // 9999 segments : 1250 leaves, 157, 20, 3 and 1 nodes
+        Assertions.assertEquals(5, tree.getDepth());
+
+        double[] result = new double[SegmentRTree.RESULT_SIZE];
+        for (int i = 0; i < 200; i++) {
+            double latitude = (random.nextDouble() - 0.5) * 0.05;
+            double longitude = (random.nextDouble() - 0.5) * 0.05;
+
+            tree.findNearestSegment(latitude, longitude, result);
+            Assertions.assertEquals(
+                    getNearestDistance(latitudes, longitudes, latitude,
+                            longitude),
+                    result[SegmentRTree.RESULT_DISTANCE], ACCURACY);
+        }
+    }
+
+    /**
+     * Calculates the distance to the nearest segment,
+     * by checking all segments.
+     *
+     * @param latitudes track latitudes (first position is 0, 0)
+     * @param longitudes track longitudes
+     * @param latitude latitude of the location
+     * @param longitude longitude of the location
+     * @return distance in meters
+     */
+    private static double getNearestDistance(final double[] latitudes,
+                                             final double[] longitudes,
+                                             final double latitude,
+                                             final double longitude) {
+        double nearest = Double.POSITIVE_INFINITY;
+        double x = longitude * METERS;
+        double y = latitude * METERS;
+
+        for (int i = 0; i + 1 < latitudes.length; i++) {
+            double x0 = longitudes[i] * METERS;
+            double y0 = latitudes[i] * METERS;
+            double dx = longitudes[i + 1] * METERS - x0;
+            double dy = latitudes[i + 1] * METERS - y0;
+            double lengthSquared = dx * dx + dy * dy;
+            double fraction = lengthSquared == 0 ? 0
+                    : ((x - x0) * dx + (y - y0) * dy) / lengthSquared;
+            fraction = Math.max(0, Math.min(1, fraction));
+
+            nearest = Math.min(nearest, Math.hypot(x - x0 - fraction * dx,
+                    y - y0 - fraction * dy));
+        }
+
+        return nearest;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Unit tests for SensorRateDemand class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for SensorRateDemand class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SensorRateDemandTest {
+    /**
+     * Fast update interval.
+     */
+    private static final int FAST = 33333;
+
+    /**
+     * Slow update interval.
+     */
+    private static final int SLOW = 1000000;
+
+    /**
+     * Instance of the SensorRateDemand class.
+     */
+    private SensorRateDemand demand;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        demand = new SensorRateDemand();
+    }
+
+    /**
+     * Tests initial state.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertEquals(SensorRateDemand.NO_DEMAND,
+                demand.getInterval());
+        Assertions.assertEquals(0, demand.getConsumerCount());
+        Assertions.assertFalse(demand.release(new Object()));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            demand.request(null, FAST);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            demand.request(new Object(), 0);
+        });
+    }
+
+    /**
+     * Tests that the effective interval follows the highest demand.
+     */
+    @Test
+    public final void testHighestDemand() {
+        Object background = new Object();
+        Object view = new Object();
+
+        Assertions.assertTrue(demand.request(background, SLOW));
+        Assertions.assertEquals(SLOW, demand.getInterval());
+
+        Assertions.assertTrue(demand.request(view, FAST));
+        Assertions.assertEquals(FAST, demand.getInterval());
+        Assertions.assertEquals(2, demand.getConsumerCount());
+
+        // requesting the same interval again is not a change
+        Assertions.assertFalse(demand.request(view, FAST));
+        Assertions.assertEquals(2, demand.getConsumerCount());
+
+        Assertions.assertTrue(demand.release(view));
+        Assertions.assertFalse(demand.isRequested(view));
+        Assertions.assertEquals(SLOW, demand.getInterval());
+
+        // last consumer drops the demand
+        Assertions.assertTrue(demand.release(background));
+        Assertions.assertEquals(SensorRateDemand.NO_DEMAND,
+                demand.getInterval());
+    }
+
+    /**
+     * Tests changing the interval of a consumer.
+     */
+    @Test
+    public final void testChangeInterval() {
+        Object consumer = new Object();
+        Object other = new Object();
+
+        demand.request(consumer, FAST);
+        demand.request(other, SLOW);
+        Assertions.assertTrue(demand.request(consumer, SLOW * 2));
+        Assertions.assertEquals(SLOW, demand.getInterval());
+        Assertions.assertTrue(demand.isRequested(consumer));
+        Assertions.assertEquals(2, demand.getConsumerCount());
+    }
+
+    /**
+     * Tests growing beyond the initial capacity.
+     */
+    @Test
+    public final void testManyConsumers() {
+        Object[] consumers = new Object[10];
+        for (int i = 0; i < consumers.length; i++) {
+            consumers[i] = new Object();
+            demand.request(consumers[i], SLOW - i);
+        }
+        Assertions.assertEquals(consumers.length, demand.getConsumerCount());
+        Assertions.assertEquals(SLOW - consumers.length + 1,
+                demand.getInterval());
+
+        for (int i = consumers.length - 1; i > 0; i--) {
+            demand.release(consumers[i]);
+            Assertions.assertEquals(SLOW - i + 1, demand.getInterval());
+        }
+        Assertions.assertTrue(demand.isRequested(consumers[0]));
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Unit tests for StillnessDetector class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for StillnessDetector class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class StillnessDetectorTest {
+    /**
+     * Still period in milliseconds.
+     */
+    private static final long STILL_PERIOD = 1000;
+
+    /**
+     * Sample interval in nanoseconds (200ms).
+     */
+    private static final long SAMPLE_INTERVAL = 200 * TimeUnits.MILLI_IN_NANO;
+
+    /**
+     * Window size.
+     */
+    private static final int WINDOW_SIZE = 4;
+
+    /**
+     * Gravity in m/s^2.
+     */
+    private static final float GRAVITY = 9.81f;
+
+    /**
+     * Instance of the StillnessDetector class.
+     */
+    private StillnessDetector detector;
+
+    /**
+     * Timestamp of the next sample in nanoseconds.
+     */
+    private long timestamp;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        detector = new StillnessDetector(STILL_PERIOD, WINDOW_SIZE,
+                StillnessDetector.DEFAULT_THRESHOLD);
+        timestamp = SAMPLE_INTERVAL;
+    }
+
+    /**
+     * Adds a sample, with magnitude gravity plus an offset.
+     *
+     * @param offset offset of the magnitude in m/s^2
+     * @return true if still state changed
+     */
+    private boolean addSample(final float offset) {
+        boolean changed = detector.addSample(
+                new float[] {0, 0, GRAVITY + offset}, timestamp);
+        timestamp += SAMPLE_INTERVAL;
+
+        return changed;
+    }
+
+    /**
+     * Tests initial state and invalid parameters.
+     */
+    @Test
+    public final void testInitial() {
+        Assertions.assertFalse(detector.isStill());
+        Assertions.assertEquals(0, detector.getVariance());
+        Assertions.assertEquals(STILL_PERIOD, detector.getStillPeriod());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new StillnessDetector(STILL_PERIOD, 1, 1);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new StillnessDetector(STILL_PERIOD, WINDOW_SIZE, 0);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new StillnessDetector(-1);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            detector.addSample(new float[] {0, 0}, timestamp);
+        });
+    }
+
+    /**
+     * Tests variance of the magnitude, independent of orientation.
+     */
+    @Test
+    public final void testVariance() {
+        detector.addSample(new float[] {0, 0, 1}, timestamp);
+        detector.addSample(new float[] {0, 3, 0}, timestamp);
+        // magnitude 3
+        detector.addSample(new float[] {0, 0, -3}, timestamp);
+        // magnitude 5
+        detector.addSample(new float[] {3, 4, 0}, timestamp);
+
+        // mean 3, squares 1 + 9 + 9 + 25 = 44 / 4 = 11 - 9 = 2
+        Assertions.assertEquals(2, detector.getVariance(), 1e-9);
+
+        // oldest sample (1) is replaced : 3, 3, 5, 3
+        detector.addSample(new float[] {3, 0, 0}, timestamp);
+        Assertions.assertEquals(0.75, detector.getVariance(), 1e-9);
+    }
+
+    /**
+     * Tests becoming still after the still period and moving again.
+     */
+    @Test
+    public final void testStillAndMoving() {
+        // window is filled, first quiet sample at 4th sample
+        for (int i = 0; i < WINDOW_SIZE + 4; i++) {
+            Assertions.assertFalse(addSample(0.01f * (i % 2)));
+        }
+        Assertions.assertFalse(detector.isStill());
+
+        // still period has passed
+        Assertions.assertTrue(addSample(0));
+        Assertions.assertTrue(detector.isStill());
+        Assertions.assertFalse(addSample(0.01f));
+
+        // movement is detected immediately
+        Assertions.assertTrue(addSample(2));
+        Assertions.assertFalse(detector.isStill());
+    }
+
+    /**
+     * Tests movement restarting the still period.
+     */
+    @Test
+    public final void testMovementRestartsStillPeriod() {
+        for (int i = 0; i < WINDOW_SIZE + 3; i++) {
+            addSample(0);
+        }
+        addSample(2);
+
+        // the moving sample stays in the window for WINDOW_SIZE samples
+        for (int i = 0; i < WINDOW_SIZE + 4; i++) {
+            Assertions.assertFalse(addSample(0));
+        }
+        Assertions.assertTrue(addSample(0));
+    }
+
+    /**
+     * Tests reset.
+     */
+    @Test
+    public final void testReset() {
+        for (int i = 0; i < 2 * WINDOW_SIZE + 2; i++) {
+            addSample(0);
+        }
+        Assertions.assertTrue(detector.isStill());
+
+        detector.reset();
+        Assertions.assertFalse(detector.isStill());
+        Assertions.assertEquals(0, detector.getVariance());
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Unit tests for TargetSet class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for TargetSet class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class TargetSetTest {
+    /**
+     * Meters per degree, on the equator.
+     */
+    private static final double METERS_PER_DEGREE
+            = Math.toRadians(TargetSet.EARTH_RADIUS);
+
+    /**
+     * Distance accuracy in meters.
+     */
+    private static final double DISTANCE_ACCURACY = 0.1;
+
+    /**
+     * Bearing accuracy in degrees.
+     */
+    private static final double BEARING_ACCURACY = 0.01;
+
+    /**
+     * Instance of the TargetSet class.
+     */
+    private TargetSet targets;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        // small capacity, to test growing the arrays
+        targets = new TargetSet(1);
+    }
+
+    /**
+     * Tests empty set.
+     */
+    @Test
+    public final void testEmpty() {
+        Assertions.assertEquals(0, targets.getCount());
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.getNearest());
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.getCurrent());
+
+        targets.update(0, 0);
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.getNearest());
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.getCurrent());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new TargetSet(0);
+        });
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+            targets.getDistance(0);
+        });
+    }
+
+    /**
+     * Tests adding, replacing and removing targets.
+     */
+    @Test
+    public final void testAddRemove() {
+        targets.add(10, "a", 1, 2);
+        targets.add(20, "b", 3, 4);
+        targets.add(30, "c", 5, 6);
+        Assertions.assertEquals(3, targets.getCount());
+        Assertions.assertEquals(1, targets.indexOf(20));
+        Assertions.assertEquals("b", targets.getName(1));
+
+        // same id replaces the target
+        targets.add(20, "B", -3, -4);
+        Assertions.assertEquals(3, targets.getCount());
+        Assertions.assertEquals("B", targets.getName(1));
+        Assertions.assertEquals(-3, targets.getLatitude(1));
+        Assertions.assertEquals(-4, targets.getLongitude(1));
+
+        Assertions.assertTrue(targets.remove(10));
+        Assertions.assertFalse(targets.remove(10));
+        Assertions.assertEquals(2, targets.getCount());
+        Assertions.assertEquals(20, targets.getId(0));
+        Assertions.assertEquals(30, targets.getId(1));
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.indexOf(10));
+        Assertions.assertEquals(0, targets.indexOf(20));
+        Assertions.assertEquals(1, targets.indexOf(30));
+
+        // a target added after removing gets the next index
+        targets.add(40, "d", 7, 8);
+        Assertions.assertEquals(2, targets.indexOf(40));
+
+        targets.clear();
+        Assertions.assertEquals(0, targets.getCount());
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.indexOf(20));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            targets.add(1, "invalid", 91, 0);
+        });
+    }
+
+    /**
+     * Tests distance, bearing and order.
+     */
+    @Test
+    public final void testUpdate() {
+        targets.add(1, "east", 0, 2);
+        targets.add(2, "north", 1, 0);
+        targets.add(3, "south west", -1, -1);
+
+        targets.update(0, 0);
+        Assertions.assertTrue(targets.isUpdated());
+
+        Assertions.assertEquals(2 * METERS_PER_DEGREE, targets.getDistance(0),
+                DISTANCE_ACCURACY);
+        Assertions.assertEquals(90, targets.getBearing(0), BEARING_ACCURACY);
+        Assertions.assertEquals(METERS_PER_DEGREE, targets.getDistance(1),
+                DISTANCE_ACCURACY);
+        Assertions.assertEquals(0, targets.getBearing(1), BEARING_ACCURACY);
+        Assertions.assertEquals(225, targets.getBearing(2), BEARING_ACCURACY);
+
+        // ordered by distance
+        Assertions.assertEquals(1, targets.getIndexByRank(0));
+        Assertions.assertEquals(2, targets.getIndexByRank(1));
+        Assertions.assertEquals(0, targets.getIndexByRank(2));
+        Assertions.assertEquals(1, targets.getNearest());
+
+        // changing the targets invalidates the update
+        targets.add(4, "here", 0, 0);
+        Assertions.assertFalse(targets.isUpdated());
+        Assertions.assertEquals(TargetSet.NO_TARGET, targets.getNearest());
+
+        targets.update(0, 0);
+        Assertions.assertEquals(3, targets.getNearest());
+        Assertions.assertEquals(0, targets.getDistance(3), DISTANCE_ACCURACY);
+    }
+
+    /**
+     * Tests current target hysteresis.
+     */
+    @Test
+    public final void testHysteresis() {
+        targets.setHysteresis(10, 0);
+        // target 1 is 1000 m east, target 2 is 1005 m north
+        targets.add(1, "east", 0, 1000 / METERS_PER_DEGREE);
+        targets.add(2, "north", 1005 / METERS_PER_DEGREE, 0);
+
+        targets.update(0, 0);
+        Assertions.assertEquals(1, targets.getId(targets.getCurrent()));
+
+        // 8 m to the north : target 2 is nearest, but within hysteresis
+        targets.update(8 / METERS_PER_DEGREE, 0);
+        Assertions.assertEquals(2, targets.getId(targets.getNearest()));
+        Assertions.assertEquals(1, targets.getId(targets.getCurrent()));
+
+        // 20 m to the north : target 2 is closer than the hysteresis
+        targets.update(20 / METERS_PER_DEGREE, 0);
+        Assertions.assertEquals(2, targets.getId(targets.getCurrent()));
+
+        // back to the start : target 1 is within hysteresis
+        targets.update(0, 0);
+        Assertions.assertEquals(2, targets.getId(targets.getCurrent()));
+
+        // removing current target selects the nearest target
+        targets.remove(2);
+        targets.update(0, 0);
+        Assertions.assertEquals(1, targets.getId(targets.getCurrent()));
+
+        // relative hysteresis
+        targets.setHysteresis(0, 0.5);
+        targets.add(3, "north", 600 / METERS_PER_DEGREE, 0);
+        targets.update(0, 0);
+        Assertions.assertEquals(1, targets.getId(targets.getCurrent()));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            targets.setHysteresis(-1, 0);
+        });
+    }
+
+    /**
+     * Tests updating a large set of targets.
+     */
+    @Test
+    public final void testLargeSet() {
+        final int count = 5000;
+        for (int i = 0; i < count; i++) {
+            // spiral around the location, moving away
+            targets.add(i, null, Math.sin(i) * i / count,
+                    Math.cos(i) * i / count);
+        }
+
+        targets.update(0, 0);
+        Assertions.assertEquals(count, targets.getCount());
+        Assertions.assertEquals(0, targets.getNearest());
+        for (int rank = 1; rank < count; rank++) {
+            Assertions.assertTrue(
+                    targets.getDistance(targets.getIndexByRank(rank - 1))
+                    <= targets.getDistance(targets.getIndexByRank(rank)));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Unit tests for UnitFormat class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for UnitFormat class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class UnitFormatTest {
+    /**
+     * Original Locale before tests.
+     */
+    private Locale originalLocale;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        originalLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * (Called after every test case method.)
+     */
+    @AfterEach
+    public final void tearDown() {
+        Locale.setDefault(originalLocale);
+        UnitFormat.setUnitSystem(UnitFormat.UNIT_SYSTEM_METRIC);
+    }
+
+    /**
+     * Tests formatting with the default labels.
+     */
+    @Test
+    public final void testFormat() {
+        Assertions.assertEquals("10m",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 9.9, null));
+        Assertions.assertEquals("1.2km",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 1234, null));
+        Assertions.assertEquals("-5m",
+                UnitFormat.format(UnitFormat.QUANTITY_HEIGHT, -5, null));
+
+        UnitFormat.setUnitSystem(UnitFormat.UNIT_SYSTEM_IMPERIAL);
+        Assertions.assertEquals("8.9mph",
+                UnitFormat.format(UnitFormat.QUANTITY_SPEED, 4, null));
+
+        // short nautical distances are formatted in meter
+        UnitFormat.setUnitSystem(UnitFormat.UNIT_SYSTEM_NAUTICAL);
+        Assertions.assertEquals("50m",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 50, null));
+        Assertions.assertEquals("0.5NM",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 926, null));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            UnitFormat.format(UnitFormat.QUANTITY_COUNT, 1, null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            UnitFormat.setUnitSystem(-1);
+        });
+    }
+
+    /**
+     * Tests formatting with labels, fe. localized labels.
+     */
+    @Test
+    public final void testFormatLabels() {
+        String[] labels = {"meter", "kilometer", "foot", "mile", "NM"};
+
+        Assertions.assertEquals("10meter",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 9.9, labels));
+
+        // labels are not kept for the next value
+        Assertions.assertEquals("10m",
+                UnitFormat.format(UnitFormat.QUANTITY_DISTANCE, 9.9, null));
+    }
+
+    /**
+     * Tests angle formatting.
+     */
+    @Test
+    public final void testAngle() {
+        Assertions.assertEquals("12.35°", UnitFormat.formatAngle(12.345, 2));
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Unit tests for VisvalingamWhyattSimplifier class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for VisvalingamWhyattSimplifier class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class VisvalingamWhyattSimplifierTest {
+    /**
+     * Simplified points, as x, y pairs.
+     */
+    private List<double[]> points;
+
+    /**
+     * Sink collecting the simplified points.
+     */
+    private PointSink sink;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        points = new ArrayList<double[]>();
+        sink = (x, y) -> points.add(new double[] {x, y});
+    }
+
+    /**
+     * Tests removing points with a small effective area.
+     */
+    @Test
+    public final void testSimplify() {
+        VisvalingamWhyattSimplifier simplifier
+                = new VisvalingamWhyattSimplifier(sink, 2, false);
+
+        // small bumps (effective area below 4) are removed,
+        // the corner at (10, 0) is kept
+        simplifier.addPoints(
+                new double[] {0, 1, 5, 10, 10, 9.5, 10},
+                new double[] {0, 1, 0, 0, 5, 7, 10},
+                0, 7);
+        simplifier.flush();
+
+        Assertions.assertEquals(3, points.size());
+        Assertions.assertArrayEquals(new double[] {0, 0}, points.get(0));
+        Assertions.assertArrayEquals(new double[] {10, 0}, points.get(1));
+        Assertions.assertArrayEquals(new double[] {10, 10}, points.get(2));
+    }
+
+    /**
+     * Tests tolerance 0, only points on a straight line are removed.
+     */
+    @Test
+    public final void testZeroTolerance() {
+        VisvalingamWhyattSimplifier simplifier
+                = new VisvalingamWhyattSimplifier(sink, 0, false);
+
+        simplifier.addPoints(new double[] {0, 1, 2, 3},
+                new double[] {0, 1, 2, 2}, 0, 4);
+        simplifier.flush();
+        Assertions.assertEquals(3, points.size());
+    }
+
+    /**
+     * Tests streaming a long polyline through a small window.
+     */
+    @Test
+    public final void testStreaming() {
+        final int windowSize = 32;
+        final int count = 1000;
+        VisvalingamWhyattSimplifier simplifier
+                = new VisvalingamWhyattSimplifier(sink, 1, false, windowSize);
+
+        // zigzag, with a corner every 10 points
+        for (int i = 0; i < count; i++) {
+            simplifier.addPoint(i, (i / 10) % 2 == 0 ? i % 10 : 10 - i % 10);
+        }
+        // points are emitted before the polyline ends,
+        // the last corners are still in the window
+        Assertions.assertTrue(simplifier.getEmittedCount()
+                > count / 10 + 1 - windowSize / 10);
+        simplifier.flush();
+
+        Assertions.assertEquals(count / 10 + 1, points.size());
+        // counters include the points flushed at the end
+        Assertions.assertEquals(count, simplifier.getAddedCount());
+        Assertions.assertEquals(points.size(), simplifier.getEmittedCount());
+    }
+
+    /**
+     * Tests simplifying geographic points, with tolerance in meters.
+     */
+    @Test
+    public final void testGeographic() {
+        // triangle area is about 140m * 11m / 2 = 780 m^2
+        double[] longitudes = {4.0, 4.001, 4.002};
+        double[] latitudes = {51.0, 51.0001, 51.0};
+
+        VisvalingamWhyattSimplifier simplifier
+                = new VisvalingamWhyattSimplifier(sink, 30, true);
+        simplifier.addPoints(longitudes, latitudes, 0, 3);
+        simplifier.flush();
+        Assertions.assertEquals(2, points.size());
+
+        points.clear();
+        simplifier = new VisvalingamWhyattSimplifier(sink, 25, true);
+        simplifier.addPoints(longitudes, latitudes, 0, 3);
+        simplifier.flush();
+        Assertions.assertEquals(3, points.size());
+    }
+}
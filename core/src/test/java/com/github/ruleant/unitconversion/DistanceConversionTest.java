@@ -0,0 +1,180 @@
+/**
+ * Unit tests for DistanceConversion class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for DistanceConversion class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DistanceConversionTest {
+    /**
+     * Accuracy of a converted value.
+     */
+    private static final double ACCURACY = 1e-9;
+
+    /**
+     * Original Locale before tests.
+     */
+    private Locale originalLocale;
+
+    /**
+     * Instance of the DistanceConversion class.
+     */
+    private DistanceConversion conversion;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        originalLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+        conversion = new DistanceConversion();
+    }
+
+    /**
+     * Tears down the test fixture.
+     * (Called after every test case method.)
+     */
+    @AfterEach
+    public final void tearDown() {
+        Locale.setDefault(originalLocale);
+    }
+
+    /**
+     * Tests converting values between units.
+     */
+    @Test
+    public final void testConvert() {
+        Assertions.assertEquals(5, conversion.getUnitCount());
+
+        conversion.setValue(1, DistanceConversion.UNIT_MILE);
+        Assertions.assertEquals(1609.344, conversion.getValue(), ACCURACY);
+
+        conversion.setOutputUnit(DistanceConversion.UNIT_FOOT);
+        Assertions.assertEquals(5280, conversion.getConvertedValue(),
+                ACCURACY);
+        Assertions.assertEquals("ft", conversion.getUnit());
+
+        conversion.setValue(1, DistanceConversion.UNIT_NAUTICAL_MILE);
+        conversion.setOutputUnit(DistanceConversion.UNIT_KILOMETER);
+        Assertions.assertEquals(1.852, conversion.getConvertedValue(),
+                ACCURACY);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            conversion.setValue(1, DistanceConversion.UNIT_NAUTICAL_MILE + 1);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            conversion.setOutputUnit(-1);
+        });
+    }
+
+    /**
+     * Tests switching to the bigger unit.
+     */
+    @Test
+    public final void testDisplayUnit() {
+        conversion.setOutputUnit(DistanceConversion.UNIT_FOOT);
+
+        conversion.setValue(5279, DistanceConversion.UNIT_FOOT);
+        Assertions.assertEquals(DistanceConversion.UNIT_FOOT,
+                conversion.getDisplayUnit());
+        Assertions.assertEquals("5,279ft", conversion.getFormattedValue());
+
+        conversion.setValue(5280, DistanceConversion.UNIT_FOOT);
+        Assertions.assertEquals(DistanceConversion.UNIT_MILE,
+                conversion.getDisplayUnit());
+        Assertions.assertEquals("1.0mi", conversion.getFormattedValue());
+
+        // sign is dropped, but doesn't change the displayed unit
+        conversion.setValue(-5280, DistanceConversion.UNIT_FOOT);
+        Assertions.assertEquals("1.0mi", conversion.getFormattedValue());
+
+        conversion.setOutputUnit(DistanceConversion.UNIT_NAUTICAL_MILE);
+        conversion.setValue(123456, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals(DistanceConversion.UNIT_NAUTICAL_MILE,
+                conversion.getDisplayUnit());
+        Assertions.assertEquals("67NM", conversion.getFormattedValue());
+    }
+
+    /**
+     * Tests switching from nautical mile to meter for short distances.
+     */
+    @Test
+    public final void testDisplayUnitNauticalMile() {
+        conversion.setOutputUnit(DistanceConversion.UNIT_NAUTICAL_MILE);
+
+        conversion.setValue(50, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals(DistanceConversion.UNIT_METER,
+                conversion.getDisplayUnit());
+        Assertions.assertEquals("50m", conversion.getFormattedValue());
+
+        conversion.setValue(185, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals("185m", conversion.getFormattedValue());
+
+        // sign is dropped, but doesn't change the displayed unit
+        conversion.setValue(-185, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals("185m", conversion.getFormattedValue());
+
+        conversion.setValue(0.1, DistanceConversion.UNIT_NAUTICAL_MILE);
+        Assertions.assertEquals(DistanceConversion.UNIT_NAUTICAL_MILE,
+                conversion.getDisplayUnit());
+        Assertions.assertEquals("0.1NM", conversion.getFormattedValue());
+    }
+
+    /**
+     * Tests localized formatting and unit labels.
+     */
+    @Test
+    public final void testLocalized() {
+        conversion.setValue(12345678, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals("12,346km", conversion.getFormattedValue());
+
+        Locale.setDefault(new Locale("nl", "BE"));
+        Assertions.assertEquals("12.346km", conversion.getFormattedValue());
+        conversion.setValue(1234, DistanceConversion.UNIT_METER);
+        Assertions.assertEquals("1,2km", conversion.getFormattedValue());
+
+        String[] labels = {"m", "kilometer", "ft", "mi", "zm"};
+        conversion.setUnitLabels(labels);
+        Assertions.assertEquals("kilometer",
+                conversion.getUnitLabel(DistanceConversion.UNIT_KILOMETER));
+        Assertions.assertEquals("1,2kilometer",
+                conversion.getFormattedValue());
+
+        conversion.setUnitLabels(null);
+        Assertions.assertEquals("1,2km", conversion.getFormattedValue());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            conversion.setUnitLabels(new String[] {"m"});
+        });
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Unit tests for SpeedConversion class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.unitconversion
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.unitconversion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+/**
+ * Unit tests for SpeedConversion class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class SpeedConversionTest {
+    /**
+     * Accuracy of a converted value.
+     */
+    private static final double ACCURACY = 1e-9;
+
+    /**
+     * Original Locale before tests.
+     */
+    private Locale originalLocale;
+
+    /**
+     * Instance of the SpeedConversion class.
+     */
+    private SpeedConversion conversion;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        originalLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+        conversion = new SpeedConversion();
+    }
+
+    /**
+     * Tears down the test fixture.
+     * (Called after every test case method.)
+     */
+    @AfterEach
+    public final void tearDown() {
+        Locale.setDefault(originalLocale);
+    }
+
+    /**
+     * Tests converting values between units.
+     */
+    @Test
+    public final void testConvert() {
+        conversion.setValue(1, SpeedConversion.UNIT_KNOT);
+        conversion.setOutputUnit(SpeedConversion.UNIT_KILOMETER_PER_HOUR);
+        Assertions.assertEquals(1.852, conversion.getConvertedValue(),
+                ACCURACY);
+
+        conversion.setValue(1, SpeedConversion.UNIT_METER_PER_SECOND);
+        Assertions.assertEquals(3.6, conversion.getConvertedValue(),
+                ACCURACY);
+        conversion.setOutputUnit(SpeedConversion.UNIT_MILE_PER_HOUR);
+        Assertions.assertEquals(2.2369362920544, conversion.getConvertedValue(),
+                ACCURACY);
+        Assertions.assertEquals("mph", conversion.getUnit());
+    }
+
+    /**
+     * Tests formatting with and without decimal.
+     */
+    @Test
+    public final void testFormat() {
+        conversion.setOutputUnit(SpeedConversion.UNIT_KNOT);
+
+        conversion.setValue(9.94, SpeedConversion.UNIT_KNOT);
+        Assertions.assertEquals("9.9kn", conversion.getFormattedValue());
+
+        // rounds to 10, so no decimal is displayed
+        conversion.setValue(9.96, SpeedConversion.UNIT_KNOT);
+        Assertions.assertEquals("10kn", conversion.getFormattedValue());
+
+        conversion.setValue(-0.04, SpeedConversion.UNIT_KNOT);
+        Assertions.assertEquals("0.0kn", conversion.getFormattedValue());
+
+        conversion.setValue(1234567, SpeedConversion.UNIT_KNOT);
+        Assertions.assertEquals("1,234,567kn", conversion.getFormattedValue());
+    }
+}
@@ -25,15 +25,19 @@ package com.github.ruleant.getback_gps;
 import android.Manifest;
 import android.app.Activity;
 import android.app.AlertDialog;
+import android.content.ActivityNotFoundException;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.ServiceConnection;
-import android.content.res.Resources;
+import android.database.Cursor;
 import android.graphics.Point;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.IBinder;
+import android.preference.PreferenceManager;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -43,17 +47,28 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.github.ruleant.getback_gps.LocationService.LocationBinder;
+import com.github.ruleant.getback_gps.lib.AngleMath;
+import com.github.ruleant.getback_gps.lib.AriadneLocation;
 import com.github.ruleant.getback_gps.lib.CardinalDirection;
+import com.github.ruleant.getback_gps.lib.DestinationDatabase;
+import com.github.ruleant.getback_gps.lib.DisplayState;
 import com.github.ruleant.getback_gps.lib.FormatUtils;
+import com.github.ruleant.getback_gps.lib.Latitude;
+import com.github.ruleant.getback_gps.lib.Longitude;
 import com.github.ruleant.getback_gps.lib.Navigator;
+import com.github.ruleant.getback_gps.lib.SensorOrientation;
 import com.github.ruleant.getback_gps.lib.Tools;
 
 import androidx.annotation.NonNull;
 import androidx.core.app.ActivityCompat;
+import androidx.core.content.FileProvider;
 import de.keyboardsurfer.android.widget.crouton.Configuration;
 import de.keyboardsurfer.android.widget.crouton.Crouton;
 import de.keyboardsurfer.android.widget.crouton.Style;
 
+import java.io.File;
+import java.util.Locale;
+
 /**
  * Abstract Ariadne Activity class, contains the common methods
  * to connect to LocationService. Other activities that need LocationService
@@ -67,6 +82,10 @@ abstract class AbstractGetBackGpsActivity extends Activity
      * Interface to LocationService instance.
      */
     private LocationService mService;
+    /**
+     * Binder of LocationService.
+     */
+    private LocationBinder mBinder;
     /**
      * Connection state with LocationService.
      */
@@ -77,6 +96,11 @@ abstract class AbstractGetBackGpsActivity extends Activity
      */
     private long mUpdatedTimestamp = 0;
 
+    /**
+     * True if the first display milestone was recorded.
+     */
+    private boolean mFirstDisplayMarked = false;
+
     /**
      * Activity update rate in nanoseconds (500ms).
      */
@@ -87,6 +111,28 @@ abstract class AbstractGetBackGpsActivity extends Activity
      */
     private static final int REQUEST_LOCATION = 0;
 
+    /**
+     * Id to identify a request to select a file to import destinations from.
+     */
+    private static final int REQUEST_IMPORT_DESTINATIONS = 1;
+
+    /**
+     * Name of the thread loading the list of destinations.
+     */
+    private static final String THREAD_SELECT_DESTINATION
+            = "SelectDestination";
+
+    /**
+     * Authority of the FileProvider sharing exported files,
+     * appended to the package name (see AndroidManifest.xml).
+     */
+    private static final String FILE_PROVIDER_AUTHORITY = ".fileprovider";
+
+    /**
+     * Mime type of GPX files.
+     */
+    private static final String MIME_TYPE_GPX = "application/gpx+xml";
+
     /**
      * Permissions required to update location.
      */
@@ -152,6 +198,42 @@ abstract class AbstractGetBackGpsActivity extends Activity
      */
     private Crouton crDestinationReached;
 
+    /**
+     * Display field : current speed.
+     */
+    protected static final int FIELD_CURRENT_SPEED = 0;
+
+    /**
+     * Display field : current bearing.
+     */
+    protected static final int FIELD_CURRENT_BEARING = 1;
+
+    /**
+     * First display field that can be used by a subclass.
+     */
+    protected static final int FIELD_FIRST_CUSTOM = 2;
+
+    /**
+     * Maximum number of display fields.
+     */
+    private static final int DISPLAY_FIELDS = 16;
+
+    /**
+     * Binds the display state to the views.
+     */
+    private final DisplayStateBinder mDisplayBinder
+            = new DisplayStateBinder(new DisplayState(DISPLAY_FIELDS));
+
+    /**
+     * 'Inaccurate' text.
+     */
+    private String mInaccurateText;
+
+    /**
+     * Formats the current bearing.
+     */
+    private CardinalDirection mCurrentBearingDirection;
+
     @Override
     public boolean onCreateOptionsMenu(final Menu menu) {
         // Inflate the menu;
@@ -163,6 +245,13 @@ abstract class AbstractGetBackGpsActivity extends Activity
     @Override
     protected final void onStart() {
         super.onStart();
+        // Unit system could be changed in the settings
+        FormatUtils.setUnitSystem(Integer.parseInt(
+                PreferenceManager.getDefaultSharedPreferences(this)
+                .getString(
+                        SettingsActivity.KEY_PREF_UNIT_SYSTEM,
+                        SettingsActivity.DEFAULT_PREF_UNIT_SYSTEM)));
+
         // Bind to LocationService
         Intent intent = new Intent(this, LocationService.class);
         bindService(intent, mConnection, Context.BIND_AUTO_CREATE);
@@ -173,6 +262,9 @@ abstract class AbstractGetBackGpsActivity extends Activity
         super.onStop();
         // Unbind from the service
         if (mBound) {
+            mService.releaseSensorUpdates(this);
+            mBinder.unregisterListener(mListener);
+            mBinder = null;
             unbindService(mConnection);
             mBound = false;
         }
@@ -182,6 +274,10 @@ abstract class AbstractGetBackGpsActivity extends Activity
     protected void onCreate(final Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        // texts and formatters used when refreshing
+        mInaccurateText = getResources().getString(R.string.inaccurate);
+        mCurrentBearingDirection = new CardinalDirection(this, 0);
+
         // create Crouton configuration
         Configuration croutonConfig = new Configuration.Builder()
                 .setDuration(Configuration.DURATION_INFINITE)
@@ -326,7 +422,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
                                     double locationLongitude
                                             = Double.parseDouble(etLocationLongitude.getText().toString());
 
-                                    if (locationLatitude < -90 || locationLatitude > 90) {
+                                    if (!Latitude.isValid(locationLatitude)) {
                                         Toast.makeText(
                                                 AbstractGetBackGpsActivity.this,
                                                 R.string.enter_location_invalid_latitude,
@@ -335,7 +431,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
                                         return;
                                     }
 
-                                    if (locationLongitude < -180.0 || locationLongitude > 180.0) {
+                                    if (!Longitude.isValid(locationLongitude)) {
                                         Toast.makeText(
                                                 AbstractGetBackGpsActivity.this,
                                                 R.string.enter_location_invalid_longitude,
@@ -493,6 +589,238 @@ abstract class AbstractGetBackGpsActivity extends Activity
         startActivity(intent);
     }
 
+    /**
+     * Called when the user clicks the Select Destination menu item.
+     * It displays a list of the imported destinations,
+     * the selected destination is stored as the current destination.
+     * The list is loaded on a background thread.
+     */
+    public final void selectDestination() {
+        final DestinationDatabase database = new DestinationDatabase(this);
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Cursor cursor = database.queryDestinationList();
+                // getCount() fills the cursor window
+                final int count = cursor.getCount();
+
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (count == 0 || isFinishing()) {
+                            cursor.close();
+                            database.close();
+                            if (count == 0) {
+                                Toast.makeText(
+                                        AbstractGetBackGpsActivity.this,
+                                        R.string.select_destination_empty,
+                                        Toast.LENGTH_LONG
+                                ).show();
+                            }
+                            return;
+                        }
+
+                        showDestinationList(database, cursor);
+                    }
+                });
+            }
+        }, THREAD_SELECT_DESTINATION).start();
+    }
+
+    /**
+     * Displays a dialog with the destinations of the cursor,
+     * the selected destination is stored as the current destination.
+     * The cursor and the database are closed when the dialog is closed.
+     *
+     * @param database Database the cursor was queried from
+     * @param cursor Cursor returned by queryDestinationList()
+     */
+    private void showDestinationList(final DestinationDatabase database,
+                                     final Cursor cursor) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(R.string.select_destination)
+                .setCursor(cursor,
+                        new DialogInterface.OnClickListener() {
+                            public void onClick(final DialogInterface dialog,
+                                                final int which) {
+                                if (!cursor.moveToPosition(which)) {
+                                    return;
+                                }
+
+                                // unnamed destinations are stored
+                                // with their coordinates as name
+                                String label = cursor.getString(
+                                        cursor.getColumnIndexOrThrow(
+                                        DestinationDatabase.COLUMN_LABEL));
+                                double latitude = cursor.getDouble(
+                                        cursor.getColumnIndexOrThrow(
+                                        DestinationDatabase.COLUMN_LATITUDE));
+                                double longitude = cursor.getDouble(
+                                        cursor.getColumnIndexOrThrow(
+                                        DestinationDatabase.COLUMN_LONGITUDE));
+                                int altitudeIndex
+                                        = cursor.getColumnIndexOrThrow(
+                                        DestinationDatabase.COLUMN_ALTITUDE);
+                                double altitude = Double.NaN;
+                                if (!cursor.isNull(altitudeIndex)) {
+                                    altitude = cursor.getDouble(altitudeIndex);
+                                }
+
+                                // store selected destination
+                                // and refresh display
+                                if (mBound) {
+                                    mService.storeLocation(label, latitude,
+                                            longitude, altitude);
+                                }
+                                refreshDisplay();
+                            }
+                        },
+                        DestinationDatabase.COLUMN_LABEL)
+                .setNegativeButton(R.string.cancel,
+                        new DialogInterface.OnClickListener() {
+                            public void onClick(final DialogInterface dialog,
+                                                final int id) {
+                                // User cancelled the dialog
+                            }
+                        });
+
+        // Create the AlertDialog object and display it,
+        // the database is closed when the dialog is closed
+        AlertDialog alertDialog = builder.create();
+        alertDialog.setOnDismissListener(
+                new DialogInterface.OnDismissListener() {
+                    @Override
+                    public void onDismiss(final DialogInterface dialog) {
+                        cursor.close();
+                        database.close();
+                    }
+                });
+        alertDialog.show();
+    }
+
+    /**
+     * Lets the user select a GPX or KML file to import destinations from.
+     */
+    public final void importDestinations() {
+        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        // GPX and KML files don't have a common mime type
+        intent.setType("*/*");
+
+        try {
+            startActivityForResult(intent, REQUEST_IMPORT_DESTINATIONS);
+        } catch (ActivityNotFoundException e) {
+            Toast.makeText(
+                    this,
+                    R.string.import_destinations_failed,
+                    Toast.LENGTH_LONG
+            ).show();
+        }
+    }
+
+    /**
+     * Exports the destinations and recorded positions to a GPX file,
+     * and lets the user share the file.
+     */
+    public final void shareGpx() {
+        if (!isBound()) {
+            return;
+        }
+
+        Navigator<AriadneLocation> navigator = getNavigator();
+        AriadneLocation[] positions = {
+                navigator == null ? null : navigator.getPreviousLocation(),
+                mService.getLocation()};
+
+        new GpxExporter(this, mService.getDestination(), positions, mHandler,
+                new GpxExporter.Callback() {
+                    @Override
+                    public void onExportFinished(final File file,
+                                                 final long count) {
+                        if (file == null) {
+                            Toast.makeText(
+                                    AbstractGetBackGpsActivity.this,
+                                    R.string.share_gpx_failed,
+                                    Toast.LENGTH_LONG
+                            ).show();
+                            return;
+                        }
+
+                        shareFile(file, MIME_TYPE_GPX);
+                    }
+                }).start();
+    }
+
+    /**
+     * Shares a file in the export directory with another app.
+     *
+     * @param file shared file
+     * @param mimeType mime type of the file
+     */
+    private void shareFile(final File file, final String mimeType) {
+        try {
+            Uri uri = FileProvider.getUriForFile(this,
+                    getPackageName() + FILE_PROVIDER_AUTHORITY, file);
+
+            Intent intent = new Intent(Intent.ACTION_SEND);
+            intent.setType(mimeType);
+            intent.putExtra(Intent.EXTRA_STREAM, uri);
+            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+            startActivity(Intent.createChooser(intent,
+                    getResources().getString(R.string.share_gpx)));
+        } catch (IllegalArgumentException | ActivityNotFoundException e) {
+            Toast.makeText(
+                    this,
+                    R.string.share_gpx_failed,
+                    Toast.LENGTH_LONG
+            ).show();
+        }
+    }
+
+    @Override
+    protected void onActivityResult(final int requestCode,
+                                    final int resultCode,
+                                    final Intent data) {
+        if (requestCode != REQUEST_IMPORT_DESTINATIONS) {
+            super.onActivityResult(requestCode, resultCode, data);
+            return;
+        }
+
+        if (resultCode != Activity.RESULT_OK || data == null
+                || data.getData() == null) {
+            return;
+        }
+
+        new DestinationImporter(this, data.getData(), mHandler,
+                new DestinationImporter.Callback() {
+                    @Override
+                    public void onImportFinished(final long imported,
+                                                 final long duplicates,
+                                                 final long skipped,
+                                                 final long ignored,
+                                                 final boolean success) {
+                        String message;
+                        if (success) {
+                            message = String.format(
+                                    Locale.getDefault(),
+                                    getResources().getString(
+                                            R.string.destinations_imported),
+                                    imported, duplicates, skipped, ignored);
+                        } else {
+                            message = getResources().getString(
+                                    R.string.import_destinations_failed);
+                        }
+                        Toast.makeText(
+                                AbstractGetBackGpsActivity.this,
+                                message,
+                                Toast.LENGTH_LONG
+                        ).show();
+                    }
+                }).start();
+    }
+
     @Override
     public boolean onOptionsItemSelected(final MenuItem item) {
         // One of the group items (using the onClick attribute) was clicked
@@ -514,6 +842,15 @@ abstract class AbstractGetBackGpsActivity extends Activity
         } else if (itemId == R.id.menu_renamedestination) {
             renameDestination();
             return true;
+        } else if (itemId == R.id.menu_selectdestination) {
+            selectDestination();
+            return true;
+        } else if (itemId == R.id.menu_importdestinations) {
+            importDestinations();
+            return true;
+        } else if (itemId == R.id.menu_sharegpx) {
+            shareGpx();
+            return true;
         } else if (itemId == R.id.menu_refresh) {
             refresh(item);
             return true;
@@ -538,6 +875,15 @@ abstract class AbstractGetBackGpsActivity extends Activity
         return super.onPrepareOptionsMenu(menu);
     }
 
+    /**
+     * Get the sensor update interval this activity needs while it is visible.
+     *
+     * @return update interval in microseconds
+     */
+    protected int getSensorUpdateInterval() {
+        return SensorOrientation.UPDATE_INTERVAL_DEFAULT;
+    }
+
     /**
      * Refresh display : refresh the values of Location Provider, Location, ...
      *
@@ -552,6 +898,12 @@ abstract class AbstractGetBackGpsActivity extends Activity
         }
 
         mUpdatedTimestamp = Tools.getTimestampNano();
+        // the milestone is only recorded once, don't look it up every refresh
+        if (!mFirstDisplayMarked) {
+            mService.getStartupTimings().mark(
+                    LocationService.STARTUP_FIRST_DISPLAY, mUpdatedTimestamp);
+            mFirstDisplayMarked = true;
+        }
 
         if (!mService.isLocationPermissionGranted()) {
             requestLocationPermission();
@@ -568,7 +920,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
     protected final void refreshCrouton() {
         // only refresh items if activity is bound to service
         // connection state is checked in getNavigator
-        Navigator navigator = getNavigator();
+        Navigator<AriadneLocation> navigator = getNavigator();
 
         if (navigator == null) {
             return;
@@ -593,7 +945,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
                     CroutonStatusNew = CROUTON_STATUS_NO_DESTINATION;
                 } else {
                     // destination was reached
-                    if (navigator.isDestinationReached()) {
+                    if (navigator.isArrived()) {
                         CroutonStatusNew = CROUTON_STATUS_DESTINATION_REACHED;
                     } else {
                         // if bearing is inaccurate, display warning
@@ -663,23 +1015,27 @@ abstract class AbstractGetBackGpsActivity extends Activity
     public final void refreshCurrentViews(final boolean displayInaccurate) {
         // only refresh items if activity is bound to service
         // connection state is checked in getNavigator
-        Navigator navigator = getNavigator();
+        Navigator<AriadneLocation> navigator = getNavigator();
 
         if (navigator == null) {
             return;
         }
 
-        Resources res = getResources();
+        DisplayStateBinder binder = getDisplayBinder();
+        DisplayState state = binder.getState();
 
-        // Get "Current" TextViews
-        TextView tvCurrentSpeed
-                = (TextView) findViewById(R.id.textView_currSpeed);
-        TextView tvCurrentBearing
-                = (TextView) findViewById(R.id.textView_currBearing);
+        // "Current" TextViews are part of the layout of the subclass,
+        // look them up once, when they are first refreshed
+        if (!binder.isBound(FIELD_CURRENT_SPEED)) {
+            binder.bindText(FIELD_CURRENT_SPEED,
+                    (TextView) findViewById(R.id.textView_currSpeed));
+            binder.bindText(FIELD_CURRENT_BEARING,
+                    (TextView) findViewById(R.id.textView_currBearing));
+        }
 
         // Define strings
-        String currentSpeedText = res.getString(R.string.inaccurate);
-        String currentBearingText = res.getString(R.string.inaccurate);
+        String currentSpeedText = mInaccurateText;
+        String currentBearingText = mInaccurateText;
 
         // Update current speed
         if (displayInaccurate || navigator.isLocationAccurate()) {
@@ -689,17 +1045,28 @@ abstract class AbstractGetBackGpsActivity extends Activity
 
         // Update current bearing
         if (displayInaccurate || navigator.isBearingAccurate()) {
-            CardinalDirection cd = new CardinalDirection(
-                    this,
-                    FormatUtils.normalizeAngle(
+            mCurrentBearingDirection.setValue(
+                    AngleMath.normalize(
                             navigator.getCurrentBearing()));
 
-            currentBearingText = cd.format();
+            currentBearingText = mCurrentBearingDirection.format();
         }
 
-        // update views
-        tvCurrentSpeed.setText(currentSpeedText);
-        tvCurrentBearing.setText(currentBearingText);
+        // update views, only changed texts are set
+        state.setText(FIELD_CURRENT_SPEED, currentSpeedText);
+        state.setText(FIELD_CURRENT_BEARING, currentBearingText);
+        binder.apply();
+    }
+
+    /**
+     * Returns the binder of the display state to the views,
+     * subclasses bind their views to display fields,
+     * starting from FIELD_FIRST_CUSTOM.
+     *
+     * @return display state binder
+     */
+    protected final DisplayStateBinder getDisplayBinder() {
+        return mDisplayBinder;
     }
 
     /**
@@ -729,7 +1096,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
      *
      * @return Navigator
      */
-    protected final Navigator getNavigator() {
+    protected final Navigator<AriadneLocation> getNavigator() {
         LocationService service = getService();
 
         if (service == null) {
@@ -749,13 +1116,17 @@ abstract class AbstractGetBackGpsActivity extends Activity
                 final ComponentName className, final IBinder service) {
             // We've bound to LocationService, cast the IBinder
             // and get LocationService instance
-            LocationBinder binder = (LocationBinder) service;
-            mService = binder.getService();
+            mBinder = (LocationBinder) service;
+            mService = mBinder.getService();
             mBound = true;
 
             // We want to monitor the service for as long as we are
-            // connected to it.
-            binder.registerCallback(mCallback);
+            // connected to it, the service runs in the same process,
+            // so updates are posted to the main thread without Binder calls.
+            mBinder.registerListener(mListener, mHandler);
+            // sensors are only needed while the activity is visible
+            mService.requestSensorUpdates(AbstractGetBackGpsActivity.this,
+                    getSensorUpdateInterval());
 
             refreshDisplay();
         }
@@ -767,16 +1138,21 @@ abstract class AbstractGetBackGpsActivity extends Activity
     };
 
     /**
-     * This implementation is used to receive callbacks
-     * from the remote service.
+     * Handler of the main thread, used to receive service updates.
+     */
+    private final Handler mHandler = new Handler();
+
+    /**
+     * This implementation is used to receive updates
+     * from the service.
      */
-    private final ILocationServiceCallback mCallback
-            = new ILocationServiceCallback.Stub() {
+    private final LocationServiceListener mListener
+            = new LocationServiceListener() {
         /**
          * Called by the LocationService when a location is updated,
          * it gets the new location and refreshes the display.
          */
-        public void locationUpdated() {
+        public void onLocationUpdated() {
             refreshDisplay();
         }
 
@@ -784,7 +1160,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
          * Called by the LocationService when a orientation is updated,
          * it gets the new location provider and refreshes the display.
          */
-        public void orientationUpdated() {
+        public void onOrientationUpdated() {
             refreshDisplay();
         }
 
@@ -792,7 +1168,7 @@ abstract class AbstractGetBackGpsActivity extends Activity
          * Called by the LocationService when a location provider is updated,
          * it gets the new location provider and refreshes the display.
          */
-        public void providerUpdated() {
+        public void onProviderUpdated() {
             refreshDisplay();
         }
     };
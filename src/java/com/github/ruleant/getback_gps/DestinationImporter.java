@@ -0,0 +1,213 @@
+/**
+ * Destination importer
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.util.Xml;
+
+import com.github.ruleant.getback_gps.lib.DestinationDatabase;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
+import com.github.ruleant.getback_gps.lib.Tools;
+import com.github.ruleant.getback_gps.lib.WaypointParser;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+
+/**
+ * Imports GPX waypoints and KML placemarks from a file
+ * into the destination database, on a background thread.
+ * The file is parsed while it is read, and destinations are inserted
+ * in batched transactions, so memory use doesn't depend on the file size.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+class DestinationImporter implements Runnable {
+    /**
+     * Callback interface, called on the thread of the handler
+     * when the import is finished.
+     */
+    interface Callback {
+        /**
+         * Called when the import is finished.
+         *
+         * @param imported number of imported destinations
+         * @param duplicates number of destinations that were already stored
+         * @param skipped number of skipped waypoints, with an invalid location
+         * @param ignored number of ignored placemarks, without a Point
+         * @param success false if the file could not be read or parsed
+         */
+        void onImportFinished(long imported, long duplicates, long skipped,
+                              long ignored, boolean success);
+    }
+
+    /**
+     * Name of the import thread.
+     */
+    private static final String THREAD_NAME = "DestinationImporter";
+
+    /**
+     * Trace section name for importing a file.
+     */
+    private static final String TRACE_IMPORT = "DestinationImporter.run";
+
+    /**
+     * Size of the input buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 16384;
+
+    /**
+     * Context of the Android app.
+     */
+    private final Context mContext;
+
+    /**
+     * Uri of the imported file.
+     */
+    private final Uri mUri;
+
+    /**
+     * Handler of the thread the callback is called on.
+     */
+    private final Handler mHandler;
+
+    /**
+     * Callback called when the import is finished.
+     */
+    private final Callback mCallback;
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of imported destinations.
+     */
+    private final int mMetricImported
+            = mMetrics.registerCounter("import.destinations");
+
+    /**
+     * Metric id : number of duplicate destinations.
+     */
+    private final int mMetricDuplicates
+            = mMetrics.registerCounter("import.duplicates");
+
+    /**
+     * Metric id : number of skipped waypoints.
+     */
+    private final int mMetricSkipped
+            = mMetrics.registerCounter("import.skipped");
+
+    /**
+     * Metric id : number of ignored placemarks.
+     */
+    private final int mMetricIgnored
+            = mMetrics.registerCounter("import.ignored");
+
+    /**
+     * Constructor.
+     *
+     * @param context Context of the Android app
+     * @param uri Uri of the GPX or KML file
+     * @param handler Handler of the thread the callback is called on
+     * @param callback Callback called when the import is finished
+     */
+    DestinationImporter(final Context context, final Uri uri,
+                        final Handler handler, final Callback callback) {
+        if (context == null || uri == null || handler == null
+                || callback == null) {
+            throw new IllegalArgumentException(
+                    "Parameters should not be null");
+        }
+
+        mContext = context.getApplicationContext();
+        mUri = uri;
+        mHandler = handler;
+        mCallback = callback;
+    }
+
+    /**
+     * Starts the import on a background thread.
+     */
+    public final void start() {
+        new Thread(this, THREAD_NAME).start();
+    }
+
+    @Override
+    public final void run() {
+        DestinationDatabase database = new DestinationDatabase(mContext);
+        DestinationDatabase.BatchInserter inserter = null;
+        WaypointParser parser = null;
+        boolean success = false;
+        InputStream input = null;
+
+        Tools.beginTraceSection(TRACE_IMPORT);
+        try {
+            input = mContext.getContentResolver().openInputStream(mUri);
+            if (input != null) {
+                inserter = database.newBatchInserter();
+                parser = new WaypointParser(inserter);
+                parser.parse(Xml.newPullParser(),
+                        new BufferedInputStream(input, BUFFER_SIZE));
+                inserter.finish();
+                success = true;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (inserter != null) {
+                inserter.abort();
+            }
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            database.close();
+            Tools.endTraceSection();
+        }
+
+        final long imported
+                = inserter == null ? 0 : inserter.getInsertedCount();
+        final long duplicates
+                = inserter == null ? 0 : inserter.getDuplicateCount();
+        final long skipped = parser == null ? 0 : parser.getSkippedCount();
+        final long ignored = parser == null ? 0 : parser.getIgnoredCount();
+        final boolean result = success;
+        mMetrics.add(mMetricImported, imported);
+        mMetrics.add(mMetricDuplicates, duplicates);
+        mMetrics.add(mMetricSkipped, skipped);
+        mMetrics.add(mMetricIgnored, ignored);
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mCallback.onImportFinished(imported, duplicates, skipped,
+                        ignored, result);
+            }
+        });
+    }
+}
@@ -25,9 +25,11 @@ import android.content.res.Resources;
 import android.os.Bundle;
 import android.widget.TextView;
 
+import com.github.ruleant.getback_gps.lib.AngleMath;
 import com.github.ruleant.getback_gps.lib.AriadneLocation;
 import com.github.ruleant.getback_gps.lib.CardinalDirection;
 import com.github.ruleant.getback_gps.lib.FormatUtils;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
 import com.github.ruleant.getback_gps.lib.Navigator;
 
 /**
@@ -55,7 +57,7 @@ public class DetailsActivity extends AbstractGetBackGpsActivity {
         // only refresh items if activity is bound to service
         // connection state is checked in getNavigator
         LocationService service = getService();
-        Navigator navigator = getNavigator();
+        Navigator<AriadneLocation> navigator = getNavigator();
 
         if (service == null || navigator == null) {
             return false;
@@ -166,7 +168,7 @@ public class DetailsActivity extends AbstractGetBackGpsActivity {
 
             CardinalDirection cd = new CardinalDirection(
                     this,
-                    FormatUtils.normalizeAngle(
+                    AngleMath.normalize(
                             navigator.getAbsoluteDirection()));
 
             toDestinationText += " "
@@ -186,6 +188,18 @@ public class DetailsActivity extends AbstractGetBackGpsActivity {
         }
         tvToDestination.setText(toDestinationText);
 
+        // Refresh startup timings
+        TextView tvStartupTimings
+                = (TextView) findViewById(R.id.textView_StartupTimings);
+        tvStartupTimings.setText(res.getString(R.string.startup_timings)
+                + ":\n" + service.getStartupTimings().toString());
+
+        // Refresh metrics
+        TextView tvMetrics
+                = (TextView) findViewById(R.id.textView_Metrics);
+        tvMetrics.setText(res.getString(R.string.metrics) + ":\n"
+                + MetricsRegistry.getDefault().dump());
+
         return true;
     }
 }
@@ -0,0 +1,188 @@
+/**
+ * Display state binder
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+import android.view.View;
+import android.widget.TextView;
+
+import com.github.ruleant.getback_gps.lib.DisplayState;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
+
+/**
+ * Binds the fields of a DisplayState to views,
+ * and updates only the views of the fields that changed.
+ * The view references are looked up once, when they are bound.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+class DisplayStateBinder {
+    /**
+     * Binding type : field is not bound.
+     */
+    private static final int BINDING_NONE = 0;
+
+    /**
+     * Binding type : field text is displayed in a TextView.
+     */
+    private static final int BINDING_TEXT = 1;
+
+    /**
+     * Binding type : field value is the visibility of a View.
+     */
+    private static final int BINDING_VISIBILITY = 2;
+
+    /**
+     * Display state.
+     */
+    private final DisplayState mState;
+
+    /**
+     * Bound views, per field.
+     */
+    private final View[] mViews;
+
+    /**
+     * Binding type, per field.
+     */
+    private final int[] mBindings;
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of views updated.
+     */
+    private final int mMetricViewUpdates
+            = mMetrics.registerCounter("display.view_updates");
+
+    /**
+     * Metric id : number of times the display state was applied.
+     */
+    private final int mMetricApplies
+            = mMetrics.registerCounter("display.applies");
+
+    /**
+     * Constructor.
+     *
+     * @param state display state
+     */
+    DisplayStateBinder(final DisplayState state) {
+        if (state == null) {
+            throw new IllegalArgumentException(
+                    "Parameter state should not be null");
+        }
+
+        mState = state;
+        mViews = new View[state.getSize()];
+        mBindings = new int[state.getSize()];
+    }
+
+    /**
+     * Get display state.
+     *
+     * @return display state
+     */
+    public final DisplayState getState() {
+        return mState;
+    }
+
+    /**
+     * Binds the text of a field to a TextView.
+     *
+     * @param field field index
+     * @param view TextView displaying the text
+     */
+    public final void bindText(final int field, final TextView view) {
+        bind(field, view, BINDING_TEXT);
+    }
+
+    /**
+     * Binds the value of a field to the visibility of a View.
+     *
+     * @param field field index
+     * @param view View of which the visibility is set
+     */
+    public final void bindVisibility(final int field, final View view) {
+        bind(field, view, BINDING_VISIBILITY);
+    }
+
+    /**
+     * Checks if a field is bound to a view.
+     *
+     * @param field field index
+     * @return true if field is bound
+     */
+    public final boolean isBound(final int field) {
+        return mBindings[field] != BINDING_NONE;
+    }
+
+    /**
+     * Updates the views of the changed fields, and clears the changes.
+     */
+    public final void apply() {
+        mMetrics.increment(mMetricApplies);
+
+        if (mState.getChangeCount() == 0) {
+            return;
+        }
+
+        for (int field = 0; field < mViews.length; field++) {
+            if (!mState.isChanged(field)) {
+                continue;
+            }
+
+            switch (mBindings[field]) {
+                case BINDING_TEXT:
+                    ((TextView) mViews[field]).setText(mState.getText(field));
+                    mMetrics.increment(mMetricViewUpdates);
+                    break;
+                case BINDING_VISIBILITY:
+                    mViews[field].setVisibility(mState.getValue(field));
+                    mMetrics.increment(mMetricViewUpdates);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        mState.clearChanges();
+    }
+
+    /**
+     * Binds a field to a view.
+     *
+     * @param field field index
+     * @param view bound view
+     * @param binding binding type
+     */
+    private void bind(final int field, final View view, final int binding) {
+        if (view == null) {
+            throw new IllegalArgumentException(
+                    "Parameter view should not be null");
+        }
+
+        mViews[field] = view;
+        mBindings[field] = binding;
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * GPX exporter
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+
+import com.github.ruleant.getback_gps.lib.AriadneLocation;
+import com.github.ruleant.getback_gps.lib.DestinationDatabase;
+import com.github.ruleant.getback_gps.lib.GpxWriter;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
+import com.github.ruleant.getback_gps.lib.Tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Exports the current destination, the stored destinations
+ * and the recorded positions to a GPX file, on a background thread.
+ * The stored destinations are read with a cursor and written
+ * with a streaming GpxWriter, so memory use doesn't depend
+ * on the number of destinations.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+class GpxExporter implements Runnable {
+    /**
+     * Callback interface, called on the thread of the handler
+     * when the export is finished.
+     */
+    interface Callback {
+        /**
+         * Called when the export is finished.
+         *
+         * @param file exported file, null if the export failed
+         * @param count number of exported points
+         */
+        void onExportFinished(File file, long count);
+    }
+
+    /**
+     * Directory in the cache directory with exported files,
+     * shared with the FileProvider (see res/xml/file_paths.xml).
+     */
+    static final String EXPORT_DIRECTORY = "exports";
+
+    /**
+     * Prefix of the name of an exported file,
+     * each export gets a unique file name.
+     */
+    static final String EXPORT_FILE_PREFIX = "ariadne-";
+
+    /**
+     * Extension of an exported file.
+     */
+    static final String EXPORT_FILE_SUFFIX = ".gpx";
+
+    /**
+     * Time after which an exported file is deleted, in milliseconds.
+     * It should be long enough for the app the file was shared with
+     * to read it.
+     */
+    private static final long EXPORT_EXPIRE = 3600000;
+
+    /**
+     * Name of the export thread.
+     */
+    private static final String THREAD_NAME = "GpxExporter";
+
+    /**
+     * Trace section name for exporting a file.
+     */
+    private static final String TRACE_EXPORT = "GpxExporter.run";
+
+    /**
+     * Name of the track with recorded positions.
+     */
+    private static final String TRACK_NAME = "Recorded positions";
+
+    /**
+     * Context of the Android app.
+     */
+    private final Context mContext;
+
+    /**
+     * Current destination, null if not set.
+     */
+    private final AriadneLocation mDestination;
+
+    /**
+     * Recorded positions, oldest first.
+     */
+    private final AriadneLocation[] mPositions;
+
+    /**
+     * Handler of the thread the callback is called on.
+     */
+    private final Handler mHandler;
+
+    /**
+     * Callback called when the export is finished.
+     */
+    private final Callback mCallback;
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of exported points.
+     */
+    private final int mMetricExported
+            = mMetrics.registerCounter("export.points");
+
+    /**
+     * Constructor.
+     *
+     * @param context Context of the Android app
+     * @param destination current destination, null if not set
+     * @param positions recorded positions, oldest first, may contain null
+     * @param handler Handler of the thread the callback is called on
+     * @param callback Callback called when the export is finished
+     */
+    GpxExporter(final Context context, final AriadneLocation destination,
+                final AriadneLocation[] positions, final Handler handler,
+                final Callback callback) {
+        if (context == null || positions == null || handler == null
+                || callback == null) {
+            throw new IllegalArgumentException(
+                    "Parameters should not be null");
+        }
+
+        mContext = context.getApplicationContext();
+        mDestination = destination;
+        mPositions = positions.clone();
+        mHandler = handler;
+        mCallback = callback;
+    }
+
+    /**
+     * Starts the export on a background thread.
+     */
+    public final void start() {
+        new Thread(this, THREAD_NAME).start();
+    }
+
+    @Override
+    public final void run() {
+        File directory = new File(mContext.getCacheDir(), EXPORT_DIRECTORY);
+        File file = null;
+        DestinationDatabase database = new DestinationDatabase(mContext);
+        GpxWriter writer = null;
+        Cursor cursor = null;
+        boolean success = false;
+
+        Tools.beginTraceSection(TRACE_EXPORT);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException(
+                        "Unable to create " + directory);
+            }
+            deleteExpiredFiles(directory);
+
+            // a unique file, so a running export doesn't overwrite
+            // a file that is still being read by the app it was shared with
+            file = File.createTempFile(
+                    EXPORT_FILE_PREFIX, EXPORT_FILE_SUFFIX, directory);
+            writer = new GpxWriter(new FileOutputStream(file),
+                    mContext.getPackageName());
+
+            if (mDestination != null) {
+                writer.writeWaypoint(mDestination);
+            }
+
+            cursor = database.queryDestinations();
+            while (cursor.moveToNext()) {
+                writer.writeWaypoint(
+                        cursor.isNull(0) ? null : cursor.getString(0),
+                        cursor.getDouble(1),
+                        cursor.getDouble(2),
+                        cursor.isNull(3) ? Double.NaN : cursor.getDouble(3),
+                        0, Double.NaN);
+            }
+
+            boolean trackStarted = false;
+            for (AriadneLocation position : mPositions) {
+                if (position == null) {
+                    continue;
+                }
+                if (!trackStarted) {
+                    writer.beginTrack(TRACK_NAME);
+                    trackStarted = true;
+                }
+                writer.writeTrackPoint(position);
+            }
+
+            writer.close();
+            success = true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            if (writer != null && !success) {
+                try {
+                    writer.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            if (file != null && !success) {
+                file.delete();
+            }
+            database.close();
+            Tools.endTraceSection();
+        }
+
+        final long count = writer == null ? 0 : writer.getPointCount();
+        final File result = success ? file : null;
+        mMetrics.add(mMetricExported, count);
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mCallback.onExportFinished(result, count);
+            }
+        });
+    }
+
+    /**
+     * Deletes exported files that are older than the expiry time.
+     *
+     * @param directory directory with exported files
+     */
+    private static void deleteExpiredFiles(final File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isFile() && !Tools.isTimeRecent(
+                    file.lastModified(), EXPORT_EXPIRE)) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -35,20 +35,33 @@ import android.location.LocationManager;
 import android.os.Binder;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.IBinder;
 import android.os.RemoteCallbackList;
 import android.os.RemoteException;
 import android.preference.PreferenceManager;
 import android.widget.Toast;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+
 import androidx.core.content.ContextCompat;
 
+import com.github.ruleant.getback_gps.lib.AngleMath;
 import com.github.ruleant.getback_gps.lib.AriadneLocation;
 import com.github.ruleant.getback_gps.lib.DebugLevel;
+import com.github.ruleant.getback_gps.lib.DeclinationCache;
+import com.github.ruleant.getback_gps.lib.Geofence;
+import com.github.ruleant.getback_gps.lib.GeomagneticDeclination;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
 import com.github.ruleant.getback_gps.lib.Navigator;
+import com.github.ruleant.getback_gps.lib.OrientationEvent;
+import com.github.ruleant.getback_gps.lib.OrientationEventListener;
+import com.github.ruleant.getback_gps.lib.SectionTimings;
 import com.github.ruleant.getback_gps.lib.SensorOrientation;
 import com.github.ruleant.getback_gps.lib.StoredDestination;
 import com.github.ruleant.getback_gps.lib.StoredLocation;
+import com.github.ruleant.getback_gps.lib.Tools;
 
 /**
  * Location Service provides the current location.
@@ -59,7 +72,7 @@ import com.github.ruleant.getback_gps.lib.StoredLocation;
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
 public class LocationService extends Service
-        implements SensorOrientation.OrientationEventListener {
+        implements OrientationEventListener {
     /**
      * SharedPreferences location for StoredDestination.
      */
@@ -75,6 +88,70 @@ public class LocationService extends Service
      */
     public static final String PREFS_PREV_LOC = "prev_location";
 
+    /**
+     * Startup section : create Navigator and SensorOrientation.
+     */
+    public static final String STARTUP_CREATE_NAVIGATOR = "create_navigator";
+
+    /**
+     * Startup section : restore stored destination.
+     */
+    public static final String STARTUP_RESTORE_DESTINATION
+            = "restore_destination";
+
+    /**
+     * Startup section : restore last known and previous location.
+     */
+    public static final String STARTUP_RESTORE_LOCATIONS = "restore_locations";
+
+    /**
+     * Startup section : select location provider.
+     */
+    public static final String STARTUP_SELECT_PROVIDER = "select_provider";
+
+    /**
+     * Startup section : register with location provider and sensors.
+     */
+    public static final String STARTUP_REGISTER = "register_updates";
+
+    /**
+     * Startup milestone : service is completely started.
+     */
+    public static final String STARTUP_COMPLETE = "startup_complete";
+
+    /**
+     * Startup milestone : first display refresh.
+     */
+    public static final String STARTUP_FIRST_DISPLAY = "first_display";
+
+    /**
+     * Startup milestone : first display of the arrow to the destination.
+     */
+    public static final String STARTUP_FIRST_ARROW = "first_arrow";
+
+    /**
+     * Name of the thread restoring the stored state.
+     */
+    private static final String STARTUP_THREAD_NAME = "LocationServiceStartup";
+
+    /**
+     * Trace section name for handling a location update.
+     */
+    private static final String TRACE_LOCATION_CHANGED
+            = "LocationService.onLocationChanged";
+
+    /**
+     * Minimum azimuth change in degrees before an orientation update
+     * is broadcast, smaller changes aren't visible.
+     */
+    private static final double ORIENTATION_BROADCAST_THRESHOLD = 0.1;
+
+    /**
+     * Trace section name for notifying bound activities.
+     */
+    private static final String TRACE_BROADCAST
+            = "LocationService.broadcast";
+
     /**
      * Binder given to clients.
      */
@@ -86,6 +163,19 @@ public class LocationService extends Service
      */
     private final RemoteCallbackList<ILocationServiceCallback> mCallbacks
             = new RemoteCallbackList<ILocationServiceCallback>();
+    /**
+     * Azimuth of the last broadcast orientation update, in degrees.
+     */
+    private double mBroadcastAzimuth = Double.NaN;
+    /**
+     * Sensor accuracy of the last broadcast orientation update.
+     */
+    private int mBroadcastAccuracy = 0;
+    /**
+     * In-process listeners, notified without Binder calls.
+     */
+    private final LocationServiceListenerList mListeners
+            = new LocationServiceListenerList();
     /**
      * Debug class instance.
      */
@@ -101,13 +191,14 @@ public class LocationService extends Service
      */
     private LocationManager mLocationManager;
     /**
-     * Name of the LocationProvider.
+     * Name of the LocationProvider,
+     * it is selected on the startup thread.
      */
-    private String mProviderName = "";
+    private volatile String mProviderName = "";
     /**
      * Navigator.
      */
-    private Navigator mNavigator = null;
+    private Navigator<AriadneLocation> mNavigator = null;
     /**
      * SensorOrientation class.
      */
@@ -124,9 +215,113 @@ public class LocationService extends Service
      * Stored location/destination.
      */
     private StoredDestination mStoredDestination = null;
+    /**
+     * Handler of the main thread, used to finish startup.
+     */
+    private final Handler mHandler = new Handler();
+    /**
+     * Durations of the startup sections.
+     */
+    private SectionTimings mStartupTimings = null;
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+    /**
+     * Metric id : number of received location updates.
+     */
+    private final int mMetricFixes
+            = mMetrics.registerCounter("location.fixes");
+    /**
+     * Metric id : time between the last two location updates in seconds.
+     */
+    private final int mMetricFixInterval
+            = mMetrics.registerGauge("location.fix_interval_s");
+    /**
+     * Metric id : time spent handling a location update in microseconds.
+     */
+    private final int mMetricFixTime = mMetrics.registerHistogram(
+            "location.fix_us", MetricsRegistry.DURATION_BUCKETS_US);
+    /**
+     * Metric id : number of notifications sent to bound activities.
+     */
+    private final int mMetricBroadcasts
+            = mMetrics.registerCounter("callbacks.broadcasts");
+    /**
+     * Metric id : time spent notifying bound activities in microseconds.
+     */
+    private final int mMetricBroadcastTime = mMetrics.registerHistogram(
+            "callbacks.broadcast_us", MetricsRegistry.DURATION_BUCKETS_US);
+    /**
+     * Metric id : time between an update and calling a registered
+     * callback, in microseconds.
+     */
+    private final int mMetricRemoteLatency = mMetrics.registerHistogram(
+            "callbacks.aidl_latency_us", MetricsRegistry.DURATION_BUCKETS_US);
+    /**
+     * Metric id : number of geofence enter and exit events.
+     */
+    private final int mMetricGeofenceEvents
+            = mMetrics.registerCounter("geofence.events");
+    /**
+     * Metric id : requested location update interval in seconds.
+     */
+    private final int mMetricUpdateInterval
+            = mMetrics.registerGauge("location.update_interval_s");
+    /**
+     * Real-time timestamp in nanoseconds of the last location update.
+     */
+    private long mLastFixTimestamp = 0;
+    /**
+     * Location update interval set in the preferences, in milliseconds.
+     */
+    private long mBaseUpdateTime = 0;
+    /**
+     * Minimum distance between location updates in meters.
+     */
+    private float mUpdateDistance = 0;
+    /**
+     * Requested location update interval in milliseconds,
+     * 0 if no location updates are requested.
+     */
+    private long mRequestedUpdateTime = 0;
+    /**
+     * Minimum relative change of the location update interval,
+     * before location updates are requested again.
+     */
+    private static final double UPDATE_INTERVAL_CHANGE = 0.25;
+    /**
+     * Metric id : number of times location updates were suspended,
+     * because the device was still.
+     */
+    private final int mMetricSuspends
+            = mMetrics.registerCounter("location.suspends");
+    /**
+     * Metric id : total time location updates were suspended
+     * in milliseconds.
+     */
+    private final int mMetricSuspendedTime
+            = mMetrics.registerCounter("location.suspended_ms");
+    /**
+     * True if location updates are suspended, because the device is still.
+     */
+    private boolean mUpdatesSuspended = false;
+    /**
+     * Real-time timestamp in nanoseconds when location updates
+     * were suspended.
+     */
+    private long mSuspendedTimestamp = 0;
+    /**
+     * Total time location updates were suspended in milliseconds,
+     * not including the current suspension.
+     */
+    private long mSuspendedTime = 0;
 
     @Override
     public final void onCreate() {
+        mStartupTimings = new SectionTimings(Tools.getTimestampNano());
+        long sectionStart = Tools.getTimestampNano();
+
         // Create debug class instance
         mDebug = new DebugLevel(this);
 
@@ -139,31 +334,122 @@ public class LocationService extends Service
                 this.getSystemService(Context.LOCATION_SERVICE);
 
         mSensorOrientation = new SensorOrientation(this);
-        mNavigator = new Navigator(mSensorOrientation);
+        mNavigator = new Navigator<>(mSensorOrientation);
+        mNavigator.getGeofence().setListener(mGeofenceListener);
+        mNavigator.setDeclinationCache(
+                new DeclinationCache(new GeomagneticDeclination()));
+        sectionStart = addStartupSection(
+                STARTUP_CREATE_NAVIGATOR, sectionStart);
+
+        // retrieve stored destination first,
+        // so it can be displayed as soon as an activity is bound
+        mStoredDestination = new StoredDestination(this, PREFS_STORE_DEST);
+        setDestination(mStoredDestination.getLocation());
+        addStartupSection(STARTUP_RESTORE_DESTINATION, sectionStart);
+
+        // restore the other locations and select the location provider
+        // in the background, registering for updates is done
+        // when that is finished, see finishStartup()
+        new Thread(mStartupRunnable, STARTUP_THREAD_NAME).start();
+    }
+
+    /**
+     * Restores the stored locations and selects the location provider.
+     * Runs on the startup thread, when finished,
+     * the rest of the startup is handed over to the main thread.
+     */
+    private final Runnable mStartupRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long sectionStart = Tools.getTimestampNano();
+
+            // retrieve last known good location and previous location
+            final StoredLocation lastLocation = new StoredLocation(
+                    getApplicationContext(), PREFS_LAST_LOC);
+            final StoredLocation prevLocation = new StoredLocation(
+                    getApplicationContext(), PREFS_PREV_LOC);
+            sectionStart = addStartupSection(
+                    STARTUP_RESTORE_LOCATIONS, sectionStart);
+
+            // mProviderName is set by selectLocationProvider
+            if (hasLocationPermission()) {
+                selectLocationProvider();
+            }
+            addStartupSection(STARTUP_SELECT_PROVIDER, sectionStart);
+
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    finishStartup(lastLocation, prevLocation);
+                }
+            });
+        }
+    };
+
+    /**
+     * Finish startup on the main thread : set restored locations
+     * and register for location and sensor updates.
+     *
+     * @param lastLocation restored last known good location
+     * @param prevLocation restored previous location
+     */
+    private void finishStartup(final StoredLocation lastLocation,
+                               final StoredLocation prevLocation) {
+        // service was destroyed before startup was finished
+        if (mNavigator == null) {
+            return;
+        }
+
+        long sectionStart = Tools.getTimestampNano();
 
-        // retrieve last known good location
-        mLastLocation = new StoredLocation(
-                this.getApplicationContext(), PREFS_LAST_LOC);
+        mLastLocation = lastLocation;
         setLocation(mLastLocation.getLocation());
 
-        // retrieve previous location
-        mPrevLocation = new StoredLocation(this, PREFS_PREV_LOC);
+        // restore previous location after setting the current location,
+        // setLocation() moves the current location to the previous one.
+        mPrevLocation = prevLocation;
         mNavigator.setPreviousLocation(mPrevLocation.getLocation());
 
-        // retrieve stored destination
-        mStoredDestination = new StoredDestination(this, PREFS_STORE_DEST);
-        setDestination(mStoredDestination.getLocation());
-
-        // mProviderName is set by updateLocationProvider
-        updateLocationProvider();
-        // and used in requestUpdatesFromProvider, which sets location
+        // mProviderName is used in requestUpdatesFromProvider,
+        // which sets location
         requestUpdatesFromProvider();
 
         // Subscribe to sensor events
         if (mSensorOrientation.hasSensors()
                 && mSensorOrientation.isSensorsEnabled()) {
-            mSensorOrientation.addEventListener(this);
+            // stillness detection uses the accelerometer,
+            // so it should be enabled before subscribing
+            // the accelerometer is needed in the background
+            long stillPeriod = getStillPeriod();
+            if (stillPeriod > 0) {
+                mSensorOrientation.enableStillnessDetection(
+                        stillPeriod, mMotionListener);
+                mSensorOrientation.requestUpdates(mMotionListener,
+                        SensorOrientation.UPDATE_INTERVAL_BACKGROUND);
+            }
+            // sensors are registered when a visible activity requests them
+            mSensorOrientation.addEventListener(this, mHandler);
         }
+        addStartupSection(STARTUP_REGISTER, sectionStart);
+        mStartupTimings.mark(STARTUP_COMPLETE, Tools.getTimestampNano());
+
+        // Notify bound Activities of the restored location
+        notifyLocationUpdated(System.nanoTime());
+    }
+
+    /**
+     * Records the duration of a startup section, ending now.
+     *
+     * @param name Name of the section
+     * @param sectionStart Start timestamp of the section in nanoseconds
+     * @return timestamp in nanoseconds when the section ended
+     */
+    private long addStartupSection(final String name,
+                                   final long sectionStart) {
+        long sectionEnd = Tools.getTimestampNano();
+        mStartupTimings.addSection(name, sectionStart, sectionEnd);
+
+        return sectionEnd;
     }
 
     @Override
@@ -172,23 +458,39 @@ public class LocationService extends Service
 
         // Unregister all callbacks.
         mCallbacks.kill();
+        mListeners.clear();
+
+        // cancel pending startup tasks
+        mHandler.removeCallbacksAndMessages(null);
 
         // unsubscribe from LocationManager updates
         mLocationManager.removeUpdates(mListener);
+        mRequestedUpdateTime = 0;
+        endSuspension();
 
         // unsubscribe from SensorOrientation sensor events
         mSensorOrientation.removeEventListener(this);
+        mSensorOrientation.releaseUpdates(mMotionListener);
+        mSensorOrientation.disableStillnessDetection();
+        // sensors can still be registered by other consumers
+        mSensorOrientation.saveCalibration();
 
-        // save stored locations
-        mLastLocation.save();
-        mPrevLocation.setLocation(mNavigator.getPreviousLocation());
-        mPrevLocation.save();
+        // save stored locations,
+        // last and previous location are only set when startup is finished
+        if (mLastLocation != null) {
+            mLastLocation.save();
+        }
+        if (mPrevLocation != null) {
+            mPrevLocation.setLocation(mNavigator.getPreviousLocation());
+            mPrevLocation.save();
+        }
         mStoredDestination.save();
 
         // cleanup class properties
         mProviderName = "";
         mLocationManager = null;
         mLastLocation = null;
+        mPrevLocation = null;
         mStoredDestination = null;
         mSensorOrientation = null;
         mNavigator = null;
@@ -233,6 +535,17 @@ public class LocationService extends Service
      * Define best location provider based on certain criteria
      */
     public final void updateLocationProvider() {
+        if (isLocationPermissionGranted()) {
+            selectLocationProvider();
+        }
+    }
+
+    /**
+     * Select best location provider based on certain criteria.
+     *
+     * No messages are displayed, so it can be called from the startup thread.
+     */
+    private void selectLocationProvider() {
         // Retrieve a list of location providers that have fine accuracy,
         // no monetary cost, etc
         // TODO define criteria in settings
@@ -241,8 +554,9 @@ public class LocationService extends Service
         criteria.setCostAllowed(false);
         criteria.setPowerRequirement(Criteria.POWER_LOW);
 
-        if (mLocationManager != null && isLocationPermissionGranted()) {
-            mProviderName = mLocationManager.getBestProvider(criteria, true);
+        LocationManager locationManager = mLocationManager;
+        if (locationManager != null) {
+            mProviderName = locationManager.getBestProvider(criteria, true);
         }
     }
 
@@ -339,10 +653,19 @@ public class LocationService extends Service
      *
      * @return Navigator Navigator object
      */
-    public final Navigator getNavigator() {
+    public final Navigator<AriadneLocation> getNavigator() {
         return mNavigator;
     }
 
+    /**
+     * Retrieve durations of the startup sections.
+     *
+     * @return SectionTimings startup timings
+     */
+    public final SectionTimings getStartupTimings() {
+        return mStartupTimings;
+    }
+
     /**
      * Checks if Location Provider is defined.
      *
@@ -358,9 +681,7 @@ public class LocationService extends Service
      * @return boolean true if permission ACCESS_FINE_LOCATION is granted.
      */
     public final boolean isLocationPermissionGranted() {
-        if (ContextCompat.checkSelfPermission(mContext,
-                Manifest.permission.ACCESS_FINE_LOCATION)
-                != PackageManager.PERMISSION_GRANTED) {
+        if (!hasLocationPermission()) {
 
             if (mDebug != null
                     && mDebug.checkDebugLevel(DebugLevel.DEBUG_LEVEL_HIGH)
@@ -389,6 +710,18 @@ public class LocationService extends Service
         }
     }
 
+    /**
+     * Checks if permission ACCESS_FINE_LOCATION is granted,
+     * without displaying a message.
+     *
+     * @return boolean true if permission ACCESS_FINE_LOCATION is granted.
+     */
+    private boolean hasLocationPermission() {
+        return ContextCompat.checkSelfPermission(mContext,
+                Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
     /**
      * Update Location.
      *
@@ -434,9 +767,27 @@ public class LocationService extends Service
      * @param longitude GPS Location longitude
      */
     public final void storeLocation(final String locationName, final double latitude, final double longitude) {
+        storeLocation(locationName, latitude, longitude, Double.NaN);
+    }
+
+    /**
+     * Store location with an altitude.
+     *
+     * @param locationName Descriptive name of the location to store
+     * @param latitude GPS Location latitude
+     * @param longitude GPS Location longitude
+     * @param altitude GPS Location altitude, NaN if it is unknown
+     */
+    public final void storeLocation(final String locationName,
+                                    final double latitude,
+                                    final double longitude,
+                                    final double altitude) {
         AriadneLocation currentLocation = new AriadneLocation("");
         currentLocation.setLatitude(latitude);
         currentLocation.setLongitude(longitude);
+        if (!Double.isNaN(altitude)) {
+            currentLocation.setAltitude(altitude);
+        }
         storeLocation(locationName, currentLocation);
     }
 
@@ -574,6 +925,63 @@ public class LocationService extends Service
         return mNavigator.getRelativeDirection();
     }
 
+    /**
+     * Calculate the location update interval :
+     * the interval set in the preferences, or a longer interval
+     * when the next geofence border around the destination is far away.
+     *
+     * @return location update interval in milliseconds
+     */
+    private long getLocationUpdateInterval() {
+        if (mNavigator == null || mNavigator.getDestination() == null) {
+            return mBaseUpdateTime;
+        }
+
+        return mNavigator.getGeofence().getUpdateInterval(mBaseUpdateTime);
+    }
+
+    /**
+     * Sets the requested location update interval.
+     *
+     * @param updateTime location update interval in milliseconds
+     */
+    private void setRequestedUpdateTime(final long updateTime) {
+        mRequestedUpdateTime = updateTime;
+        mMetrics.setGauge(mMetricUpdateInterval,
+                (double) updateTime / Tools.SECOND_IN_MILLIS);
+    }
+
+    /**
+     * Requests location updates again, if the location update interval
+     * changed significantly, fe. when approaching the destination.
+     * Nothing is done if no location updates are requested.
+     */
+    private void updateLocationRequest() {
+        if (mRequestedUpdateTime <= 0 || mUpdatesSuspended
+                || mLocationManager == null
+                || !isSetLocationProvider()) {
+            return;
+        }
+
+        long updateTime = getLocationUpdateInterval();
+        if (Math.abs(updateTime - mRequestedUpdateTime)
+                <= mRequestedUpdateTime * UPDATE_INTERVAL_CHANGE
+                && (updateTime == mBaseUpdateTime)
+                    == (mRequestedUpdateTime == mBaseUpdateTime)) {
+            return;
+        }
+
+        try {
+            // requesting updates for the same listener
+            // replaces the previous request
+            mLocationManager.requestLocationUpdates(
+                    mProviderName, updateTime, mUpdateDistance, mListener);
+            setRequestedUpdateTime(updateTime);
+        } catch (SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Method to register location updates with the current location provider.
      *
@@ -617,12 +1025,21 @@ public class LocationService extends Service
 
             Location location = null;
 
+            mBaseUpdateTime = Integer.parseInt(prefLocationUpdateTime);
+            mUpdateDistance = Integer.parseInt(prefLocationUpdateDistance);
+
             try {
-                mLocationManager.requestLocationUpdates(
-                        mProviderName,
-                        Integer.parseInt(prefLocationUpdateTime),
-                        Integer.parseInt(prefLocationUpdateDistance),
-                        mListener);
+                long updateTime = getLocationUpdateInterval();
+                // when suspended, updates are requested
+                // as soon as the device moves again
+                if (!mUpdatesSuspended) {
+                    mLocationManager.requestLocationUpdates(
+                            mProviderName,
+                            updateTime,
+                            mUpdateDistance,
+                            mListener);
+                }
+                setRequestedUpdateTime(updateTime);
                 location = mLocationManager.getLastKnownLocation(mProviderName);
             } catch (SecurityException e) {
                 if (mDebug != null
@@ -658,32 +1075,45 @@ public class LocationService extends Service
 
         @Override
         public void onLocationChanged(final Location location) {
-            // When new location update is received, update current location
-            setLocation(location);
+            long fixStart = System.nanoTime();
+            Tools.beginTraceSection(TRACE_LOCATION_CHANGED);
+            try {
+                mMetrics.increment(mMetricFixes);
 
-            // display message on update
-            if (mDebug != null
-                    && mDebug.checkDebugLevel(DebugLevel.DEBUG_LEVEL_MEDIUM)
-                    ) {
-                Toast.makeText(
-                        mContext,
-                        R.string.location_updated,
-                        Toast.LENGTH_SHORT
-                ).show();
-            }
+                long fixTimestamp = Tools.getTimestampNano();
+                if (mLastFixTimestamp > 0) {
+                    mMetrics.setGauge(mMetricFixInterval,
+                            (double) (fixTimestamp - mLastFixTimestamp)
+                            / (Tools.SECOND_IN_MILLIS * Tools.MILLI_IN_NANO));
+                }
+                mLastFixTimestamp = fixTimestamp;
 
-            // Notify bound Activities of Location Update
-            final int callbacksCount = mCallbacks.beginBroadcast();
-            for (int i = 0; i < callbacksCount; i++) {
-                try {
-                    mCallbacks.getBroadcastItem(i).locationUpdated();
-                } catch (RemoteException e) {
-                    // The RemoteCallbackList will take care of removing
-                    // the dead object for us.
-                    e.printStackTrace();
+                // When new location update is received,
+                // update current location
+                setLocation(location);
+
+                // adapt update rate to the distance
+                // to the next geofence border
+                updateLocationRequest();
+
+                // display message on update
+                if (mDebug != null
+                        && mDebug.checkDebugLevel(
+                                DebugLevel.DEBUG_LEVEL_MEDIUM)) {
+                    Toast.makeText(
+                            mContext,
+                            R.string.location_updated,
+                            Toast.LENGTH_SHORT
+                    ).show();
                 }
+
+                // Notify bound Activities of Location Update
+                notifyLocationUpdated(fixStart);
+            } finally {
+                Tools.endTraceSection();
+                mMetrics.recordDuration(mMetricFixTime, fixStart,
+                        System.nanoTime());
             }
-            mCallbacks.finishBroadcast();
         }
 
         @Override
@@ -704,21 +1134,284 @@ public class LocationService extends Service
     };
 
     /**
-     * Called when the orientation value changes.
+     * Notify bound Activities of a location update.
+     *
+     * @param eventTimestamp timestamp of the update in nanoseconds
+     *                       (System.nanoTime())
+     */
+    private void notifyLocationUpdated(final long eventTimestamp) {
+        broadcast(LocationServiceListenerList.EVENT_LOCATION, eventTimestamp);
+    }
+
+    /**
+     * Called when the orientation value changes,
+     * bound Activities are notified if the azimuth or the accuracy changed.
+     *
+     * @param event orientation at the time of the change
      */
-    public final void onOrientationChanged() {
+    public final void onOrientationChanged(final OrientationEvent event) {
+        double azimuth = event.getAzimuth();
+        if (event.getAccuracy() == mBroadcastAccuracy
+                && Math.abs(AngleMath.shortestDifference(
+                    mBroadcastAzimuth, azimuth))
+                < ORIENTATION_BROADCAST_THRESHOLD) {
+            return;
+        }
+        mBroadcastAzimuth = azimuth;
+        mBroadcastAccuracy = event.getAccuracy();
+
         // Notify bound Activities of orientation Update
-        final int noCallbacks = mCallbacks.beginBroadcast();
-        for (int i = 0; i < noCallbacks; i++) {
+        broadcast(LocationServiceListenerList.EVENT_ORIENTATION,
+                System.nanoTime());
+    }
+
+    /**
+     * Notify in-process listeners and registered callbacks of an update.
+     *
+     * In-process listeners are called later, on the thread of their Handler.
+     * Callbacks of clients in the same process are called directly
+     * by the Binder stub, so the latency is measured when they are called.
+     *
+     * @param event update type : LocationServiceListenerList.EVENT_LOCATION,
+     *              EVENT_ORIENTATION or EVENT_PROVIDER
+     * @param eventTimestamp timestamp of the update in nanoseconds
+     *                       (System.nanoTime())
+     */
+    private void broadcast(final int event, final long eventTimestamp) {
+        long broadcastStart = System.nanoTime();
+        Tools.beginTraceSection(TRACE_BROADCAST);
+        try {
+            mListeners.notify(event, eventTimestamp);
+
+            final int callbacksCount = mCallbacks.beginBroadcast();
             try {
-                mCallbacks.getBroadcastItem(i).orientationUpdated();
-            } catch (RemoteException e) {
-                // The RemoteCallbackList will take care of removing
-                // the dead object for us.
-                e.printStackTrace();
+                for (int i = 0; i < callbacksCount; i++) {
+                    notifyCallback(mCallbacks.getBroadcastItem(i), event,
+                            eventTimestamp);
+                }
+            } finally {
+                mCallbacks.finishBroadcast();
+            }
+        } finally {
+            Tools.endTraceSection();
+            mMetrics.increment(mMetricBroadcasts);
+            mMetrics.recordDuration(
+                    mMetricBroadcastTime, broadcastStart, System.nanoTime());
+        }
+    }
+
+    /**
+     * Notifies a remote callback of an update.
+     *
+     * @param callback remote callback
+     * @param event update type : LocationServiceListenerList.EVENT_LOCATION,
+     *              EVENT_ORIENTATION or EVENT_PROVIDER
+     * @param eventTimestamp timestamp of the update in nanoseconds
+     *                       (System.nanoTime())
+     */
+    private void notifyCallback(final ILocationServiceCallback callback,
+                                final int event, final long eventTimestamp) {
+        try {
+            mMetrics.recordDuration(mMetricRemoteLatency,
+                    eventTimestamp, System.nanoTime());
+
+            switch (event) {
+                case LocationServiceListenerList.EVENT_LOCATION:
+                    callback.locationUpdated();
+                    break;
+                case LocationServiceListenerList.EVENT_ORIENTATION:
+                    callback.orientationUpdated();
+                    break;
+                case LocationServiceListenerList.EVENT_PROVIDER:
+                    callback.providerUpdated();
+                    break;
+                default:
+                    break;
+            }
+        } catch (RemoteException e) {
+            // The RemoteCallbackList will take care of removing
+            // the dead object for us.
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Get still period from the preferences.
+     *
+     * @return still period in milliseconds, 0 if disabled
+     */
+    private long getStillPeriod() {
+        return Long.parseLong(
+                PreferenceManager.getDefaultSharedPreferences(this)
+                .getString(
+                        SettingsActivity.KEY_PREF_STILL_PERIOD,
+                        SettingsActivity.DEFAULT_PREF_STILL_PERIOD));
+    }
+
+    /**
+     * Get total time location updates were suspended,
+     * because the device was still.
+     *
+     * @return suspended time in milliseconds
+     */
+    public final long getSuspendedTime() {
+        if (!mUpdatesSuspended) {
+            return mSuspendedTime;
+        }
+
+        return mSuspendedTime + (Tools.getTimestampNano()
+                - mSuspendedTimestamp) / Tools.MILLI_IN_NANO;
+    }
+
+    /**
+     * Listener for changes of the still state of the device.
+     */
+    private final SensorOrientation.MotionEventListener mMotionListener
+            = new SensorOrientation.MotionEventListener() {
+        @Override
+        public void onMotionChanged(final boolean still) {
+            if (still) {
+                suspendLocationUpdates();
+            } else {
+                resumeLocationUpdates();
             }
         }
-        mCallbacks.finishBroadcast();
+    };
+
+    /**
+     * Suspends location updates while the device is still.
+     * Nothing is done if no location updates are requested.
+     */
+    private void suspendLocationUpdates() {
+        if (mRequestedUpdateTime <= 0 || mUpdatesSuspended
+                || mLocationManager == null) {
+            return;
+        }
+
+        mLocationManager.removeUpdates(mListener);
+        mUpdatesSuspended = true;
+        mSuspendedTimestamp = Tools.getTimestampNano();
+        mMetrics.increment(mMetricSuspends);
+
+        // keep the last location valid while the device is still
+        if (mNavigator != null) {
+            mNavigator.setLocationSuspended(true);
+        }
+    }
+
+    /**
+     * Resumes location updates when the device moves again.
+     */
+    private void resumeLocationUpdates() {
+        if (!mUpdatesSuspended) {
+            return;
+        }
+        endSuspension();
+
+        if (mLocationManager == null || !isSetLocationProvider()) {
+            return;
+        }
+
+        try {
+            long updateTime = getLocationUpdateInterval();
+            mLocationManager.requestLocationUpdates(
+                    mProviderName, updateTime, mUpdateDistance, mListener);
+            setRequestedUpdateTime(updateTime);
+        } catch (SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Ends the current suspension of location updates,
+     * and adds its duration to the suspended time.
+     */
+    private void endSuspension() {
+        if (!mUpdatesSuspended) {
+            return;
+        }
+
+        long suspendedTime = (Tools.getTimestampNano() - mSuspendedTimestamp)
+                / Tools.MILLI_IN_NANO;
+        mSuspendedTime += suspendedTime;
+        mMetrics.add(mMetricSuspendedTime, suspendedTime);
+        mUpdatesSuspended = false;
+
+        if (mNavigator != null) {
+            mNavigator.setLocationSuspended(false);
+        }
+    }
+
+    /**
+     * Listener for geofence events of the destination geofence.
+     */
+    private final Geofence.Listener mGeofenceListener
+            = new Geofence.Listener() {
+        @Override
+        public void onGeofenceEnter(final Geofence.Zone zone) {
+            onGeofenceChanged();
+        }
+
+        @Override
+        public void onGeofenceExit(final Geofence.Zone zone) {
+            onGeofenceChanged();
+        }
+    };
+
+    /**
+     * Called when a geofence zone is entered or exited,
+     * requests location updates at the rate needed in the new zone.
+     */
+    private void onGeofenceChanged() {
+        mMetrics.increment(mMetricGeofenceEvents);
+        updateLocationRequest();
+    }
+
+    /**
+     * Dumps startup timings and metrics,
+     * fe. with 'adb shell dumpsys activity service LocationService'.
+     *
+     * @param fd The raw file descriptor that the dump is being sent to
+     * @param writer The PrintWriter to which you should dump your state
+     * @param args additional arguments to the dump request
+     */
+    @Override
+    protected final void dump(final FileDescriptor fd,
+                              final PrintWriter writer, final String[] args) {
+        writer.println("Startup timings:");
+        if (mStartupTimings != null) {
+            writer.println(mStartupTimings.toString());
+        }
+        writer.println();
+        writer.println("Metrics:");
+        writer.print(mMetrics.dump());
+    }
+
+    /**
+     * Requests sensor updates for a consumer, fe. a visible activity.
+     * Sensors are registered at the shortest interval requested
+     * by all consumers, and unregistered when no one needs them.
+     *
+     * @param consumer consumer, identified by reference
+     * @param interval update interval in microseconds,
+     *                 fe. SensorOrientation.UPDATE_INTERVAL_UI
+     */
+    public final void requestSensorUpdates(final Object consumer,
+                                           final int interval) {
+        if (mSensorOrientation != null && mSensorOrientation.hasSensors()) {
+            mSensorOrientation.requestUpdates(consumer, interval);
+        }
+    }
+
+    /**
+     * Releases the sensor updates of a consumer.
+     *
+     * @param consumer consumer, identified by reference
+     */
+    public final void releaseSensorUpdates(final Object consumer) {
+        if (mSensorOrientation != null) {
+            mSensorOrientation.releaseUpdates(consumer);
+        }
     }
 
     /**
@@ -738,7 +1431,8 @@ public class LocationService extends Service
         }
 
         /**
-         * Register a client callback.
+         * Register a client callback, clients in the same process
+         * should use registerListener() instead.
          *
          * @param cb client callback
          */
@@ -759,5 +1453,28 @@ public class LocationService extends Service
                 mCallbacks.unregister(cb);
             }
         }
+
+        /**
+         * Register an in-process listener,
+         * it is called on the thread of the Handler.
+         *
+         * @param listener client listener
+         * @param handler Handler used to call the listener
+         */
+        public final void registerListener(
+                final LocationServiceListener listener,
+                final Handler handler) {
+            mListeners.register(listener, handler);
+        }
+
+        /**
+         * Unregister an in-process listener.
+         *
+         * @param listener client listener
+         */
+        public final void unregisterListener(
+                final LocationServiceListener listener) {
+            mListeners.unregister(listener);
+        }
     }
 }
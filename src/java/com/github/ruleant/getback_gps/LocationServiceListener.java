@@ -0,0 +1,49 @@
+/**
+ * Location Service Listener Interface
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+/**
+ * Listener interface used by LocationService to notify clients
+ * in the same process, without Binder calls.
+ * The methods are called on the thread of the Handler
+ * the listener was registered with.
+ *
+ * Remote clients use ILocationServiceCallback.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public interface LocationServiceListener {
+    /**
+     * Called when the service has an updated location.
+     */
+    void onLocationUpdated();
+
+    /**
+     * Called when the service has an updated orientation.
+     */
+    void onOrientationUpdated();
+
+    /**
+     * Called when the service has an updated provider.
+     */
+    void onProviderUpdated();
+}
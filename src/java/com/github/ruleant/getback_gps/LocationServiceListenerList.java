@@ -0,0 +1,300 @@
+/**
+ * Location Service Listener List
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+import android.os.Handler;
+
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * List of in-process LocationService listeners.
+ *
+ * Each listener is notified on the thread of its own Handler
+ * (or Executor).
+ * Updates are coalesced : when several updates arrive before a listener
+ * handled the previous one, the listener is called only once per update
+ * type. Notifying doesn't lock the list, nor does it allocate.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+class LocationServiceListenerList {
+    /**
+     * Event : location was updated.
+     */
+    public static final int EVENT_LOCATION = 1;
+
+    /**
+     * Event : orientation was updated.
+     */
+    public static final int EVENT_ORIENTATION = 2;
+
+    /**
+     * Event : location provider was updated.
+     */
+    public static final int EVENT_PROVIDER = 4;
+
+    /**
+     * Registered listeners.
+     */
+    private final CopyOnWriteArrayList<Subscriber> mSubscribers
+            = new CopyOnWriteArrayList<Subscriber>();
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of notifications delivered to listeners.
+     */
+    private final int mMetricDelivered
+            = mMetrics.registerCounter("callbacks.local_delivered");
+
+    /**
+     * Metric id : number of notifications coalesced with a pending one.
+     */
+    private final int mMetricCoalesced
+            = mMetrics.registerCounter("callbacks.local_coalesced");
+
+    /**
+     * Metric id : time between an update and calling a listener,
+     * in microseconds.
+     */
+    private final int mMetricLatency = mMetrics.registerHistogram(
+            "callbacks.local_latency_us", MetricsRegistry.DURATION_BUCKETS_US);
+
+    /**
+     * Registers a listener, notified on the thread of a Handler.
+     * Registering a registered listener again is ignored.
+     *
+     * @param listener listener to register
+     * @param handler Handler used to call the listener
+     */
+    public final void register(final LocationServiceListener listener,
+                               final Handler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException(
+                    "Parameter handler should not be null");
+        }
+
+        register(listener, new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    /**
+     * Registers a listener, notified by an Executor.
+     * Registering a registered listener again is ignored.
+     *
+     * @param listener listener to register
+     * @param executor Executor used to call the listener
+     */
+    public final synchronized void register(
+            final LocationServiceListener listener, final Executor executor) {
+        if (listener == null) {
+            throw new IllegalArgumentException(
+                    "Parameter listener should not be null");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException(
+                    "Parameter executor should not be null");
+        }
+
+        if (indexOf(listener) >= 0) {
+            return;
+        }
+
+        mSubscribers.add(new Subscriber(listener, executor));
+    }
+
+    /**
+     * Unregisters a listener, pending notifications are cancelled.
+     *
+     * @param listener listener to unregister
+     */
+    public final synchronized void unregister(
+            final LocationServiceListener listener) {
+        int index = indexOf(listener);
+        if (index < 0) {
+            return;
+        }
+
+        Subscriber subscriber = mSubscribers.remove(index);
+        subscriber.cancel();
+    }
+
+    /**
+     * Unregisters all listeners.
+     */
+    public final synchronized void clear() {
+        for (Subscriber subscriber : mSubscribers) {
+            subscriber.cancel();
+        }
+        mSubscribers.clear();
+    }
+
+    /**
+     * Get number of registered listeners.
+     *
+     * @return number of listeners
+     */
+    public final int size() {
+        return mSubscribers.size();
+    }
+
+    /**
+     * Notifies all listeners of an update.
+     *
+     * @param event update type : EVENT_LOCATION, EVENT_ORIENTATION
+     *              or EVENT_PROVIDER
+     * @param eventTimestamp timestamp of the update in nanoseconds
+     *                       (System.nanoTime())
+     */
+    public final void notify(final int event, final long eventTimestamp) {
+        for (Subscriber subscriber : mSubscribers) {
+            subscriber.post(event, eventTimestamp);
+        }
+    }
+
+    /**
+     * Find a registered listener.
+     *
+     * @param listener listener
+     * @return index of the listener, -1 if not found
+     */
+    private int indexOf(final LocationServiceListener listener) {
+        for (int i = 0; i < mSubscribers.size(); i++) {
+            if (mSubscribers.get(i).mListener == listener) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Registered listener with its Executor and pending updates.
+     */
+    private final class Subscriber implements Runnable {
+        /**
+         * Listener.
+         */
+        private final LocationServiceListener mListener;
+
+        /**
+         * Executor used to call the listener.
+         */
+        private final Executor mExecutor;
+
+        /**
+         * Pending updates (EVENT_* flags).
+         */
+        private int mPendingEvents = 0;
+
+        /**
+         * Timestamp in nanoseconds of the oldest pending update.
+         */
+        private long mPendingTimestamp = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param listener listener
+         * @param executor Executor used to call the listener
+         */
+        private Subscriber(final LocationServiceListener listener,
+                           final Executor executor) {
+            mListener = listener;
+            mExecutor = executor;
+        }
+
+        /**
+         * Adds an update, and posts a call to the listener
+         * if no call is pending yet.
+         *
+         * @param event update type
+         * @param eventTimestamp timestamp of the update in nanoseconds
+         */
+        private void post(final int event, final long eventTimestamp) {
+            synchronized (this) {
+                boolean pending = mPendingEvents != 0;
+                if ((mPendingEvents & event) != 0) {
+                    mMetrics.increment(mMetricCoalesced);
+                }
+                mPendingEvents |= event;
+                if (pending) {
+                    return;
+                }
+                mPendingTimestamp = eventTimestamp;
+            }
+
+            mExecutor.execute(this);
+        }
+
+        /**
+         * Cancels the pending call to the listener,
+         * a call that is already posted returns without calling it.
+         */
+        private synchronized void cancel() {
+            mPendingEvents = 0;
+        }
+
+        /**
+         * Calls the listener for the pending updates.
+         */
+        @Override
+        public void run() {
+            int events;
+            long eventTimestamp;
+            synchronized (this) {
+                events = mPendingEvents;
+                eventTimestamp = mPendingTimestamp;
+                mPendingEvents = 0;
+            }
+
+            if (events == 0) {
+                return;
+            }
+
+            mMetrics.recordDuration(
+                    mMetricLatency, eventTimestamp, System.nanoTime());
+            mMetrics.increment(mMetricDelivered);
+
+            if ((events & EVENT_LOCATION) != 0) {
+                mListener.onLocationUpdated();
+            }
+            if ((events & EVENT_ORIENTATION) != 0) {
+                mListener.onOrientationUpdated();
+            }
+            if ((events & EVENT_PROVIDER) != 0) {
+                mListener.onProviderUpdated();
+            }
+        }
+    }
+}
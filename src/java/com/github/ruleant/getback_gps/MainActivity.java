@@ -28,14 +28,17 @@ import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import com.github.ruleant.getback_gps.lib.AngleMath;
 import com.github.ruleant.getback_gps.lib.AriadneLocation;
 import com.github.ruleant.getback_gps.lib.CardinalDirection;
 import com.github.ruleant.getback_gps.lib.DebugLevel;
+import com.github.ruleant.getback_gps.lib.DisplayState;
 import com.github.ruleant.getback_gps.lib.FormatUtils;
 import com.github.ruleant.getback_gps.lib.Navigator;
+import com.github.ruleant.getback_gps.lib.SensorOrientation;
+import com.github.ruleant.getback_gps.lib.Tools;
 
 /**
  * Main Activity class.
@@ -59,6 +62,92 @@ public class MainActivity extends AbstractGetBackGpsActivity
      */
     private static final String SHORTENER = "(...)";
 
+    /**
+     * Display field : destination name.
+     */
+    private static final int FIELD_DESTINATION_NAME = FIELD_FIRST_CUSTOM;
+
+    /**
+     * Display field : distance to destination.
+     */
+    private static final int FIELD_DESTINATION_DISTANCE
+            = FIELD_FIRST_CUSTOM + 1;
+
+    /**
+     * Display field : direction to destination.
+     */
+    private static final int FIELD_DESTINATION_DIRECTION
+            = FIELD_FIRST_CUSTOM + 2;
+
+    /**
+     * Display field : height difference with destination.
+     */
+    private static final int FIELD_HEIGHT_DIFFERENCE = FIELD_FIRST_CUSTOM + 3;
+
+    /**
+     * Display field : 'to destination' message.
+     */
+    private static final int FIELD_DESTINATION_MESSAGE
+            = FIELD_FIRST_CUSTOM + 4;
+
+    /**
+     * Display field : visibility of 'to destination' section.
+     */
+    private static final int FIELD_DESTINATION_SECTION_VISIBILITY
+            = FIELD_FIRST_CUSTOM + 5;
+
+    /**
+     * Display field : visibility of 'to destination' message.
+     */
+    private static final int FIELD_DESTINATION_MESSAGE_VISIBILITY
+            = FIELD_FIRST_CUSTOM + 6;
+
+    /**
+     * Navigation view, indicating the direction to the destination.
+     */
+    private NavigationView mNavigationView;
+
+    /**
+     * Formats the direction to the destination.
+     */
+    private CardinalDirection mDestinationDirection;
+
+    /**
+     * 'Not set' text.
+     */
+    private String mNotSetText;
+
+    /**
+     * 'Unknown' text, depending on screen orientation.
+     */
+    private String mUnknownText;
+
+    /**
+     * 'No destination' text.
+     */
+    private String mNoDestinationText;
+
+    /**
+     * 'Destination reached' text.
+     */
+    private String mDestinationReachedText;
+
+    /**
+     * Default location name.
+     */
+    private String mLocationNameText;
+
+    /**
+     * Maximum length when displaying destination name,
+     * depending on screen orientation.
+     */
+    private int mDestinationNameMaxLength;
+
+    /**
+     * True if the first arrow milestone was recorded.
+     */
+    private boolean mFirstArrowMarked = false;
+
 
     @Override
     protected final void onCreate(final Bundle savedInstanceState) {
@@ -69,6 +158,48 @@ public class MainActivity extends AbstractGetBackGpsActivity
         TextView tvDestinationName
                 = (TextView) findViewById(R.id.textView_toDestName);
         tvDestinationName.setOnClickListener(this);
+
+        // look up the views once, only changed values are updated
+        mNavigationView
+                = (NavigationView) findViewById(R.id.navigationView_ToDest);
+        DisplayStateBinder binder = getDisplayBinder();
+        binder.bindText(FIELD_DESTINATION_NAME, tvDestinationName);
+        binder.bindText(FIELD_DESTINATION_DISTANCE,
+                (TextView) findViewById(R.id.textView_toDestDist));
+        binder.bindText(FIELD_DESTINATION_DIRECTION,
+                (TextView) findViewById(R.id.textView_toDestDir));
+        binder.bindText(FIELD_HEIGHT_DIFFERENCE,
+                (TextView) findViewById(R.id.textView_heightDifference));
+        binder.bindText(FIELD_DESTINATION_MESSAGE,
+                (TextView) findViewById(R.id.textView_toDest_Message));
+        binder.bindVisibility(FIELD_DESTINATION_SECTION_VISIBILITY,
+                findViewById(R.id.section_toDestination));
+        binder.bindVisibility(FIELD_DESTINATION_MESSAGE_VISIBILITY,
+                findViewById(R.id.textView_toDest_Message));
+
+        // get texts once, the activity is recreated
+        // when the configuration (fe. screen orientation) changes
+        Resources res = getResources();
+        mDestinationDirection = new CardinalDirection(this, 0);
+        mNotSetText = res.getString(R.string.notset);
+        mNoDestinationText = res.getString(R.string.no_destination);
+        mDestinationReachedText = res.getString(R.string.destination_reached);
+        mLocationNameText = res.getString(R.string.location_name);
+
+        // in landscape mode, texts can be longer
+        if (isOrientationLandscape()) {
+            mUnknownText = res.getString(R.string.unknown);
+        } else {
+            mUnknownText = res.getString(R.string.unknown_short);
+        }
+
+        // set maxLength depending on screen orientation
+        if (res.getConfiguration().orientation
+                == Configuration.ORIENTATION_PORTRAIT) {
+            mDestinationNameMaxLength = DESTINATION_NAME_LENGTH_PORTRAIT;
+        } else {
+            mDestinationNameMaxLength = DESTINATION_NAME_LENGTH_LANDSCAPE;
+        }
     }
 
     @Override
@@ -124,6 +255,17 @@ public class MainActivity extends AbstractGetBackGpsActivity
         startActivity(intent);
     }
 
+    /**
+     * Get the sensor update interval this activity needs while it is visible,
+     * the navigation view animates the direction.
+     *
+     * @return update interval in microseconds
+     */
+    @Override
+    protected final int getSensorUpdateInterval() {
+        return SensorOrientation.UPDATE_INTERVAL_UI;
+    }
+
     @Override
     protected final boolean refreshDisplay() {
         if (!super.refreshDisplay()) {
@@ -136,58 +278,31 @@ public class MainActivity extends AbstractGetBackGpsActivity
 
         // only refresh items if activity is bound to service
         // connection state is checked in getNavigator
-        Navigator navigator = getNavigator();
+        Navigator<AriadneLocation> navigator = getNavigator();
 
         if (navigator == null) {
             return false;
         }
 
-        Resources res = getResources();
-
         // get Destination from service
         AriadneLocation destination = navigator.getDestination();
 
-        // Refresh Directions to destination
-        NavigationView nvToDestination
-                = (NavigationView) findViewById(R.id.navigationView_ToDest);
-        TextView tvToDestinationName
-                = (TextView) findViewById(R.id.textView_toDestName);
-        TextView tvToDestinationDistance
-                = (TextView) findViewById(R.id.textView_toDestDist);
-        TextView tvToDestinationDirection
-                = (TextView) findViewById(R.id.textView_toDestDir);
-        TextView tvHeightDifference
-                = (TextView) findViewById(R.id.textView_heightDifference);
-
-        LinearLayout sectionToDestination
-                = (LinearLayout) findViewById(R.id.section_toDestination);
-        TextView tvToDestinationMessage
-                = (TextView) findViewById(R.id.textView_toDest_Message);
-
-        String toDestinationNameText = res.getString(R.string.notset);
-        String toDestinationDistanceText = res.getString(R.string.unknown_short);
-        String toDestinationDirectionText = res.getString(R.string.unknown_short);
-        String toDestinationMessage = res.getString(R.string.unknown_short);
-        String heightDifferenceText = res.getString(R.string.unknown_short);
+        NavigationView nvToDestination = mNavigationView;
 
-        // in landscape mode, texts can be longer
-        if (isOrientationLandscape()) {
-            toDestinationDistanceText = res.getString(R.string.unknown);
-            toDestinationDirectionText = res.getString(R.string.unknown);
-            toDestinationMessage = res.getString(R.string.unknown);
-            heightDifferenceText = res.getString(R.string.unknown);
-        }
+        String toDestinationNameText = mNotSetText;
+        String toDestinationDistanceText = mUnknownText;
+        String toDestinationDirectionText = mUnknownText;
+        String toDestinationMessage = mUnknownText;
+        String heightDifferenceText = mUnknownText;
 
         NavigationView.Mode nvNavigationMode = NavigationView.Mode.Disabled;
         NavigationView.Mode nvOrientationMode = NavigationView.Mode.Disabled;
         Boolean displayToDest = false;
 
         if (destination == null) {
-            toDestinationMessage
-                    = res.getString(R.string.no_destination);
-        } else if (navigator.isDestinationReached()) {
-            toDestinationMessage
-                    = res.getString(R.string.destination_reached);
+            toDestinationMessage = mNoDestinationText;
+        } else if (navigator.isArrived()) {
+            toDestinationMessage = mDestinationReachedText;
         } else {
             displayToDest = true;
 
@@ -197,21 +312,13 @@ public class MainActivity extends AbstractGetBackGpsActivity
             // if name is not set, use 'location name'
             if (toDestinationNameText == null
                     || toDestinationDirectionText.length() == 0) {
-                toDestinationNameText = res.getString(R.string.location_name);
-            }
-
-            // set maxLength depending on screen orientation
-            int maxLength;
-            if (res.getConfiguration().orientation
-                    == Configuration.ORIENTATION_PORTRAIT) {
-                maxLength = DESTINATION_NAME_LENGTH_PORTRAIT;
-            } else {
-                maxLength = DESTINATION_NAME_LENGTH_LANDSCAPE;
+                toDestinationNameText = mLocationNameText;
             }
 
             // shorten long names
-            if (toDestinationNameText.length() > maxLength) {
-                int lastCharPosition = maxLength - SHORTENER.length();
+            if (toDestinationNameText.length() > mDestinationNameMaxLength) {
+                int lastCharPosition
+                        = mDestinationNameMaxLength - SHORTENER.length();
                 toDestinationNameText
                         = toDestinationNameText.subSequence(0, lastCharPosition)
                             .toString().trim()
@@ -234,11 +341,10 @@ public class MainActivity extends AbstractGetBackGpsActivity
                 }
 
                 // Set direction to destination
-                CardinalDirection cd = new CardinalDirection(
-                        this,
-                        FormatUtils.normalizeAngle(
+                mDestinationDirection.setValue(
+                        AngleMath.normalize(
                                 navigator.getAbsoluteDirection()));
-                toDestinationDirectionText = cd.format();
+                toDestinationDirectionText = mDestinationDirection.format();
 
                 // if bearing is accurate, display relative direction
                 // if not, display absolute direction
@@ -261,29 +367,46 @@ public class MainActivity extends AbstractGetBackGpsActivity
             nvOrientationMode = NavigationView.Mode.Accurate;
         }
 
+        // update display state, only changed views are updated
+        DisplayStateBinder binder = getDisplayBinder();
+        DisplayState state = binder.getState();
         if (displayToDest) {
             // show 'to Destination' info, hide message
-            sectionToDestination.setVisibility(LinearLayout.VISIBLE);
-            tvToDestinationMessage.setVisibility(LinearLayout.INVISIBLE);
+            state.setValue(FIELD_DESTINATION_SECTION_VISIBILITY, View.VISIBLE);
+            state.setValue(FIELD_DESTINATION_MESSAGE_VISIBILITY,
+                    View.INVISIBLE);
 
             // update views
-            tvToDestinationName.setText(toDestinationNameText);
-            tvToDestinationDistance.setText(toDestinationDistanceText);
-            tvToDestinationDirection.setText(toDestinationDirectionText);
-            tvHeightDifference.setText(heightDifferenceText);
+            state.setText(FIELD_DESTINATION_NAME, toDestinationNameText);
+            state.setText(FIELD_DESTINATION_DISTANCE,
+                    toDestinationDistanceText);
+            state.setText(FIELD_DESTINATION_DIRECTION,
+                    toDestinationDirectionText);
+            state.setText(FIELD_HEIGHT_DIFFERENCE, heightDifferenceText);
         } else {
             // hide 'to Destination' info, show message
-            sectionToDestination.setVisibility(LinearLayout.INVISIBLE);
-            tvToDestinationMessage.setVisibility(LinearLayout.VISIBLE);
+            state.setValue(FIELD_DESTINATION_SECTION_VISIBILITY,
+                    View.INVISIBLE);
+            state.setValue(FIELD_DESTINATION_MESSAGE_VISIBILITY, View.VISIBLE);
 
             // update views
-            tvToDestinationMessage.setText(toDestinationMessage);
+            state.setText(FIELD_DESTINATION_MESSAGE, toDestinationMessage);
+        }
+        binder.apply();
+
+        // time to first arrow is measured as part of the startup timings
+        if (!mFirstArrowMarked
+                && nvNavigationMode != NavigationView.Mode.Disabled) {
+            getService().getStartupTimings().mark(
+                    LocationService.STARTUP_FIRST_ARROW,
+                    Tools.getTimestampNano());
+            mFirstArrowMarked = true;
         }
 
-        // update views
+        // update views,
+        // NavigationView animates and redraws itself when needed
         nvToDestination.setNavigationMode(nvNavigationMode);
         nvToDestination.setOrientationMode(nvOrientationMode);
-        nvToDestination.invalidate();
 
         return true;
     }
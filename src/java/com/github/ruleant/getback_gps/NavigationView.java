@@ -25,18 +25,25 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Path;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 
+import com.github.ruleant.getback_gps.lib.AndroidPathSink;
+import com.github.ruleant.getback_gps.lib.AngleAnimator;
+import com.github.ruleant.getback_gps.lib.AngleMath;
 import com.github.ruleant.getback_gps.lib.Coordinate;
-import com.github.ruleant.getback_gps.lib.CoordinateRotation;
+import com.github.ruleant.getback_gps.lib.ConverterChain;
 import com.github.ruleant.getback_gps.lib.Coordinates;
-import com.github.ruleant.getback_gps.lib.FormatUtils;
+import com.github.ruleant.getback_gps.lib.MetricsRegistry;
+import com.github.ruleant.getback_gps.lib.Tools;
 
 import de.keyboardsurfer.android.widget.crouton.Style;
 
@@ -76,6 +83,11 @@ public class NavigationView extends ImageView {
      */
     private final Paint mPaintArrowSolidWhite = new Paint();
 
+    /**
+     * Paint used for drawing the pre-rendered compass rose.
+     */
+    private final Paint mPaintBitmap = new Paint(Paint.FILTER_BITMAP_FLAG);
+
     /**
      * Arrow indicating direction (lines).
      */
@@ -102,14 +114,54 @@ public class NavigationView extends ImageView {
     private final Coordinates mCompassRoseBody = new Coordinates();
 
     /**
-     * Compass rose rotation converter.
+     * Pre-rendered compass rose.
+     */
+    private Bitmap mRoseBitmap;
+
+    /**
+     * Pre-rendered arrow (solid right part).
+     */
+    private Path mArrowBodyRightPath = new Path();
+
+    /**
+     * Pre-rendered arrow (solid left part).
+     */
+    private Path mArrowBodyLeftPath = new Path();
+
+    /**
+     * Pre-rendered arrow (lines).
+     */
+    private float[] mArrowLinesArray = new float[0];
+
+    /**
+     * Width of the view when the shapes were rendered.
+     */
+    private int mRenderedWidth = 0;
+
+    /**
+     * Height of the view when the shapes were rendered.
      */
-    private CoordinateRotation mRoseRotationConverter;
+    private int mRenderedHeight = 0;
 
     /**
-     * Arrow indicating direction.
+     * Converter chain, rotating, scaling and centering the shapes.
      */
-    private CoordinateRotation mRotationConverter;
+    private ConverterChain mConverter;
+
+    /**
+     * Converter step : rotation of the shape.
+     */
+    private int mRotationStep;
+
+    /**
+     * Converter step : scale to the view size.
+     */
+    private int mScaleStep;
+
+    /**
+     * Converter step : move to the rotation center.
+     */
+    private int mTranslationStep;
 
     /**
      * Rotation center.
@@ -126,6 +178,47 @@ public class NavigationView extends ImageView {
      */
     private double mAzimuth = 0;
 
+    /**
+     * Animates the displayed arrow direction.
+     */
+    private final AngleAnimator mDirectionAnimator = new AngleAnimator();
+
+    /**
+     * Animates the displayed compass rose rotation.
+     */
+    private final AngleAnimator mAzimuthAnimator = new AngleAnimator();
+
+    /**
+     * Arrow direction when the view was last drawn.
+     */
+    private double mDrawnDirection = 0;
+
+    /**
+     * Compass rose rotation when the view was last drawn.
+     */
+    private double mDrawnAzimuth = 0;
+
+    /**
+     * True if an animation frame is scheduled.
+     */
+    private boolean mFrameScheduled = false;
+
+    /**
+     * Callback for animation frames, aligned with the display refresh
+     * (API 16 and up).
+     */
+    private Choreographer.FrameCallback mFrameCallback;
+
+    /**
+     * Runnable for animation frames, used if Choreographer is not available.
+     */
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            doFrame(System.nanoTime());
+        }
+    };
+
     /**
      * Navigation mode enum.
      */
@@ -199,6 +292,52 @@ public class NavigationView extends ImageView {
      */
     private static final double INTERSECTION_ANGLE = 45.0;
 
+    /**
+     * Delay between animation frames if Choreographer is not available,
+     * in milliseconds.
+     */
+    private static final long FALLBACK_FRAME_DELAY = 16;
+
+    /**
+     * Change of the arrow tip position in pixels,
+     * below which the view is not redrawn.
+     */
+    private static final double SUB_PIXEL = 0.5;
+
+    /**
+     * Trace section name for drawing the view.
+     */
+    private static final String TRACE_DRAW = "NavigationView.onDraw";
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of times the view was drawn.
+     */
+    private final int mMetricDraws = mMetrics.registerCounter("view.draws");
+
+    /**
+     * Metric id : time spent drawing the view in microseconds.
+     */
+    private final int mMetricDrawTime = mMetrics.registerHistogram(
+            "view.draw_us", MetricsRegistry.DURATION_BUCKETS_US);
+
+    /**
+     * Metric id : number of animation frames.
+     */
+    private final int mMetricFrames
+            = mMetrics.registerCounter("view.animation_frames");
+
+    /**
+     * Metric id : number of animation frames that were not drawn,
+     * because the change was smaller than a pixel.
+     */
+    private final int mMetricFramesSkipped
+            = mMetrics.registerCounter("view.animation_frames_skipped");
+
     /**
      * Constructor.
      *
@@ -247,7 +386,8 @@ public class NavigationView extends ImageView {
      * @param direction Direction to destination (0-360°).
      */
     public final void setDirection(final double direction) {
-        this.mDirection = FormatUtils.normalizeAngle(direction);
+        this.mDirection = AngleMath.normalize(direction);
+        updateAnimationTargets();
     }
 
     /**
@@ -269,7 +409,8 @@ public class NavigationView extends ImageView {
      * @param azimuth Angle to azimuth (0-360°).
      */
     public final void setAzimuth(final double azimuth) {
-        this.mAzimuth = FormatUtils.normalizeAngle(-1 * azimuth);
+        this.mAzimuth = AngleMath.normalize(-1 * azimuth);
+        updateAnimationTargets();
     }
 
     /**
@@ -293,6 +434,7 @@ public class NavigationView extends ImageView {
     @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
     public final void setNavigationMode(final Mode mode) {
         Resources res = getResources();
+        Mode previousMode = mNavigationMode;
 
         switch (mode) {
             default:
@@ -328,6 +470,12 @@ public class NavigationView extends ImageView {
                 }
                 break;
         }
+
+        // colors changed
+        if (previousMode != mNavigationMode) {
+            invalidate();
+        }
+        updateAnimationTargets();
     }
 
     /**
@@ -345,6 +493,8 @@ public class NavigationView extends ImageView {
      * @param mode Orientation mode : DISABLED, INACCURATE, ACCURATE
      */
     public final void setOrientationMode(final Mode mode) {
+        Mode previousMode = mOrientationMode;
+
         switch (mode) {
             default:
             case Disabled:
@@ -357,6 +507,12 @@ public class NavigationView extends ImageView {
                 this.mOrientationMode = mode;
                 break;
         }
+
+        // compass rose is only drawn in accurate mode
+        if (previousMode != mOrientationMode) {
+            invalidate();
+        }
+        updateAnimationTargets();
     }
 
     /**
@@ -370,6 +526,135 @@ public class NavigationView extends ImageView {
 
     @Override
     public final void onDraw(final Canvas canvas) {
+        long drawStart = System.nanoTime();
+        Tools.beginTraceSection(TRACE_DRAW);
+        try {
+            mMetrics.increment(mMetricDraws);
+
+            drawNavigation(canvas);
+        } finally {
+            Tools.endTraceSection();
+            mMetrics.recordDuration(mMetricDrawTime, drawStart,
+                    System.nanoTime());
+        }
+    }
+
+    @Override
+    protected final void onDetachedFromWindow() {
+        cancelFrame();
+        // show the target angles when the view is attached again
+        mDirectionAnimator.jumpTo(mDirectionAnimator.getTarget());
+        mAzimuthAnimator.jumpTo(mAzimuthAnimator.getTarget());
+
+        // render again when the view is attached again
+        releaseRoseBitmap();
+        mRenderedWidth = 0;
+        mRenderedHeight = 0;
+
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Updates the target angles of the arrow and compass rose animations,
+     * and schedules an animation frame if they are not settled.
+     */
+    private void updateAnimationTargets() {
+        mDirectionAnimator.setTarget(getDirection());
+        mAzimuthAnimator.setTarget(getAzimuth());
+
+        if (!mDirectionAnimator.isSettled() || !mAzimuthAnimator.isSettled()) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Schedules an animation frame, aligned with the display refresh
+     * if Choreographer is available.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void scheduleFrame() {
+        if (mFrameScheduled) {
+            return;
+        }
+        mFrameScheduled = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mFrameCallback == null) {
+                mFrameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(final long frameTimeNanos) {
+                        NavigationView.this.doFrame(frameTimeNanos);
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        } else {
+            postDelayed(mFrameRunnable, FALLBACK_FRAME_DELAY);
+        }
+    }
+
+    /**
+     * Cancels a scheduled animation frame.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void cancelFrame() {
+        if (!mFrameScheduled) {
+            return;
+        }
+        mFrameScheduled = false;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        } else {
+            removeCallbacks(mFrameRunnable);
+        }
+    }
+
+    /**
+     * Calculates the arrow and compass rose angles for an animation frame,
+     * the view is only redrawn if the arrow or compass rose moves at least
+     * half a pixel, a new frame is scheduled until the animation is settled.
+     *
+     * @param frameTimeNanos timestamp of the frame in nanoseconds
+     */
+    private void doFrame(final long frameTimeNanos) {
+        mFrameScheduled = false;
+        mMetrics.increment(mMetricFrames);
+
+        // angle in degrees, covered by half a pixel at the edge of the rose
+        double radius = (double) getHeight() / 2;
+        double threshold = AngleAnimator.DEFAULT_SETTLE_THRESHOLD;
+        if (radius > 0) {
+            threshold = Math.toDegrees(SUB_PIXEL / radius);
+        }
+        mDirectionAnimator.setSettleThreshold(threshold);
+        mAzimuthAnimator.setSettleThreshold(threshold);
+
+        boolean settled = mDirectionAnimator.step(frameTimeNanos)
+                & mAzimuthAnimator.step(frameTimeNanos);
+
+        if (Math.abs(AngleMath.shortestDifference(
+                    mDrawnDirection, mDirectionAnimator.getCurrent()))
+                    > threshold
+                || Math.abs(AngleMath.shortestDifference(
+                    mDrawnAzimuth, mAzimuthAnimator.getCurrent()))
+                    > threshold) {
+            invalidate();
+        } else {
+            mMetrics.increment(mMetricFramesSkipped);
+        }
+
+        if (!settled) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Draws compass rose and the arrow to the destination.
+     *
+     * @param canvas Canvas to draw on
+     */
+    private void drawNavigation(final Canvas canvas) {
         // scale View if it is not square
         if (getWidth() != getHeight()) {
             ViewGroup.LayoutParams layoutParams = getLayoutParams();
@@ -385,49 +670,105 @@ public class NavigationView extends ImageView {
             setLayoutParams(layoutParams);
         }
 
-        // Set up rotation converter
-        mRotationCenter.setCartesianCoordinate(getWidth() / 2, getHeight() / 2);
-        double mRoseRotation = getAzimuth();
-        mRoseRotationConverter.setScaleRadius((double) getHeight() / 2);
-        mRotationConverter.setRotationAngle(getDirection());
-        mRotationConverter.setScaleRadius((double) getHeight() / 2);
-        // no need to reassign mRotationCenter to mRotationConverter,
-        // and mRotationConverter to mArrowLines, mArrowBodyLeft/Right,
-        // the instances were assigned in init().
+        // render shapes again when the size changed
+        if (getWidth() != mRenderedWidth || getHeight() != mRenderedHeight) {
+            renderShapes();
+        }
+
+        mDrawnDirection = mDirectionAnimator.getCurrent();
+        mDrawnAzimuth = mAzimuthAnimator.getCurrent();
+        float centerX = mRotationCenter.getCartesianX();
+        float centerY = mRotationCenter.getCartesianY();
 
         // draw circle with diameter scaled to length of compass rose arrow
         canvas.drawCircle(
-                mRotationCenter.getCartesianX(),
-                mRotationCenter.getCartesianY(),
+                centerX,
+                centerY,
                 ((float) getHeight() / 2) * (float) ROSE_LENGTH,
                 mPaintRoseLines);
 
-        // draw compass rose
-        if (getOrientationMode() == Mode.Accurate) {
-            mRoseRotationConverter.setRotationAngle(mRoseRotation);
-            canvas.drawPath(mCompassRoseBody.toPath(), mPaintRoseSolidNorth);
-            canvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
-
-            mRoseRotationConverter.setRotationAngle(
-                    FormatUtils.CIRCLE_1Q + mRoseRotation);
-            canvas.drawPath(mCompassRoseBody.toPath(), mPaintRoseSolids);
-            canvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
-
-            mRoseRotationConverter.setRotationAngle(
-                    FormatUtils.CIRCLE_HALF + mRoseRotation);
-            canvas.drawPath(mCompassRoseBody.toPath(), mPaintRoseSolids);
-            canvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
-
-            mRoseRotationConverter.setRotationAngle(
-                    FormatUtils.CIRCLE_3Q + mRoseRotation);
-            canvas.drawPath(mCompassRoseBody.toPath(), mPaintRoseSolids);
-            canvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
+        // draw pre-rendered compass rose, rotated to azimuth
+        if (getOrientationMode() == Mode.Accurate && mRoseBitmap != null) {
+            canvas.save();
+            canvas.rotate((float) mDrawnAzimuth, centerX, centerY);
+            canvas.drawBitmap(mRoseBitmap, 0, 0, mPaintBitmap);
+            canvas.restore();
         }
 
-        // draw arrow to destination
-        canvas.drawPath(mArrowBodyRight.toPath(), mPaintSolids);
-        canvas.drawPath(mArrowBodyLeft.toPath(), mPaintArrowSolidWhite);
-        canvas.drawLines(mArrowLines.toLinesArray(), mPaintLines);
+        // draw arrow to destination, rotated to direction
+        canvas.save();
+        canvas.rotate((float) mDrawnDirection, centerX, centerY);
+        canvas.drawPath(mArrowBodyRightPath, mPaintSolids);
+        canvas.drawPath(mArrowBodyLeftPath, mPaintArrowSolidWhite);
+        canvas.drawLines(mArrowLinesArray, mPaintLines);
+        canvas.restore();
+    }
+
+    /**
+     * Renders the compass rose into a bitmap, and the arrow into paths,
+     * unrotated and scaled to the current size of the view.
+     * When drawing, they are rotated by the canvas,
+     * so they only have to be rendered again when the size changes.
+     */
+    private void renderShapes() {
+        mRenderedWidth = getWidth();
+        mRenderedHeight = getHeight();
+
+        // Set up converter
+        mRotationCenter.setCartesianCoordinate(getWidth() / 2, getHeight() / 2);
+        double scale = (double) getHeight() / 2;
+        mConverter.setRotation(mRotationStep, AngleMath.CIRCLE_ZERO);
+        mConverter.setScale(mScaleStep, scale, scale);
+        mConverter.setTranslation(mTranslationStep,
+                mRotationCenter.getCartesianX(),
+                mRotationCenter.getCartesianY());
+        // no need to reassign mConverter to the coordinates,
+        // the instance was assigned in init().
+
+        // render arrow, colors depend on navigation mode,
+        // so the paths are drawn with the current paint
+        mArrowBodyRightPath = AndroidPathSink.toPath(mArrowBodyRight);
+        mArrowBodyLeftPath = AndroidPathSink.toPath(mArrowBodyLeft);
+        mArrowLinesArray = mArrowLines.toLinesArray();
+
+        // render compass rose
+        releaseRoseBitmap();
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        mRoseBitmap = Bitmap.createBitmap(
+                getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas roseCanvas = new Canvas(mRoseBitmap);
+
+        mConverter.setRotation(mRotationStep, AngleMath.CIRCLE_ZERO);
+        roseCanvas.drawPath(AndroidPathSink.toPath(mCompassRoseBody),
+                mPaintRoseSolidNorth);
+        roseCanvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
+
+        mConverter.setRotation(mRotationStep, AngleMath.CIRCLE_1Q);
+        roseCanvas.drawPath(AndroidPathSink.toPath(mCompassRoseBody),
+                mPaintRoseSolids);
+        roseCanvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
+
+        mConverter.setRotation(mRotationStep, AngleMath.CIRCLE_HALF);
+        roseCanvas.drawPath(AndroidPathSink.toPath(mCompassRoseBody),
+                mPaintRoseSolids);
+        roseCanvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
+
+        mConverter.setRotation(mRotationStep, AngleMath.CIRCLE_3Q);
+        roseCanvas.drawPath(AndroidPathSink.toPath(mCompassRoseBody),
+                mPaintRoseSolids);
+        roseCanvas.drawLines(mCompassRose.toLinesArray(), mPaintRoseLines);
+    }
+
+    /**
+     * Releases the pre-rendered compass rose bitmap.
+     */
+    private void releaseRoseBitmap() {
+        if (mRoseBitmap != null) {
+            mRoseBitmap.recycle();
+            mRoseBitmap = null;
+        }
     }
 
     /**
@@ -460,16 +801,20 @@ public class NavigationView extends ImageView {
             mPaintSolids.setColor(Color.RED);
         }
 
-        // initialise rotationConverter
+        // initialise converter :
+        // angle 0° points up and angles increase clockwise,
+        // then the shape is rotated, scaled and moved to the center
         mRotationCenter = new Coordinate(0, 0);
-        mRotationConverter = new CoordinateRotation(mRotationCenter, 0.0, 1.0);
-        mRoseRotationConverter
-                = new CoordinateRotation(mRotationCenter, 0.0, 1.0);
-        mCompassRose.setCoordinateConverter(mRoseRotationConverter);
-        mCompassRoseBody.setCoordinateConverter(mRoseRotationConverter);
-        mArrowLines.setCoordinateConverter(mRotationConverter);
-        mArrowBodyRight.setCoordinateConverter(mRotationConverter);
-        mArrowBodyLeft.setCoordinateConverter(mRotationConverter);
+        mConverter = new ConverterChain();
+        mConverter.addRotation(-AngleMath.CIRCLE_1Q);
+        mRotationStep = mConverter.addRotation(AngleMath.CIRCLE_ZERO);
+        mScaleStep = mConverter.addScale(1, 1);
+        mTranslationStep = mConverter.addTranslation(0, 0);
+        mCompassRose.setCoordinateConverter(mConverter);
+        mCompassRoseBody.setCoordinateConverter(mConverter);
+        mArrowLines.setCoordinateConverter(mConverter);
+        mArrowBodyRight.setCoordinateConverter(mConverter);
+        mArrowBodyLeft.setCoordinateConverter(mConverter);
 
         // draw compass rose
 
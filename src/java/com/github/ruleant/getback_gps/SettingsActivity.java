@@ -107,6 +107,27 @@ public class SettingsActivity extends PreferenceActivity {
      */
     public static final String DEFAULT_PREF_GEO_ORIENTATION_SENSOR = "0";
 
+    /**
+     * Key of preference Still period, the time in milliseconds
+     * the device should be still before location updates are suspended.
+     */
+    public static final String KEY_PREF_STILL_PERIOD = "still_period";
+
+    /**
+     * Default value of preference Still period : 1 minute.
+     */
+    public static final String DEFAULT_PREF_STILL_PERIOD = "60000";
+
+    /**
+     * Key of preference Unit system.
+     */
+    public static final String KEY_PREF_UNIT_SYSTEM = "unit_system";
+
+    /**
+     * Default value of preference Unit system : metric.
+     */
+    public static final String DEFAULT_PREF_UNIT_SYSTEM = "0";
+
     /**
      * 60 seconds.
      */
@@ -167,6 +188,10 @@ public class SettingsActivity extends PreferenceActivity {
                 findPreference(KEY_PREF_LOC_UPDATE_TIME));
         bindPreferenceSummaryToValue(
                 findPreference(KEY_PREF_GEO_ORIENTATION_SENSOR));
+        bindPreferenceSummaryToValue(
+                findPreference(KEY_PREF_STILL_PERIOD));
+        bindPreferenceSummaryToValue(
+                findPreference(KEY_PREF_UNIT_SYSTEM));
         if (BuildConfig.DEBUG) {
             bindPreferenceSummaryToValue(
                     findPreference(DebugLevel.PREF_DEBUG_LEVEL));
@@ -376,6 +401,10 @@ public class SettingsActivity extends PreferenceActivity {
                     findPreference(KEY_PREF_LOC_UPDATE_TIME));
             bindPreferenceSummaryToValue(
                     findPreference(KEY_PREF_GEO_ORIENTATION_SENSOR));
+            bindPreferenceSummaryToValue(
+                    findPreference(KEY_PREF_STILL_PERIOD));
+            bindPreferenceSummaryToValue(
+                    findPreference(KEY_PREF_UNIT_SYSTEM));
         }
 
         /**
@@ -0,0 +1,60 @@
+/**
+ * System clock.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+
+/**
+ * Clock using the Android system clocks.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AndroidClock implements Clock {
+    /**
+     * Returns current timestamp.
+     *
+     * @return realtime timestamp in nanoseconds
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    public final long getTimestampNano() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            // use elapsedRealtime when using API 16 or lower
+            return SystemClock.elapsedRealtime() * Tools.MILLI_IN_NANO;
+        } else {
+            // use elapsedRealtimeNanos when using API 17 or higher
+            return SystemClock.elapsedRealtimeNanos();
+        }
+    }
+
+    /**
+     * Returns wall clock time.
+     *
+     * @return milliseconds since January 1, 1970 UTC
+     */
+    @Override
+    public final long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
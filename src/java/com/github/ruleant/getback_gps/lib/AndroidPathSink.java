@@ -0,0 +1,94 @@
+/**
+ * PathSink building an Android Path.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import android.graphics.Path;
+
+/**
+ * PathSink adapter writing the outline of a shape to an Android Path.
+ *
+ * @author Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class AndroidPathSink implements PathSink {
+    /**
+     * Path the outline is written to.
+     */
+    private final Path mPath;
+
+    /**
+     * Constructor, creating a new Path.
+     */
+    public AndroidPathSink() {
+        this(new Path());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param path Path the outline is written to
+     */
+    public AndroidPathSink(final Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException(
+                    "Parameter path should not be null");
+        }
+
+        mPath = path;
+    }
+
+    /**
+     * Return Coordinates as Path.
+     *
+     * @param coordinates Coordinates instance
+     * @return coordinates as Path instance
+     */
+    public static Path toPath(final Coordinates coordinates) {
+        AndroidPathSink sink = new AndroidPathSink();
+        coordinates.writeTo(sink);
+
+        return sink.getPath();
+    }
+
+    /**
+     * Get Path the outline is written to.
+     *
+     * @return Path instance
+     */
+    public final Path getPath() {
+        return mPath;
+    }
+
+    @Override
+    public final void moveTo(final float x, final float y) {
+        mPath.moveTo(x, y);
+    }
+
+    @Override
+    public final void lineTo(final float x, final float y) {
+        mPath.lineTo(x, y);
+    }
+
+    @Override
+    public final void close() {
+        mPath.close();
+    }
+}
@@ -37,9 +37,13 @@ import java.util.Date;
  * Custom Ariadne Location object, it inherits from Location class,
  * but overrides the getString() method.
  *
+ * It adapts the Android Location to LocationInterface, used by Navigator,
+ * the interface methods are implemented by Location.
+ *
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
-public class AriadneLocation extends Location {
+public class AriadneLocation extends Location
+        implements LocationInterface<Location> {
     /**
      * Location timestamp expiration,
      * 5 minutes in milliseconds (5 * 60 * 1000).
@@ -103,10 +107,12 @@ public class AriadneLocation extends Location {
      *
      * @return true if location is recent.
      */
+    @Override
     @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
     public boolean isRecent() {
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            return Tools.isTimestampRecent(getTime(), LOC_EXPIRE);
+            // getTime() is wall clock time, not time since boot
+            return Tools.isTimeRecent(getTime(), LOC_EXPIRE);
         } else {
             // use getElapsedRealtimeNanos when using API 17 or higher
             return Tools.isTimestampNanoRecent(getElapsedRealtimeNanos(),
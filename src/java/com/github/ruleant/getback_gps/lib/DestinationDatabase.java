@@ -0,0 +1,316 @@
+/**
+ * Database with stored destinations.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * Database with stored destinations, fe. imported from a GPX or KML file.
+ * The current destination is still kept in StoredDestination,
+ * a stored destination is selected by copying it to StoredDestination.
+ *
+ * A destination with the same name and location is only stored once,
+ * so importing the same file again doesn't add duplicates.
+ * Unnamed destinations are stored with an empty name, because a unique
+ * constraint considers null values different, they are returned as null.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class DestinationDatabase extends SQLiteOpenHelper {
+    /**
+     * Database file name.
+     */
+    public static final String DATABASE_NAME = "destinations.db";
+
+    /**
+     * Database version.
+     */
+    private static final int DATABASE_VERSION = 1;
+
+    /**
+     * Table with destinations.
+     */
+    public static final String TABLE_DESTINATIONS = "destinations";
+
+    /**
+     * Column : destination id.
+     */
+    public static final String COLUMN_ID = "_id";
+
+    /**
+     * Column : destination name.
+     */
+    public static final String COLUMN_NAME = "name";
+
+    /**
+     * Column : latitude in degrees.
+     */
+    public static final String COLUMN_LATITUDE = "latitude";
+
+    /**
+     * Column : longitude in degrees.
+     */
+    public static final String COLUMN_LONGITUDE = "longitude";
+
+    /**
+     * Column : altitude in meters, null if not set.
+     */
+    public static final String COLUMN_ALTITUDE = "altitude";
+
+    /**
+     * Column : label of the destination, the name
+     * or the coordinates if the destination has no name.
+     */
+    public static final String COLUMN_LABEL = "label";
+
+    /**
+     * Number of destinations inserted in one transaction.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context of the Android app
+     */
+    public DestinationDatabase(final Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public final void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_DESTINATIONS + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_NAME + " TEXT NOT NULL DEFAULT '', "
+                + COLUMN_LATITUDE + " REAL NOT NULL, "
+                + COLUMN_LONGITUDE + " REAL NOT NULL, "
+                + COLUMN_ALTITUDE + " REAL, "
+                + "UNIQUE (" + COLUMN_NAME + ", " + COLUMN_LATITUDE + ", "
+                + COLUMN_LONGITUDE + "))");
+    }
+
+    @Override
+    public final void onUpgrade(final SQLiteDatabase db, final int oldVersion,
+                                final int newVersion) {
+        // first version, nothing to upgrade
+    }
+
+    /**
+     * Get number of stored destinations.
+     *
+     * @return number of destinations
+     */
+    public final long getCount() {
+        return DatabaseUtils.queryNumEntries(
+                getReadableDatabase(), TABLE_DESTINATIONS);
+    }
+
+    /**
+     * Queries all destinations, in the order they were stored.
+     * The cursor reads the rows in windows, so all destinations
+     * can be iterated without loading them in memory.
+     *
+     * @return Cursor with columns name, latitude, longitude and altitude
+     */
+    public final Cursor queryDestinations() {
+        return getReadableDatabase().query(TABLE_DESTINATIONS,
+                new String[] {"NULLIF(" + COLUMN_NAME + ", '') AS "
+                        + COLUMN_NAME, COLUMN_LATITUDE, COLUMN_LONGITUDE,
+                        COLUMN_ALTITUDE},
+                null, null, null, null, COLUMN_ID);
+    }
+
+    /**
+     * Queries all destinations with a label, sorted by label,
+     * to select a destination from a list.
+     *
+     * @return Cursor with columns _id, label, name, latitude, longitude
+     *         and altitude
+     */
+    public final Cursor queryDestinationList() {
+        return getReadableDatabase().query(TABLE_DESTINATIONS,
+                new String[] {COLUMN_ID,
+                        "CASE " + COLUMN_NAME + " WHEN '' THEN "
+                        + COLUMN_LATITUDE + " || ', ' || " + COLUMN_LONGITUDE
+                        + " ELSE " + COLUMN_NAME + " END AS " + COLUMN_LABEL,
+                        "NULLIF(" + COLUMN_NAME + ", '') AS " + COLUMN_NAME,
+                        COLUMN_LATITUDE, COLUMN_LONGITUDE, COLUMN_ALTITUDE},
+                null, null, null, null,
+                COLUMN_LABEL + " COLLATE LOCALIZED, " + COLUMN_ID);
+    }
+
+    /**
+     * Creates a BatchInserter, to insert a large number of destinations.
+     *
+     * @return BatchInserter
+     */
+    public final BatchInserter newBatchInserter() {
+        return new BatchInserter(getWritableDatabase());
+    }
+
+    /**
+     * Inserts destinations in batches, each batch in one transaction,
+     * using a precompiled statement.
+     * It can be used as WaypointParser listener, to import destinations
+     * while the file is parsed. Not thread safe, use it on one thread.
+     */
+    public static class BatchInserter implements WaypointParser.Listener {
+        /**
+         * Database.
+         */
+        private final SQLiteDatabase mDatabase;
+
+        /**
+         * Precompiled insert statement.
+         */
+        private final SQLiteStatement mInsert;
+
+        /**
+         * Number of destinations in the current transaction.
+         */
+        private int mBatchCount = 0;
+
+        /**
+         * Number of inserted destinations.
+         */
+        private long mInsertedCount = 0;
+
+        /**
+         * Number of inserted destinations in committed transactions.
+         */
+        private long mCommittedCount = 0;
+
+        /**
+         * Number of destinations that were already stored.
+         */
+        private long mDuplicateCount = 0;
+
+        /**
+         * Number of duplicate destinations in committed transactions.
+         */
+        private long mCommittedDuplicateCount = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param database writable database
+         */
+        BatchInserter(final SQLiteDatabase database) {
+            mDatabase = database;
+            mInsert = database.compileStatement("INSERT OR IGNORE INTO "
+                    + TABLE_DESTINATIONS + " (" + COLUMN_NAME + ", "
+                    + COLUMN_LATITUDE + ", " + COLUMN_LONGITUDE + ", "
+                    + COLUMN_ALTITUDE + ") VALUES (?, ?, ?, ?)");
+        }
+
+        /**
+         * Get number of inserted destinations, including the destinations
+         * in the current transaction.
+         *
+         * @return number of inserted destinations
+         */
+        public final long getInsertedCount() {
+            return mInsertedCount;
+        }
+
+        /**
+         * Get number of destinations that were not inserted,
+         * because a destination with the same name and location
+         * was already stored.
+         *
+         * @return number of duplicate destinations
+         */
+        public final long getDuplicateCount() {
+            return mDuplicateCount;
+        }
+
+        @Override
+        public final void onWaypoint(final String name, final double latitude,
+                                     final double longitude,
+                                     final double altitude) {
+            if (mBatchCount == 0) {
+                mDatabase.beginTransaction();
+            }
+
+            mInsert.clearBindings();
+            mInsert.bindString(1, name == null ? "" : name);
+            mInsert.bindDouble(2, latitude);
+            mInsert.bindDouble(3, longitude);
+            if (!Double.isNaN(altitude)) {
+                mInsert.bindDouble(4, altitude);
+            }
+            if (mInsert.executeInsert() == -1) {
+                mDuplicateCount++;
+            } else {
+                mInsertedCount++;
+            }
+
+            if (++mBatchCount >= BATCH_SIZE) {
+                commit();
+            }
+        }
+
+        /**
+         * Commits the destinations in the current transaction
+         * and releases the statement.
+         */
+        public final void finish() {
+            commit();
+            mInsert.close();
+        }
+
+        /**
+         * Rolls back the destinations in the current transaction
+         * and releases the statement.
+         * Destinations in committed batches are kept.
+         */
+        public final void abort() {
+            if (mBatchCount > 0) {
+                mInsertedCount = mCommittedCount;
+                mDuplicateCount = mCommittedDuplicateCount;
+                mBatchCount = 0;
+                mDatabase.endTransaction();
+            }
+            mInsert.close();
+        }
+
+        /**
+         * Commits the current transaction.
+         */
+        private void commit() {
+            if (mBatchCount == 0) {
+                return;
+            }
+
+            mDatabase.setTransactionSuccessful();
+            mDatabase.endTransaction();
+            mBatchCount = 0;
+            mCommittedCount = mInsertedCount;
+            mCommittedDuplicateCount = mDuplicateCount;
+        }
+    }
+}
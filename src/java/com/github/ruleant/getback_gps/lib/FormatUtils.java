@@ -39,71 +39,90 @@ import java.util.Locale;
 /**
  * Methods to convert values to formatted string.
  *
+ * The formatting is done by UnitFormat, this class adds
+ * the localized unit labels from the app resources.
+ *
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
 public class FormatUtils {
     /**
      * Speed unit : km/h.
      */
-    public static final String SPEED_KPH = "km/h";
+    public static final String SPEED_KPH = UnitFormat.SPEED_KPH;
 
     /**
-     * Conversion rate from m/s to km/h.
+     * Unit system : metric (m, km, km/h).
      */
-    private static final double SPEED_CONV_MPS_KPH = 3.6; // 3600s/1000m
+    public static final int UNIT_SYSTEM_METRIC = UnitFormat.UNIT_SYSTEM_METRIC;
 
     /**
-     * Conversion rate from kilometer to meter.
+     * Unit system : imperial (ft, mi, mph).
      */
-    private static final double CONV_KM_M = 1000.0;
+    public static final int UNIT_SYSTEM_IMPERIAL
+            = UnitFormat.UNIT_SYSTEM_IMPERIAL;
 
     /**
-     * 1 decimal difference.
+     * Unit system : nautical (NM or m below 0.1 NM, kn, heights in m).
      */
-    private static final double ONE_DEC = 10.0;
+    public static final int UNIT_SYSTEM_NAUTICAL
+            = UnitFormat.UNIT_SYSTEM_NAUTICAL;
 
     /**
-     * Minimal angle value = 0°.
+     * String resource of the localized unit labels, per quantity and unit.
      */
-    public static final float CIRCLE_ZERO = 0;
+    private static final int[][] LABEL_IDS = {
+        {R.string.distance_m, R.string.distance_km, R.string.distance_ft,
+            R.string.distance_mi, R.string.distance_nmi},
+        {R.string.distance_m, R.string.distance_ft},
+        {R.string.speed_mps, R.string.speed_kph, R.string.speed_mph,
+            R.string.speed_kn},
+    };
 
     /**
-     * First quarter angle value = 1/2 PI = 90°.
+     * Cached localized unit labels, per quantity and unit.
      */
-    public static final float CIRCLE_1Q = 90;
+    private static final String[][] LABELS = new String[LABEL_IDS.length][];
 
     /**
-     * Halfway angle value = PI = 180°.
+     * Locale of the cached localized unit labels.
      */
-    public static final float CIRCLE_HALF = 180;
+    private static Locale sLabelLocale = null;
 
     /**
-     * Third quarter angle value = 3/2 PI = 270°.
+     * Hidden constructor, to prevent instantiating.
      */
-    public static final float CIRCLE_3Q = 270;
+    protected FormatUtils() {
+        // prevents calls from subclass
+        throw new UnsupportedOperationException();
+    }
 
     /**
-     * Maximal angle value = 360°.
+     * Sets the unit system of the formatted distances, heights and speeds.
+     *
+     * @param unitSystem unit system (UNIT_SYSTEM_METRIC, UNIT_SYSTEM_IMPERIAL
+     *                   or UNIT_SYSTEM_NAUTICAL)
      */
-    public static final float CIRCLE_FULL = 360;
-
-
+    public static void setUnitSystem(final int unitSystem) {
+        UnitFormat.setUnitSystem(unitSystem);
+    }
 
     /**
-     * Hidden constructor, to prevent instantiating.
+     * Get the unit system of the formatted distances, heights and speeds.
+     *
+     * @return unit system
      */
-    protected FormatUtils() {
-        // prevents calls from subclass
-        throw new UnsupportedOperationException();
+    public static int getUnitSystem() {
+        return UnitFormat.getUnitSystem();
     }
 
     /**
      * Formats a distance (in meter) to a string,
-     * in meter or kilometer, depending on the size.
+     * in meter or kilometer (foot or mile, meter or nautical mile),
+     * depending on the size and the unit system.
      * The number format is localized.
      *
      * @param distance distance in m
-     * @return formatted distance with unit (m or km)
+     * @return formatted distance with unit (fe. m or km)
      */
     public static String formatDist(final double distance) {
         return formatDist(distance, null);
@@ -111,125 +130,101 @@ public class FormatUtils {
 
     /**
      * Formats a distance (in meter) to a string,
-     * in meter or kilometer, depending on the size.
+     * in meter or kilometer (foot or mile, meter or nautical mile),
+     * depending on the size and the unit system.
      * The number format is localized.
      *
      * @param distance distance in m
      * @param context App context
-     * @return formatted distance with unit (m or km)
+     * @return formatted distance with unit (fe. m or km)
      */
     public static String formatDist(final double distance, final Context context) {
-        String shortUnit = "m";
-        String longUnit = "km";
-        double scaleUnit = CONV_KM_M;
-
-        // if context is defined, use android string
-        if (context != null) {
-            shortUnit = context.getResources().getString(R.string.distance_m);
-            longUnit = context.getResources().getString(R.string.distance_km);
-        }
-
-        // distance shouldn't be negative
-        double distanceAbs = Math.abs(distance);
-
-        // conversion and formatting
-        if (Math.round(distanceAbs) < scaleUnit) {
-            // display as short unit, as integer
-            return String.format(Locale.getDefault(), "%1$d%2$s",
-                    Math.round(distanceAbs), shortUnit);
-        } else {
-            double scaledDistance = distanceAbs / scaleUnit;
-            // round to one decimal and check if it is
-            // smaller than a 1 decimal difference
-            if ((Math.round(scaledDistance * ONE_DEC) / ONE_DEC) < ONE_DEC) {
-                // display as long unit, with 1 decimal
-                return String.format(
-                        Locale.getDefault(), "%1$,.1f%2$s",
-                        scaledDistance, longUnit);
-            } else {
-                // display as long unit, as integer
-                return String.format(
-                        Locale.getDefault(), "%1$,d%2$s",
-                        Math.round(scaledDistance), longUnit);
-            }
-        }
+        return format(UnitFormat.QUANTITY_DISTANCE, distance, context);
     }
 
     /**
-     * Formats a height (in meter) to a string, in meter.
+     * Formats a height (in meter) to a string,
+     * in meter (or foot, depending on the unit system).
      * The number format is localized.
      *
      * @param height height in m
-     * @return formatted height with unit (m)
+     * @return formatted height with unit (fe. m)
      */
     public static String formatHeight(final double height) {
         return formatHeight(height, null);
     }
 
     /**
-     * Formats a height (in meter) to a string, in meter.
+     * Formats a height (in meter) to a string,
+     * in meter (or foot, depending on the unit system).
      * The number format is localized.
      *
      * @param height height in m
-     * @return formatted height with unit (m)
+     * @param context App context
+     * @return formatted height with unit (fe. m)
      */
     public static String formatHeight(final double height, final Context context) {
-        String unit = "m";
-
-        // if context is defined, use android string
-        if (context != null) {
-            unit = context.getResources().getString(R.string.distance_m);
-        }
-
-        return String.format(
-                Locale.getDefault(), "%1$,d%2$s",
-                Math.round(height), unit);
+        return format(UnitFormat.QUANTITY_HEIGHT, height, context);
     }
 
     /**
      * Formats a speed (in meter per second (m/s)) to a string,
-     * in kilometer per hour (km/h).
+     * in kilometer per hour (or mph, knots, depending on the unit system).
      * The number format is localized.
      *
      * @param speed speed in m/s
-     * @return formatted speed with unit (km/h)
+     * @return formatted speed with unit (fe. km/h)
      */
     public static String formatSpeed(final double speed) {
         return formatSpeed(speed, null);
     }
 
     /**
-     * Formats a distance (in meter per second (m/s)) to a string,
-     * in kilometer per hour (km/h).
+     * Formats a speed (in meter per second (m/s)) to a string,
+     * in kilometer per hour (or mph, knots, depending on the unit system).
      * The number format is localized and speed unit is translatable.
      *
      * @param speed speed in m/s
      * @param context App context.
-     * @return formatted speed with unit (km/h)
+     * @return formatted speed with unit (fe. km/h)
      */
     public static String formatSpeed(final double speed,
                                      final Context context) {
-        String unit = SPEED_KPH;
+        return format(UnitFormat.QUANTITY_SPEED, speed, context);
+    }
 
-        // if context is defined, use android string
-        if (context != null) {
-            unit = context.getResources().getString(R.string.speed_kph);
+    /**
+     * Formats a value (in the default unit of a quantity)
+     * in the unit of the current unit system, with localized unit labels.
+     * Localized unit labels are cached, and only looked up again
+     * when the locale changes.
+     *
+     * @param quantity quantity of the value
+     * @param value value in the default unit (m or m/s)
+     * @param context App context, if null, unit labels are not localized
+     * @return formatted value with unit
+     */
+    private static synchronized String format(final int quantity,
+                                              final double value,
+                                              final Context context) {
+        // if context is defined, use android strings
+        if (context == null) {
+            return UnitFormat.format(quantity, value, null);
         }
 
-        // speed shouldn't be negative, conversion to kph
-        double convertedSpeed = Math.abs(speed) * SPEED_CONV_MPS_KPH;
-
-        // formatting
-        if (convertedSpeed < ONE_DEC) {
-            // display with 1 decimal
-            return String.format(
-                    Locale.getDefault(), "%1$,.1f%2$s", convertedSpeed, unit);
-        } else {
-            // display as integer
-            return String.format(
-                    Locale.getDefault(), "%1$,d%2$s",
-                    Math.round(convertedSpeed), unit);
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(sLabelLocale)) {
+            Resources res = context.getResources();
+            for (int i = 0; i < LABEL_IDS.length; i++) {
+                LABELS[i] = new String[LABEL_IDS[i].length];
+                for (int unit = 0; unit < LABEL_IDS[i].length; unit++) {
+                    LABELS[i][unit] = res.getString(LABEL_IDS[i][unit]);
+                }
+            }
+            sLabelLocale = locale;
         }
+
+        return UnitFormat.format(quantity, value, LABELS[quantity]);
     }
 
     /**
@@ -241,52 +236,7 @@ public class FormatUtils {
      * @return formatted angle with unit (°)
      */
     public static String formatAngle(final double angle, final int precision) {
-        if (precision < 0) {
-            throw new IllegalArgumentException(
-                    "Precision can't be a negative value");
-        }
-
-        String unit = "°";
-
-        // generate format string
-        // format number with variable precision (%s.xf), with x = precision
-        String formatString = "%1$." + String.format(Locale.US, "%d", precision) + "f";
-        // add unit
-        formatString += "%2$s";
-
-        // formatting
-        return String.format(Locale.getDefault(), formatString, angle, unit);
-    }
-
-    /**
-     * Normalize an angle to be in the range 0°-360°.
-     *
-     * @param angle Angle in degrees
-     * @return Normalized angle in range 0°-360°
-     */
-    public static double normalizeAngle(final double angle) {
-        // TODO low refactor to also work if range would be -180°-180°
-        float range = CIRCLE_FULL - CIRCLE_ZERO;
-        double convertedAngle = angle;
-
-        // returned value should be between 0° and 360°
-        if (angle < CIRCLE_ZERO) {
-            convertedAngle += range * Math.ceil(Math.abs(angle / range));
-        } else if (angle >= CIRCLE_FULL) {
-            convertedAngle -= range * Math.floor(angle / range);
-        }
-
-        return convertedAngle;
-    }
-
-    /**
-     * Get an inverse angle, ie. angle pointing in opposite direction.
-     *
-     * @param angle Angle in degrees (0°-360°)
-     * @return angle in opposite direction (0°-360°)
-     */
-    public static double inverseAngle(final double angle) {
-        return normalizeAngle(angle - CIRCLE_HALF);
+        return UnitFormat.formatAngle(angle, precision);
     }
 
     /**
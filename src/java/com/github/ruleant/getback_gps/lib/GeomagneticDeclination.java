@@ -0,0 +1,53 @@
+/**
+ * Magnetic declination based on the Android geomagnetic field model.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import android.hardware.GeomagneticField;
+
+/**
+ * Magnetic declination based on the World Magnetic Model,
+ * as implemented by GeomagneticField.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class GeomagneticDeclination implements DeclinationCache.Model {
+    /**
+     * Calculates the magnetic declination.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param altitude altitude in meters
+     * @param time time in milliseconds since January 1, 1970 UTC
+     * @return declination in degrees, positive if magnetic north
+     *         is east of true north
+     */
+    @Override
+    public final double getDeclination(final double latitude,
+                                       final double longitude,
+                                       final double altitude,
+                                       final long time) {
+        GeomagneticField field = new GeomagneticField(
+                (float) latitude, (float) longitude, (float) altitude, time);
+
+        return field.getDeclination();
+    }
+}
@@ -0,0 +1,657 @@
+/**
+ * Streaming GPX 1.1 writer.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming GPX 1.1 writer.
+ *
+ * Waypoints and track points are encoded directly in a fixed-size
+ * byte buffer, which is written to the output stream when it is full,
+ * so the document is never held in memory and any number of points
+ * can be written. Numbers are formatted with a fixed number of decimals
+ * and a decimal point, independent of the locale, and dates are
+ * formatted as UTC timestamps, without creating formatter objects.
+ *
+ * Waypoints should be written before the tracks, as required by
+ * the GPX schema. The location accuracy is written as an extension.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class GpxWriter implements Closeable {
+    /**
+     * GPX 1.1 namespace.
+     */
+    public static final String NAMESPACE = "http://www.topografix.com/GPX/1/1";
+
+    /**
+     * Namespace of the Ariadne GPX extensions.
+     */
+    public static final String EXTENSIONS_NAMESPACE
+            = "https://github.com/ruleant/ariadne/gpx/1";
+
+    /**
+     * Default buffer size in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Minimum buffer size in bytes,
+     * big enough for the longest UTF-8 encoded character.
+     */
+    private static final int MIN_BUFFER_SIZE = 16;
+
+    /**
+     * Number of decimals of latitude and longitude (about 1 cm).
+     */
+    private static final int COORDINATE_DECIMALS = 7;
+
+    /**
+     * Number of decimals of altitude and accuracy.
+     */
+    private static final int DISTANCE_DECIMALS = 1;
+
+    /**
+     * Maximum value that is formatted with fixed decimals,
+     * bigger values are formatted with Double.toString().
+     */
+    private static final double MAX_FIXED_VALUE = 1e12;
+
+    /**
+     * Milliseconds in a day.
+     */
+    private static final long DAY_IN_MILLIS = 86400000;
+
+    /**
+     * Seconds in a minute and minutes in an hour.
+     */
+    private static final int SIXTY = 60;
+
+    /**
+     * Base of decimal numbers.
+     */
+    private static final int DECIMAL = 10;
+
+    /**
+     * Output stream.
+     */
+    private final OutputStream mOutput;
+
+    /**
+     * Encoding buffer.
+     */
+    private final byte[] mBuffer;
+
+    /**
+     * Number of bytes in the buffer.
+     */
+    private int mPosition = 0;
+
+    /**
+     * Digits of a number, in reverse order.
+     */
+    private final byte[] mDigits = new byte[DECIMAL * 2];
+
+    /**
+     * Name of the application creating the document.
+     */
+    private final String mCreator;
+
+    /**
+     * True if the document header is written.
+     */
+    private boolean mStarted = false;
+
+    /**
+     * True if a track is started.
+     */
+    private boolean mInTrack = false;
+
+    /**
+     * True if a track was written, no waypoints can be written anymore.
+     */
+    private boolean mTrackWritten = false;
+
+    /**
+     * True if the writer is closed.
+     */
+    private boolean mClosed = false;
+
+    /**
+     * Number of written waypoints and track points.
+     */
+    private long mPointCount = 0;
+
+    /**
+     * Constructor, using default buffer size.
+     *
+     * @param output output stream
+     * @param creator name of the application creating the document
+     */
+    public GpxWriter(final OutputStream output, final String creator) {
+        this(output, creator, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param output output stream
+     * @param creator name of the application creating the document
+     * @param bufferSize size of the encoding buffer in bytes
+     */
+    public GpxWriter(final OutputStream output, final String creator,
+                     final int bufferSize) {
+        if (output == null || creator == null) {
+            throw new IllegalArgumentException(
+                    "Parameters output and creator should not be null");
+        }
+
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException(
+                    "bufferSize should be at least " + MIN_BUFFER_SIZE);
+        }
+
+        mOutput = output;
+        mCreator = creator;
+        mBuffer = new byte[bufferSize];
+    }
+
+    /**
+     * Get number of written waypoints and track points.
+     *
+     * @return number of points
+     */
+    public final long getPointCount() {
+        return mPointCount;
+    }
+
+    /**
+     * Writes a location as a waypoint.
+     *
+     * @param location location, with name, altitude, time and accuracy
+     * @throws IOException if writing fails
+     */
+    public final void writeWaypoint(final AriadneLocation location)
+            throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException(
+                    "Parameter location should not be null");
+        }
+
+        writeWaypoint(location.getName(), location.getLatitude(),
+                location.getLongitude(), getAltitude(location),
+                location.getTime(), getAccuracy(location));
+    }
+
+    /**
+     * Writes a waypoint.
+     *
+     * @param name name, null if not set
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param altitude altitude in meters, NaN if not set
+     * @param time UTC time in milliseconds since epoch, 0 if not set
+     * @param accuracy accuracy in meters, NaN if not set
+     * @throws IOException if writing fails
+     */
+    public final void writeWaypoint(final String name, final double latitude,
+                                    final double longitude,
+                                    final double altitude, final long time,
+                                    final double accuracy)
+            throws IOException {
+        if (mTrackWritten) {
+            throw new IllegalStateException(
+                    "waypoints should be written before tracks");
+        }
+
+        writePoint("wpt", name, latitude, longitude, altitude, time,
+                accuracy);
+    }
+
+    /**
+     * Starts a track, with one track segment.
+     *
+     * @param name track name, null if not set
+     * @throws IOException if writing fails
+     */
+    public final void beginTrack(final String name) throws IOException {
+        if (mInTrack) {
+            endTrack();
+        }
+
+        start();
+        append("<trk>");
+        if (name != null) {
+            append("<name>");
+            appendEscaped(name);
+            append("</name>");
+        }
+        append("<trkseg>\n");
+        mInTrack = true;
+        mTrackWritten = true;
+    }
+
+    /**
+     * Writes a location as a point of the current track.
+     *
+     * @param location location, with altitude, time and accuracy
+     * @throws IOException if writing fails
+     */
+    public final void writeTrackPoint(final AriadneLocation location)
+            throws IOException {
+        if (location == null) {
+            throw new IllegalArgumentException(
+                    "Parameter location should not be null");
+        }
+
+        writeTrackPoint(location.getLatitude(), location.getLongitude(),
+                getAltitude(location), location.getTime(),
+                getAccuracy(location));
+    }
+
+    /**
+     * Writes a point of the current track.
+     *
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param altitude altitude in meters, NaN if not set
+     * @param time UTC time in milliseconds since epoch, 0 if not set
+     * @param accuracy accuracy in meters, NaN if not set
+     * @throws IOException if writing fails
+     */
+    public final void writeTrackPoint(final double latitude,
+                                      final double longitude,
+                                      final double altitude, final long time,
+                                      final double accuracy)
+            throws IOException {
+        if (!mInTrack) {
+            throw new IllegalStateException("no track is started");
+        }
+
+        writePoint("trkpt", null, latitude, longitude, altitude, time,
+                accuracy);
+    }
+
+    /**
+     * Ends the current track.
+     *
+     * @throws IOException if writing fails
+     */
+    public final void endTrack() throws IOException {
+        if (!mInTrack) {
+            return;
+        }
+
+        append("</trkseg></trk>\n");
+        mInTrack = false;
+    }
+
+    /**
+     * Ends the document, writes the buffer to the output stream
+     * and closes the output stream.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public final void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+
+        try {
+            start();
+            endTrack();
+            append("</gpx>\n");
+            flushBuffer();
+            mOutput.flush();
+        } finally {
+            mClosed = true;
+            mOutput.close();
+        }
+    }
+
+    /**
+     * Writes a waypoint or track point.
+     *
+     * @param element element name
+     * @param name name, null if not set
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param altitude altitude in meters, NaN if not set
+     * @param time UTC time in milliseconds since epoch, 0 if not set
+     * @param accuracy accuracy in meters, NaN if not set
+     * @throws IOException if writing fails
+     */
+    private void writePoint(final String element, final String name,
+                            final double latitude, final double longitude,
+                            final double altitude, final long time,
+                            final double accuracy) throws IOException {
+        if (!Latitude.isValid(latitude) || !Longitude.isValid(longitude)) {
+            throw new IllegalArgumentException(
+                    "latitude or longitude is out of range");
+        }
+
+        start();
+
+        // child elements in the order of the GPX schema
+        append("<");
+        append(element);
+        append(" lat=\"");
+        appendFixed(latitude, COORDINATE_DECIMALS);
+        append("\" lon=\"");
+        appendFixed(longitude, COORDINATE_DECIMALS);
+        append("\">");
+        if (!Double.isNaN(altitude)) {
+            append("<ele>");
+            appendFixed(altitude, DISTANCE_DECIMALS);
+            append("</ele>");
+        }
+        if (time > 0) {
+            append("<time>");
+            appendTime(time);
+            append("</time>");
+        }
+        if (name != null) {
+            append("<name>");
+            appendEscaped(name);
+            append("</name>");
+        }
+        if (!Double.isNaN(accuracy)) {
+            append("<extensions><ariadne:accuracy>");
+            appendFixed(accuracy, DISTANCE_DECIMALS);
+            append("</ariadne:accuracy></extensions>");
+        }
+        append("</");
+        append(element);
+        append(">\n");
+
+        mPointCount++;
+    }
+
+    /**
+     * Writes the document header, if it is not written yet.
+     *
+     * @throws IOException if writing fails
+     */
+    private void start() throws IOException {
+        if (mClosed) {
+            throw new IllegalStateException("writer is closed");
+        }
+
+        if (mStarted) {
+            return;
+        }
+
+        mStarted = true;
+        append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        append("<gpx version=\"1.1\" creator=\"");
+        appendEscaped(mCreator);
+        append("\" xmlns=\"");
+        append(NAMESPACE);
+        append("\" xmlns:ariadne=\"");
+        append(EXTENSIONS_NAMESPACE);
+        append("\">\n");
+    }
+
+    /**
+     * Get altitude of a location.
+     *
+     * @param location location
+     * @return altitude in meters, NaN if not set
+     */
+    private static double getAltitude(final AriadneLocation location) {
+        if (!location.hasAltitude()) {
+            return Double.NaN;
+        }
+
+        return location.getAltitude();
+    }
+
+    /**
+     * Get accuracy of a location.
+     *
+     * @param location location
+     * @return accuracy in meters, NaN if not set
+     */
+    private static double getAccuracy(final AriadneLocation location) {
+        if (!location.hasAccuracy()) {
+            return Double.NaN;
+        }
+
+        return location.getAccuracy();
+    }
+
+    /**
+     * Appends a text, encoded as UTF-8.
+     *
+     * @param text text
+     * @throws IOException if writing fails
+     */
+    private void append(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            appendChar(text.charAt(i), text, i);
+        }
+    }
+
+    /**
+     * Appends a text, escaping XML special characters.
+     *
+     * @param text text
+     * @throws IOException if writing fails
+     */
+    private void appendEscaped(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '&':
+                    append("&amp;");
+                    break;
+                case '<':
+                    append("&lt;");
+                    break;
+                case '>':
+                    append("&gt;");
+                    break;
+                case '"':
+                    append("&quot;");
+                    break;
+                case '\'':
+                    append("&apos;");
+                    break;
+                default:
+                    // control characters are not allowed in XML 1.0
+                    if (character >= ' ' || character == '\n'
+                            || character == '\t' || character == '\r') {
+                        appendChar(character, text, i);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Appends a character, encoded as UTF-8.
+     * A surrogate pair is encoded when the high surrogate is appended.
+     *
+     * @param character character
+     * @param text text containing the character
+     * @param index index of the character in the text
+     * @throws IOException if writing fails
+     */
+    private void appendChar(final char character, final String text,
+                            final int index) throws IOException {
+        if (mBuffer.length - mPosition < 4) {
+            flushBuffer();
+        }
+
+        if (character < 0x80) {
+            mBuffer[mPosition++] = (byte) character;
+        } else if (character < 0x800) {
+            mBuffer[mPosition++] = (byte) (0xC0 | (character >> 6));
+            mBuffer[mPosition++] = (byte) (0x80 | (character & 0x3F));
+        } else if (Character.isHighSurrogate(character)) {
+            if (index + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(
+                        character, text.charAt(index + 1));
+                mBuffer[mPosition++] = (byte) (0xF0 | (codePoint >> 18));
+                mBuffer[mPosition++]
+                        = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                mBuffer[mPosition++]
+                        = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                mBuffer[mPosition++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                mBuffer[mPosition++] = (byte) '?';
+            }
+        } else if (Character.isLowSurrogate(character)) {
+            // encoded with the high surrogate, or unpaired
+            if (index == 0
+                    || !Character.isHighSurrogate(text.charAt(index - 1))) {
+                mBuffer[mPosition++] = (byte) '?';
+            }
+        } else {
+            mBuffer[mPosition++] = (byte) (0xE0 | (character >> 12));
+            mBuffer[mPosition++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+            mBuffer[mPosition++] = (byte) (0x80 | (character & 0x3F));
+        }
+    }
+
+    /**
+     * Appends an ASCII byte.
+     *
+     * @param value ASCII byte
+     * @throws IOException if writing fails
+     */
+    private void appendByte(final int value) throws IOException {
+        if (mPosition == mBuffer.length) {
+            flushBuffer();
+        }
+
+        mBuffer[mPosition++] = (byte) value;
+    }
+
+    /**
+     * Appends a positive integer value, padded with zeros.
+     *
+     * @param value value
+     * @param minDigits minimum number of digits
+     * @throws IOException if writing fails
+     */
+    private void appendNumber(final long value, final int minDigits)
+            throws IOException {
+        long remaining = value;
+        int count = 0;
+        do {
+            mDigits[count++] = (byte) ('0' + remaining % DECIMAL);
+            remaining /= DECIMAL;
+        } while (remaining > 0 || count < minDigits);
+
+        while (count > 0) {
+            appendByte(mDigits[--count]);
+        }
+    }
+
+    /**
+     * Appends a decimal value with a fixed number of decimals,
+     * with a decimal point, independent of the locale.
+     *
+     * @param value value
+     * @param decimals number of decimals
+     * @throws IOException if writing fails
+     */
+    private void appendFixed(final double value, final int decimals)
+            throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)
+                || Math.abs(value) >= MAX_FIXED_VALUE) {
+            append(Double.toString(value));
+            return;
+        }
+
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= DECIMAL;
+        }
+
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            appendByte('-');
+        }
+        appendNumber(scaled / scale, 1);
+        if (decimals > 0) {
+            appendByte('.');
+            appendNumber(scaled % scale, decimals);
+        }
+    }
+
+    /**
+     * Appends a UTC time in ISO 8601 format : yyyy-mm-ddThh:mm:ssZ.
+     *
+     * @param time UTC time in milliseconds since epoch, positive
+     * @throws IOException if writing fails
+     */
+    private void appendTime(final long time) throws IOException {
+        long days = time / DAY_IN_MILLIS;
+        long seconds = time % DAY_IN_MILLIS / Tools.SECOND_IN_MILLIS;
+
+        // convert days since epoch to a civil date,
+        // using eras of 400 years, starting on March 1st
+        long shifted = days + 719468;
+        long era = shifted / 146097;
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524
+                - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra
+                - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        appendNumber(year, 4);
+        appendByte('-');
+        appendNumber(month, 2);
+        appendByte('-');
+        appendNumber(day, 2);
+        appendByte('T');
+        appendNumber(seconds / (SIXTY * SIXTY), 2);
+        appendByte(':');
+        appendNumber(seconds / SIXTY % SIXTY, 2);
+        appendByte(':');
+        appendNumber(seconds % SIXTY, 2);
+        appendByte('Z');
+    }
+
+    /**
+     * Writes the buffer to the output stream.
+     *
+     * @throws IOException if writing fails
+     */
+    private void flushBuffer() throws IOException {
+        if (mPosition > 0) {
+            mOutput.write(mBuffer, 0, mPosition);
+            mPosition = 0;
+        }
+    }
+}
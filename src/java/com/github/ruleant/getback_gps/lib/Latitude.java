@@ -42,7 +42,7 @@ public class Latitude extends AbstractGeoCoordinate {
     /**
      * Segment North upper limit.
      */
-    public static final double SEGMENT_NORTH_HIGH = 90;
+    public static final double SEGMENT_NORTH_HIGH = GeoRange.LATITUDE_MAX;
 
     /**
      * Segment North lower limit.
@@ -67,7 +67,7 @@ public class Latitude extends AbstractGeoCoordinate {
     /**
      * Segment South lower limit.
      */
-    public static final double SEGMENT_SOUTH_LOW = -90;
+    public static final double SEGMENT_SOUTH_LOW = GeoRange.LATITUDE_MIN;
 
     /**
      * Segment South Unit.
@@ -101,6 +101,16 @@ public class Latitude extends AbstractGeoCoordinate {
         setRange(SEGMENT_SOUTH_LOW, SEGMENT_NORTH_HIGH);
     }
 
+    /**
+     * Checks if a value is a valid latitude, without creating an instance.
+     *
+     * @param value latitude in degrees
+     * @return true if value is in the allowed range
+     */
+    public static boolean isValid(final double value) {
+        return GeoRange.isValidLatitude(value);
+    }
+
     /**
      * Determine value segment, North if latitude is in the range 0..90,
      * South if latitude is in the range -90..0.
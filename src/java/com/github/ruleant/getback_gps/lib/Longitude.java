@@ -42,7 +42,7 @@ public class Longitude extends AbstractGeoCoordinate {
     /**
      * Segment East upper limit.
      */
-    public static final double SEGMENT_EAST_HIGH = 180;
+    public static final double SEGMENT_EAST_HIGH = GeoRange.LONGITUDE_MAX;
 
     /**
      * Segment East lower limit.
@@ -67,7 +67,7 @@ public class Longitude extends AbstractGeoCoordinate {
     /**
      * Segment West lower limit.
      */
-    public static final double SEGMENT_WEST_LOW = -180;
+    public static final double SEGMENT_WEST_LOW = GeoRange.LONGITUDE_MIN;
 
     /**
      * Segment West Unit.
@@ -101,6 +101,16 @@ public class Longitude extends AbstractGeoCoordinate {
         setRange(SEGMENT_WEST_LOW, SEGMENT_EAST_HIGH);
     }
 
+    /**
+     * Checks if a value is a valid longitude, without creating an instance.
+     *
+     * @param value longitude in degrees
+     * @return true if value is in the allowed range
+     */
+    public static boolean isValid(final double value) {
+        return GeoRange.isValidLongitude(value);
+    }
+
     /**
      * Determine value segment, East if longitude is in the range 0..180,
      * West if longitude is in the range -180..0.
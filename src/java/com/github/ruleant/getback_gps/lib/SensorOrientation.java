@@ -22,23 +22,26 @@
 package com.github.ruleant.getback_gps.lib;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Handler;
 import android.preference.PreferenceManager;
 
 import com.github.ruleant.getback_gps.SettingsActivity;
 
-import java.util.ArrayList;
 import java.util.EventListener;
+import java.util.concurrent.Executor;
 
 /**
  * Calculates current orientation from sensors.
  *
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
-public class SensorOrientation implements SensorEventListener {
+public class SensorOrientation
+        implements SensorEventListener, OrientationInterface {
     /**
      * Accelerometer Sensor.
      */
@@ -50,16 +53,31 @@ public class SensorOrientation implements SensorEventListener {
     private Context mContext;
 
     /**
-     * List with subscribed listeners.
+     * Dispatches published orientation events to the listeners.
      */
-    private ArrayList<OrientationEventListener> eventListenerList
-            = new ArrayList<OrientationEventListener>();
+    private final OrientationEventDispatcher mDispatcher
+            = new OrientationEventDispatcher();
 
     /**
      * Current calculated orientation.
      */
     private double mOrientation = 0;
 
+    /**
+     * Current pitch in degrees.
+     */
+    private double mPitch = 0;
+
+    /**
+     * Current roll in degrees.
+     */
+    private double mRoll = 0;
+
+    /**
+     * Accuracy of the sensor the orientation is derived from.
+     */
+    private int mAccuracy = SensorManager.SENSOR_STATUS_UNRELIABLE;
+
     /**
      * Timestamp in milliseconds when current orientation was calculated.
      */
@@ -115,6 +133,43 @@ public class SensorOrientation implements SensorEventListener {
      */
     private long mMagneticFieldRTTimestamp = 0;
 
+    /**
+     * Magnetometer calibration.
+     */
+    private final MagnetometerCalibrator mCalibrator
+            = new MagnetometerCalibrator();
+
+    /**
+     * Reused array with the calibrated magnetic field values.
+     */
+    private final float[] mCalibratedValues = new float[SENSOR_VALUES_SIZE];
+
+    /**
+     * True if the calibration changed since it was stored.
+     */
+    private boolean mCalibrationChanged = false;
+
+    /**
+     * Shared preferences the calibration is stored in.
+     */
+    private SharedPreferences mCalibrationPrefs;
+
+    /**
+     * SharedPreferences file name of the magnetometer calibration.
+     */
+    public static final String CALIBRATION_PREF_NAME
+            = "magnetometer_calibration";
+
+    /**
+     * Name of the calibrated flag in SharedPreferences.
+     */
+    private static final String CALIBRATION_SAVED = "saved";
+
+    /**
+     * Name prefix of the calibration values in SharedPreferences.
+     */
+    private static final String CALIBRATION_VALUE = "value_";
+
     /**
      * Sensor timestamp expiration,
      * 5 seconds in nanoseconds (5 * 10^9).
@@ -122,9 +177,28 @@ public class SensorOrientation implements SensorEventListener {
     private static final long TIMESTAMP_EXPIRE = 5000 * Tools.MILLI_IN_NANO;
 
     /**
-     * Sensor update rate in microseconds.
+     * Default sensor update interval in microseconds (5 Hz),
+     * the filter alpha values are tuned for this interval.
+     */
+    public static final int UPDATE_INTERVAL_DEFAULT = 200000;
+
+    /**
+     * Sensor update interval in microseconds for a visible,
+     * animated view (30 Hz).
+     */
+    public static final int UPDATE_INTERVAL_UI = 33333;
+
+    /**
+     * Sensor update interval in microseconds for a background check (1 Hz).
      */
-    private static final int SENSOR_UPDATE_RATE = 200000;
+    public static final int UPDATE_INTERVAL_BACKGROUND = 1000000;
+
+    /**
+     * Part of the update interval a sensor event may arrive early,
+     * before it is rejected, sensors don't deliver events
+     * exactly at the requested interval.
+     */
+    private static final double EARLY_EVENT_TOLERANCE = 0.25;
 
     /**
      * Number of sensor value components.
@@ -147,6 +221,85 @@ public class SensorOrientation implements SensorEventListener {
      */
     private static final float ALPHA_ORIENTATION_SENSORS = 0.05f;
 
+    /**
+     * Trace section name for processing a sensor event.
+     */
+    private static final String TRACE_SENSOR_EVENT
+            = "SensorOrientation.onSensorChanged";
+
+    /**
+     * Metrics registry.
+     */
+    private final MetricsRegistry mMetrics = MetricsRegistry.getDefault();
+
+    /**
+     * Metric id : number of received sensor events.
+     */
+    private final int mMetricEvents
+            = mMetrics.registerCounter("sensor.events");
+
+    /**
+     * Metric id : number of rejected sensor events,
+     * because they arrive sooner than the update rate.
+     */
+    private final int mMetricEventsRejected
+            = mMetrics.registerCounter("sensor.events_rejected");
+
+    /**
+     * Metric id : time spent processing a sensor event in microseconds.
+     */
+    private final int mMetricEventTime = mMetrics.registerHistogram(
+            "sensor.event_us", MetricsRegistry.DURATION_BUCKETS_US);
+
+    /**
+     * Metric id : time spent calculating orientation
+     * from accelerometer and magnetic field values in microseconds.
+     */
+    private final int mMetricFusionTime = mMetrics.registerHistogram(
+            "sensor.fusion_us", MetricsRegistry.DURATION_BUCKETS_US);
+
+    /**
+     * Stillness detector, null if stillness detection is disabled.
+     */
+    private StillnessDetector mStillnessDetector = null;
+
+    /**
+     * Listener for changes of the still state.
+     */
+    private MotionEventListener mMotionListener = null;
+
+    /**
+     * Sensor update rates requested by consumers.
+     */
+    private final SensorRateDemand mRateDemand = new SensorRateDemand();
+
+    /**
+     * Interval in microseconds the sensors are registered with,
+     * SensorRateDemand.NO_DEMAND if sensors are not registered.
+     */
+    private int mRegisteredInterval = SensorRateDemand.NO_DEMAND;
+
+    /**
+     * Current sensor update interval in microseconds.
+     */
+    private int mUpdateInterval = UPDATE_INTERVAL_DEFAULT;
+
+    /**
+     * Minimum time between accepted sensor events in nanoseconds.
+     */
+    private long mMinEventInterval = minEventInterval(UPDATE_INTERVAL_DEFAULT);
+
+    /**
+     * Low pass filter alpha value, for the current update interval.
+     */
+    private float mLowPassAlpha = LOW_PASS_ALPHA;
+
+    /**
+     * Alpha value of circular average of orientation value calculated
+     * from sensors, for the current update interval.
+     */
+    private float mOrientationAlpha = ALPHA_ORIENTATION_SENSORS;
+
     /**
      * Constructor.
      *
@@ -170,6 +323,10 @@ public class SensorOrientation implements SensorEventListener {
             mOrientationSensor = mSensorManager.getDefaultSensor(
                     Sensor.TYPE_ORIENTATION);
         }
+
+        mCalibrationPrefs = mContext.getSharedPreferences(
+                CALIBRATION_PREF_NAME, Context.MODE_PRIVATE);
+        restoreCalibration();
     }
 
     /**
@@ -181,16 +338,29 @@ public class SensorOrientation implements SensorEventListener {
         if (event.sensor.getType() != Sensor.TYPE_ACCELEROMETER
             // reject values that arrive sooner than the update rate
             || Tools.isTimestampRecent(event.timestamp,
-                mAccelerometerTimestamp,
-                SENSOR_UPDATE_RATE * Tools.MICRO_IN_NANO)) {
+                mAccelerometerTimestamp, mMinEventInterval)) {
+            mMetrics.increment(mMetricEventsRejected);
             return;
         }
         mAccelerometerValues
             = LowPassFilter.filterValueSet(mAccelerometerValues,
-                event.values, LOW_PASS_ALPHA);
+                event.values, mLowPassAlpha);
         mAccelerometerTimestamp = event.timestamp;
         mAccelerometerRTTimestamp = Tools.getTimestampNano();
 
+        // use unfiltered values, filtering hides small movements
+        if (mStillnessDetector != null
+                && mStillnessDetector.addSample(event.values, event.timestamp)
+                && mMotionListener != null) {
+            mMotionListener.onMotionChanged(mStillnessDetector.isStill());
+        }
+
+        // accelerometer is only used for stillness detection
+        // when the orientation sensor is used
+        if (mMagneticFieldValues == null) {
+            return;
+        }
+
         calculateOrientation();
         onOrientationChange();
     }
@@ -204,15 +374,28 @@ public class SensorOrientation implements SensorEventListener {
         if (event.sensor.getType() != Sensor.TYPE_MAGNETIC_FIELD
             // reject values that arrive sooner than the update rate
             || Tools.isTimestampRecent(event.timestamp,
-                mMagneticFieldTimestamp,
-                SENSOR_UPDATE_RATE * Tools.MICRO_IN_NANO)) {
+                mMagneticFieldTimestamp, mMinEventInterval)) {
+            mMetrics.increment(mMetricEventsRejected);
             return;
         }
-        mMagneticFieldValues
-            = LowPassFilter.filterValueSet(mMagneticFieldValues,
-                event.values, LOW_PASS_ALPHA);
+        // correct the raw values before they are filtered and fused
+        if (mCalibrator.addSample(event.values)) {
+            mCalibrationChanged = true;
+        }
+        mCalibrator.correct(event.values, mCalibratedValues);
+
+        if (mMagneticFieldValues == null) {
+            // the filter keeps the first values, don't keep the reused array
+            mMagneticFieldValues = mCalibratedValues.clone();
+        } else {
+            mMagneticFieldValues
+                = LowPassFilter.filterValueSet(mMagneticFieldValues,
+                    mCalibratedValues, mLowPassAlpha);
+        }
         mMagneticFieldTimestamp = event.timestamp;
         mMagneticFieldRTTimestamp = Tools.getTimestampNano();
+        // the magnetic field limits the accuracy of the azimuth
+        mAccuracy = event.accuracy;
 
         calculateOrientation();
         onOrientationChange();
@@ -227,11 +410,14 @@ public class SensorOrientation implements SensorEventListener {
         if (event.sensor.getType() != Sensor.TYPE_ORIENTATION
                 // reject values that arrive sooner than the update rate
                 || Tools.isTimestampRecent(event.timestamp,
-                    mOrientationTimestamp,
-                    SENSOR_UPDATE_RATE * Tools.MICRO_IN_NANO)) {
+                    mOrientationTimestamp, mMinEventInterval)) {
+            mMetrics.increment(mMetricEventsRejected);
             return;
         }
         mOrientation = event.values[0];
+        mPitch = event.values[1];
+        mRoll = event.values[2];
+        mAccuracy = event.accuracy;
         mOrientationTimestamp = event.timestamp;
         mOrientationRTTimestamp = Tools.getTimestampNano();
 
@@ -245,6 +431,7 @@ public class SensorOrientation implements SensorEventListener {
      *
      * @return true if an orientation can be provided
      */
+    @Override
     public boolean hasOrientation() {
         return isSensorsEnabled()
                 && mAccelerometer != null && mMagneticFieldSensor != null
@@ -259,6 +446,7 @@ public class SensorOrientation implements SensorEventListener {
      *
      * @return current SensorOrientation
      */
+    @Override
     public double getOrientation() {
         return mOrientation;
     }
@@ -296,7 +484,8 @@ public class SensorOrientation implements SensorEventListener {
 
     /**
      * Register for Sensor events of
-     * TYPE_ACCELEROMETER and TYPE_MAGNETIC_FIELD.
+     * TYPE_ACCELEROMETER and TYPE_MAGNETIC_FIELD,
+     * at the current update interval.
      *
      * @param listener SensorEventListener
      */
@@ -318,29 +507,38 @@ public class SensorOrientation implements SensorEventListener {
             && mOrientationSensor != null) {
             // orientation sensor is deprecated
             mSensorManager.registerListener(
-                    listener, mOrientationSensor, SENSOR_UPDATE_RATE);
+                    listener, mOrientationSensor, mUpdateInterval);
+            if (mStillnessDetector != null && mAccelerometer != null) {
+                mSensorManager.registerListener(
+                        listener, mAccelerometer, mUpdateInterval);
+            }
         } else if (mAccelerometer != null && mMagneticFieldSensor != null) {
             mSensorManager.registerListener(
-                    listener, mAccelerometer, SENSOR_UPDATE_RATE);
+                    listener, mAccelerometer, mUpdateInterval);
             mSensorManager.registerListener(
-                    listener, mMagneticFieldSensor, SENSOR_UPDATE_RATE);
+                    listener, mMagneticFieldSensor, mUpdateInterval);
         }
     }
 
     /**
      * Unregister for Sensor events of
      * TYPE_ACCELEROMETER and TYPE_MAGNETIC_FIELD.
+     * The magnetometer calibration is stored, if it changed.
      *
      * @param listener SensorEventListener
      */
     public final void unRegisterEvents(final SensorEventListener listener) {
-        if (mAccelerometer != null && mMagneticFieldSensor != null) {
+        if (mAccelerometer != null) {
             mSensorManager.unregisterListener(listener, mAccelerometer);
+        }
+        if (mMagneticFieldSensor != null) {
             mSensorManager.unregisterListener(listener, mMagneticFieldSensor);
         }
         if (mOrientationSensor != null) {
             mSensorManager.unregisterListener(listener, mOrientationSensor);
         }
+
+        saveCalibration();
     }
 
     /**
@@ -357,27 +555,35 @@ public class SensorOrientation implements SensorEventListener {
             return 0;
         }
 
+        long fusionStart = System.nanoTime();
         float[] rotationMatrixR = new float[MATRIX_SIZE];
         float[] orientationValues = new float[SENSOR_VALUES_SIZE];
 
-        if (SensorManager.getRotationMatrix(rotationMatrixR, null,
-                mAccelerometerValues, mMagneticFieldValues)) {
-            orientationValues = SensorManager.getOrientation(rotationMatrixR,
-                    orientationValues);
-
-            if (orientationValues.length == SENSOR_VALUES_SIZE) {
-                mOrientation = CircularAverage.getAverageValue(
-                        (float) mOrientation,
-                        (float) Math.toDegrees(orientationValues[0]),
-                        ALPHA_ORIENTATION_SENSORS);
-                mOrientationTimestamp = Tools.getMax(mMagneticFieldTimestamp,
-                        mAccelerometerTimestamp);
-
-                return mOrientation;
+        try {
+            if (SensorManager.getRotationMatrix(rotationMatrixR, null,
+                    mAccelerometerValues, mMagneticFieldValues)) {
+                orientationValues = SensorManager.getOrientation(
+                        rotationMatrixR, orientationValues);
+
+                if (orientationValues.length == SENSOR_VALUES_SIZE) {
+                    mOrientation = CircularAverage.getAverageValue(
+                            (float) mOrientation,
+                            (float) Math.toDegrees(orientationValues[0]),
+                            mOrientationAlpha);
+                    mPitch = Math.toDegrees(orientationValues[1]);
+                    mRoll = Math.toDegrees(orientationValues[2]);
+                    mOrientationTimestamp = Tools.getMax(
+                            mMagneticFieldTimestamp, mAccelerometerTimestamp);
+
+                    return mOrientation;
+                }
             }
-        }
 
-        return 0;
+            return 0;
+        } finally {
+            mMetrics.recordDuration(
+                    mMetricFusionTime, fusionStart, System.nanoTime());
+        }
     }
 
     /**
@@ -391,62 +597,278 @@ public class SensorOrientation implements SensorEventListener {
     }
 
     /**
-     * Event listener interface for SensorOrientation updates.
+     * Event listener interface for changes of the still state.
      */
-    public interface OrientationEventListener extends EventListener {
+    public interface MotionEventListener extends EventListener {
         /**
-         * Indicates there has been a orientation change.
+         * Indicates the device started or stopped moving.
+         *
+         * @param still true if the device is still
          */
-        void onOrientationChanged();
+        void onMotionChanged(boolean still);
+    }
+
+    /**
+     * Enables stillness detection, based on the accelerometer.
+     * If sensors are already registered, they are registered again,
+     * to include the accelerometer.
+     *
+     * @param stillPeriod time in milliseconds the device should be still,
+     *                    before it is considered still
+     * @param listener listener for changes of the still state
+     */
+    public final void enableStillnessDetection(
+            final long stillPeriod, final MotionEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException(
+                    "Parameter listener should not be null");
+        }
+
+        mMotionListener = listener;
+        if (mStillnessDetector == null) {
+            mStillnessDetector = new StillnessDetector(stillPeriod);
+            if (mRegisteredInterval != SensorRateDemand.NO_DEMAND) {
+                unRegisterEvents(this);
+                registerEvents(this);
+            }
+        } else {
+            mStillnessDetector.setStillPeriod(stillPeriod);
+        }
+    }
+
+    /**
+     * Disables stillness detection.
+     */
+    public final void disableStillnessDetection() {
+        mStillnessDetector = null;
+        mMotionListener = null;
+    }
+
+    /**
+     * Checks if the device is still.
+     *
+     * @return true if stillness detection is enabled and device is still
+     */
+    public final boolean isStill() {
+        return mStillnessDetector != null && mStillnessDetector.isStill();
     }
 
     /**
-     * Adds the listener to eventListenerList.
+     * Adds an event listener, adding a registered listener again is ignored.
+     * The listener is called on the thread of the Handler, so a slow
+     * listener doesn't block the sensor events.
+     * Sensors are only registered when updates are requested,
+     * see requestUpdates().
+     *
      * @param listener SensorOrientation event listener
+     * @param handler Handler used to call the listener
      */
     public final void addEventListener(
-            final OrientationEventListener listener) {
-        eventListenerList.add(listener);
-
-        // register listening to events when the first listener is added
-        if (eventListenerList.size() == 1) {
-            registerEvents(this);
+            final OrientationEventListener listener, final Handler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException(
+                    "Parameter handler should not be null");
         }
+
+        mDispatcher.addListener(listener, new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                handler.post(command);
+            }
+        });
     }
 
     /**
-     * Removes the listener from eventListenerList.
+     * Removes an event listener.
+     *
      * @param listener SensorOrientation event listener
      */
     public final void removeEventListener(
             final OrientationEventListener listener) {
-        eventListenerList.remove(listener);
+        mDispatcher.removeListener(listener);
+    }
+
+    /**
+     * Get the buffer with published orientation events.
+     * A consumer that doesn't want to be called for each event,
+     * fe. a view that is drawn at its own pace, can read the events
+     * with its own cursor.
+     *
+     * @return orientation event buffer
+     */
+    public final OrientationEventBuffer getEvents() {
+        return mDispatcher.getEvents();
+    }
+
+    /**
+     * Requests sensor updates for a consumer, fe. a visible view.
+     * Sensors are registered at the shortest interval
+     * requested by all consumers.
+     *
+     * @param consumer consumer, identified by reference
+     * @param interval update interval in microseconds,
+     *                 fe. UPDATE_INTERVAL_UI
+     */
+    public final void requestUpdates(final Object consumer,
+                                     final int interval) {
+        if (mRateDemand.request(consumer, interval)) {
+            updateRegistration();
+        }
+    }
+
+    /**
+     * Releases the sensor updates of a consumer,
+     * sensors are unregistered when the last consumer releases its updates.
+     *
+     * @param consumer consumer, identified by reference
+     */
+    public final void releaseUpdates(final Object consumer) {
+        if (mRateDemand.release(consumer)) {
+            updateRegistration();
+        }
+    }
 
-        // unregister listening to events when the last listener is removed
-        if (eventListenerList.size() == 0) {
+    /**
+     * Get the interval the sensors are registered with.
+     *
+     * @return interval in microseconds,
+     *         SensorRateDemand.NO_DEMAND if sensors are not registered
+     */
+    public final int getRegisteredInterval() {
+        return mRegisteredInterval;
+    }
+
+    /**
+     * Registers the sensors again at the effective interval of all consumers,
+     * or unregisters them if there are no consumers.
+     */
+    private void updateRegistration() {
+        int interval = mRateDemand.getInterval();
+        if (interval == mRegisteredInterval) {
+            return;
+        }
+
+        // a listener can't change the rate of a registered sensor
+        if (mRegisteredInterval != SensorRateDemand.NO_DEMAND) {
             unRegisterEvents(this);
         }
+        mRegisteredInterval = interval;
+
+        if (interval != SensorRateDemand.NO_DEMAND) {
+            mUpdateInterval = interval;
+            mMinEventInterval = minEventInterval(interval);
+
+            // keep the filter time constants when the interval changes
+            double samples = (double) interval / UPDATE_INTERVAL_DEFAULT;
+            mLowPassAlpha = scaleAlpha(LOW_PASS_ALPHA, samples);
+            mOrientationAlpha = scaleAlpha(ALPHA_ORIENTATION_SENSORS, samples);
+
+            registerEvents(this);
+        }
+    }
+
+    /**
+     * Calculates the minimum time between accepted sensor events.
+     *
+     * @param interval update interval in microseconds
+     * @return minimum time in nanoseconds
+     */
+    private static long minEventInterval(final int interval) {
+        return (long) (interval * (1 - EARLY_EVENT_TOLERANCE))
+                * Tools.MICRO_IN_NANO;
+    }
+
+    /**
+     * Scales a filter alpha value, so the filter has the same time constant
+     * when the update interval changes.
+     *
+     * @param alpha alpha value at the default update interval
+     * @param samples update interval, relative to the default interval
+     * @return scaled alpha value
+     */
+    private static float scaleAlpha(final float alpha, final double samples) {
+        return (float) Math.min(1, 1 - Math.pow(1 - alpha, samples));
     }
 
     /**
-     * Notify all event listeners.
+     * Publishes the current orientation, event listeners are called
+     * on their own thread.
      */
     private void onOrientationChange() {
-        for (OrientationEventListener eventListener : eventListenerList) {
-            eventListener.onOrientationChanged();
+        mDispatcher.publish(mOrientation, mPitch, mRoll, mAccuracy,
+                mOrientationTimestamp);
+    }
+
+    /**
+     * Checks if the magnetometer is calibrated,
+     * with a fitted or a restored calibration.
+     *
+     * @return true if magnetometer is calibrated
+     */
+    public final boolean isMagnetometerCalibrated() {
+        return mCalibrator.isCalibrated();
+    }
+
+    /**
+     * Stores the magnetometer calibration, if it changed.
+     */
+    public final void saveCalibration() {
+        if (!mCalibrationChanged) {
+            return;
+        }
+
+        double[] calibration
+                = new double[MagnetometerCalibrator.CALIBRATION_SIZE];
+        mCalibrator.getCalibration(calibration);
+
+        SharedPreferences.Editor editor = mCalibrationPrefs.edit();
+        for (int i = 0; i < calibration.length; i++) {
+            editor.putFloat(CALIBRATION_VALUE + i, (float) calibration[i]);
         }
+        editor.putBoolean(CALIBRATION_SAVED, true);
+        editor.apply();
+
+        mCalibrationChanged = false;
     }
 
     /**
-     * Called when sensor accuracy changes, not implemented.
+     * Restores the stored magnetometer calibration,
+     * so the heading is corrected immediately.
+     */
+    private void restoreCalibration() {
+        if (!mCalibrationPrefs.getBoolean(CALIBRATION_SAVED, false)) {
+            return;
+        }
+
+        double[] calibration
+                = new double[MagnetometerCalibrator.CALIBRATION_SIZE];
+        for (int i = 0; i < calibration.length; i++) {
+            calibration[i] = mCalibrationPrefs.getFloat(
+                    CALIBRATION_VALUE + i, 0);
+        }
+
+        try {
+            mCalibrator.setCalibration(calibration);
+        } catch (IllegalArgumentException e) {
+            // invalid stored calibration, it will be fitted again
+            mCalibrator.reset();
+        }
+    }
+
+    /**
+     * Called when sensor accuracy changes,
+     * the accuracy is passed on in the orientation events.
      *
      * @param sensor Sensor that has a changed accuracy
      * @param accuracy New accuracy
      */
     public final void onAccuracyChanged(final Sensor sensor,
                                         final int accuracy) {
-        // not implemented, but the method should defined
-        // because it is defined by interface SensorEventListener
+        int type = sensor.getType();
+        if (type == Sensor.TYPE_MAGNETIC_FIELD
+                || type == Sensor.TYPE_ORIENTATION) {
+            mAccuracy = accuracy;
+        }
     }
 
     /**
@@ -455,18 +877,28 @@ public class SensorOrientation implements SensorEventListener {
      * @param event Sensor event
      */
     public final void onSensorChanged(final SensorEvent event) {
-        switch (event.sensor.getType()) {
-            case Sensor.TYPE_ACCELEROMETER:
-                setAcceleration(event);
-                break;
-            case Sensor.TYPE_MAGNETIC_FIELD:
-                setMagneticField(event);
-                break;
-            case Sensor.TYPE_ORIENTATION:
-                setOrientation(event);
-                break;
-            default:
-                break;
+        long eventStart = System.nanoTime();
+        Tools.beginTraceSection(TRACE_SENSOR_EVENT);
+        try {
+            mMetrics.increment(mMetricEvents);
+
+            switch (event.sensor.getType()) {
+                case Sensor.TYPE_ACCELEROMETER:
+                    setAcceleration(event);
+                    break;
+                case Sensor.TYPE_MAGNETIC_FIELD:
+                    setMagneticField(event);
+                    break;
+                case Sensor.TYPE_ORIENTATION:
+                    setOrientation(event);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            Tools.endTraceSection();
+            mMetrics.recordDuration(mMetricEventTime, eventStart,
+                    System.nanoTime());
         }
     }
 }
@@ -23,7 +23,7 @@ package com.github.ruleant.getback_gps.lib;
 
 import android.annotation.TargetApi;
 import android.os.Build;
-import android.os.SystemClock;
+import android.os.Trace;
 
 /**
  * Collection of useful methods.
@@ -34,17 +34,22 @@ public class Tools {
     /**
      * Millisecond to nanosecond conversion rate.
      */
-    public static final long MILLI_IN_NANO = 1000000;
+    public static final long MILLI_IN_NANO = TimeUnits.MILLI_IN_NANO;
 
     /**
      * Microsecond to nanosecond conversion rate.
      */
-    public static final long MICRO_IN_NANO = 1000;
+    public static final long MICRO_IN_NANO = TimeUnits.MICRO_IN_NANO;
 
     /**
      * Seconds to milliseconds conversion rate.
      */
-    public static final long SECOND_IN_MILLIS = 1000;
+    public static final long SECOND_IN_MILLIS = TimeUnits.SECOND_IN_MILLIS;
+
+    /**
+     * Clock used by all time dependent code.
+     */
+    private static volatile Clock sClock = new AndroidClock();
 
     /**
      * Hidden constructor, to prevent instantiating.
@@ -69,19 +74,58 @@ public class Tools {
         }
     }
 
+    /**
+     * Get clock used by all time dependent code.
+     *
+     * @return clock
+     */
+    public static Clock getClock() {
+        return sClock;
+    }
+
+    /**
+     * Sets clock used by all time dependent code,
+     * fe. a ManualClock to run a simulation or a unit test.
+     *
+     * @param clock clock, null to restore the system clock
+     */
+    public static void setClock(final Clock clock) {
+        if (clock == null) {
+            sClock = new AndroidClock();
+        } else {
+            sClock = clock;
+        }
+    }
+
     /**
      * Returns current timestamp.
      *
      * @return realtime timestamp in nanoseconds
      */
-    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
     public static long getTimestampNano() {
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            // use elapsedRealtime when using API 16 or lower
-            return SystemClock.elapsedRealtime() * MILLI_IN_NANO;
-        } else {
-            // use elapsedRealtimeNanos when using API 17 or higher
-            return SystemClock.elapsedRealtimeNanos();
+        return sClock.getTimestampNano();
+    }
+
+    /**
+     * Begins a trace section, visible in systrace.
+     * Trace sections are only supported on API 18 or higher.
+     *
+     * @param sectionName name of the trace section
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    public static void beginTraceSection(final String sectionName) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    /**
+     * Ends the most recently begun trace section.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    public static void endTraceSection() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
         }
     }
 
@@ -94,8 +138,7 @@ public class Tools {
      */
     public static boolean isTimestampRecent(final long timestamp,
                                       final long validity) {
-        // TODO test with instrumentation test
-        return isTimestampRecent(SystemClock.elapsedRealtime(),
+        return isTimestampRecent(getTimestampNano() / MILLI_IN_NANO,
                 timestamp, validity);
     }
 
@@ -106,18 +149,22 @@ public class Tools {
      * @param validity timestamp validity in nanoseconds
      * @return true if timestamp is recent.
      */
-    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
     public static boolean isTimestampNanoRecent(final long timestamp,
                                           final long validity) {
-        // TODO test with instrumentation test
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            return isTimestampRecent(timestamp / MILLI_IN_NANO,
-                    validity / MILLI_IN_NANO);
-        } else {
-            // use elapsedRealtimeNanos when using API 17 or higher
-            return isTimestampRecent(SystemClock.elapsedRealtimeNanos(),
-                    timestamp, validity);
-        }
+        return isTimestampRecent(getTimestampNano(), timestamp, validity);
+    }
+
+    /**
+     * Checks if wall clock time (fe. Location.getTime()) is recent.
+     *
+     * @param time time in milliseconds since January 1, 1970 UTC
+     * @param validity time validity in milliseconds
+     * @return true if time is recent.
+     */
+    public static boolean isTimeRecent(final long time,
+                                       final long validity) {
+        return isTimestampRecent(sClock.getCurrentTimeMillis(),
+                time, validity);
     }
 
     /**
@@ -0,0 +1,457 @@
+/**
+ * Streaming parser for waypoints in GPX and KML files.
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps.lib
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming parser for waypoints in GPX and KML files.
+ *
+ * GPX waypoints (wpt elements) and KML placemarks with a Point are passed
+ * to a listener one by one, while the file is read, so the file is never
+ * loaded in memory completely. The format is recognised by the element
+ * names, so both formats are handled by the same parser.
+ *
+ * Waypoints with an invalid latitude or longitude are skipped.
+ * KML placemarks without a Point, fe. a LineString, are not waypoints,
+ * they are ignored and counted separately.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class WaypointParser {
+    /**
+     * Listener interface for parsed waypoints.
+     */
+    public interface Listener {
+        /**
+         * Called when a valid waypoint is parsed.
+         *
+         * @param name waypoint name, null if not set
+         * @param latitude latitude in degrees
+         * @param longitude longitude in degrees
+         * @param altitude altitude in meters, NaN if not set
+         */
+        void onWaypoint(String name, double latitude, double longitude,
+                        double altitude);
+    }
+
+    /**
+     * GPX waypoint element.
+     */
+    private static final String GPX_WAYPOINT = "wpt";
+
+    /**
+     * GPX waypoint latitude attribute.
+     */
+    private static final String GPX_LATITUDE = "lat";
+
+    /**
+     * GPX waypoint longitude attribute.
+     */
+    private static final String GPX_LONGITUDE = "lon";
+
+    /**
+     * GPX waypoint elevation element.
+     */
+    private static final String GPX_ELEVATION = "ele";
+
+    /**
+     * KML placemark element.
+     */
+    private static final String KML_PLACEMARK = "Placemark";
+
+    /**
+     * KML point element.
+     */
+    private static final String KML_POINT = "Point";
+
+    /**
+     * KML coordinates element.
+     */
+    private static final String KML_COORDINATES = "coordinates";
+
+    /**
+     * Name element (GPX and KML).
+     */
+    private static final String NAME = "name";
+
+    /**
+     * Field : no text is captured.
+     */
+    private static final int FIELD_NONE = 0;
+
+    /**
+     * Field : name.
+     */
+    private static final int FIELD_NAME = 1;
+
+    /**
+     * Field : GPX elevation.
+     */
+    private static final int FIELD_ELEVATION = 2;
+
+    /**
+     * Field : KML coordinates.
+     */
+    private static final int FIELD_COORDINATES = 3;
+
+    /**
+     * Listener receiving the waypoints.
+     */
+    private final Listener mListener;
+
+    /**
+     * Text of the captured field, reused for all fields.
+     */
+    private final StringBuilder mText = new StringBuilder();
+
+    /**
+     * Number of waypoints passed to the listener.
+     */
+    private long mWaypointCount = 0;
+
+    /**
+     * Number of skipped waypoints.
+     */
+    private long mSkippedCount = 0;
+
+    /**
+     * Number of ignored KML placemarks without a Point.
+     */
+    private long mIgnoredCount = 0;
+
+    /**
+     * Set when parsing should stop.
+     */
+    private volatile boolean mCancelled = false;
+
+    /**
+     * Depth of the current waypoint element, 0 if not in a waypoint.
+     */
+    private int mWaypointDepth = 0;
+
+    /**
+     * True if the current waypoint is a KML placemark.
+     */
+    private boolean mPlacemark = false;
+
+    /**
+     * True if inside a KML Point element.
+     */
+    private boolean mInPoint = false;
+
+    /**
+     * True if the current KML placemark contains a Point element.
+     */
+    private boolean mHasPoint = false;
+
+    /**
+     * Field being captured.
+     */
+    private int mField = FIELD_NONE;
+
+    /**
+     * Name of the current waypoint.
+     */
+    private String mName;
+
+    /**
+     * Latitude of the current waypoint.
+     */
+    private double mLatitude;
+
+    /**
+     * Longitude of the current waypoint.
+     */
+    private double mLongitude;
+
+    /**
+     * Altitude of the current waypoint.
+     */
+    private double mAltitude;
+
+    /**
+     * Constructor.
+     *
+     * @param listener listener receiving the waypoints
+     */
+    public WaypointParser(final Listener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException(
+                    "Parameter listener should not be null");
+        }
+
+        mListener = listener;
+    }
+
+    /**
+     * Get number of waypoints passed to the listener.
+     *
+     * @return number of waypoints
+     */
+    public final long getWaypointCount() {
+        return mWaypointCount;
+    }
+
+    /**
+     * Get number of waypoints skipped, because of an invalid location.
+     *
+     * @return number of skipped waypoints
+     */
+    public final long getSkippedCount() {
+        return mSkippedCount;
+    }
+
+    /**
+     * Get number of KML placemarks ignored, because they have no Point.
+     *
+     * @return number of ignored placemarks
+     */
+    public final long getIgnoredCount() {
+        return mIgnoredCount;
+    }
+
+    /**
+     * Stops parsing, can be called from another thread.
+     */
+    public final void cancel() {
+        mCancelled = true;
+    }
+
+    /**
+     * Checks if parsing was cancelled.
+     *
+     * @return true if parsing was cancelled
+     */
+    public final boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * Parses a GPX or KML document.
+     *
+     * @param parser XmlPullParser instance, fe. from Xml.newPullParser()
+     * @param input document input stream
+     * @return number of waypoints passed to the listener
+     * @throws XmlPullParserException if document is not valid XML
+     * @throws IOException if document could not be read
+     */
+    public final long parse(final XmlPullParser parser,
+                            final InputStream input)
+            throws XmlPullParserException, IOException {
+        if (parser == null || input == null) {
+            throw new IllegalArgumentException(
+                    "Parameters parser and input should not be null");
+        }
+
+        // use local names, GPX and KML documents use a default namespace
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+        parser.setInput(input, null);
+
+        mWaypointDepth = 0;
+        mField = FIELD_NONE;
+
+        int eventType = parser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT && !mCancelled) {
+            switch (eventType) {
+                case XmlPullParser.START_TAG:
+                    startElement(parser);
+                    break;
+                case XmlPullParser.TEXT:
+                    if (mField != FIELD_NONE) {
+                        mText.append(parser.getText());
+                    }
+                    break;
+                case XmlPullParser.END_TAG:
+                    endElement(parser);
+                    break;
+                default:
+                    break;
+            }
+            eventType = parser.next();
+        }
+
+        return mWaypointCount;
+    }
+
+    /**
+     * Handles the start of an element.
+     *
+     * @param parser XmlPullParser positioned on the start tag
+     */
+    private void startElement(final XmlPullParser parser) {
+        String element = parser.getName();
+        int depth = parser.getDepth();
+
+        if (mWaypointDepth == 0) {
+            if (GPX_WAYPOINT.equals(element)) {
+                startWaypoint(depth, false);
+                mLatitude = parseDouble(
+                        parser.getAttributeValue(null, GPX_LATITUDE));
+                mLongitude = parseDouble(
+                        parser.getAttributeValue(null, GPX_LONGITUDE));
+            } else if (KML_PLACEMARK.equals(element)) {
+                startWaypoint(depth, true);
+            }
+            return;
+        }
+
+        if (depth == mWaypointDepth + 1 && NAME.equals(element)) {
+            startField(FIELD_NAME);
+        } else if (!mPlacemark && depth == mWaypointDepth + 1
+                && GPX_ELEVATION.equals(element)) {
+            startField(FIELD_ELEVATION);
+        } else if (mPlacemark && KML_POINT.equals(element)) {
+            mInPoint = true;
+            mHasPoint = true;
+        } else if (mInPoint && KML_COORDINATES.equals(element)) {
+            startField(FIELD_COORDINATES);
+        }
+    }
+
+    /**
+     * Handles the end of an element.
+     *
+     * @param parser XmlPullParser positioned on the end tag
+     */
+    private void endElement(final XmlPullParser parser) {
+        if (mWaypointDepth == 0) {
+            return;
+        }
+
+        if (parser.getDepth() == mWaypointDepth) {
+            endWaypoint();
+            return;
+        }
+
+        if (mPlacemark && KML_POINT.equals(parser.getName())) {
+            mInPoint = false;
+        }
+
+        switch (mField) {
+            case FIELD_NAME:
+                mName = mText.toString().trim();
+                break;
+            case FIELD_ELEVATION:
+                mAltitude = parseDouble(mText.toString());
+                break;
+            case FIELD_COORDINATES:
+                parseCoordinates(mText.toString());
+                break;
+            default:
+                break;
+        }
+        mField = FIELD_NONE;
+    }
+
+    /**
+     * Starts a new waypoint.
+     *
+     * @param depth depth of the waypoint element
+     * @param placemark true if waypoint is a KML placemark
+     */
+    private void startWaypoint(final int depth, final boolean placemark) {
+        mWaypointDepth = depth;
+        mPlacemark = placemark;
+        mInPoint = false;
+        mHasPoint = false;
+        mName = null;
+        mLatitude = Double.NaN;
+        mLongitude = Double.NaN;
+        mAltitude = Double.NaN;
+    }
+
+    /**
+     * Ends the current waypoint, and passes it to the listener if it is valid.
+     */
+    private void endWaypoint() {
+        mWaypointDepth = 0;
+        mField = FIELD_NONE;
+
+        if (mPlacemark && !mHasPoint) {
+            mIgnoredCount++;
+            return;
+        }
+
+        if (!Latitude.isValid(mLatitude) || !Longitude.isValid(mLongitude)) {
+            mSkippedCount++;
+            return;
+        }
+
+        if (mName != null && mName.length() == 0) {
+            mName = null;
+        }
+
+        mListener.onWaypoint(mName, mLatitude, mLongitude, mAltitude);
+        mWaypointCount++;
+    }
+
+    /**
+     * Starts capturing the text of a field.
+     *
+     * @param field field to capture
+     */
+    private void startField(final int field) {
+        mField = field;
+        mText.setLength(0);
+    }
+
+    /**
+     * Parses KML coordinates : longitude,latitude[,altitude].
+     *
+     * @param coordinates KML coordinates
+     */
+    private void parseCoordinates(final String coordinates) {
+        String[] values = coordinates.trim().split(",");
+        if (values.length < 2) {
+            return;
+        }
+
+        mLongitude = parseDouble(values[0]);
+        mLatitude = parseDouble(values[1]);
+        if (values.length > 2) {
+            mAltitude = parseDouble(values[2]);
+        }
+    }
+
+    /**
+     * Parses a decimal value.
+     *
+     * @param value text value
+     * @return parsed value, NaN if value is not set or not a number
+     */
+    private static double parseDouble(final String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
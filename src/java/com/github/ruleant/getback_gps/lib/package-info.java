@@ -18,6 +18,7 @@
  * GetBack GPS is an android app for finding your way back to a previously
  * visited location using GPS coordinates.
  * This package contains supporting classes.
+ * The classes without dependencies on the Android SDK are in the core module.
  *
  * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
  */
@@ -0,0 +1,199 @@
+/**
+ * Unit tests for LocationServiceListenerList class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Unit tests for LocationServiceListenerList class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class LocationServiceListenerListTest {
+    /**
+     * Instance of the LocationServiceListenerList class.
+     */
+    private LocationServiceListenerList list;
+
+    /**
+     * Calls posted to the executor, but not run yet.
+     */
+    private List<Runnable> posted;
+
+    /**
+     * Executor keeping the posted calls, until they are run by the test.
+     */
+    private Executor executor;
+
+    /**
+     * Listener counting the received updates.
+     */
+    private CountingListener listener;
+
+    /**
+     * Listener counting the received updates.
+     */
+    private static class CountingListener implements LocationServiceListener {
+        /**
+         * Number of location updates.
+         */
+        private int mLocations = 0;
+
+        /**
+         * Number of orientation updates.
+         */
+        private int mOrientations = 0;
+
+        /**
+         * Number of provider updates.
+         */
+        private int mProviders = 0;
+
+        @Override
+        public void onLocationUpdated() {
+            mLocations++;
+        }
+
+        @Override
+        public void onOrientationUpdated() {
+            mOrientations++;
+        }
+
+        @Override
+        public void onProviderUpdated() {
+            mProviders++;
+        }
+    }
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        list = new LocationServiceListenerList();
+        posted = new ArrayList<Runnable>();
+        executor = new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                posted.add(command);
+            }
+        };
+        listener = new CountingListener();
+    }
+
+    /**
+     * Runs all posted calls.
+     */
+    private void runPosted() {
+        List<Runnable> calls = new ArrayList<Runnable>(posted);
+        posted.clear();
+        for (Runnable call : calls) {
+            call.run();
+        }
+    }
+
+    /**
+     * Tests registering and unregistering listeners.
+     */
+    @Test
+    public final void testRegister() {
+        Assertions.assertEquals(0, list.size());
+
+        list.register(listener, executor);
+        Assertions.assertEquals(1, list.size());
+
+        // registering again is ignored
+        list.register(listener, executor);
+        Assertions.assertEquals(1, list.size());
+
+        list.register(new CountingListener(), executor);
+        Assertions.assertEquals(2, list.size());
+
+        list.unregister(listener);
+        Assertions.assertEquals(1, list.size());
+
+        // unregistering an unknown listener is ignored
+        list.unregister(listener);
+        Assertions.assertEquals(1, list.size());
+
+        list.clear();
+        Assertions.assertEquals(0, list.size());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            list.register(null, executor);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            list.register(listener, (Executor) null);
+        });
+    }
+
+    /**
+     * Tests notifying listeners, with coalesced updates.
+     */
+    @Test
+    public final void testNotify() {
+        list.register(listener, executor);
+
+        list.notify(LocationServiceListenerList.EVENT_LOCATION, 1);
+        list.notify(LocationServiceListenerList.EVENT_LOCATION, 2);
+        list.notify(LocationServiceListenerList.EVENT_ORIENTATION, 3);
+
+        // one call is posted for all pending updates
+        Assertions.assertEquals(1, posted.size());
+        Assertions.assertEquals(0, listener.mLocations);
+
+        runPosted();
+        Assertions.assertEquals(1, listener.mLocations);
+        Assertions.assertEquals(1, listener.mOrientations);
+        Assertions.assertEquals(0, listener.mProviders);
+
+        // a new update is posted again
+        list.notify(LocationServiceListenerList.EVENT_PROVIDER, 4);
+        Assertions.assertEquals(1, posted.size());
+        runPosted();
+        Assertions.assertEquals(1, listener.mLocations);
+        Assertions.assertEquals(1, listener.mProviders);
+    }
+
+    /**
+     * Tests that an unregistered listener isn't called anymore.
+     */
+    @Test
+    public final void testUnregisterPending() {
+        list.register(listener, executor);
+        list.notify(LocationServiceListenerList.EVENT_LOCATION, 1);
+
+        list.unregister(listener);
+        runPosted();
+        Assertions.assertEquals(0, listener.mLocations);
+
+        list.notify(LocationServiceListenerList.EVENT_LOCATION, 2);
+        Assertions.assertEquals(0, posted.size());
+    }
+}
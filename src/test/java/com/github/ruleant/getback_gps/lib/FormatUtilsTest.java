@@ -161,11 +161,6 @@ public class FormatUtilsTest {
      */
     private static final double MPS_1234KPH = 342.7778;
 
-    /**
-     * 0° angle.
-     */
-    private static final double A_0 = 0.0;
-
     /**
      * 45° angle.
      */
@@ -181,56 +176,6 @@ public class FormatUtilsTest {
      */
     private static final double A_45P678 = 45.678;
 
-    /**
-     * 180° angle.
-     */
-    private static final double A_180 = 180.0;
-
-    /**
-     * 225° angle.
-     */
-    private static final double A_225 = 225.0;
-
-    /**
-     * -315° angle (= 45°).
-     */
-    private static final double A_M315 = -315.0;
-
-    /**
-     * -360° angle (= 0°).
-     */
-    private static final double A_M360 = -360.0;
-
-    /**
-     * -675° angle (= 45°).
-     */
-    private static final double A_M675 = -675.0;
-
-    /**
-     * -720° angle (= 0°).
-     */
-    private static final double A_M720 = -720.0;
-
-    /**
-     * 360° angle (= 0°).
-     */
-    private static final double A_360 = 360.0;
-
-    /**
-     * 405° angle (= 45°).
-     */
-    private static final double A_405 = 405.0;
-
-    /**
-     * 720° angle (= 0°).
-     */
-    private static final double A_720 = 720.0;
-
-    /**
-     * 765° angle (= 45°).
-     */
-    private static final double A_765 = 765.0;
-
     /**
      * Precision 0 decimals.
      */
@@ -261,11 +206,6 @@ public class FormatUtilsTest {
      */
     private static final int PRECISION_10 = 10;
 
-    /**
-     * Angle accuracy.
-     */
-    private static final double ANGLE_ACCURACY = 0.001;
-
     /**
      * Sets up the test fixture.
      * (Called before every test case method.)
@@ -285,6 +225,7 @@ public class FormatUtilsTest {
     public final void tearDown() {
         // set default locale back to original
         Locale.setDefault(originalLocale);
+        FormatUtils.setUnitSystem(FormatUtils.UNIT_SYSTEM_METRIC);
     }
 
     /**
@@ -561,47 +502,31 @@ public class FormatUtilsTest {
     }
 
     /**
-     * Tests if returned normalized angle is unaffected if
-     * it is in the 0°-360° range.
-     */
-    @Test
-    public final void testNormalizeAngle() {
-        Assertions.assertEquals(A_0, FormatUtils.normalizeAngle(A_0), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.normalizeAngle(A_45), ANGLE_ACCURACY);
-    }
-
-    /**
-     * Tests if returned normalized angle is converted correctly
-     * to the 0°-360° range, if the angle is negative.
+     * Tests formatting in other unit systems.
      */
     @Test
-    public final void testNormalizeAngleNeg() {
-        Assertions.assertEquals(A_0, FormatUtils.normalizeAngle(A_M360), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_0, FormatUtils.normalizeAngle(A_M720), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.normalizeAngle(A_M315), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.normalizeAngle(A_M675), ANGLE_ACCURACY);
-    }
-
-    /**
-     * Tests if returned normalized angle is converted correctly
-     * to the 0°-360° range, if the angle is bigger than 360°.
-     */
-    @Test
-    public final void testNormalizeAngleBig() {
-        Assertions.assertEquals(A_0, FormatUtils.normalizeAngle(A_360), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_0, FormatUtils.normalizeAngle(A_720), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.normalizeAngle(A_405), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.normalizeAngle(A_765), ANGLE_ACCURACY);
-    }
+    public final void testUnitSystem() {
+        FormatUtils.setUnitSystem(FormatUtils.UNIT_SYSTEM_IMPERIAL);
+        Assertions.assertEquals(FormatUtils.UNIT_SYSTEM_IMPERIAL,
+                FormatUtils.getUnitSystem());
+        Assertions.assertEquals("30ft", FormatUtils.formatDist(M_9M));
+        Assertions.assertEquals("5.6mi", FormatUtils.formatDist(M_9KM));
+        Assertions.assertEquals("30ft", FormatUtils.formatHeight(M_9M));
+        Assertions.assertEquals("-29,528ft",
+                FormatUtils.formatHeight(-1.0 * M_9KM));
+        Assertions.assertEquals("8.9mph", FormatUtils.formatSpeed(MPS_14P4KPH));
+
+        FormatUtils.setUnitSystem(FormatUtils.UNIT_SYSTEM_NAUTICAL);
+        Assertions.assertEquals("4.9NM", FormatUtils.formatDist(M_9KM));
+        Assertions.assertEquals("9m", FormatUtils.formatDist(M_9M));
+        Assertions.assertEquals("9m", FormatUtils.formatHeight(M_9M));
+        Assertions.assertEquals("7.8kn", FormatUtils.formatSpeed(MPS_14P4KPH));
 
-    /**
-     * Tests inverseAngle.
-     */
-    @Test
-    public final void testInverseAngle() {
-        Assertions.assertEquals(A_180, FormatUtils.inverseAngle(A_0), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_0, FormatUtils.inverseAngle(A_180), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_225, FormatUtils.inverseAngle(A_45), ANGLE_ACCURACY);
-        Assertions.assertEquals(A_45, FormatUtils.inverseAngle(A_225), ANGLE_ACCURACY);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            FormatUtils.setUnitSystem(-1);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            FormatUtils.setUnitSystem(FormatUtils.UNIT_SYSTEM_NAUTICAL + 1);
+        });
     }
 }
@@ -0,0 +1,233 @@
+/**
+ * Unit tests for GpxWriter class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for GpxWriter class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class GpxWriterTest {
+    /**
+     * Expected document header.
+     */
+    private static final String HEADER
+            = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<gpx version=\"1.1\" creator=\"test\""
+            + " xmlns=\"" + GpxWriter.NAMESPACE + "\""
+            + " xmlns:ariadne=\"" + GpxWriter.EXTENSIONS_NAMESPACE + "\">\n";
+
+    /**
+     * Expected document footer.
+     */
+    private static final String FOOTER = "</gpx>\n";
+
+    /**
+     * 2021-01-02T03:04:05Z in milliseconds since epoch.
+     */
+    private static final long TIME = 1609556645000L;
+
+    /**
+     * Output of the writer.
+     */
+    private ByteArrayOutputStream output;
+
+    /**
+     * Instance of the GpxWriter class.
+     */
+    private GpxWriter writer;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        output = new ByteArrayOutputStream();
+        // small buffer, to test flushing the buffer
+        writer = new GpxWriter(output, "test", 16);
+    }
+
+    /**
+     * Get written document.
+     *
+     * @return document
+     */
+    private String getDocument() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new GpxWriter(null, "test");
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new GpxWriter(output, "test", 4);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            writer.writeWaypoint(null, 91, 0, Double.NaN, 0, Double.NaN);
+        });
+    }
+
+    /**
+     * Tests empty document.
+     */
+    @Test
+    public final void testEmpty() throws IOException {
+        writer.close();
+        Assertions.assertEquals(HEADER + FOOTER, getDocument());
+
+        // closing again has no effect
+        writer.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            writer.beginTrack(null);
+        });
+    }
+
+    /**
+     * Tests writing waypoints.
+     */
+    @Test
+    public final void testWaypoints() throws IOException {
+        writer.writeWaypoint("Home & <garden>", 51.5, -4.1234567891,
+                12.34, TIME, 5);
+        writer.writeWaypoint(null, -0.00000001, 180, Double.NaN, 0,
+                Double.NaN);
+        writer.close();
+
+        Assertions.assertEquals(2, writer.getPointCount());
+        Assertions.assertEquals(HEADER
+                + "<wpt lat=\"51.5000000\" lon=\"-4.1234568\">"
+                + "<ele>12.3</ele><time>2021-01-02T03:04:05Z</time>"
+                + "<name>Home &amp; &lt;garden&gt;</name>"
+                + "<extensions><ariadne:accuracy>5.0</ariadne:accuracy>"
+                + "</extensions></wpt>\n"
+                + "<wpt lat=\"0.0000000\" lon=\"180.0000000\"></wpt>\n"
+                + FOOTER, getDocument());
+    }
+
+    /**
+     * Tests writing a track.
+     */
+    @Test
+    public final void testTrack() throws IOException {
+        writer.writeWaypoint(null, 1, 2, Double.NaN, 0, Double.NaN);
+        writer.beginTrack("Track");
+        writer.writeTrackPoint(1, 2, -3.05, TIME, Double.NaN);
+
+        // waypoints should be written before tracks
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            writer.writeWaypoint(null, 1, 2, Double.NaN, 0, Double.NaN);
+        });
+
+        // track is ended when the writer is closed
+        writer.close();
+        Assertions.assertEquals(HEADER
+                + "<wpt lat=\"1.0000000\" lon=\"2.0000000\"></wpt>\n"
+                + "<trk><name>Track</name><trkseg>\n"
+                + "<trkpt lat=\"1.0000000\" lon=\"2.0000000\">"
+                + "<ele>-3.1</ele><time>2021-01-02T03:04:05Z</time>"
+                + "</trkpt>\n"
+                + "</trkseg></trk>\n"
+                + FOOTER, getDocument());
+    }
+
+    /**
+     * Tests writing a track point without a track.
+     */
+    @Test
+    public final void testTrackPointWithoutTrack() {
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            writer.writeTrackPoint(1, 2, Double.NaN, 0, Double.NaN);
+        });
+    }
+
+    /**
+     * Tests formatting dates.
+     */
+    @Test
+    public final void testTime() throws IOException {
+        // leap day, last second of the day
+        writer.writeWaypoint(null, 0, 0, Double.NaN, 951868799000L,
+                Double.NaN);
+        // first millisecond after epoch
+        writer.writeWaypoint(null, 0, 0, Double.NaN, 1, Double.NaN);
+        writer.close();
+
+        String document = getDocument();
+        Assertions.assertTrue(
+                document.contains("<time>2000-02-29T23:59:59Z</time>"));
+        Assertions.assertTrue(
+                document.contains("<time>1970-01-01T00:00:00Z</time>"));
+    }
+
+    /**
+     * Tests encoding non-ASCII characters as UTF-8.
+     */
+    @Test
+    public final void testEncoding() throws IOException {
+        String name = "Café € 😀\u0001";
+        writer.writeWaypoint(name, 0, 0, Double.NaN, 0, Double.NaN);
+        writer.close();
+
+        // control character is removed
+        Assertions.assertTrue(getDocument().contains(
+                "<name>Café € 😀</name>"));
+    }
+
+    /**
+     * Tests writing an AriadneLocation.
+     */
+    @Test
+    public final void testLocation() throws IOException {
+        AriadneLocation location = mock(AriadneLocation.class);
+        when(location.getLatitude()).thenReturn(50.0);
+        when(location.getLongitude()).thenReturn(4.0);
+        when(location.hasAltitude()).thenReturn(false);
+        when(location.hasAccuracy()).thenReturn(true);
+        when(location.getAccuracy()).thenReturn(7.5f);
+
+        writer.writeWaypoint(location);
+        writer.close();
+
+        Assertions.assertTrue(getDocument().contains(
+                "<wpt lat=\"50.0000000\" lon=\"4.0000000\">"
+                + "<extensions>"
+                + "<ariadne:accuracy>7.5</ariadne:accuracy>"
+                + "</extensions></wpt>"));
+    }
+}
@@ -183,4 +183,17 @@ public class LatitudeTest {
                 latitude.getConvertedValue(),
                 ACCURACY);
     }
+
+    /**
+     * Tests static range check.
+     */
+    @Test
+    public final void testIsValid() {
+        Assertions.assertTrue(Latitude.isValid(VALID_COORDINATE));
+        Assertions.assertTrue(Latitude.isValid(Latitude.SEGMENT_NORTH_HIGH));
+        Assertions.assertTrue(Latitude.isValid(Latitude.SEGMENT_SOUTH_LOW));
+        Assertions.assertFalse(Latitude.isValid(Latitude.SEGMENT_NORTH_HIGH + 0.1));
+        Assertions.assertFalse(Latitude.isValid(Latitude.SEGMENT_SOUTH_LOW - 0.1));
+        Assertions.assertFalse(Latitude.isValid(Double.NaN));
+    }
 }
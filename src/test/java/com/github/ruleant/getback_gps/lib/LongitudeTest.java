@@ -189,4 +189,17 @@ public class LongitudeTest {
                 longitude.getConvertedValue(),
                 ACCURACY);
     }
+
+    /**
+     * Tests static range check.
+     */
+    @Test
+    public final void testIsValid() {
+        Assertions.assertTrue(Longitude.isValid(VALID_COORDINATE));
+        Assertions.assertTrue(Longitude.isValid(Longitude.SEGMENT_EAST_HIGH));
+        Assertions.assertTrue(Longitude.isValid(Longitude.SEGMENT_WEST_LOW));
+        Assertions.assertFalse(Longitude.isValid(Longitude.SEGMENT_EAST_HIGH + 0.1));
+        Assertions.assertFalse(Longitude.isValid(Longitude.SEGMENT_WEST_LOW - 0.1));
+        Assertions.assertFalse(Longitude.isValid(Double.NaN));
+    }
 }
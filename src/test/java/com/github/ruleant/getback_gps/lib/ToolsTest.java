@@ -21,6 +21,7 @@
  */
 package com.github.ruleant.getback_gps.lib;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,15 @@ public class ToolsTest {
         // nothing to set up
     }
 
+    /**
+     * Restores the system clock.
+     * (Called after every test case method.)
+     */
+    @AfterEach
+    public final void tearDown() {
+        Tools.setClock(null);
+    }
+
     /**
      * Test getMax() method.
      */
@@ -164,4 +174,40 @@ public class ToolsTest {
         Assertions.assertFalse(Tools.isTimestampRecent(1, 2, 2));
         Assertions.assertFalse(Tools.isTimestampRecent(0, 2, 2));
     }
+
+    /**
+     * Tests timestamp methods with an injected clock.
+     */
+    @Test
+    public final void testClock() {
+        ManualClock clock = new ManualClock(BIG_VALUE * Tools.MILLI_IN_NANO,
+                BIG_VALUE);
+        Tools.setClock(clock);
+        Assertions.assertSame(clock, Tools.getClock());
+        Assertions.assertEquals(BIG_VALUE * Tools.MILLI_IN_NANO,
+                Tools.getTimestampNano());
+
+        long timestamp = Tools.getTimestampNano();
+        Assertions.assertTrue(Tools.isTimestampNanoRecent(timestamp,
+                SMALL_VALUE * Tools.MILLI_IN_NANO));
+        Assertions.assertTrue(Tools.isTimestampRecent(BIG_VALUE,
+                SMALL_VALUE));
+        Assertions.assertTrue(Tools.isTimeRecent(BIG_VALUE, SMALL_VALUE));
+
+        // expires exactly after the validity
+        clock.advance(SMALL_VALUE);
+        Assertions.assertTrue(Tools.isTimestampNanoRecent(timestamp,
+                SMALL_VALUE * Tools.MILLI_IN_NANO));
+        clock.advanceNano(1);
+        Assertions.assertFalse(Tools.isTimestampNanoRecent(timestamp,
+                SMALL_VALUE * Tools.MILLI_IN_NANO));
+        clock.advance(1);
+        Assertions.assertFalse(Tools.isTimestampRecent(BIG_VALUE,
+                SMALL_VALUE));
+        Assertions.assertFalse(Tools.isTimeRecent(BIG_VALUE, SMALL_VALUE));
+
+        // null restores the system clock
+        Tools.setClock(null);
+        Assertions.assertTrue(Tools.getClock() instanceof AndroidClock);
+    }
 }
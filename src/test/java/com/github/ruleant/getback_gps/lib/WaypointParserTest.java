@@ -0,0 +1,209 @@
+/**
+ * Unit tests for WaypointParser class
+ *
+ * Copyright (C) 2021 Dieter Adriaenssens
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package com.github.ruleant.getback_gps
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+package com.github.ruleant.getback_gps.lib;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kxml2.io.KXmlParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for WaypointParser class.
+ *
+ * @author  Dieter Adriaenssens <ruleant@users.sourceforge.net>
+ */
+public class WaypointParserTest {
+    /**
+     * Accuracy of assertions.
+     */
+    private static final double ASSERT_ACCURACY = 0.0000001;
+
+    /**
+     * Parsed waypoint names.
+     */
+    private List<String> names;
+
+    /**
+     * Parsed waypoints, as latitude, longitude, altitude.
+     */
+    private List<double[]> waypoints;
+
+    /**
+     * Instance of the WaypointParser class.
+     */
+    private WaypointParser parser;
+
+    /**
+     * Sets up the test fixture.
+     * (Called before every test case method.)
+     */
+    @BeforeEach
+    public final void setUp() {
+        names = new ArrayList<String>();
+        waypoints = new ArrayList<double[]>();
+        parser = new WaypointParser(
+                (name, latitude, longitude, altitude) -> {
+                    names.add(name);
+                    waypoints.add(
+                            new double[] {latitude, longitude, altitude});
+                });
+    }
+
+    /**
+     * Parses a document.
+     *
+     * @param document XML document
+     * @return number of parsed waypoints
+     * @throws XmlPullParserException if document is not valid XML
+     * @throws IOException if document could not be read
+     */
+    private long parse(final String document)
+            throws XmlPullParserException, IOException {
+        InputStream input = new ByteArrayInputStream(
+                document.getBytes(StandardCharsets.UTF_8));
+        return parser.parse(new KXmlParser(), input);
+    }
+
+    /**
+     * Tests invalid parameters.
+     */
+    @Test
+    public final void testParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            new WaypointParser(null);
+        });
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            parser.parse(new KXmlParser(), null);
+        });
+    }
+
+    /**
+     * Tests parsing GPX waypoints.
+     */
+    @Test
+    public final void testGpx() throws Exception {
+        long count = parse("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<gpx version=\"1.1\" creator=\"test\""
+                + " xmlns=\"http://www.topografix.com/GPX/1/1\">"
+                + "<metadata><name>Document</name></metadata>"
+                + "<wpt lat=\"51.5\" lon=\"4.25\">"
+                + "<ele>12.5</ele><name> Home </name></wpt>"
+                + "<wpt lat=\"-33.9\" lon=\"151.2\"/>"
+                + "<trk><name>Track</name><trkseg>"
+                + "<trkpt lat=\"1\" lon=\"2\"/></trkseg></trk>"
+                + "</gpx>");
+
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(0, parser.getSkippedCount());
+        Assertions.assertEquals("Home", names.get(0));
+        Assertions.assertEquals(51.5, waypoints.get(0)[0], ASSERT_ACCURACY);
+        Assertions.assertEquals(4.25, waypoints.get(0)[1], ASSERT_ACCURACY);
+        Assertions.assertEquals(12.5, waypoints.get(0)[2], ASSERT_ACCURACY);
+        Assertions.assertNull(names.get(1));
+        Assertions.assertTrue(Double.isNaN(waypoints.get(1)[2]));
+    }
+
+    /**
+     * Tests parsing KML placemarks.
+     */
+    @Test
+    public final void testKml() throws Exception {
+        long count = parse("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document>"
+                + "<name>Document</name>"
+                + "<Placemark><name>Tower</name><Point>"
+                + "<coordinates> 4.3517,50.8466,56 </coordinates>"
+                + "</Point></Placemark>"
+                + "<Folder><Placemark><name>Bridge</name><Point>"
+                + "<coordinates>-0.0754,51.5055</coordinates>"
+                + "</Point></Placemark></Folder>"
+                + "<Placemark><name>Route</name><LineString>"
+                + "<coordinates>1,2 3,4</coordinates>"
+                + "</LineString></Placemark>"
+                + "</Document></kml>");
+
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals("Tower", names.get(0));
+        Assertions.assertEquals(50.8466, waypoints.get(0)[0], ASSERT_ACCURACY);
+        Assertions.assertEquals(4.3517, waypoints.get(0)[1], ASSERT_ACCURACY);
+        Assertions.assertEquals(56, waypoints.get(0)[2], ASSERT_ACCURACY);
+        Assertions.assertEquals("Bridge", names.get(1));
+        Assertions.assertTrue(Double.isNaN(waypoints.get(1)[2]));
+
+        // placemark without a point is ignored, not an invalid location
+        Assertions.assertEquals(0, parser.getSkippedCount());
+        Assertions.assertEquals(1, parser.getIgnoredCount());
+    }
+
+    /**
+     * Tests skipping waypoints with an invalid location.
+     */
+    @Test
+    public final void testInvalidLocation() throws Exception {
+        long count = parse("<gpx>"
+                + "<wpt lat=\"91\" lon=\"4\"/>"
+                + "<wpt lat=\"51\" lon=\"-180.5\"/>"
+                + "<wpt lat=\"abc\" lon=\"4\"/>"
+                + "<wpt lon=\"4\"/>"
+                + "<wpt lat=\"-90\" lon=\"180\"/>"
+                + "</gpx>");
+
+        Assertions.assertEquals(1, count);
+        Assertions.assertEquals(4, parser.getSkippedCount());
+        Assertions.assertEquals(0, parser.getIgnoredCount());
+    }
+
+    /**
+     * Tests invalid XML.
+     */
+    @Test
+    public final void testInvalidXml() {
+        Assertions.assertThrows(XmlPullParserException.class, () -> {
+            parse("<gpx><wpt lat=\"1\" lon=\"2\"></gpx>");
+        });
+    }
+
+    /**
+     * Tests cancelling the parser.
+     */
+    @Test
+    public final void testCancel() throws Exception {
+        parser = new WaypointParser(
+                (name, latitude, longitude, altitude) -> parser.cancel());
+
+        long count = parse("<gpx>"
+                + "<wpt lat=\"1\" lon=\"2\"/>"
+                + "<wpt lat=\"3\" lon=\"4\"/>"
+                + "</gpx>");
+
+        Assertions.assertEquals(1, count);
+        Assertions.assertTrue(parser.isCancelled());
+    }
+}